@@ -30,6 +30,7 @@ import org.jkiss.dbeaver.model.app.*;
 import org.jkiss.dbeaver.model.impl.app.DefaultCertificateStorage;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.qm.QMController;
+import org.jkiss.dbeaver.model.qm.QMEventBrowser;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
@@ -38,6 +39,7 @@ import org.jkiss.dbeaver.registry.BasePlatformImpl;
 import org.jkiss.dbeaver.registry.DataSourceProviderRegistry;
 import org.jkiss.dbeaver.runtime.SecurityProviderUtils;
 import org.jkiss.dbeaver.runtime.qm.QMControllerImpl;
+import org.jkiss.dbeaver.runtime.qm.QMHistoryStore;
 import org.jkiss.dbeaver.runtime.qm.QMLogFileWriter;
 import org.jkiss.dbeaver.ui.resources.DefaultResourceHandlerImpl;
 import org.jkiss.dbeaver.utils.ContentUtils;
@@ -59,6 +61,7 @@ public class DBeaverCore extends BasePlatformImpl {
     public static final String PLUGIN_ID = "org.jkiss.dbeaver.core"; //$NON-NLS-1$
 
     private static final String TEMP_PROJECT_NAME = ".dbeaver-temp"; //$NON-NLS-1$
+    private static final String QM_HISTORY_FOLDER = "query-history"; //$NON-NLS-1$
 
     private static final Log log = Log.getLog(DBeaverCore.class);
 
@@ -71,6 +74,8 @@ public class DBeaverCore extends BasePlatformImpl {
     private DBeaverWorkspace workspace;
     private QMControllerImpl queryManager;
     private QMLogFileWriter qmLogWriter;
+    private QMHistoryStore qmHistoryStore;
+    private QMEventBrowser qmPrevEventBrowser;
     private DBACertificateStorage certificateStorage;
 
     private static boolean disposed = false;
@@ -163,6 +168,17 @@ public class DBeaverCore extends BasePlatformImpl {
         this.qmLogWriter = new QMLogFileWriter();
         this.queryManager.registerMetaListener(qmLogWriter);
 
+        try {
+            this.qmHistoryStore = new QMHistoryStore(new File(workspace.getMetadataFolder(), QM_HISTORY_FOLDER));
+            this.queryManager.registerMetaListener(qmHistoryStore);
+            if (!this.queryManager.hasCustomEventBrowser()) {
+                // Do not override history browser provided by extensions
+                this.qmPrevEventBrowser = this.queryManager.setEventBrowser(qmHistoryStore);
+            }
+        } catch (IOException e) {
+            log.error("Can't open query history store", e);
+        }
+
         super.initialize();
 
         log.debug("Core initialized (" + (System.currentTimeMillis() - startTime) + "ms)");
@@ -188,6 +204,15 @@ public class DBeaverCore extends BasePlatformImpl {
             this.qmLogWriter.dispose();
             this.qmLogWriter = null;
         }
+        if (this.qmHistoryStore != null) {
+            this.queryManager.unregisterMetaListener(qmHistoryStore);
+            if (this.qmPrevEventBrowser != null) {
+                this.queryManager.setEventBrowser(qmPrevEventBrowser);
+                this.qmPrevEventBrowser = null;
+            }
+            this.qmHistoryStore.close();
+            this.qmHistoryStore = null;
+        }
         if (this.queryManager != null) {
             this.queryManager.dispose();
             //queryManager = null;
@@ -18,11 +18,15 @@ package org.jkiss.dbeaver.ui.gis.panel;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.action.ToolBarManager;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.browser.BrowserFunction;
 import org.eclipse.swt.dnd.Clipboard;
 import org.eclipse.swt.dnd.ImageTransfer;
 import org.eclipse.swt.dnd.Transfer;
@@ -35,6 +39,7 @@ import org.eclipse.swt.widgets.*;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.data.gis.handlers.GeometryConverter;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDContent;
@@ -65,13 +70,16 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.IOUtils;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class GISLeafletViewer implements IGeometryValueEditor {
 
@@ -84,6 +92,9 @@ public class GISLeafletViewer implements IGeometryValueEditor {
     private static final String PROP_FLIP_COORDINATES = "gis.flipCoords";
     private static final String PROP_SRID = "gis.srid";
 
+    // Number of cluster cells per tile side
+    private static final int TILE_CLUSTER_GRID_SIZE = 4;
+
     private static final Gson gson = new GsonBuilder()
             .registerTypeHierarchyAdapter(DBDContent.class, new DBDContentAdapter()).create();
 
@@ -93,6 +104,14 @@ public class GISLeafletViewer implements IGeometryValueEditor {
     private int sourceSRID; // Explicitly set SRID
     private int actualSourceSRID; // SRID taken from geometry value
     private File scriptFile;
+    private File staticScriptFile;
+    private GisFeatureIndex featureIndex = new GisFeatureIndex();
+    private final List<String> featureTips = new ArrayList<>();
+    private final List<String> rawValues = new ArrayList<>();
+    private final List<String> rawValueTips = new ArrayList<>();
+    // Features rendered at the current zoom level
+    private final Set<Integer> renderedFeatures = new HashSet<>();
+    private boolean showMap;
     private final ToolBarManager toolBarManager;
     private int defaultSRID; // Target SRID used to render map
 
@@ -113,6 +132,17 @@ public class GISLeafletViewer implements IGeometryValueEditor {
             cleanupFiles();
         });
         browser.setLayoutData(new GridData(GridData.FILL_BOTH));
+        new BrowserFunction(browser, "dbeaverLoadTiles") {
+            @Override
+            public Object function(Object[] arguments) {
+                try {
+                    return loadTiles(arguments);
+                } catch (Exception e) {
+                    log.debug("Error loading geometry tiles", e);
+                    return null;
+                }
+            }
+        };
 
         {
             Composite bottomPanel = UIUtils.createPlaceholder(composite, 1);//new Composite(composite, SWT.NONE);
@@ -211,22 +241,14 @@ public class GISLeafletViewer implements IGeometryValueEditor {
         if (!force && CommonUtils.equalObjects(lastValue, values)) {
             return;
         }
-        int maxObjects = GISViewerActivator.getDefault().getPreferences().getInt(GeometryViewerConstants.PREF_MAX_OBJECTS_RENDER);
-        if (maxObjects <= 0) {
-            maxObjects = GeometryViewerConstants.DEFAULT_MAX_OBJECTS_RENDER;
-        }
-        if (values != null && values.length > maxObjects) {
-            // Truncate value list
-            DBGeometry[] truncValues = new DBGeometry[maxObjects];
-            System.arraycopy(values, 0, truncValues, 0, maxObjects);
-            values = truncValues;
-        }
         if (browser != null) {
             try {
                 if (ArrayUtils.isEmpty(values)) {
+                    loadFeatures(new DBGeometry[0]);
                     browser.setUrl("about:blank");
                 } else {
-                    File file = generateViewScript(values);
+                    loadFeatures(values);
+                    File file = generateViewScript();
                     browser.setUrl(file.toURI().toURL().toString());
                 }
             } catch (IOException e) {
@@ -237,16 +259,19 @@ public class GISLeafletViewer implements IGeometryValueEditor {
         updateToolbar();
     }
 
-    private File generateViewScript(DBGeometry[] values) throws IOException {
-        if (scriptFile == null) {
-            File tempDir = DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), "gis-viewer-files");
-            checkIncludesExistence(tempDir);
-
-            scriptFile = File.createTempFile("view", "gis.html", tempDir);
-        }
+    /**
+     * Transforms values to the map CRS and builds spatial index.
+     * Values which can't be parsed are kept as is and rendered by the browser directly.
+     */
+    private void loadFeatures(DBGeometry[] values) {
+        featureIndex = new GisFeatureIndex();
+        featureTips.clear();
+        rawValues.clear();
+        rawValueTips.clear();
+        renderedFeatures.clear();
 
         int attributeSrid = GisConstants.SRID_SIMPLE;
-        if (valueController != null && valueController.getValueType() instanceof GisAttribute) {
+        if (values.length > 0 && valueController != null && valueController.getValueType() instanceof GisAttribute) {
             try {
                 attributeSrid = ((GisAttribute) valueController.getValueType())
                         .getAttributeGeometrySRID(new VoidProgressMonitor());
@@ -255,8 +280,6 @@ public class GISLeafletViewer implements IGeometryValueEditor {
             }
         }
 
-        List<String> geomValues = new ArrayList<>();
-        List<String> geomTipValues = new ArrayList<>();
         boolean showMap = false;
         for (int i = 0; i < values.length; i++) {
             DBGeometry value = values[i];
@@ -304,33 +327,107 @@ public class GISLeafletViewer implements IGeometryValueEditor {
             if (targetValue == null) {
                 continue;
             }
-            geomValues.add("'" + targetValue + "'");
-            try {
-                if (CommonUtils.isEmpty(value.getProperties())) {
-                    geomTipValues.add("null");
-                } else {
-                    Map<String, Object> simplifiedProperties = new LinkedHashMap<>();
-                    for (Map.Entry<String, Object> pe : value.getProperties().entrySet()) {
-                        Object pv = pe.getValue();
-                        if (pv instanceof String || pv instanceof Number || pv instanceof Boolean || pv == null) {
-                            // No changes
-                        } else if (pv instanceof Map) {
-                            simplifiedProperties.putAll((Map<? extends String, ?>) pv);
-                        } else {
-                            pv = CommonUtils.toString(pv);
-                        }
-                        simplifiedProperties.put(pe.getKey(), pv);
-                    }
-                    geomTipValues.add(gson.toJson(simplifiedProperties));
+            String tip = getGeometryTip(value);
+            Geometry targetGeometry = null;
+            if (targetValue instanceof Geometry) {
+                targetGeometry = (Geometry) targetValue;
+            } else {
+                try {
+                    targetGeometry = GeometryConverter.getInstance().fromWKT(CommonUtils.toString(targetValue));
+                } catch (IllegalArgumentException e) {
+                    // Not a plain WKT (e.g. EWKT or WKB). Let the browser parse it.
                 }
-            } catch (Exception e) {
-                log.debug(e);
+            }
+            if (targetGeometry != null) {
+                featureIndex.addFeature(targetGeometry);
+                featureTips.add(tip);
+            } else {
+                rawValues.add(CommonUtils.toString(targetValue));
+                rawValueTips.add(tip);
             }
         }
         this.defaultSRID = actualSourceSRID;
-        String geomValuesString = String.join(",", geomValues);
+        this.showMap = showMap;
+    }
+
+    private String getGeometryTip(DBGeometry value) {
+        try {
+            if (!CommonUtils.isEmpty(value.getProperties())) {
+                Map<String, Object> simplifiedProperties = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> pe : value.getProperties().entrySet()) {
+                    Object pv = pe.getValue();
+                    if (pv instanceof String || pv instanceof Number || pv instanceof Boolean || pv == null) {
+                        // No changes
+                    } else if (pv instanceof Map) {
+                        simplifiedProperties.putAll((Map<? extends String, ?>) pv);
+                    } else {
+                        pv = CommonUtils.toString(pv);
+                    }
+                    simplifiedProperties.put(pe.getKey(), pv);
+                }
+                return gson.toJson(simplifiedProperties);
+            }
+        } catch (Exception e) {
+            log.debug(e);
+        }
+        return "null";
+    }
+
+    /**
+     * Generates script for the embedded browser. Indexed features are loaded per viewport tile.
+     */
+    private File generateViewScript() throws IOException {
+        if (scriptFile == null) {
+            scriptFile = createScriptFile();
+        }
+        writeViewScript(scriptFile, rawValues, rawValueTips, true);
+        return scriptFile;
+    }
+
+    /**
+     * Generates standalone script for the external browser. All features are embedded in the script
+     * (up to the maximum objects number).
+     */
+    private File generateStaticViewScript() throws IOException {
+        if (staticScriptFile == null) {
+            staticScriptFile = createScriptFile();
+        }
+        int maxObjects = GISViewerActivator.getDefault().getPreferences().getInt(GeometryViewerConstants.PREF_MAX_OBJECTS_RENDER);
+        if (maxObjects <= 0) {
+            maxObjects = GeometryViewerConstants.DEFAULT_MAX_OBJECTS_RENDER;
+        }
+        List<String> geomValues = new ArrayList<>();
+        List<String> geomTipValues = new ArrayList<>();
+        for (int i = 0; i < featureIndex.size() && geomValues.size() < maxObjects; i++) {
+            geomValues.add(featureIndex.getGeometry(i).toText());
+            geomTipValues.add(featureTips.get(i));
+        }
+        for (int i = 0; i < rawValues.size() && geomValues.size() < maxObjects; i++) {
+            geomValues.add(rawValues.get(i));
+            geomTipValues.add(rawValueTips.get(i));
+        }
+        writeViewScript(staticScriptFile, geomValues, geomTipValues, false);
+        return staticScriptFile;
+    }
+
+    private File createScriptFile() throws IOException {
+        File tempDir = DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), "gis-viewer-files");
+        checkIncludesExistence(tempDir);
+
+        return File.createTempFile("view", "gis.html", tempDir);
+    }
+
+    private void writeViewScript(File file, List<String> geomValues, List<String> geomTipValues, boolean tiledMode) throws IOException {
+        StringBuilder geomValuesString = new StringBuilder();
+        for (String geomValue : geomValues) {
+            if (geomValuesString.length() > 0) geomValuesString.append(",");
+            geomValuesString.append("'").append(geomValue).append("'");
+        }
         String geomTipValuesString = String.join(",", geomTipValues);
         String geomCRS = actualSourceSRID == GisConstants.SRID_SIMPLE ? GisConstants.LL_CRS_SIMPLE : GisConstants.LL_CRS_3857;
+        Envelope bounds = featureIndex.getBounds();
+        String geomBounds = !tiledMode || bounds.isNull() ? "null" :
+            "[[" + bounds.getMinY() + "," + bounds.getMinX() + "],[" + bounds.getMaxY() + "," + bounds.getMaxX() + "]]";
         boolean isShowMap = showMap;
 
         InputStream fis = GISViewerActivator.getDefault().getResourceStream(GISBrowserViewerConstants.VIEW_TEMPLATE_PATH);
@@ -342,11 +439,17 @@ public class GISLeafletViewer implements IGeometryValueEditor {
             viewTemplate = GeneralUtils.replaceVariables(viewTemplate, name -> {
                 switch (name) {
                     case "geomValues":
-                        return geomValuesString;
+                        return geomValuesString.toString();
                     case "geomTipValues":
-                        return String.valueOf(geomTipValuesString);
+                        return geomTipValuesString;
                     case "geomSRID":
                         return String.valueOf(defaultSRID);
+                    case "geomBounds":
+                        return geomBounds;
+                    case "tiledMode":
+                        return String.valueOf(tiledMode);
+                    case "tileSize":
+                        return String.valueOf(GisFeatureIndex.TILE_SIZE);
                     case "showMap":
                         return String.valueOf(isShowMap);
                     case "showTools":
@@ -358,14 +461,68 @@ public class GISLeafletViewer implements IGeometryValueEditor {
                 }
                 return null;
             });
-            try (FileOutputStream fos = new FileOutputStream(scriptFile)) {
+            try (FileOutputStream fos = new FileOutputStream(file)) {
                 fos.write(viewTemplate.getBytes(GeneralUtils.UTF8_CHARSET));
             }
         } finally {
             ContentUtils.close(fis);
         }
+    }
 
-        return scriptFile;
+    /**
+     * Called by the map page when viewport changes.
+     * Arguments: zoom level, reset flag (page cleared all rendered features), flat array of tile bounds
+     * (south, west, north, east). Returns JSON with features and clusters to render.
+     */
+    private String loadTiles(Object[] arguments) {
+        int zoom = ((Number) arguments[0]).intValue();
+        boolean reset = Boolean.TRUE.equals(arguments[1]);
+        Object[] tileBounds = (Object[]) arguments[2];
+        if (reset) {
+            renderedFeatures.clear();
+        }
+        List<Envelope> tiles = new ArrayList<>();
+        for (int i = 0; i + 3 < tileBounds.length; i += 4) {
+            double south = ((Number) tileBounds[i]).doubleValue();
+            double west = ((Number) tileBounds[i + 1]).doubleValue();
+            double north = ((Number) tileBounds[i + 2]).doubleValue();
+            double east = ((Number) tileBounds[i + 3]).doubleValue();
+            tiles.add(new Envelope(west, east, south, north));
+        }
+        GisTileContent content = featureIndex.queryTiles(zoom, tiles, TILE_CLUSTER_GRID_SIZE, renderedFeatures);
+
+        JsonArray features = new JsonArray();
+        for (int i = 0; i < content.getFeatureCount(); i++) {
+            JsonObject feature = new JsonObject();
+            feature.addProperty("wkt", content.getGeometry(i).toText());
+            // Tips are serialized once when features are loaded
+            feature.add("tip", gson.fromJson(featureTips.get(content.getFeatureId(i)), JsonElement.class));
+            features.add(feature);
+        }
+        JsonArray clusters = new JsonArray();
+        for (GisFeatureCluster cluster : content.getClusters()) {
+            Envelope bounds = cluster.getBounds();
+            JsonObject clusterJson = new JsonObject();
+            clusterJson.addProperty("lat", cluster.getY());
+            clusterJson.addProperty("lng", cluster.getX());
+            clusterJson.addProperty("count", cluster.getCount());
+            JsonArray boundsJson = new JsonArray();
+            boundsJson.add(makeLatLng(bounds.getMinY(), bounds.getMinX()));
+            boundsJson.add(makeLatLng(bounds.getMaxY(), bounds.getMaxX()));
+            clusterJson.add("bounds", boundsJson);
+            clusters.add(clusterJson);
+        }
+        JsonObject result = new JsonObject();
+        result.add("features", features);
+        result.add("clusters", clusters);
+        return gson.toJson(result);
+    }
+
+    private static JsonArray makeLatLng(double lat, double lng) {
+        JsonArray latLng = new JsonArray();
+        latLng.add(lat);
+        latLng.add(lng);
+        return latLng;
     }
 
     private void checkIncludesExistence(File scriptDir) throws IOException {
@@ -392,9 +549,9 @@ public class GISLeafletViewer implements IGeometryValueEditor {
     }
 
     private void cleanupFiles() {
-        if (scriptFile != null) {
-            if (!scriptFile.delete()) {
-                log.debug("Can't delete temp script file '" + scriptFile.getAbsolutePath() + "'");
+        for (File file : new File[] { scriptFile, staticScriptFile }) {
+            if (file != null && !file.delete()) {
+                log.debug("Can't delete temp script file '" + file.getAbsolutePath() + "'");
             }
         }
     }
@@ -416,7 +573,11 @@ public class GISLeafletViewer implements IGeometryValueEditor {
         toolBarManager.add(new Action(GISMessages.panel_leaflet_viewer_tool_bar_action_text_open, DBeaverIcons.getImageDescriptor(UIIcon.BROWSER)) {
             @Override
             public void run() {
-                UIUtils.launchProgram(scriptFile.getAbsolutePath());
+                try {
+                    UIUtils.launchProgram(generateStaticViewScript().getAbsolutePath());
+                } catch (IOException e) {
+                    DBWorkbench.getPlatformUI().showError("Open in browser", "Error generating viewer script", e);
+                }
             }
         });
         toolBarManager.add(new Action(GISMessages.panel_leaflet_viewer_tool_bar_action_text_copy_as, DBeaverIcons.getImageDescriptor(UIIcon.PICTURE)) {
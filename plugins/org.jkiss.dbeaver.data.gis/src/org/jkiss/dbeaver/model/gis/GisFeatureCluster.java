@@ -0,0 +1,59 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Group of small features collapsed into a single marker at the current zoom level.
+ */
+public class GisFeatureCluster {
+
+    private final Envelope bounds = new Envelope();
+    private double sumX;
+    private double sumY;
+    private int count;
+
+    void addFeature(double x, double y, Envelope featureBounds) {
+        sumX += x;
+        sumY += y;
+        count++;
+        bounds.expandToInclude(featureBounds);
+    }
+
+    /**
+     * Average position of clustered features
+     */
+    public double getX() {
+        return count == 0 ? 0 : sumX / count;
+    }
+
+    public double getY() {
+        return count == 0 ? 0 : sumY / count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Envelope of all clustered features. Zooming to it splits the cluster.
+     */
+    public Envelope getBounds() {
+        return bounds;
+    }
+}
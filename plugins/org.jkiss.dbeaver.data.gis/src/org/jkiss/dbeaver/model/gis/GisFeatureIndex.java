@@ -0,0 +1,210 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+
+import java.util.*;
+
+/**
+ * Spatial index over geometry features.
+ * Serves viewport tiles: large features are simplified according to the zoom level,
+ * features smaller than a few pixels are clustered.
+ *
+ * All features must be added before the first query (STR tree can't be modified once built).
+ */
+public class GisFeatureIndex {
+
+    // Leaflet tile size in pixels
+    public static final int TILE_SIZE = 256;
+
+    // Features smaller than this (in pixels) are rendered as points and may be clustered
+    private static final double MIN_FEATURE_PIXELS = 3;
+    // Maximum distance (in pixels) between the source and simplified geometry
+    private static final double SIMPLIFY_TOLERANCE_PIXELS = 0.5;
+    // Geometries with fewer vertices are rendered as is
+    private static final int MIN_SIMPLIFY_POINTS = 16;
+    // Simplified geometries are cached for a few most recently used zoom levels of each feature
+    private static final int MAX_CACHED_ZOOM_LEVELS = 3;
+
+    private static class Feature {
+        final int id;
+        final Geometry geometry;
+        final Envelope bounds;
+        Map<Integer, Geometry> simplified;
+
+        Feature(int id, Geometry geometry) {
+            this.id = id;
+            this.geometry = geometry;
+            this.bounds = geometry.getEnvelopeInternal();
+        }
+
+        Geometry getGeometry(int zoom, double pixelSize) {
+            if (geometry.getNumPoints() < MIN_SIMPLIFY_POINTS) {
+                return geometry;
+            }
+            if (simplified == null) {
+                simplified = new LinkedHashMap<Integer, Geometry>(MAX_CACHED_ZOOM_LEVELS + 1, 1.0f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, Geometry> eldest) {
+                        return size() > MAX_CACHED_ZOOM_LEVELS;
+                    }
+                };
+            }
+            Geometry result = simplified.get(zoom);
+            if (result == null) {
+                result = simplifyGeometry(geometry, pixelSize * SIMPLIFY_TOLERANCE_PIXELS);
+                simplified.put(zoom, result);
+            }
+            return result;
+        }
+
+        double getCenterX() {
+            return (bounds.getMinX() + bounds.getMaxX()) / 2;
+        }
+
+        double getCenterY() {
+            return (bounds.getMinY() + bounds.getMaxY()) / 2;
+        }
+    }
+
+    private final List<Feature> features = new ArrayList<>();
+    private final STRtree index = new STRtree();
+    private final Envelope bounds = new Envelope();
+
+    /**
+     * Adds feature to the index.
+     * @return feature id
+     */
+    public int addFeature(Geometry geometry) {
+        Feature feature = new Feature(features.size(), geometry);
+        features.add(feature);
+        // Empty geometries have null envelope and are ignored by index
+        index.insert(feature.bounds, feature);
+        bounds.expandToInclude(feature.bounds);
+        return feature.id;
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    public Geometry getGeometry(int featureId) {
+        return features.get(featureId).geometry;
+    }
+
+    /**
+     * Envelope of all features. Null envelope if index is empty.
+     */
+    public Envelope getBounds() {
+        return new Envelope(bounds);
+    }
+
+    /**
+     * Collects content of the specified tiles.
+     *
+     * @param zoom             map zoom level. Simplified geometries are cached per zoom.
+     * @param tiles            tile bounds, each tile is {@link #TILE_SIZE} pixels wide.
+     * @param clusterGridSize  number of cluster cells per tile side. Zero disables clustering.
+     * @param renderedFeatures ids of features which were already rendered at this zoom level.
+     *                         Ids of all returned features are added to this set.
+     */
+    public GisTileContent queryTiles(int zoom, Collection<Envelope> tiles, int clusterGridSize, Set<Integer> renderedFeatures) {
+        GisTileContent content = new GisTileContent();
+        for (Envelope tile : tiles) {
+            queryTile(content, zoom, tile, clusterGridSize, renderedFeatures);
+        }
+        return content;
+    }
+
+    private void queryTile(GisTileContent content, int zoom, Envelope tile, int clusterGridSize, Set<Integer> renderedFeatures) {
+        double pixelSize = Math.min(tile.getWidth(), tile.getHeight()) / TILE_SIZE;
+        if (tile.isNull() || pixelSize <= 0) {
+            return;
+        }
+        double minFeatureSize = pixelSize * MIN_FEATURE_PIXELS;
+        Map<Integer, List<Feature>> cells = new LinkedHashMap<>();
+        for (Object item : index.query(tile)) {
+            Feature feature = (Feature) item;
+            if (renderedFeatures.contains(feature.id)) {
+                continue;
+            }
+            if (feature.bounds.getWidth() >= minFeatureSize || feature.bounds.getHeight() >= minFeatureSize) {
+                addFeature(content, feature, zoom, pixelSize, renderedFeatures);
+                continue;
+            }
+            // Small feature belongs to the tile which contains its center. This way it never appears twice.
+            double x = feature.getCenterX(), y = feature.getCenterY();
+            if (x < tile.getMinX() || x >= tile.getMaxX() || y < tile.getMinY() || y >= tile.getMaxY()) {
+                continue;
+            }
+            if (clusterGridSize <= 0) {
+                addFeature(content, feature, zoom, pixelSize, renderedFeatures);
+                continue;
+            }
+            int cellX = Math.min(clusterGridSize - 1, (int) ((x - tile.getMinX()) / tile.getWidth() * clusterGridSize));
+            int cellY = Math.min(clusterGridSize - 1, (int) ((y - tile.getMinY()) / tile.getHeight() * clusterGridSize));
+            cells.computeIfAbsent(cellY * clusterGridSize + cellX, k -> new ArrayList<>()).add(feature);
+        }
+
+        for (List<Feature> cell : cells.values()) {
+            GisFeatureCluster cluster = new GisFeatureCluster();
+            for (Feature feature : cell) {
+                cluster.addFeature(feature.getCenterX(), feature.getCenterY(), feature.bounds);
+            }
+            if (cell.size() == 1 || (cluster.getBounds().getWidth() < pixelSize && cluster.getBounds().getHeight() < pixelSize)) {
+                // Single feature or features at the same location - zooming in wouldn't split them
+                for (Feature feature : cell) {
+                    addFeature(content, feature, zoom, pixelSize, renderedFeatures);
+                }
+            } else {
+                content.addCluster(cluster);
+            }
+        }
+    }
+
+    private static void addFeature(GisTileContent content, Feature feature, int zoom, double pixelSize, Set<Integer> renderedFeatures) {
+        renderedFeatures.add(feature.id);
+        content.addFeature(feature.id, feature.getGeometry(zoom, pixelSize));
+    }
+
+    /**
+     * Simplifies geometry with the specified distance tolerance.
+     * Polygonal geometries are simplified with topology preserving simplifier (so rings don't collapse
+     * or intersect), others with Douglas-Peucker algorithm.
+     */
+    public static Geometry simplifyGeometry(Geometry geometry, double tolerance) {
+        if (tolerance <= 0 || geometry.getDimension() == 0) {
+            return geometry;
+        }
+        Geometry result;
+        if (geometry.getDimension() == 2) {
+            result = TopologyPreservingSimplifier.simplify(geometry, tolerance);
+        } else {
+            result = DouglasPeuckerSimplifier.simplify(geometry, tolerance);
+        }
+        if (result == null || result.isEmpty()) {
+            return geometry;
+        }
+        result.setSRID(geometry.getSRID());
+        return result;
+    }
+}
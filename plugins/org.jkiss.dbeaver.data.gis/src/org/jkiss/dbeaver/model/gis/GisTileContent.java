@@ -0,0 +1,67 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Features and clusters which must be rendered for a set of viewport tiles.
+ */
+public class GisTileContent {
+
+    private final List<Integer> featureIds = new ArrayList<>();
+    private final List<Geometry> geometries = new ArrayList<>();
+    private final List<GisFeatureCluster> clusters = new ArrayList<>();
+
+    void addFeature(int featureId, Geometry geometry) {
+        featureIds.add(featureId);
+        geometries.add(geometry);
+    }
+
+    void addCluster(GisFeatureCluster cluster) {
+        clusters.add(cluster);
+    }
+
+    public int getFeatureCount() {
+        return featureIds.size();
+    }
+
+    /**
+     * Feature index as returned by {@link GisFeatureIndex#addFeature(Geometry)}
+     */
+    public int getFeatureId(int index) {
+        return featureIds.get(index);
+    }
+
+    /**
+     * Feature geometry simplified for the requested zoom level
+     */
+    public Geometry getGeometry(int index) {
+        return geometries.get(index);
+    }
+
+    public List<GisFeatureCluster> getClusters() {
+        return clusters;
+    }
+
+    public boolean isEmpty() {
+        return featureIds.isEmpty() && clusters.isEmpty();
+    }
+}
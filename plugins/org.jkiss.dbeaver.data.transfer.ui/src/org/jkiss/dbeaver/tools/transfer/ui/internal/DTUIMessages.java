@@ -45,6 +45,8 @@ public class DTUIMessages extends NLS {
 	public static String database_consumer_wizard_performance_group_label;
 	public static String database_consumer_wizard_transactions_checkbox_label;
 	public static String database_consumer_wizard_commit_spinner_label;
+	public static String database_consumer_wizard_writer_threads_spinner_label;
+	public static String database_consumer_wizard_writer_threads_spinner_tooltip;
 	public static String database_consumer_wizard_general_group_label;
 	public static String database_consumer_wizard_table_checkbox_label;
 	public static String database_consumer_wizard_final_message_checkbox_label;
@@ -52,6 +54,8 @@ public class DTUIMessages extends NLS {
 	public static String database_consumer_wizard_truncate_checkbox_question;
 	public static String database_consumer_wizard_disable_import_batches_label;
 	public static String database_consumer_wizard_disable_import_batches_description;
+	public static String database_consumer_wizard_use_bulk_load_label;
+	public static String database_consumer_wizard_use_bulk_load_description;
 	public static String database_consumer_wizard_on_duplicate_key_insert_method_text;
 	public static String database_consumer_wizard_link_label_replace_method_wiki;
 	
@@ -87,6 +91,9 @@ public class DTUIMessages extends NLS {
 	public static String database_producer_page_extract_settings_row_count_checkbox_tooltip;
 	public static String database_producer_page_extract_settings_text_fetch_size_label;
 	public static String database_producer_page_extract_settings_text_fetch_size_tooltip;
+	public static String database_producer_page_extract_settings_partition_column_tooltip;
+	public static String database_producer_page_extract_settings_partition_parallelism_tooltip;
+	public static String database_producer_page_extract_settings_partition_ordered_tooltip;
 
 	public static String database_producer_page_input_objects_name;
 	public static String database_producer_page_input_objects_title;
@@ -98,6 +105,9 @@ public class DTUIMessages extends NLS {
 
 	public static String stream_consumer_page_output_checkbox_execute_process;
 	public static String stream_consumer_page_output_label_maximum_file_size;
+	public static String stream_consumer_page_output_checkbox_split_compressed_size;
+	public static String stream_consumer_page_output_checkbox_split_compressed_size_tip;
+	public static String stream_consumer_page_output_label_compression_threads_tip;
 	public static String stream_consumer_page_output_label_show_finish_message;
 	public static String stream_consumer_page_output_tooltip_output_file_name_pattern;
 	public static String stream_consumer_page_output_label_results;
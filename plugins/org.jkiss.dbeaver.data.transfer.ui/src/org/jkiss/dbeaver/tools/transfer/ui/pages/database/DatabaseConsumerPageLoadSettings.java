@@ -111,12 +111,6 @@ public class DatabaseConsumerPageLoadSettings extends ActiveWizardPage<DataTrans
                 null,
                 settings.isOpenNewConnections(),
                 4);
-            newConnectionCheckbox.addSelectionListener(new SelectionAdapter() {
-                @Override
-                public void widgetSelected(SelectionEvent e) {
-                    settings.setOpenNewConnections(newConnectionCheckbox.getSelection());
-                }
-            });
 
             final Button useTransactionsCheck = UIUtils.createCheckbox(performanceSettings, DTUIMessages.database_consumer_wizard_transactions_checkbox_label, null, settings.isUseTransactions(), 4);
             useTransactionsCheck.addSelectionListener(new SelectionAdapter() {
@@ -135,6 +129,26 @@ public class DatabaseConsumerPageLoadSettings extends ActiveWizardPage<DataTrans
             });
             commitAfterEdit.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
 
+            final Spinner writerThreadsEdit = UIUtils.createLabelSpinner(performanceSettings, DTUIMessages.database_consumer_wizard_writer_threads_spinner_label, settings.getWriterThreads(), 1, 64);
+            writerThreadsEdit.setToolTipText(DTUIMessages.database_consumer_wizard_writer_threads_spinner_tooltip);
+            writerThreadsEdit.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setWriterThreads(writerThreadsEdit.getSelection());
+                }
+            });
+            writerThreadsEdit.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
+            // Parallel writers need their own connections
+            writerThreadsEdit.setEnabled(settings.isOpenNewConnections());
+
+            newConnectionCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setOpenNewConnections(newConnectionCheckbox.getSelection());
+                    writerThreadsEdit.setEnabled(newConnectionCheckbox.getSelection());
+                }
+            });
+
             final Button useBatchCheck = UIUtils.createCheckbox(performanceSettings, DTUIMessages.database_consumer_wizard_disable_import_batches_label, DTUIMessages.database_consumer_wizard_disable_import_batches_description, settings.isDisableUsingBatches(), 4);
             useBatchCheck.addSelectionListener(new SelectionAdapter() {
                 @Override
@@ -142,6 +156,14 @@ public class DatabaseConsumerPageLoadSettings extends ActiveWizardPage<DataTrans
                     settings.setDisableUsingBatches(useBatchCheck.getSelection());
                 }
             });
+
+            final Button useBulkLoadCheck = UIUtils.createCheckbox(performanceSettings, DTUIMessages.database_consumer_wizard_use_bulk_load_label, DTUIMessages.database_consumer_wizard_use_bulk_load_description, settings.isUseBulkLoad(), 4);
+            useBulkLoadCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setUseBulkLoad(useBulkLoadCheck.getSelection());
+                }
+            });
         }
 
         {
@@ -29,6 +29,7 @@ import org.jkiss.dbeaver.tools.transfer.ui.internal.DTUIMessages;
 import org.jkiss.dbeaver.tools.transfer.ui.wizard.DataTransferWizard;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.ui.dialogs.ActiveWizardPage;
+import org.jkiss.utils.CommonUtils;
 
 import java.util.Locale;
 
@@ -36,11 +37,17 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
 
     private static final int EXTRACT_TYPE_SINGLE_QUERY = 0;
     private static final int EXTRACT_TYPE_SEGMENTS = 1;
+    private static final int EXTRACT_TYPE_PARTITIONED = 2;
 
     private Text threadsNumText;
     private Combo rowsExtractType;
     private Label segmentSizeLabel;
     private Text segmentSizeText;
+    private Label partitionColumnLabel;
+    private Text partitionColumnText;
+    private Label partitionParallelismLabel;
+    private Text partitionParallelismText;
+    private Button partitionOrderedCheckbox;
     private Button newConnectionCheckbox;
     private Button rowCountCheckbox;
     private Button selectedColumnsOnlyCheckbox;
@@ -89,13 +96,15 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                 rowsExtractType.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
                 rowsExtractType.setItems(
                     DTMessages.data_transfer_wizard_output_combo_extract_type_item_single_query,
-                    DTMessages.data_transfer_wizard_output_combo_extract_type_item_by_segments);
+                    DTMessages.data_transfer_wizard_output_combo_extract_type_item_by_segments,
+                    DTMessages.data_transfer_wizard_output_combo_extract_type_item_partitioned);
                 rowsExtractType.addSelectionListener(new SelectionAdapter() {
                     @Override
                     public void widgetSelected(SelectionEvent e) {
                         switch (rowsExtractType.getSelectionIndex()) {
                             case EXTRACT_TYPE_SEGMENTS: settings.setExtractType(DatabaseProducerSettings.ExtractType.SEGMENTS); break;
                             case EXTRACT_TYPE_SINGLE_QUERY: settings.setExtractType(DatabaseProducerSettings.ExtractType.SINGLE_QUERY); break;
+                            case EXTRACT_TYPE_PARTITIONED: settings.setExtractType(DatabaseProducerSettings.ExtractType.PARTITIONED); break;
                         }
                         updatePageCompletion();
                     }
@@ -112,6 +121,33 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                     }
                 });
                 segmentSizeText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
+
+                partitionColumnLabel = UIUtils.createControlLabel(generalSettings, DTMessages.data_transfer_wizard_output_label_partition_column);
+                partitionColumnText = new Text(generalSettings, SWT.BORDER);
+                partitionColumnText.setToolTipText(DTUIMessages.database_producer_page_extract_settings_partition_column_tooltip);
+                partitionColumnText.addModifyListener(e -> settings.setPartitionColumn(partitionColumnText.getText().trim()));
+                partitionColumnText.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+                partitionParallelismLabel = UIUtils.createControlLabel(generalSettings, DTMessages.data_transfer_wizard_output_label_partition_parallelism);
+                partitionParallelismText = new Text(generalSettings, SWT.BORDER);
+                partitionParallelismText.setToolTipText(DTUIMessages.database_producer_page_extract_settings_partition_parallelism_tooltip);
+                partitionParallelismText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+                partitionParallelismText.addModifyListener(e -> {
+                    try {
+                        settings.setPartitionParallelism(Integer.parseInt(partitionParallelismText.getText()));
+                    } catch (NumberFormatException e1) {
+                        // just skip it
+                    }
+                });
+                partitionParallelismText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 1, 1));
+
+                partitionOrderedCheckbox = UIUtils.createCheckbox(generalSettings, DTMessages.data_transfer_wizard_output_checkbox_partition_ordered, DTUIMessages.database_producer_page_extract_settings_partition_ordered_tooltip, false, 2);
+                partitionOrderedCheckbox.addSelectionListener(new SelectionAdapter() {
+                    @Override
+                    public void widgetSelected(SelectionEvent e) {
+                        settings.setPartitionOrdered(partitionOrderedCheckbox.getSelection());
+                    }
+                });
             }
 
             newConnectionCheckbox = UIUtils.createCheckbox(generalSettings, DTMessages.data_transfer_wizard_output_checkbox_new_connection, DTUIMessages.database_producer_page_extract_settings_new_connection_checkbox_tooltip, true, 4);
@@ -187,7 +223,11 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
             switch (settings.getExtractType()) {
                 case SINGLE_QUERY: rowsExtractType.select(EXTRACT_TYPE_SINGLE_QUERY); break;
                 case SEGMENTS: rowsExtractType.select(EXTRACT_TYPE_SEGMENTS); break;
+                case PARTITIONED: rowsExtractType.select(EXTRACT_TYPE_PARTITIONED); break;
             }
+            partitionColumnText.setText(CommonUtils.notEmpty(settings.getPartitionColumn()));
+            partitionParallelismText.setText(String.valueOf(settings.getPartitionParallelism()));
+            partitionOrderedCheckbox.setSelection(settings.isPartitionOrdered());
         }
         fetchSizeText.setText(String.valueOf(settings.getFetchSize()));
         if (selectedColumnsOnlyCheckbox != null) {
@@ -212,6 +252,12 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                 segmentSizeLabel.setEnabled(false);
                 segmentSizeText.setEnabled(false);
             }
+            boolean partitioned = selectionIndex == EXTRACT_TYPE_PARTITIONED;
+            partitionColumnLabel.setEnabled(partitioned);
+            partitionColumnText.setEnabled(partitioned);
+            partitionParallelismLabel.setEnabled(partitioned);
+            partitionParallelismText.setEnabled(partitioned);
+            partitionOrderedCheckbox.setEnabled(partitioned);
         }
         return true;
     }
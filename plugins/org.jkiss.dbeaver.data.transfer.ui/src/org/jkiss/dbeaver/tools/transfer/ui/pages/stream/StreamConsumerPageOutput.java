@@ -22,6 +22,8 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.*;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
+import org.jkiss.dbeaver.tools.transfer.registry.DataTransferOutputCodecDescriptor;
+import org.jkiss.dbeaver.tools.transfer.registry.DataTransferRegistry;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamConsumerSettings;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.ui.internal.DTUIMessages;
@@ -35,6 +37,7 @@ import org.jkiss.dbeaver.ui.dialogs.DialogUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.util.List;
 import java.util.Locale;
 
 public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizard> {
@@ -45,6 +48,10 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
     private Text directoryText;
     private Text fileNameText;
     private Button compressCheckbox;
+    private Combo compressionFormatCombo;
+    private Label compressionThreadsLabel;
+    private Spinner compressionThreadsSpinner;
+    private List<DataTransferOutputCodecDescriptor> outputCodecs;
     private Button showFolderCheckbox;
     private Button execProcessCheckbox;
     private Text execProcessText;
@@ -54,6 +61,7 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
     private Button splitFilesCheckbox;
     private Label maximumFileSizeLabel;
     private Text maximumFileSizeText;
+    private Button splitCompressedSizeCheckbox;
 
     public StreamConsumerPageOutput() {
         super(DTMessages.data_transfer_wizard_output_name);
@@ -164,9 +172,36 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
                     updateControlsEnablement();
                 }
             });
+            outputCodecs = DataTransferRegistry.getInstance().getOutputCodecs();
+            compressionFormatCombo = new Combo(generalSettings, SWT.DROP_DOWN | SWT.READ_ONLY);
+            compressionFormatCombo.setToolTipText(DTMessages.data_transfer_wizard_output_label_compression_format);
+            for (DataTransferOutputCodecDescriptor codec : outputCodecs) {
+                compressionFormatCombo.add(codec.getName());
+            }
+            compressionFormatCombo.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    int index = compressionFormatCombo.getSelectionIndex();
+                    if (index >= 0) {
+                        settings.setCompressionFormat(outputCodecs.get(index).getId());
+                    }
+                    updateControlsEnablement();
+                }
+            });
+            compressionThreadsLabel = UIUtils.createControlLabel(generalSettings, DTMessages.data_transfer_wizard_output_label_compression_threads);
+            compressionThreadsSpinner = UIUtils.createSpinner(
+                generalSettings,
+                DTUIMessages.stream_consumer_page_output_label_compression_threads_tip,
+                settings.getCompressionThreads(), 1, 64);
+            compressionThreadsSpinner.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setCompressionThreads(compressionThreadsSpinner.getSelection());
+                }
+            });
 
             {
-                Composite outFilesSettings = UIUtils.createComposite(generalSettings, 3);
+                Composite outFilesSettings = UIUtils.createComposite(generalSettings, 4);
                 outFilesSettings.setLayoutData(new GridData(GridData.BEGINNING, GridData.BEGINNING, true, false, 5, 1));
 
                 splitFilesCheckbox = UIUtils.createCheckbox(outFilesSettings, DTMessages.data_transfer_wizard_output_checkbox_split_files, DTMessages.data_transfer_wizard_output_checkbox_split_files_tip, false, 1);
@@ -185,6 +220,13 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
                 gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING);
                 gd.widthHint = UIUtils.getFontHeight(maximumFileSizeText) * 10;
                 maximumFileSizeText.setLayoutData(gd);
+                splitCompressedSizeCheckbox = UIUtils.createCheckbox(outFilesSettings, DTUIMessages.stream_consumer_page_output_checkbox_split_compressed_size, DTUIMessages.stream_consumer_page_output_checkbox_split_compressed_size_tip, false, 1);
+                splitCompressedSizeCheckbox.addSelectionListener(new SelectionAdapter() {
+                    @Override
+                    public void widgetSelected(SelectionEvent e) {
+                        settings.setSplitByCompressedSize(splitCompressedSizeCheckbox.getSelection());
+                    }
+                });
             }
         }
 
@@ -257,9 +299,16 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
         directoryText.setEnabled(!clipboard);
         fileNameText.setEnabled(!clipboard);
         compressCheckbox.setEnabled(!clipboard);
+        boolean compress = !clipboard && compressCheckbox.getSelection();
+        int codecIndex = compressionFormatCombo.getSelectionIndex();
+        boolean parallelCodec = codecIndex >= 0 && outputCodecs.get(codecIndex).isParallel();
+        compressionFormatCombo.setEnabled(compress);
+        compressionThreadsLabel.setEnabled(compress && parallelCodec);
+        compressionThreadsSpinner.setEnabled(compress && parallelCodec);
         splitFilesCheckbox.setEnabled(!clipboard);
         maximumFileSizeLabel.setEnabled(!clipboard && splitFilesCheckbox.getSelection());
         maximumFileSizeText.setEnabled(!clipboard && splitFilesCheckbox.getSelection());
+        splitCompressedSizeCheckbox.setEnabled(compress && splitFilesCheckbox.getSelection());
         encodingCombo.setEnabled(!isBinary && !clipboard);
         encodingBOMCheckbox.setEnabled(!isBinary && !clipboard);
         timestampPattern.setEnabled(!clipboard);
@@ -280,8 +329,16 @@ public class StreamConsumerPageOutput extends ActiveWizardPage<DataTransferWizar
         directoryText.setText(CommonUtils.toString(settings.getOutputFolder()));
         fileNameText.setText(CommonUtils.toString(settings.getOutputFilePattern()));
         compressCheckbox.setSelection(settings.isCompressResults());
+        for (int i = 0; i < outputCodecs.size(); i++) {
+            if (outputCodecs.get(i).getId().equals(settings.getCompressionFormat())) {
+                compressionFormatCombo.select(i);
+                break;
+            }
+        }
+        compressionThreadsSpinner.setSelection(settings.getCompressionThreads());
         splitFilesCheckbox.setSelection(settings.isSplitOutFiles());
         maximumFileSizeText.setText(String.valueOf(settings.getMaxOutFileSize()));
+        splitCompressedSizeCheckbox.setSelection(settings.isSplitByCompressedSize());
         encodingCombo.setText(CommonUtils.toString(settings.getOutputEncoding()));
         timestampPattern.setText(settings.getOutputTimestampPattern());
         encodingBOMCheckbox.setSelection(settings.isOutputEncodingBOM());
@@ -532,6 +532,11 @@ public class DataTransferWizard extends TaskConfigurationWizard<DataTransferSett
             return settings.isShowFinalMessage();
         }
 
+        @Override
+        protected String getTaskSummary() {
+            return String.join("\n", settings.getState().getTransferStatistics());
+        }
+
         @Override
         protected void runTask() throws DBException {
             DTTaskHandlerTransfer handlerTransfer = new DTTaskHandlerTransfer();
@@ -22,6 +22,8 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableWithProgress;
 import org.jkiss.dbeaver.model.task.DBTTask;
 import org.jkiss.dbeaver.model.task.DBTTaskExecutionListener;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferWriterPool;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
 import org.jkiss.utils.CommonUtils;
 
@@ -115,6 +117,13 @@ public class DataTransferJob implements DBRRunnableWithProgress {
             } finally {
                 consumer.finishTransfer(monitor, false);
             }
+            if (consumer instanceof DatabaseTransferConsumer) {
+                for (DatabaseTransferWriterPool.WriterStatistics statistics : ((DatabaseTransferConsumer) consumer).getWriterStatistics()) {
+                    String message = "Data load to " + consumer.getObjectName() + ". " + statistics;
+                    log.info(message);
+                    settings.getState().addTransferStatistics(message);
+                }
+            }
             return true;
         } catch (Exception e) {
             log.error("Error transfering data from " + producer.getObjectName() + " to " + consumer.getObjectName(), e);
@@ -25,6 +25,7 @@ import java.util.List;
 public class DataTransferState {
 
     private List<Throwable> loadErrors = new ArrayList<>();
+    private final List<String> transferStatistics = new ArrayList<>();
 
     public List<Throwable> getLoadErrors() {
         return loadErrors;
@@ -37,4 +38,12 @@ public class DataTransferState {
     public boolean hasErrors() {
         return !loadErrors.isEmpty();
     }
+
+    public synchronized List<String> getTransferStatistics() {
+        return new ArrayList<>(transferStatistics);
+    }
+
+    public synchronized void addTransferStatistics(String statistics) {
+        transferStatistics.add(statistics);
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+
+import java.util.List;
+
+/**
+ * Native bulk loader.
+ * Loads rows into the target table using database-specific bulk protocol (COPY, LOAD DATA, bulk copy, etc).
+ * Loader must either load all passed rows or fail without partial changes (in the current transaction).
+ */
+public interface IDataTransferBulkLoader {
+
+    /**
+     * Checks whether rows with specified attributes can be loaded by this loader.
+     */
+    boolean isSupported(@NotNull DBCSession session, @NotNull DBSDataManipulator targetObject, @NotNull DBSAttributeBase[] attributes);
+
+    /**
+     * Loads rows. Row values are ordered as attributes.
+     * @return number of loaded rows
+     */
+    long loadRows(
+        @NotNull DBCSession session,
+        @NotNull DBSDataManipulator targetObject,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull List<Object[]> rows)
+        throws DBCException;
+
+}
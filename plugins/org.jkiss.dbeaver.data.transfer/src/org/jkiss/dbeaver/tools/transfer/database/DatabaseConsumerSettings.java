@@ -54,10 +54,12 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
     private boolean openNewConnections = true;
     private boolean useTransactions = true;
     private int commitAfterRows = 10000;
+    private int writerThreads = 1;
     private boolean transferAutoGeneratedColumns = true;
     private boolean truncateBeforeLoad = false;
     private boolean openTableOnFinish = true;
     private boolean disableUsingBatches = false;
+    private boolean useBulkLoad = false;
     private String onDuplicateKeyInsertMethodId;
 
     private transient Map<String, Object> dialogSettings;
@@ -168,6 +170,30 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         this.commitAfterRows = commitAfterRows;
     }
 
+    /**
+     * Number of parallel writers. Each writer uses its own connection.
+     * Used only if new connections are opened for data load.
+     */
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    /**
+     * Use native bulk loader of target database (if available).
+     * Regular batches are used if there is no suitable loader or bulk load fails.
+     */
+    public boolean isUseBulkLoad() {
+        return useBulkLoad;
+    }
+
+    public void setUseBulkLoad(boolean useBulkLoad) {
+        this.useBulkLoad = useBulkLoad;
+    }
+
     @Nullable
     public DBPDataSource getTargetDataSource(DatabaseMappingObject attrMapping) {
         DBSObjectContainer container = getContainer();
@@ -189,7 +215,9 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         useTransactions = CommonUtils.getBoolean(settings.get("useTransactions"), useTransactions);
         onDuplicateKeyInsertMethodId = CommonUtils.toString(settings.get("onDuplicateKeyMethod"), onDuplicateKeyInsertMethodId);
         commitAfterRows = CommonUtils.toInt(settings.get("commitAfterRows"), commitAfterRows);
+        writerThreads = CommonUtils.toInt(settings.get("writerThreads"), writerThreads);
         disableUsingBatches = CommonUtils.getBoolean(settings.get("disableUsingBatches"), disableUsingBatches);
+        useBulkLoad = CommonUtils.getBoolean(settings.get("useBulkLoad"), useBulkLoad);
         transferAutoGeneratedColumns = CommonUtils.getBoolean(settings.get("transferAutoGeneratedColumns"), transferAutoGeneratedColumns);
         truncateBeforeLoad = CommonUtils.getBoolean(settings.get("truncateBeforeLoad"), truncateBeforeLoad);
         openTableOnFinish = CommonUtils.getBoolean(settings.get("openTableOnFinish"), openTableOnFinish);
@@ -253,7 +281,9 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         settings.put("openNewConnections", openNewConnections);
         settings.put("useTransactions", useTransactions);
         settings.put("commitAfterRows", commitAfterRows);
+        settings.put("writerThreads", writerThreads);
         settings.put("disableUsingBatches", disableUsingBatches);
+        settings.put("useBulkLoad", useBulkLoad);
         settings.put("onDuplicateKeyMethod", onDuplicateKeyInsertMethodId);
         settings.put("transferAutoGeneratedColumns", transferAutoGeneratedColumns);
         settings.put("truncateBeforeLoad", truncateBeforeLoad);
@@ -283,6 +313,10 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
             DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_commit_after, commitAfterRows);
         }
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_disable_batches, disableUsingBatches);
+        DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_use_bulk_load, useBulkLoad);
+        if (openNewConnections && writerThreads > 1) {
+            DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_writer_threads, writerThreads);
+        }
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_on_duplicate_key_method_label, onDuplicateKeyInsertMethodId);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_transfer_auto_generated_columns, transferAutoGeneratedColumns);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_truncate_before_load, truncateBeforeLoad);
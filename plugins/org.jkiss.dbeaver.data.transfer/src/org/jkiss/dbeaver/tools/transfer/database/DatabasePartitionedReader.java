@@ -0,0 +1,547 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads entity data by key ranges.
+ * Each range is read with a separate query in its own isolated execution context.
+ * Rows of all ranges are fed into a single consumer (consumer is not thread-safe, so all calls are serialized).
+ */
+class DatabasePartitionedReader {
+
+    private static final Log log = Log.getLog(DatabasePartitionedReader.class);
+
+    // Number of key ranges per reader thread. More ranges gives better balance on skewed keys.
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final DBSEntity entity;
+    private final DBSDataContainer dataContainer;
+    private final DBDDataFilter dataFilter;
+    private final DatabaseProducerSettings settings;
+    private final long readFlags;
+
+    private final Object consumerLock = new Object();
+    private List<String> partitions;
+    private int nextPartition;
+    private boolean[] finishedPartitions;
+    private int orderedPartition;
+    private boolean consumerStarted;
+    private DBCResultSet lastResultSet;
+    private volatile Throwable readError;
+
+    DatabasePartitionedReader(@NotNull DBSDataContainer dataContainer, @Nullable DBDDataFilter dataFilter, @NotNull DatabaseProducerSettings settings, long readFlags) {
+        this.dataContainer = dataContainer;
+        this.entity = dataContainer instanceof DBSEntity ? (DBSEntity) dataContainer : null;
+        this.dataFilter = dataFilter;
+        this.settings = settings;
+        this.readFlags = readFlags;
+    }
+
+    /**
+     * Checks that data container can be partitioned: it must be an entity of a relational datasource.
+     */
+    static boolean isPartitionSupported(@NotNull DBSDataContainer dataContainer) {
+        DBPDataSource dataSource = dataContainer.getDataSource();
+        return dataContainer instanceof DBSEntity && dataSource != null && !dataSource.getInfo().isDynamicMetadata();
+    }
+
+    /**
+     * Finds partition key. Explicitly configured column is used if it is set,
+     * otherwise first column of the entity unique key.
+     * Only numeric and date/time columns can be used for ranges.
+     */
+    @Nullable
+    DBSEntityAttribute findPartitionAttribute(@NotNull DBRProgressMonitor monitor) throws DBException {
+        if (entity == null) {
+            return null;
+        }
+        DBSEntityAttribute attribute = null;
+        String columnName = settings.getPartitionColumn();
+        if (!CommonUtils.isEmpty(columnName)) {
+            attribute = entity.getAttribute(monitor, columnName);
+            if (attribute == null) {
+                throw new DBException("Partition column '" + columnName + "' not found in '" + entity.getName() + "'");
+            }
+            if (!isPartitionableAttribute(attribute)) {
+                throw new DBException("Partition column '" + columnName + "' must be numeric or date/time");
+            }
+            return attribute;
+        }
+        List<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(monitor, entity);
+        if (!identifier.isEmpty() && isPartitionableAttribute(identifier.get(0))) {
+            attribute = identifier.get(0);
+        }
+        return attribute;
+    }
+
+    private static boolean isPartitionableAttribute(DBSEntityAttribute attribute) {
+        return attribute.getDataKind() == DBPDataKind.NUMERIC || attribute.getDataKind() == DBPDataKind.DATETIME;
+    }
+
+    /**
+     * Splits the partition attribute value domain into ranges. Returns list of SQL conditions.
+     * Ranges cover the whole domain (first and last ranges are open), nulls are read as a separate range.
+     */
+    @NotNull
+    List<String> makePartitions(@NotNull DBCSession session, @NotNull DBSEntityAttribute attribute, int partitionCount) throws DBCException {
+        DBPDataSource dataSource = session.getDataSource();
+        String columnName = DBUtils.getQuotedIdentifier(attribute);
+        String sql = "SELECT MIN(" + columnName + "),MAX(" + columnName + ") FROM " +
+            DBUtils.getObjectFullName(entity, DBPEvaluationContext.DML);
+
+        Object minValue = null, maxValue = null;
+        DBDValueHandler valueHandler = DBUtils.findValueHandler(session, attribute);
+        try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, sql, false, false, false)) {
+            if (dbStat.executeStatement()) {
+                try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                    if (dbResult != null && dbResult.nextRow()) {
+                        minValue = valueHandler.fetchValueObject(session, dbResult, attribute, 0);
+                        maxValue = valueHandler.fetchValueObject(session, dbResult, attribute, 1);
+                    }
+                }
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        List<Object> bounds = makeBounds(minValue, maxValue, partitionCount, attribute.getTypeID());
+        if (bounds.size() < 2) {
+            // Nothing to split. Read all in one range
+            result.add(columnName + " IS NOT NULL");
+        } else {
+            for (int i = 0; i < bounds.size() - 1; i++) {
+                StringBuilder condition = new StringBuilder();
+                if (i > 0) {
+                    condition.append(columnName).append(">=").append(SQLUtils.convertValueToSQL(dataSource, attribute, bounds.get(i)));
+                }
+                if (i < bounds.size() - 2) {
+                    if (condition.length() > 0) condition.append(" AND ");
+                    condition.append(columnName).append("<").append(SQLUtils.convertValueToSQL(dataSource, attribute, bounds.get(i + 1)));
+                }
+                if (condition.length() == 0) {
+                    condition.append(columnName).append(" IS NOT NULL");
+                }
+                result.add(condition.toString());
+            }
+        }
+        if (!attribute.isRequired()) {
+            result.add(columnName + " IS NULL");
+        }
+        return result;
+    }
+
+    /**
+     * Returns list of range bounds (including min and max values).
+     * Intermediate bounds have the same type as the column values (big numbers are never narrowed to long).
+     *
+     * @param valueType column type (one of java.sql.Types), used for date/time bounds
+     */
+    static List<Object> makeBounds(@Nullable Object minValue, @Nullable Object maxValue, int partitionCount, int valueType) {
+        List<Object> bounds = new ArrayList<>();
+        if (minValue == null || maxValue == null || partitionCount < 2) {
+            return bounds;
+        }
+        if (minValue instanceof Date && maxValue instanceof Date) {
+            long min = ((Date) minValue).getTime(), max = ((Date) maxValue).getTime();
+            long step = (max - min) / partitionCount;
+            bounds.add(minValue);
+            if (step > 0) {
+                for (int i = 1; i < partitionCount; i++) {
+                    bounds.add(makeDateBound(minValue, valueType, min + step * i));
+                }
+            }
+            bounds.add(maxValue);
+        } else if (minValue instanceof Number && maxValue instanceof Number) {
+            if (isIntegerNumber((Number) minValue) && isIntegerNumber((Number) maxValue)) {
+                BigInteger min = toBigInteger((Number) minValue), max = toBigInteger((Number) maxValue);
+                BigInteger step = max.subtract(min).divide(BigInteger.valueOf(partitionCount));
+                boolean bigValues = isBigNumber(minValue) || isBigNumber(maxValue);
+                bounds.add(minValue);
+                if (step.signum() > 0) {
+                    for (int i = 1; i < partitionCount; i++) {
+                        BigInteger bound = min.add(step.multiply(BigInteger.valueOf(i)));
+                        if (!bigValues) {
+                            // Bound is between min and max so it always fits
+                            bounds.add(bound.longValue());
+                        } else if (minValue instanceof BigDecimal || maxValue instanceof BigDecimal) {
+                            bounds.add(new BigDecimal(bound));
+                        } else {
+                            bounds.add(bound);
+                        }
+                    }
+                }
+                bounds.add(maxValue);
+            } else if (isBigNumber(minValue) || isBigNumber(maxValue)) {
+                BigDecimal min = toBigDecimal((Number) minValue), max = toBigDecimal((Number) maxValue);
+                BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(partitionCount), MathContext.DECIMAL128);
+                bounds.add(minValue);
+                if (step.signum() > 0) {
+                    for (int i = 1; i < partitionCount; i++) {
+                        bounds.add(min.add(step.multiply(BigDecimal.valueOf(i))));
+                    }
+                }
+                bounds.add(maxValue);
+            } else {
+                double min = ((Number) minValue).doubleValue(), max = ((Number) maxValue).doubleValue();
+                double step = (max - min) / partitionCount;
+                bounds.add(minValue);
+                if (step > 0) {
+                    for (int i = 1; i < partitionCount; i++) {
+                        bounds.add(min + step * i);
+                    }
+                }
+                bounds.add(maxValue);
+            }
+        }
+        return bounds;
+    }
+
+    private static Date makeDateBound(Object sample, int valueType, long time) {
+        if (valueType == Types.DATE || (valueType != Types.TIMESTAMP && sample instanceof java.sql.Date)) {
+            return new java.sql.Date(time);
+        } else if (valueType == Types.TIME || (valueType != Types.TIMESTAMP && sample instanceof Time)) {
+            return new Time(time);
+        }
+        return new Timestamp(time);
+    }
+
+    private static boolean isBigNumber(Object number) {
+        return number instanceof BigDecimal || number instanceof BigInteger;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        } else if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    private static BigInteger toBigInteger(Number number) {
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).toBigInteger();
+        } else if (number instanceof BigInteger) {
+            return (BigInteger) number;
+        }
+        return BigInteger.valueOf(number.longValue());
+    }
+
+    private static boolean isIntegerNumber(Number number) {
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).scale() <= 0 || ((BigDecimal) number).stripTrailingZeros().scale() <= 0;
+        }
+        return !(number instanceof Double || number instanceof Float);
+    }
+
+    /**
+     * Reads all partitions and feeds rows into the consumer.
+     */
+    DBCStatistics readData(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession session,
+        @NotNull DBSEntityAttribute partitionAttribute,
+        @NotNull IDataTransferConsumer consumer) throws DBException
+    {
+        DBCStatistics statistics = new DBCStatistics();
+        try {
+            int threadCount = Math.max(1, settings.getPartitionParallelism());
+            partitions = makePartitions(session, partitionAttribute, threadCount * PARTITIONS_PER_THREAD);
+            finishedPartitions = new boolean[partitions.size()];
+            nextPartition = 0;
+            orderedPartition = 0;
+            if (threadCount > partitions.size()) {
+                threadCount = partitions.size();
+            }
+            log.debug("Read '" + entity.getName() + "' by " + partitions.size() + " ranges of " +
+                DBUtils.getQuotedIdentifier(partitionAttribute) + " in " + threadCount + " threads");
+
+            DBCExecutionContext initContext = session.getExecutionContext();
+            List<PartitionReaderJob> readers = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                PartitionReaderJob readerJob = new PartitionReaderJob(monitor, initContext, consumer, i);
+                readers.add(readerJob);
+                readerJob.schedule();
+            }
+            try {
+                for (PartitionReaderJob readerJob : readers) {
+                    readerJob.join();
+                }
+            } catch (InterruptedException e) {
+                setReadError(e);
+                for (PartitionReaderJob readerJob : readers) {
+                    readerJob.cancel();
+                }
+            }
+            if (readError != null) {
+                throw new DBCException("Error reading partitioned data from '" + entity.getName() + "'", readError);
+            }
+            // Execute and fetch times are summed over all partition queries
+            for (PartitionReaderJob readerJob : readers) {
+                statistics.accumulate(readerJob.statistics);
+            }
+            if (consumerStarted) {
+                consumer.fetchEnd(session, lastResultSet);
+            }
+        } finally {
+            consumer.close();
+        }
+        return statistics;
+    }
+
+    private void setReadError(Throwable error) {
+        synchronized (consumerLock) {
+            if (readError == null) {
+                readError = error;
+            }
+            // Wake up readers waiting for their turn
+            consumerLock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns index of the next partition to read or -1 if all partitions were acquired.
+     */
+    private int acquirePartition() {
+        synchronized (consumerLock) {
+            if (readError != null || nextPartition >= partitions.size()) {
+                return -1;
+            }
+            return nextPartition++;
+        }
+    }
+
+    private DBDDataFilter makePartitionFilter(String condition) {
+        DBDDataFilter partitionFilter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+        String where = partitionFilter.getWhere();
+        if (CommonUtils.isEmpty(where)) {
+            partitionFilter.setWhere(condition);
+        } else {
+            partitionFilter.setWhere("(" + where + ") AND (" + condition + ")");
+        }
+        return partitionFilter;
+    }
+
+    private void finishPartition(int partitionIndex) {
+        synchronized (consumerLock) {
+            finishedPartitions[partitionIndex] = true;
+            while (orderedPartition < finishedPartitions.length && finishedPartitions[orderedPartition]) {
+                orderedPartition++;
+            }
+            consumerLock.notifyAll();
+        }
+    }
+
+    private void waitForTurn(DBRProgressMonitor monitor, int partitionIndex) throws DBCException {
+        // Called under consumer lock
+        if (!settings.isPartitionOrdered()) {
+            return;
+        }
+        // Previous partition reader always calls finishPartition (on success, error or cancel) so we'll be notified
+        while (orderedPartition < partitionIndex) {
+            checkAborted(monitor);
+            try {
+                consumerLock.wait();
+            } catch (InterruptedException e) {
+                throw new DBCException("Partitioned read interrupted", e);
+            }
+        }
+    }
+
+    private void checkAborted(DBRProgressMonitor monitor) throws DBCException {
+        if (readError != null) {
+            throw new DBCException("Partitioned read aborted");
+        }
+        if (monitor.isCanceled()) {
+            throw new DBCException("Partitioned read canceled");
+        }
+    }
+
+    private class PartitionReceiver implements DBDDataReceiver {
+
+        private final DBRProgressMonitor monitor;
+        private final IDataTransferConsumer consumer;
+        private final int partitionIndex;
+
+        PartitionReceiver(DBRProgressMonitor monitor, IDataTransferConsumer consumer, int partitionIndex) {
+            this.monitor = monitor;
+            this.consumer = consumer;
+            this.partitionIndex = partitionIndex;
+        }
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            synchronized (consumerLock) {
+                waitForTurn(monitor, partitionIndex);
+                if (!consumerStarted) {
+                    consumer.fetchStart(session, resultSet, 0, -1);
+                    consumerStarted = true;
+                }
+                lastResultSet = resultSet;
+            }
+        }
+
+        @Override
+        public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            synchronized (consumerLock) {
+                checkAborted(monitor);
+                consumer.fetchRow(session, resultSet);
+            }
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            // Consumer is finished after all partitions
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private class PartitionReaderJob extends AbstractJob {
+
+        private final DBRProgressMonitor parentMonitor;
+        private final DBCExecutionContext initContext;
+        private final IDataTransferConsumer consumer;
+        private final DBCStatistics statistics = new DBCStatistics();
+
+        PartitionReaderJob(DBRProgressMonitor parentMonitor, DBCExecutionContext initContext, IDataTransferConsumer consumer, int readerIndex) {
+            super("Read " + entity.getName() + " partitions (" + (readerIndex + 1) + ")");
+            this.parentMonitor = parentMonitor;
+            this.initContext = initContext;
+            this.consumer = consumer;
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor jobMonitor) {
+            DBRProgressMonitor monitor = new PartitionProgressMonitor(parentMonitor);
+            DBCExecutionContext context = null;
+            try {
+                context = DBUtils.getObjectOwnerInstance(entity).borrowIsolatedContext(monitor, "Data transfer partition reader", initContext);
+                DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                if (txnManager != null && txnManager.isSupportsTransactions() && txnManager.isAutoCommit()) {
+                    // Some drivers read LOBs and use cursor fetch size only in transactional mode
+                    txnManager.setAutoCommit(monitor, false);
+                }
+                try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Read data partition")) {
+                    session.enableLogging(false);
+                    AbstractExecutionSource transferSource = new AbstractExecutionSource(dataContainer, context, consumer);
+                    for (int partitionIndex = acquirePartition(); partitionIndex >= 0; partitionIndex = acquirePartition()) {
+                        try {
+                            DBCStatistics partitionStatistics = dataContainer.readData(
+                                transferSource,
+                                session,
+                                new PartitionReceiver(monitor, consumer, partitionIndex),
+                                makePartitionFilter(partitions.get(partitionIndex)),
+                                -1,
+                                -1,
+                                readFlags,
+                                settings.getFetchSize());
+                            if (partitionStatistics != null) {
+                                statistics.accumulate(partitionStatistics);
+                            }
+                        } finally {
+                            finishPartition(partitionIndex);
+                        }
+                    }
+                    if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                        txnManager.commit(session);
+                    }
+                }
+            } catch (Throwable e) {
+                setReadError(e);
+                return GeneralUtils.makeExceptionStatus(e);
+            } finally {
+                if (context != null) {
+                    context.getOwnerInstance().releaseIsolatedContext(context);
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Forwards only progress and cancel state to the export monitor.
+     * Tasks and sub-tasks of readers are ignored - there are many of them running simultaneously.
+     */
+    private static class PartitionProgressMonitor extends ProxyProgressMonitor {
+
+        PartitionProgressMonitor(DBRProgressMonitor original) {
+            super(original);
+        }
+
+        @Override
+        public void beginTask(String name, int totalWork) {
+        }
+
+        @Override
+        public void done() {
+        }
+
+        @Override
+        public void subTask(String name) {
+        }
+
+        @Override
+        public void worked(int work) {
+            synchronized (original) {
+                original.worked(work);
+            }
+        }
+    }
+
+}
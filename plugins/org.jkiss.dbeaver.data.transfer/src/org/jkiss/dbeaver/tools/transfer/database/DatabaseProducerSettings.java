@@ -32,11 +32,13 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
     public enum ExtractType {
         SINGLE_QUERY,
-        SEGMENTS
+        SEGMENTS,
+        PARTITIONED
     }
 
     private static final int DEFAULT_SEGMENT_SIZE = 100000;
     private static final int DEFAULT_FETCH_SIZE = 10000;
+    private static final int DEFAULT_PARTITION_PARALLELISM = 4;
 
     private int segmentSize = DEFAULT_SEGMENT_SIZE;
 
@@ -46,6 +48,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     private boolean selectedColumnsOnly = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
     private int fetchSize = DEFAULT_FETCH_SIZE;
+    private String partitionColumn;
+    private int partitionParallelism = DEFAULT_PARTITION_PARALLELISM;
+    private boolean partitionOrdered = false;
 
     public DatabaseProducerSettings() {
     }
@@ -108,6 +113,41 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.extractType = extractType;
     }
 
+    /**
+     * Column used to split table into key ranges. If empty then first column of the table unique key is used.
+     */
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public void setPartitionColumn(String partitionColumn) {
+        this.partitionColumn = partitionColumn;
+    }
+
+    /**
+     * Number of simultaneous connections used to read one table
+     */
+    public int getPartitionParallelism() {
+        return partitionParallelism;
+    }
+
+    public void setPartitionParallelism(int partitionParallelism) {
+        if (partitionParallelism > 0) {
+            this.partitionParallelism = partitionParallelism;
+        }
+    }
+
+    /**
+     * Feed consumer with key ranges in their natural order. Otherwise rows of different ranges may interleave.
+     */
+    public boolean isPartitionOrdered() {
+        return partitionOrdered;
+    }
+
+    public void setPartitionOrdered(boolean partitionOrdered) {
+        this.partitionOrdered = partitionOrdered;
+    }
+
     @Override
     public void loadSettings(DBRRunnableContext runnableContext, DataTransferSettings dataTransferSettings, Map<String, Object> settings) {
         extractType = CommonUtils.valueOf(ExtractType.class, (String) settings.get("extractType"), extractType);
@@ -117,6 +157,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         queryRowCount = CommonUtils.toBoolean(settings.get("queryRowCount"));
         selectedColumnsOnly = CommonUtils.toBoolean(settings.get("selectedColumnsOnly"));
         selectedRowsOnly = CommonUtils.toBoolean(settings.get("selectedRowsOnly"));
+        partitionColumn = CommonUtils.toString(settings.get("partitionColumn"), null);
+        partitionParallelism = CommonUtils.toInt(settings.get("partitionParallelism"), DEFAULT_PARTITION_PARALLELISM);
+        partitionOrdered = CommonUtils.toBoolean(settings.get("partitionOrdered"));
     }
 
     @Override
@@ -128,6 +171,11 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         settings.put("queryRowCount", queryRowCount);
         settings.put("selectedColumnsOnly", selectedColumnsOnly);
         settings.put("selectedRowsOnly", selectedRowsOnly);
+        if (!CommonUtils.isEmpty(partitionColumn)) {
+            settings.put("partitionColumn", partitionColumn);
+        }
+        settings.put("partitionParallelism", partitionParallelism);
+        settings.put("partitionOrdered", partitionOrdered);
     }
 
     @Override
@@ -136,6 +184,11 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_new_connection, openNewConnections);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_extract_type, extractType.name());
+        if (extractType == ExtractType.PARTITIONED) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partition_column, CommonUtils.notEmpty(partitionColumn));
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_partition_parallelism, partitionParallelism);
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_partition_ordered, partitionOrdered);
+        }
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
@@ -0,0 +1,187 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.edit.DBEPersistAction;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferBulkLoader;
+import org.jkiss.dbeaver.tools.transfer.registry.DataTransferBulkLoaderDescriptor;
+import org.jkiss.dbeaver.tools.transfer.registry.DataTransferRegistry;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insert batch which uses native bulk loader.
+ * If bulk load fails then its changes are rolled back (to savepoint in transactional mode)
+ * and this batch switches to the regular insert batch.
+ */
+class DatabaseTransferBulkBatch implements DBSDataManipulator.ExecuteBatch {
+
+    private static final Log log = Log.getLog(DatabaseTransferBulkBatch.class);
+
+    private final DataTransferBulkLoaderDescriptor loaderDescriptor;
+    private final IDataTransferBulkLoader loader;
+    private final DBSDataManipulator targetObject;
+    private final DBSAttributeBase[] attributes;
+    private final DBCExecutionSource source;
+    private final List<Object[]> rows = new ArrayList<>();
+    private DBSDataManipulator.ExecuteBatch fallbackBatch;
+
+    private DatabaseTransferBulkBatch(
+        @NotNull DataTransferBulkLoaderDescriptor loaderDescriptor,
+        @NotNull IDataTransferBulkLoader loader,
+        @NotNull DBSDataManipulator targetObject,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source)
+    {
+        this.loaderDescriptor = loaderDescriptor;
+        this.loader = loader;
+        this.targetObject = targetObject;
+        this.attributes = attributes;
+        this.source = source;
+    }
+
+    /**
+     * Creates insert batch for data transfer.
+     * Uses bulk loader if it is enabled in settings and target database has suitable loader.
+     */
+    @NotNull
+    static DBSDataManipulator.ExecuteBatch createInsertBatch(
+        @NotNull DatabaseConsumerSettings settings,
+        @NotNull DBCSession session,
+        @NotNull DBSDataManipulator targetObject,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source) throws DBCException
+    {
+        if (settings.isUseBulkLoad() && !settings.isDisableUsingBatches() &&
+            (CommonUtils.isEmpty(settings.getOnDuplicateKeyInsertMethodId()) || settings.getOnDuplicateKeyInsertMethodId().equals(DBSDataManipulator.INSERT_NONE_METHOD)))
+        {
+            DataTransferBulkLoaderDescriptor loaderDescriptor = DataTransferRegistry.getInstance().getBulkLoader(session.getDataSource());
+            if (loaderDescriptor != null) {
+                try {
+                    IDataTransferBulkLoader loader = loaderDescriptor.createLoader();
+                    if (loader.isSupported(session, targetObject, attributes)) {
+                        return new DatabaseTransferBulkBatch(loaderDescriptor, loader, targetObject, attributes, source);
+                    }
+                    log.debug("Bulk loader '" + loaderDescriptor.getName() + "' doesn't support table " + targetObject.getName());
+                } catch (DBException e) {
+                    log.error("Error creating bulk loader", e);
+                }
+            }
+        }
+        return targetObject.insertData(session, attributes, null, source);
+    }
+
+    @Override
+    public void add(@NotNull Object[] attributeValues) throws DBCException {
+        if (fallbackBatch != null) {
+            fallbackBatch.add(attributeValues);
+        } else {
+            rows.add(attributeValues);
+        }
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics execute(@NotNull DBCSession session, Map<String, Object> options) throws DBCException {
+        if (fallbackBatch != null) {
+            return fallbackBatch.execute(session, options);
+        }
+        DBCStatistics statistics = new DBCStatistics();
+        if (rows.isEmpty()) {
+            return statistics;
+        }
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        boolean manualCommit = txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit();
+        DBCSavepoint savepoint = null;
+        if (manualCommit && txnManager.supportsSavepoints()) {
+            try {
+                savepoint = txnManager.setSavepoint(session.getProgressMonitor(), null);
+            } catch (Throwable e) {
+                log.debug("Can't set savepoint before bulk load", e);
+            }
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            statistics.addRowsUpdated(loader.loadRows(session, targetObject, attributes, rows));
+            statistics.addExecuteTime(System.currentTimeMillis() - startTime);
+            statistics.addStatementsCount();
+            if (savepoint != null) {
+                try {
+                    txnManager.releaseSavepoint(session.getProgressMonitor(), savepoint);
+                } catch (Throwable e) {
+                    log.debug("Can't release savepoint", e);
+                }
+            }
+            rows.clear();
+            return statistics;
+        } catch (DBCException e) {
+            if (manualCommit) {
+                if (savepoint == null) {
+                    // Rollback would also discard previous changes
+                    throw e;
+                }
+                txnManager.rollback(session, savepoint);
+            }
+            log.warn("Bulk load (" + loaderDescriptor.getName() + ") into " +
+                DBUtils.getObjectFullName(targetObject, DBPEvaluationContext.UI) + " failed, use regular batches: " + e.getMessage());
+            fallbackBatch = targetObject.insertData(session, attributes, null, source);
+            for (Object[] row : rows) {
+                fallbackBatch.add(row);
+            }
+            rows.clear();
+            return fallbackBatch.execute(session, options);
+        }
+    }
+
+    @Override
+    public void generatePersistActions(@NotNull DBCSession session, @NotNull List<DBEPersistAction> actions, Map<String, Object> options) throws DBCException {
+        if (fallbackBatch != null) {
+            fallbackBatch.generatePersistActions(session, actions, options);
+            return;
+        }
+        DBSDataManipulator.ExecuteBatch batch = targetObject.insertData(session, attributes, null, source);
+        try {
+            for (Object[] row : rows) {
+                batch.add(row);
+            }
+            batch.generatePersistActions(session, actions, options);
+        } finally {
+            batch.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        if (fallbackBatch != null) {
+            fallbackBatch.close();
+            fallbackBatch = null;
+        }
+    }
+
+}
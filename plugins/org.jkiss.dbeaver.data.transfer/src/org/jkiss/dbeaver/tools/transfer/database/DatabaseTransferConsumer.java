@@ -62,6 +62,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
     private DBCExecutionContext targetContext;
     private DBCSession targetSession;
     private DBSDataManipulator.ExecuteBatch executeBatch;
+    private DatabaseTransferWriterPool writerPool;
+    private List<DatabaseTransferWriterPool.WriterStatistics> writerStatistics = Collections.emptyList();
     private long rowsExported = 0;
     private boolean ignoreErrors = false;
 
@@ -240,11 +242,30 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             if (targetObject instanceof DBSDataManipulatorExt) {
                 ((DBSDataManipulatorExt) targetObject).beforeDataChange(targetSession, DBSManipulationType.INSERT, attributes, executionSource);
             }
-            executeBatch = targetObject.insertData(
-                targetSession,
-                attributes,
-                null,
-                executionSource);
+            if (useIsolatedConnection && settings.getWriterThreads() > 1) {
+                // Pipelined load. Rows are written by several writers in parallel.
+                // Commit pending changes (e.g. truncate) first, otherwise writers will wait for table locks.
+                DBCTransactionManager txnManager = DBUtils.getTransactionManager(targetContext);
+                if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                    txnManager.commit(targetSession);
+                }
+                writerPool = new DatabaseTransferWriterPool(
+                    settings, targetObject, getSourceObject(), attributes, makeBatchOptions(), this::handleWriteError, settings.getWriterThreads());
+                try {
+                    writerPool.start(session.getProgressMonitor(), targetContext);
+                } catch (DBException e) {
+                    writerPool.close();
+                    writerPool = null;
+                    throw new DBCException("Error starting data writers", e);
+                }
+            } else {
+                executeBatch = DatabaseTransferBulkBatch.createInsertBatch(
+                    settings,
+                    targetSession,
+                    targetObject,
+                    attributes,
+                    executionSource);
+            }
         } else {
             previewRows = new ArrayList<>();
             executeBatch = new PreviewBatch();
@@ -287,9 +308,17 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                     false, false);
             }
         }
+        rowsExported++;
+        if (writerPool != null) {
+            writerPool.addRow(rowValues);
+            if (rowsExported % settings.getCommitAfterRows() == 0) {
+                targetSession.getProgressMonitor().subTask(
+                    "Insert rows (" + writerPool.getRowsCommitted() + " committed, " + writerPool.getRowsPerSecond() + " rows/s)");
+            }
+            return;
+        }
         executeBatch.add(rowValues);
 
-        rowsExported++;
         // No need. monitor is incremented in data reader
         //session.getProgressMonitor().worked(1);
 
@@ -301,22 +330,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             return;
         }
         boolean needCommit = force || ((rowsExported % settings.getCommitAfterRows()) == 0);
-        Map<String, Object> options = new HashMap<>();
         boolean disableUsingBatches = settings.isDisableUsingBatches();
-        boolean onDuplicateKeyCaseOn = settings.getOnDuplicateKeyInsertMethodId() != null && !settings.getOnDuplicateKeyInsertMethodId().equals(DBSDataManipulator.INSERT_NONE_METHOD);
-        options.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, disableUsingBatches);
-        if (onDuplicateKeyCaseOn) {
-            String insertMethodId = settings.getOnDuplicateKeyInsertMethodId();
-            SQLInsertReplaceMethodDescriptor insertReplaceMethod = SQLInsertReplaceMethodRegistry.getInstance().getInsertMethod(insertMethodId);
-            if (insertReplaceMethod != null) {
-                try {
-                    DBDInsertReplaceMethod insertMethod = insertReplaceMethod.createInsertMethod();
-                    options.put(DBSDataManipulator.OPTION_INSERT_REPLACE_METHOD, insertMethod);
-                } catch (DBException e) {
-                    log.debug("Can't get insert replace method", e);
-                }
-            }
-        }
+        Map<String, Object> options = makeBatchOptions();
         if ((needCommit || disableUsingBatches) && executeBatch != null) {
             targetSession.getProgressMonitor().subTask("Insert rows (" + rowsExported + ")");
             boolean retryInsert;
@@ -325,33 +340,7 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 try {
                     executeBatch.execute(targetSession, options);
                 } catch (Throwable e) {
-                    log.error("Error inserting row", e);
-                    if (!disableUsingBatches) {
-                        DBWorkbench.getPlatformUI().showError("Error inserting row", "Data transfer failed during batch insert\n" +
-                                "(you can disable batch insert in order to skip particular rows).", e);
-                        throw new DBCException("Can't insert row", e);
-                    } else {
-                        if (!ignoreErrors) {
-                            switch (DBWorkbench.getPlatformUI().showErrorStopRetryIgnore(
-                                    DTMessages.database_transfer_consumer_task_error_occurred_during_data_load, e, true)) {
-                                case STOP:
-                                    // just stop execution
-                                    throw new DBCException("Can't insert row", e);
-                                case RETRY:
-                                    // do it again
-                                    retryInsert = true;
-                                    break;
-                                case IGNORE:
-                                    // Just do nothing and go to the next row
-                                    retryInsert = false;
-                                    break;
-                                case IGNORE_ALL:
-                                    ignoreErrors = true;
-                                    retryInsert = false;
-                                    break;
-                            }
-                        }
-                    }
+                    retryInsert = handleWriteError(e, disableUsingBatches);
                 }
             } while (retryInsert);
         }
@@ -364,10 +353,86 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         }
     }
 
+    /**
+     * Reports insert error to user.
+     * Also used by parallel writers, so calls are serialized (only one error dialog at a time).
+     *
+     * @param canSkip false if failed rows can't be skipped (batch insert) and transfer must be stopped
+     * @return true if insert must be retried, false if failed rows must be skipped
+     * @throws DBCException if transfer must be stopped
+     */
+    private synchronized boolean handleWriteError(Throwable e, boolean canSkip) throws DBCException {
+        log.error("Error inserting row", e);
+        if (!canSkip) {
+            DBWorkbench.getPlatformUI().showError("Error inserting row", "Data transfer failed during batch insert\n" +
+                    "(you can disable batch insert in order to skip particular rows).", e);
+            throw new DBCException("Can't insert row", e);
+        }
+        if (ignoreErrors) {
+            return false;
+        }
+        switch (DBWorkbench.getPlatformUI().showErrorStopRetryIgnore(
+                DTMessages.database_transfer_consumer_task_error_occurred_during_data_load, e, true)) {
+            case STOP:
+                // just stop execution
+                throw new DBCException("Can't insert row", e);
+            case RETRY:
+                // do it again
+                return true;
+            case IGNORE_ALL:
+                ignoreErrors = true;
+                return false;
+            default:
+                // Just do nothing and go to the next row
+                return false;
+        }
+    }
+
+    private Map<String, Object> makeBatchOptions() {
+        Map<String, Object> options = new HashMap<>();
+        boolean onDuplicateKeyCaseOn = settings.getOnDuplicateKeyInsertMethodId() != null && !settings.getOnDuplicateKeyInsertMethodId().equals(DBSDataManipulator.INSERT_NONE_METHOD);
+        options.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, settings.isDisableUsingBatches());
+        if (onDuplicateKeyCaseOn) {
+            String insertMethodId = settings.getOnDuplicateKeyInsertMethodId();
+            SQLInsertReplaceMethodDescriptor insertReplaceMethod = SQLInsertReplaceMethodRegistry.getInstance().getInsertMethod(insertMethodId);
+            if (insertReplaceMethod != null) {
+                try {
+                    DBDInsertReplaceMethod insertMethod = insertReplaceMethod.createInsertMethod();
+                    options.put(DBSDataManipulator.OPTION_INSERT_REPLACE_METHOD, insertMethod);
+                } catch (DBException e) {
+                    log.debug("Can't get insert replace method", e);
+                }
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Per-writer statistics of the last parallel load. Empty if rows were written by the producer thread.
+     */
+    @NotNull
+    public List<DatabaseTransferWriterPool.WriterStatistics> getWriterStatistics() {
+        return writerStatistics;
+    }
+
+    private void finishWriters() throws DBCException {
+        try {
+            writerPool.finish();
+            targetSession.getProgressMonitor().subTask(
+                "Inserted " + writerPool.getRowsCommitted() + " rows (" + writerPool.getRowsPerSecond() + " rows/s)");
+            writerStatistics = writerPool.getStatistics();
+        } finally {
+            writerPool.close();
+            writerPool = null;
+        }
+    }
+
     @Override
     public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
         try {
-            if (rowsExported > 0) {
+            if (writerPool != null) {
+                finishWriters();
+            } else if (rowsExported > 0) {
                 insertBatch(true);
             }
             if (executeBatch != null) {
@@ -442,6 +507,11 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
     }
 
     private void closeExporter() {
+        if (writerPool != null) {
+            // Fetch wasn't finished properly
+            writerPool.close();
+            writerPool = null;
+        }
         if (!isPreview && targetSession != null && oldAutoCommit != null) {
             try {
                 DBCTransactionManager txnManager = DBUtils.getTransactionManager(targetSession.getExecutionContext());
@@ -38,6 +38,7 @@ import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
 import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
 import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
 import org.jkiss.dbeaver.model.task.DBTTask;
@@ -237,7 +238,23 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
                             monitor.subTask("Read data");
 
                             // Perform export
-                            if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                            DatabaseProducerSettings.ExtractType extractType = settings.getExtractType();
+                            DBSEntityAttribute partitionAttribute = null;
+                            DatabasePartitionedReader partitionedReader = null;
+                            if (extractType == DatabaseProducerSettings.ExtractType.PARTITIONED) {
+                                if (!selectiveExportFromUI && DatabasePartitionedReader.isPartitionSupported(dataContainer)) {
+                                    partitionedReader = new DatabasePartitionedReader(dataContainer, dataFilter, settings, readFlags);
+                                    partitionAttribute = partitionedReader.findPartitionAttribute(monitor);
+                                }
+                                if (partitionAttribute == null) {
+                                    log.warn("Can't read '" + dataContainer.getName() + "' by key ranges (no numeric or date/time unique key). Read in single query.");
+                                    extractType = DatabaseProducerSettings.ExtractType.SINGLE_QUERY;
+                                }
+                            }
+                            if (extractType == DatabaseProducerSettings.ExtractType.PARTITIONED) {
+                                // Read key ranges in parallel
+                                partitionedReader.readData(monitor, session, partitionAttribute, consumer);
+                            } else if (extractType == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
                                 // Just do it in single query
                                 dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize());
                             } else {
@@ -0,0 +1,382 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipelined database writer.
+ * Rows are grouped into chunks of "commit after" size and passed through a bounded queue to writer jobs.
+ * Each writer uses its own isolated execution context, executes chunk in a single batch and commits it.
+ * Failed chunk is rolled back, retried once and then split in halves to find the failing row.
+ * Failing row is passed to the error handler which decides whether it must be retried, skipped or
+ * the whole load must be stopped. Chunks committed before the stop remain in the target.
+ */
+class DatabaseTransferWriterPool {
+
+    private static final Log log = Log.getLog(DatabaseTransferWriterPool.class);
+
+    private static final int QUEUE_CHUNKS_PER_WRITER = 2;
+    private static final long QUEUE_POLL_TIMEOUT = 100;
+    // Special chunk which tells writer to finish
+    private static final List<Object[]> END_OF_DATA = Collections.emptyList();
+
+    /**
+     * Write error handler. Called from writer threads.
+     */
+    interface WriteErrorHandler {
+        /**
+         * Handles error of rows write.
+         * @param canSkip   true if a single failed row can be skipped or retried.
+         *                  false if part of rows may be already stored and the write can only be stopped.
+         * @return true if rows must be written again, false if they must be skipped
+         * @throws DBCException if load must be stopped
+         */
+        boolean handleWriteError(@NotNull Throwable error, boolean canSkip) throws DBCException;
+    }
+
+    public static class WriterStatistics {
+        private final String name;
+        private long rowsWritten;
+        private long batchesExecuted;
+        private long retries;
+        private long splits;
+        private long rowsSkipped;
+        private long writeTime;
+
+        WriterStatistics(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getRowsWritten() {
+            return rowsWritten;
+        }
+
+        public long getBatchesExecuted() {
+            return batchesExecuted;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        public long getSplits() {
+            return splits;
+        }
+
+        public long getRowsSkipped() {
+            return rowsSkipped;
+        }
+
+        public long getWriteTime() {
+            return writeTime;
+        }
+
+        public long getRowsPerSecond() {
+            return writeTime <= 0 ? rowsWritten : rowsWritten * 1000 / writeTime;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + rowsWritten + " rows in " + batchesExecuted + " batches, " + writeTime + "ms (" +
+                getRowsPerSecond() + " rows/s), retries: " + retries + ", splits: " + splits + ", skipped: " + rowsSkipped;
+        }
+    }
+
+    private final DatabaseConsumerSettings settings;
+    private final DBSDataManipulator targetObject;
+    private final DBSDataContainer sourceObject;
+    private final DBSAttributeBase[] attributes;
+    private final Map<String, Object> options;
+    private final WriteErrorHandler errorHandler;
+    private final int writerCount;
+    private final int chunkSize;
+
+    private final BlockingQueue<List<Object[]>> queue;
+    private final List<WriterJob> writers = new ArrayList<>();
+    private final AtomicLong rowsCommitted = new AtomicLong();
+    private long startTime;
+    private List<Object[]> currentChunk;
+    private volatile Throwable writeError;
+    private volatile boolean closed;
+
+    DatabaseTransferWriterPool(
+        @NotNull DatabaseConsumerSettings settings,
+        @NotNull DBSDataManipulator targetObject,
+        @Nullable DBSDataContainer sourceObject,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull Map<String, Object> options,
+        @NotNull WriteErrorHandler errorHandler,
+        int writerCount)
+    {
+        this.settings = settings;
+        this.targetObject = targetObject;
+        this.sourceObject = sourceObject;
+        this.attributes = attributes;
+        this.options = options;
+        this.errorHandler = errorHandler;
+        this.writerCount = writerCount;
+        this.chunkSize = Math.max(1, settings.getCommitAfterRows());
+        this.queue = new ArrayBlockingQueue<>(writerCount * QUEUE_CHUNKS_PER_WRITER);
+        this.currentChunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Opens writer contexts and starts writer jobs
+     */
+    void start(@NotNull DBRProgressMonitor monitor, @Nullable DBCExecutionContext initContext) throws DBException {
+        for (int i = 0; i < writerCount; i++) {
+            DBCExecutionContext context = DBUtils.getObjectOwnerInstance(targetObject).borrowIsolatedContext(
+                monitor, "Data transfer writer", initContext);
+            WriterJob writer = new WriterJob(context, i);
+            writers.add(writer);
+            DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+            if (txnManager != null && txnManager.isSupportsTransactions() && txnManager.isAutoCommit() == settings.isUseTransactions()) {
+                txnManager.setAutoCommit(monitor, !settings.isUseTransactions());
+            }
+        }
+        startTime = System.currentTimeMillis();
+        for (WriterJob writer : writers) {
+            writer.schedule();
+        }
+    }
+
+    void addRow(@NotNull Object[] row) throws DBCException {
+        currentChunk.add(row);
+        if (currentChunk.size() >= chunkSize) {
+            enqueue(currentChunk);
+            currentChunk = new ArrayList<>(chunkSize);
+        }
+    }
+
+    /**
+     * Flushes pending rows and waits for all writers to finish.
+     */
+    void finish() throws DBCException {
+        if (!currentChunk.isEmpty()) {
+            enqueue(currentChunk);
+            currentChunk = new ArrayList<>(chunkSize);
+        }
+        for (int i = 0; i < writers.size(); i++) {
+            enqueue(END_OF_DATA);
+        }
+        try {
+            for (WriterJob writer : writers) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            throw new DBCException("Data write interrupted", e);
+        }
+        checkWriteError();
+    }
+
+    /**
+     * Stops writers (if they are still running) and returns writer contexts to the pool
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+        for (WriterJob writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                log.debug(e);
+            }
+            writer.context.getOwnerInstance().releaseIsolatedContext(writer.context);
+        }
+    }
+
+    /**
+     * Number of rows committed by all writers so far
+     */
+    long getRowsCommitted() {
+        return rowsCommitted.get();
+    }
+
+    /**
+     * Average load throughput since writers start
+     */
+    long getRowsPerSecond() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        return elapsed <= 0 ? rowsCommitted.get() : rowsCommitted.get() * 1000 / elapsed;
+    }
+
+    List<WriterStatistics> getStatistics() {
+        List<WriterStatistics> result = new ArrayList<>(writers.size());
+        for (WriterJob writer : writers) {
+            result.add(writer.statistics);
+        }
+        return result;
+    }
+
+    private void enqueue(List<Object[]> chunk) throws DBCException {
+        try {
+            while (!queue.offer(chunk, QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                // All writers are busy. Check that they are still alive
+                checkWriteError();
+            }
+        } catch (InterruptedException e) {
+            throw new DBCException("Data write interrupted", e);
+        }
+        checkWriteError();
+    }
+
+    private void checkWriteError() throws DBCException {
+        if (writeError != null) {
+            throw new DBCException("Error writing data to " + DBUtils.getObjectFullName(targetObject, DBPEvaluationContext.UI) +
+                " (" + rowsCommitted.get() + " rows were committed before the error)", writeError);
+        }
+    }
+
+    private class WriterJob extends AbstractJob {
+
+        private final DBCExecutionContext context;
+        private final WriterStatistics statistics;
+
+        WriterJob(DBCExecutionContext context, int writerIndex) {
+            super("Write data to " + targetObject.getName() + " (" + (writerIndex + 1) + ")");
+            this.context = context;
+            this.statistics = new WriterStatistics("Writer " + (writerIndex + 1));
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Data load")) {
+                session.enableLogging(false);
+                for (;;) {
+                    List<Object[]> chunk = queue.poll(QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (closed || writeError != null) {
+                        break;
+                    }
+                    if (chunk == null) {
+                        continue;
+                    }
+                    if (chunk == END_OF_DATA) {
+                        break;
+                    }
+                    long startTime = System.currentTimeMillis();
+                    try {
+                        writeChunk(session, chunk, true);
+                    } finally {
+                        statistics.writeTime += System.currentTimeMillis() - startTime;
+                    }
+                }
+            } catch (Throwable e) {
+                if (writeError == null) {
+                    writeError = e;
+                }
+                return GeneralUtils.makeExceptionStatus(e);
+            }
+            return Status.OK_STATUS;
+        }
+
+        private void writeChunk(DBCSession session, List<Object[]> rows, boolean retry) throws DBCException {
+            try {
+                executeChunk(session, rows);
+                statistics.rowsWritten += rows.size();
+                rowsCommitted.addAndGet(rows.size());
+            } catch (DBCException e) {
+                DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                if (txnManager == null || txnManager.isAutoCommit()) {
+                    // Part of batch may be already stored. We can't repeat it.
+                    if (rows.size() > 1) {
+                        errorHandler.handleWriteError(e, false);
+                        throw e;
+                    }
+                    handleRowError(session, rows, e);
+                    return;
+                }
+                txnManager.rollback(session, null);
+                if (retry) {
+                    log.debug("Batch insert failed, retry: " + e.getMessage());
+                    statistics.retries++;
+                    writeChunk(session, rows, false);
+                } else if (rows.size() > 1) {
+                    log.debug("Batch insert failed, split " + rows.size() + " rows: " + e.getMessage());
+                    statistics.splits++;
+                    int middle = rows.size() / 2;
+                    writeChunk(session, rows.subList(0, middle), false);
+                    writeChunk(session, rows.subList(middle, rows.size()), false);
+                } else {
+                    handleRowError(session, rows, e);
+                }
+            }
+        }
+
+        private void handleRowError(DBCSession session, List<Object[]> rows, DBCException error) throws DBCException {
+            if (closed || writeError != null) {
+                // Load is already stopped by another writer
+                throw error;
+            }
+            if (errorHandler.handleWriteError(error, true)) {
+                writeChunk(session, rows, false);
+            } else {
+                statistics.rowsSkipped += rows.size();
+            }
+        }
+
+        private void executeChunk(DBCSession session, List<Object[]> rows) throws DBCException {
+            AbstractExecutionSource executionSource = new AbstractExecutionSource(sourceObject, context, this);
+            DBSDataManipulator.ExecuteBatch executeBatch = DatabaseTransferBulkBatch.createInsertBatch(
+                settings, session, targetObject, attributes, executionSource);
+            try {
+                for (Object[] row : rows) {
+                    executeBatch.add(row);
+                }
+                executeBatch.execute(session, options);
+                statistics.batchesExecuted++;
+            } finally {
+                executeBatch.close();
+            }
+            DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+            if (txnManager != null && txnManager.isSupportsTransactions() && !txnManager.isAutoCommit()) {
+                txnManager.commit(session);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database.bulk;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferBulkLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Base bulk loader.
+ * Bulk protocols are provided by JDBC drivers which are loaded by driver class loaders,
+ * so driver API is accessed with reflection.
+ */
+public abstract class AbstractBulkLoader implements IDataTransferBulkLoader {
+
+    /**
+     * Formats a single row in the bulk protocol text format
+     */
+    protected interface RowFormatter {
+        void formatRow(@NotNull StringBuilder buffer, @NotNull Object[] row) throws DBCException;
+    }
+
+    @Override
+    public boolean isSupported(@NotNull DBCSession session, @NotNull DBSDataManipulator targetObject, @NotNull DBSAttributeBase[] attributes) {
+        if (!(session instanceof JDBCSession) || !(targetObject instanceof DBSEntity) || attributes.length == 0) {
+            return false;
+        }
+        for (DBSAttributeBase attribute : attributes) {
+            switch (attribute.getDataKind()) {
+                case BOOLEAN:
+                case NUMERIC:
+                case STRING:
+                case DATETIME:
+                    break;
+                default:
+                    // Binary, LOB and complex values are not supported
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    protected Connection getConnection(@NotNull DBCSession session) throws DBCException {
+        if (!(session instanceof JDBCSession)) {
+            throw new DBCException("Bulk load requires JDBC session");
+        }
+        return ((JDBCSession) session).getOriginal();
+    }
+
+    @NotNull
+    protected String getTableName(@NotNull DBSDataManipulator targetObject) {
+        return DBUtils.getObjectFullName(targetObject, DBPEvaluationContext.DML);
+    }
+
+    @NotNull
+    protected String getColumnList(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes) {
+        StringBuilder columns = new StringBuilder();
+        for (DBSAttributeBase attribute : attributes) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            columns.append(DBUtils.getQuotedIdentifier(session.getDataSource(), attribute.getName()));
+        }
+        return columns.toString();
+    }
+
+    /**
+     * Converts value to its text representation.
+     * @return null for NULL values
+     */
+    @Nullable
+    protected String formatValue(@NotNull DBSAttributeBase attribute, @Nullable Object value, boolean appendTimeZone) throws DBCException {
+        if (value instanceof DBDValue) {
+            if (((DBDValue) value).isNull()) {
+                return null;
+            }
+            throw new DBCException("Value of attribute '" + attribute.getName() + "' is not supported by bulk load");
+        }
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof Date) {
+            return formatDate((Date) value, appendTimeZone);
+        }
+        if (value instanceof byte[]) {
+            throw new DBCException("Binary value of attribute '" + attribute.getName() + "' is not supported by bulk load");
+        }
+        return value.toString();
+    }
+
+    /**
+     * Iterates over rows and formats them on demand. Only the text of the current row is kept in memory.
+     */
+    private static class RowsTextSource {
+        private final Iterator<Object[]> rows;
+        private final RowFormatter formatter;
+        private final StringBuilder buffer = new StringBuilder();
+
+        RowsTextSource(List<Object[]> rows, RowFormatter formatter) {
+            this.rows = rows.iterator();
+            this.formatter = formatter;
+        }
+
+        /**
+         * Returns text of the next row or null if there are no more rows
+         */
+        @Nullable
+        StringBuilder nextRow() throws IOException {
+            if (!rows.hasNext()) {
+                return null;
+            }
+            buffer.setLength(0);
+            try {
+                formatter.formatRow(buffer, rows.next());
+            } catch (DBCException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Character stream of formatted rows
+     */
+    protected static class RowsReader extends Reader {
+        private final RowsTextSource source;
+        private StringBuilder rowText;
+        private int position;
+
+        public RowsReader(@NotNull List<Object[]> rows, @NotNull RowFormatter formatter) {
+            this.source = new RowsTextSource(rows, formatter);
+        }
+
+        @Override
+        public int read(@NotNull char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (rowText == null || position >= rowText.length()) {
+                rowText = source.nextRow();
+                position = 0;
+                if (rowText == null) {
+                    return -1;
+                }
+            }
+            int count = Math.min(len, rowText.length() - position);
+            rowText.getChars(position, position + count, cbuf, off);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Byte stream of formatted rows
+     */
+    protected static class RowsInputStream extends InputStream {
+        private final RowsTextSource source;
+        private final Charset charset;
+        private byte[] rowBytes;
+        private int position;
+
+        public RowsInputStream(@NotNull List<Object[]> rows, @NotNull RowFormatter formatter, @NotNull Charset charset) {
+            this.source = new RowsTextSource(rows, formatter);
+            this.charset = charset;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fillBuffer()) {
+                return -1;
+            }
+            return rowBytes[position++] & 0xff;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fillBuffer()) {
+                return -1;
+            }
+            int count = Math.min(len, rowBytes.length - position);
+            System.arraycopy(rowBytes, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fillBuffer() throws IOException {
+            while (rowBytes == null || position >= rowBytes.length) {
+                StringBuilder rowText = source.nextRow();
+                if (rowText == null) {
+                    return false;
+                }
+                rowBytes = rowText.toString().getBytes(charset);
+                position = 0;
+            }
+            return true;
+        }
+    }
+
+    private static String formatDate(Date value, boolean appendTimeZone) {
+        String result;
+        if (value instanceof java.sql.Date || value instanceof java.sql.Time) {
+            // Date and time do not have zone
+            return value.toString();
+        } else if (value instanceof Timestamp) {
+            result = value.toString();
+        } else {
+            result = new Timestamp(value.getTime()).toString();
+        }
+        if (appendTimeZone) {
+            // Timestamp text is in local zone. Zone offset is ignored by server for timestamps without zone.
+            result += new SimpleDateFormat("XXX").format(value);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database.bulk;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.utils.BeanUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * MySQL/MariaDB bulk loader.
+ * Uses LOAD DATA LOCAL INFILE with data passed as a stream. Requires allowLoadLocalInfile on client and local_infile on server.
+ * LOAD DATA LOCAL skips rows with errors (e.g. duplicate keys) instead of failing, so skipped rows fail the whole load.
+ * Partially loaded rows can be rolled back only in a transaction, so loader is used in manual commit mode only.
+ */
+public class MySQLBulkLoader extends AbstractBulkLoader {
+
+    @Override
+    public boolean isSupported(@NotNull DBCSession session, @NotNull DBSDataManipulator targetObject, @NotNull DBSAttributeBase[] attributes) {
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager == null || !txnManager.isSupportsTransactions()) {
+            return false;
+        }
+        try {
+            if (txnManager.isAutoCommit()) {
+                return false;
+            }
+        } catch (DBCException e) {
+            return false;
+        }
+        return super.isSupported(session, targetObject, attributes);
+    }
+
+    @Override
+    public long loadRows(@NotNull DBCSession session, @NotNull DBSDataManipulator targetObject, @NotNull DBSAttributeBase[] attributes, @NotNull List<Object[]> rows) throws DBCException {
+        String sql = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + getTableName(targetObject) +
+            " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'" +
+            " (" + getColumnList(session, attributes) + ")";
+
+        Connection connection = getConnection(session);
+        try (Statement statement = connection.createStatement()) {
+            // Rows are formatted while driver sends them to the server
+            InputStream stream = new RowsInputStream(rows, (buffer, row) -> {
+                for (int i = 0; i < attributes.length; i++) {
+                    if (i > 0) {
+                        buffer.append('\t');
+                    }
+                    Object value = row[i];
+                    if (value instanceof Boolean) {
+                        buffer.append((Boolean) value ? '1' : '0');
+                        continue;
+                    }
+                    String strValue = formatValue(attributes[i], value, false);
+                    if (strValue == null) {
+                        buffer.append("\\N");
+                    } else {
+                        escapeValue(buffer, strValue);
+                    }
+                }
+                buffer.append('\n');
+            }, StandardCharsets.UTF_8);
+            try {
+                BeanUtils.invokeObjectMethod(
+                    statement,
+                    "setLocalInfileInputStream",
+                    new Class[] { InputStream.class },
+                    new Object[] { stream });
+            } catch (NoSuchMethodException e) {
+                throw new DBCException("LOAD DATA from stream is not supported by driver", e);
+            }
+            long loaded = statement.executeUpdate(sql);
+            if (loaded != rows.size()) {
+                SQLWarning warning = statement.getWarnings();
+                throw new DBCException("LOAD DATA into " + targetObject.getName() + ": only " + loaded + " of " + rows.size() + " rows loaded" +
+                    (warning == null ? "" : " (" + warning.getMessage() + ")"), warning);
+            }
+            return loaded;
+        } catch (DBCException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DBCException("LOAD DATA into " + targetObject.getName() + " failed", e);
+        }
+    }
+
+    private static void escapeValue(StringBuilder data, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': data.append("\\\\"); break;
+                case '\t': data.append("\\t"); break;
+                case '\n': data.append("\\n"); break;
+                case '\r': data.append("\\r"); break;
+                case 0: data.append("\\0"); break;
+                default: data.append(c); break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database.bulk;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.utils.BeanUtils;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * PostgreSQL bulk loader.
+ * Uses COPY FROM STDIN (CSV format) through driver's CopyManager.
+ */
+public class PostgreBulkLoader extends AbstractBulkLoader {
+
+    @Override
+    public long loadRows(@NotNull DBCSession session, @NotNull DBSDataManipulator targetObject, @NotNull DBSAttributeBase[] attributes, @NotNull List<Object[]> rows) throws DBCException {
+        String sql = "COPY " + getTableName(targetObject) + " (" + getColumnList(session, attributes) + ") FROM STDIN WITH (FORMAT csv)";
+
+        // Rows are formatted while driver sends them to the server
+        Reader data = new RowsReader(rows, (buffer, row) -> {
+            for (int i = 0; i < attributes.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                String value = formatValue(attributes[i], row[i], true);
+                if (value != null) {
+                    // Quoted empty string is an empty string. Empty unquoted value is NULL.
+                    buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+                }
+            }
+            buffer.append('\n');
+        });
+
+        Connection connection = getConnection(session);
+        try {
+            Object copyManager = BeanUtils.invokeObjectMethod(connection, "getCopyAPI");
+            Object result = BeanUtils.invokeObjectMethod(
+                copyManager,
+                "copyIn",
+                new Class[] { String.class, Reader.class },
+                new Object[] { sql, data });
+            return result instanceof Number ? ((Number) result).longValue() : rows.size();
+        } catch (NoSuchMethodException e) {
+            throw new DBCException("COPY API is not supported by driver", e);
+        } catch (Throwable e) {
+            throw new DBCException("COPY into " + targetObject.getName() + " failed", e);
+        }
+    }
+
+}
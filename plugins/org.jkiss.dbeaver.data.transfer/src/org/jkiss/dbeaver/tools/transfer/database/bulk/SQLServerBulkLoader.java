@@ -0,0 +1,200 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database.bulk;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.utils.BeanUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SQL Server bulk loader.
+ * Uses driver's SQLServerBulkCopy. Rows are passed as a bulk record, so values are not converted to text.
+ */
+public class SQLServerBulkLoader extends AbstractBulkLoader {
+
+    private static final String BULK_COPY_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopy";
+    private static final String BULK_COPY_OPTIONS_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions";
+    private static final String BULK_RECORD_CLASS = "com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord";
+
+    @Override
+    public long loadRows(@NotNull DBCSession session, @NotNull DBSDataManipulator targetObject, @NotNull DBSAttributeBase[] attributes, @NotNull List<Object[]> rows) throws DBCException {
+        Connection connection = getConnection(session);
+        ClassLoader driverClassLoader = connection.getClass().getClassLoader();
+        Object bulkCopy = null;
+        try {
+            Class<?> bulkCopyClass = driverClassLoader.loadClass(BULK_COPY_CLASS);
+            Class<?> optionsClass = driverClassLoader.loadClass(BULK_COPY_OPTIONS_CLASS);
+            Class<?> recordClass = driverClassLoader.loadClass(BULK_RECORD_CLASS);
+
+            bulkCopy = bulkCopyClass.getConstructor(Connection.class).newInstance(connection);
+
+            boolean keepIdentity = false;
+            for (DBSAttributeBase attribute : attributes) {
+                if (attribute.isAutoGenerated()) {
+                    keepIdentity = true;
+                    break;
+                }
+            }
+            Object options = optionsClass.getConstructor().newInstance();
+            // Single batch in the current transaction, no timeout
+            BeanUtils.invokeObjectMethod(options, "setBatchSize", new Class[] { Integer.TYPE }, new Object[] { 0 });
+            BeanUtils.invokeObjectMethod(options, "setBulkCopyTimeout", new Class[] { Integer.TYPE }, new Object[] { 0 });
+            BeanUtils.invokeObjectMethod(options, "setKeepIdentity", new Class[] { Boolean.TYPE }, new Object[] { keepIdentity });
+            BeanUtils.invokeObjectMethod(bulkCopy, "setBulkCopyOptions", new Class[] { optionsClass }, new Object[] { options });
+
+            BeanUtils.invokeObjectMethod(bulkCopy, "setDestinationTableName", new Class[] { String.class }, new Object[] { getTableName(targetObject) });
+            for (int i = 0; i < attributes.length; i++) {
+                BeanUtils.invokeObjectMethod(
+                    bulkCopy,
+                    "addColumnMapping",
+                    new Class[] { Integer.TYPE, String.class },
+                    new Object[] { i + 1, attributes[i].getName() });
+            }
+
+            Object record = Proxy.newProxyInstance(
+                driverClassLoader,
+                new Class[] { recordClass },
+                new BulkRecordHandler(attributes, rows));
+            Method writeMethod = null;
+            for (Method method : bulkCopyClass.getMethods()) {
+                if (method.getName().equals("writeToServer") && method.getParameterTypes().length == 1 &&
+                    method.getParameterTypes()[0].isAssignableFrom(recordClass))
+                {
+                    writeMethod = method;
+                    break;
+                }
+            }
+            if (writeMethod == null) {
+                throw new DBCException("Bulk copy from record is not supported by driver");
+            }
+            try {
+                writeMethod.invoke(bulkCopy, record);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return rows.size();
+        } catch (DBCException e) {
+            throw e;
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            throw new DBCException("Bulk copy API is not supported by driver", e);
+        } catch (Throwable e) {
+            throw new DBCException("Bulk copy into " + targetObject.getName() + " failed", e);
+        } finally {
+            if (bulkCopy != null) {
+                try {
+                    BeanUtils.invokeObjectMethod(bulkCopy, "close");
+                } catch (Throwable e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Implements ISQLServerBulkRecord over list of rows
+     */
+    private static class BulkRecordHandler implements InvocationHandler {
+        private final DBSAttributeBase[] attributes;
+        private final List<Object[]> rows;
+        private int currentRow = -1;
+
+        BulkRecordHandler(DBSAttributeBase[] attributes, List<Object[]> rows) {
+            this.attributes = attributes;
+            this.rows = rows;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getColumnOrdinals": {
+                    Set<Integer> ordinals = new LinkedHashSet<>();
+                    for (int i = 1; i <= attributes.length; i++) {
+                        ordinals.add(i);
+                    }
+                    return ordinals;
+                }
+                case "getColumnName":
+                    return getAttribute(args).getName();
+                case "getColumnType":
+                    return getAttribute(args).getTypeID();
+                case "getPrecision": {
+                    DBSAttributeBase attribute = getAttribute(args);
+                    Integer precision = attribute.getPrecision();
+                    if (precision != null && precision > 0) {
+                        return precision;
+                    }
+                    return (int) Math.min(Integer.MAX_VALUE, Math.max(0, attribute.getMaxLength()));
+                }
+                case "getScale": {
+                    Integer scale = getAttribute(args).getScale();
+                    return scale == null ? 0 : scale;
+                }
+                case "isAutoIncrement":
+                    return false;
+                case "next":
+                    currentRow++;
+                    return currentRow < rows.size();
+                case "getRowData": {
+                    Object[] row = rows.get(currentRow).clone();
+                    for (int i = 0; i < row.length; i++) {
+                        if (row[i] instanceof DBDValue) {
+                            if (!((DBDValue) row[i]).isNull()) {
+                                throw new DBCException("Value of attribute '" + attributes[i].getName() + "' is not supported by bulk load");
+                            }
+                            row[i] = null;
+                        }
+                    }
+                    return row;
+                }
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Bulk record (" + rows.size() + " rows)";
+            }
+            // Optional methods (column metadata setters, etc)
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Boolean.TYPE) {
+                return false;
+            } else if (returnType == Integer.TYPE) {
+                return 0;
+            } else if (returnType == Long.TYPE) {
+                return 0L;
+            }
+            return null;
+        }
+
+        private DBSAttributeBase getAttribute(Object[] args) {
+            return attributes[(Integer) args[0] - 1];
+        }
+    }
+
+}
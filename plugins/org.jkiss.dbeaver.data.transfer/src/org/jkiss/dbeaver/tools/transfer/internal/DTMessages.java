@@ -33,6 +33,8 @@ public class DTMessages extends NLS {
 	public static String data_transfer_wizard_job_task_export_table_data;
 	public static String data_transfer_wizard_job_task_retrieve;
 	public static String data_transfer_wizard_output_checkbox_compress;
+	public static String data_transfer_wizard_output_label_compression_format;
+	public static String data_transfer_wizard_output_label_compression_threads;
 	public static String data_transfer_wizard_output_checkbox_split_files;
 	public static String data_transfer_wizard_output_checkbox_split_files_tip;
 	public static String data_transfer_wizard_output_checkbox_new_connection;
@@ -42,6 +44,8 @@ public class DTMessages extends NLS {
 	public static String data_transfer_wizard_output_checkbox_selected_rows_only;
 	public static String data_transfer_wizard_output_combo_extract_type_item_by_segments;
 	public static String data_transfer_wizard_output_combo_extract_type_item_single_query;
+	public static String data_transfer_wizard_output_combo_extract_type_item_partitioned;
+	public static String data_transfer_wizard_output_checkbox_partition_ordered;
 	public static String data_transfer_wizard_output_description;
 	public static String data_transfer_wizard_output_dialog_directory_message;
 	public static String data_transfer_wizard_output_dialog_directory_text;
@@ -59,6 +63,8 @@ public class DTMessages extends NLS {
 	public static String data_transfer_wizard_output_label_insert_bom_tooltip;
 	public static String data_transfer_wizard_output_label_max_threads;
 	public static String data_transfer_wizard_output_label_segment_size;
+	public static String data_transfer_wizard_output_label_partition_column;
+	public static String data_transfer_wizard_output_label_partition_parallelism;
 	public static String data_transfer_wizard_output_name;
 	public static String data_transfer_wizard_output_title;
 	public static String data_transfer_wizard_settings_binaries_item_inline;
@@ -121,6 +127,8 @@ public class DTMessages extends NLS {
 	public static String database_consumer_settings_option_on_duplicate_key_method_label;
 	public static String database_consumer_settings_option_transfer_auto_generated_columns;
 	public static String database_consumer_settings_option_truncate_before_load;
+	public static String database_consumer_settings_option_writer_threads;
+	public static String database_consumer_settings_option_use_bulk_load;
 
 	public static String data_transfer_settings_title_find_producer;
 	public static String data_transfer_settings_message_find_data_producer;
@@ -0,0 +1,107 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.registry;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.connection.DBPDriver;
+import org.jkiss.dbeaver.model.impl.AbstractDescriptor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferBulkLoader;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataTransferBulkLoaderDescriptor
+ */
+public class DataTransferBulkLoaderDescriptor extends AbstractDescriptor
+{
+    @NotNull
+    private final String id;
+    @NotNull
+    private final String name;
+    private final String description;
+    private final ObjectType implType;
+    private final List<String> dataSourceProviders = new ArrayList<>();
+    private final List<String> driverClasses = new ArrayList<>();
+
+    DataTransferBulkLoaderDescriptor(IConfigurationElement config)
+    {
+        super(config);
+
+        this.id = config.getAttribute("id");
+        this.name = config.getAttribute("label");
+        this.description = config.getAttribute("description");
+        this.implType = new ObjectType(config.getAttribute("class"));
+
+        for (IConfigurationElement dsConfig : ArrayUtils.safeArray(config.getChildren("datasource"))) {
+            String providerId = dsConfig.getAttribute("id");
+            if (!CommonUtils.isEmpty(providerId)) {
+                dataSourceProviders.add(providerId);
+            }
+            String driverClass = dsConfig.getAttribute("driverClass");
+            if (!CommonUtils.isEmpty(driverClass)) {
+                driverClasses.add(driverClass);
+            }
+        }
+    }
+
+    @NotNull
+    public String getId()
+    {
+        return id;
+    }
+
+    @NotNull
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    public boolean appliesTo(@NotNull DBPDataSource dataSource)
+    {
+        DBPDriver driver = dataSource.getContainer().getDriver();
+        if (dataSourceProviders.contains(driver.getProviderId())) {
+            return true;
+        }
+        return driver.getDriverClassName() != null && driverClasses.contains(driver.getDriverClassName());
+    }
+
+    public IDataTransferBulkLoader createLoader() throws DBException
+    {
+        implType.checkObjectClass(IDataTransferBulkLoader.class);
+        try {
+            return implType.getObjectClass(IDataTransferBulkLoader.class).getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            throw new DBException("Can't create bulk loader", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.registry;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.impl.AbstractDescriptor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamOutputCodec;
+
+/**
+ * DataTransferOutputCodecDescriptor
+ */
+public class DataTransferOutputCodecDescriptor extends AbstractDescriptor
+{
+    @NotNull
+    private final String id;
+    @NotNull
+    private final String name;
+    private final String description;
+    @NotNull
+    private final String fileExtension;
+    private final boolean parallel;
+    private final ObjectType implType;
+
+    DataTransferOutputCodecDescriptor(IConfigurationElement config)
+    {
+        super(config);
+
+        this.id = config.getAttribute("id");
+        this.name = config.getAttribute("label");
+        this.description = config.getAttribute("description");
+        this.fileExtension = config.getAttribute("extension");
+        this.parallel = Boolean.parseBoolean(config.getAttribute("parallel"));
+        this.implType = new ObjectType(config.getAttribute("class"));
+    }
+
+    @NotNull
+    public String getId()
+    {
+        return id;
+    }
+
+    @NotNull
+    public String getName()
+    {
+        return name;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    /**
+     * Extension which is appended to the output file name
+     */
+    @NotNull
+    public String getFileExtension()
+    {
+        return fileExtension;
+    }
+
+    /**
+     * Codec can compress with multiple threads
+     */
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    public IStreamOutputCodec createCodec() throws DBException
+    {
+        implType.checkObjectClass(IStreamOutputCodec.class);
+        try {
+            return implType.getObjectClass(IStreamOutputCodec.class).getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            throw new DBException("Can't create output codec", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
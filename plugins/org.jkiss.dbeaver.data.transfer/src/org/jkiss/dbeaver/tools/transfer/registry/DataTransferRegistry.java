@@ -22,6 +22,7 @@ import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferNode;
 import org.jkiss.utils.CommonUtils;
@@ -50,6 +51,8 @@ public class DataTransferRegistry {
     }
 
     private List<DataTransferNodeDescriptor> nodes = new ArrayList<>();
+    private List<DataTransferBulkLoaderDescriptor> bulkLoaders = new ArrayList<>();
+    private List<DataTransferOutputCodecDescriptor> outputCodecs = new ArrayList<>();
 
     private DataTransferRegistry(IExtensionRegistry registry) {
         // Load datasource providers from external plugins
@@ -61,6 +64,10 @@ public class DataTransferRegistry {
                     continue;
                 }
                 nodes.add(new DataTransferNodeDescriptor(ext));
+            } else if ("bulkLoader".equals(ext.getName())) {
+                bulkLoaders.add(new DataTransferBulkLoaderDescriptor(ext));
+            } else if ("outputCodec".equals(ext.getName())) {
+                outputCodecs.add(new DataTransferOutputCodecDescriptor(ext));
             }
         }
         // Load references
@@ -132,6 +139,34 @@ public class DataTransferRegistry {
         return null;
     }
 
+    public List<DataTransferBulkLoaderDescriptor> getBulkLoaders() {
+        return new ArrayList<>(bulkLoaders);
+    }
+
+    @Nullable
+    public DataTransferBulkLoaderDescriptor getBulkLoader(DBPDataSource dataSource) {
+        for (DataTransferBulkLoaderDescriptor loader : bulkLoaders) {
+            if (loader.appliesTo(dataSource)) {
+                return loader;
+            }
+        }
+        return null;
+    }
+
+    public List<DataTransferOutputCodecDescriptor> getOutputCodecs() {
+        return new ArrayList<>(outputCodecs);
+    }
+
+    @Nullable
+    public DataTransferOutputCodecDescriptor getOutputCodec(String id) {
+        for (DataTransferOutputCodecDescriptor codec : outputCodecs) {
+            if (codec.getId().equals(id)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
     public DataTransferProcessorDescriptor getProcessor(String processorFullId) {
         String[] idParts = processorFullId.split(":");
         if (idParts.length == 2) {
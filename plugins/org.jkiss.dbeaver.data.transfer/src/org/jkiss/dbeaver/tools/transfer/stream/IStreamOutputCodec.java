@@ -0,0 +1,40 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output file compression codec.
+ * Codecs are registered as "outputCodec" elements of data transfer extension point.
+ */
+public interface IStreamOutputCodec {
+
+    /**
+     * Wraps output file stream with compressing stream.
+     * Closing of the returned stream must finish compressed data and close the file stream.
+     *
+     * @param entryName   uncompressed file name, used by archive formats
+     * @param threadCount number of compression threads. Codecs which can't compress in parallel ignore it
+     */
+    @NotNull
+    OutputStream openOutputStream(@NotNull OutputStream outputStream, @NotNull String entryName, int threadCount) throws IOException;
+
+}
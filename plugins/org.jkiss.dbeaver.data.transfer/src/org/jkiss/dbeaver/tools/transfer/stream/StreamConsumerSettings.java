@@ -50,6 +50,7 @@ public class StreamConsumerSettings implements IDataTransferSettings {
     public static final String PROP_EXTRACT_IMAGES = "extractImages";
     public static final String PROP_FILE_EXTENSION = "extension";
     public static final String PROP_FORMAT = "format";
+    public static final String DEFAULT_COMPRESSION_FORMAT = "zip";
 
     private LobExtractType lobExtractType = LobExtractType.SKIP;
     private LobEncoding lobEncoding = LobEncoding.HEX;
@@ -65,8 +66,11 @@ public class StreamConsumerSettings implements IDataTransferSettings {
     private boolean outputClipboard = false;
     private boolean useSingleFile = false;
     private boolean compressResults = false;
+    private String compressionFormat = DEFAULT_COMPRESSION_FORMAT;
+    private int compressionThreads = 1;
     private boolean splitOutFiles = false;
     private long maxOutFileSize = 10 * 1000 * 1000;
+    private boolean splitByCompressedSize = false;
     private boolean openFolderOnFinish = true;
     private boolean executeProcessOnFinish = false;
     private String finishProcessCommand = null;
@@ -151,6 +155,25 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         this.compressResults = compressResults;
     }
 
+    /**
+     * Output codec ID
+     */
+    public String getCompressionFormat() {
+        return compressionFormat;
+    }
+
+    public void setCompressionFormat(String compressionFormat) {
+        this.compressionFormat = compressionFormat;
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
+
     public boolean isSplitOutFiles() {
         return splitOutFiles;
     }
@@ -167,6 +190,14 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         this.maxOutFileSize = maxOutFileSize;
     }
 
+    public boolean isSplitByCompressedSize() {
+        return splitByCompressedSize;
+    }
+
+    public void setSplitByCompressedSize(boolean splitByCompressedSize) {
+        this.splitByCompressedSize = splitByCompressedSize;
+    }
+
     public boolean isOpenFolderOnFinish() {
         return openFolderOnFinish;
     }
@@ -217,8 +248,11 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         }
 
         compressResults = CommonUtils.getBoolean(settings.get("compressResults"), compressResults);
+        compressionFormat = CommonUtils.toString(settings.get("compressionFormat"), compressionFormat);
+        compressionThreads = CommonUtils.toInt(settings.get("compressionThreads"), compressionThreads);
         splitOutFiles = CommonUtils.getBoolean(settings.get("splitOutFiles"), splitOutFiles);
         maxOutFileSize = CommonUtils.toLong(settings.get("maxOutFileSize"), maxOutFileSize);
+        splitByCompressedSize = CommonUtils.getBoolean(settings.get("splitByCompressedSize"), splitByCompressedSize);
         openFolderOnFinish = CommonUtils.getBoolean(settings.get("openFolderOnFinish"), openFolderOnFinish);
         executeProcessOnFinish = CommonUtils.getBoolean(settings.get("executeProcessOnFinish"), executeProcessOnFinish);
         finishProcessCommand = CommonUtils.toString(settings.get("finishProcessCommand"), finishProcessCommand);
@@ -243,8 +277,11 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         settings.put("useSingleFile", useSingleFile);
 
         settings.put("compressResults", compressResults);
+        settings.put("compressionFormat", compressionFormat);
+        settings.put("compressionThreads", compressionThreads);
         settings.put("splitOutFiles", splitOutFiles);
         settings.put("maxOutFileSize", maxOutFileSize);
+        settings.put("splitByCompressedSize", splitByCompressedSize);
 
         settings.put("openFolderOnFinish", openFolderOnFinish);
         settings.put("executeProcessOnFinish", executeProcessOnFinish);
@@ -273,6 +310,12 @@ public class StreamConsumerSettings implements IDataTransferSettings {
         }
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_compress, compressResults);
+        if (compressResults) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_compression_format, compressionFormat);
+            if (compressionThreads > 1) {
+                DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_compression_threads, compressionThreads);
+            }
+        }
         if (executeProcessOnFinish) {
             DTUtils.addSummary(summary, "Execute process on finish", finishProcessCommand);
         }
@@ -43,6 +43,8 @@ import org.jkiss.dbeaver.runtime.serialize.DBPObjectSerializer;
 import org.jkiss.dbeaver.tools.transfer.DTUtils;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
+import org.jkiss.dbeaver.tools.transfer.registry.DataTransferOutputCodecDescriptor;
+import org.jkiss.dbeaver.tools.transfer.registry.DataTransferRegistry;
 import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
@@ -55,8 +57,6 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Stream transfer consumer
@@ -86,7 +86,6 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     private DBSDataContainer dataContainer;
 
     private OutputStream outputStream;
-    private ZipOutputStream zipStream;
     private PrintWriter writer;
     private int multiFileNumber;
     private long bytesWritten = 0;
@@ -277,14 +276,22 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         this.outputStream = new BufferedOutputStream(
             new FileOutputStream(outputFile, settings.isUseSingleFile()),
             OUT_FILE_BUFFER_SIZE);
+        // If we need to split files - use stream wrapper to calculate file size.
+        // It is placed before or after compression depending on which size is limited.
+        boolean countCompressedSize = settings.isCompressResults() && settings.isSplitByCompressedSize();
+        if (settings.isSplitOutFiles() && countCompressedSize) {
+            this.outputStream = new OutputStreamStatProxy(this.outputStream);
+        }
         if (settings.isCompressResults()) {
-            this.zipStream = new ZipOutputStream(this.outputStream);
-            this.zipStream.putNextEntry(new ZipEntry(getOutputFileName()));
-            this.outputStream = zipStream;
+            try {
+                this.outputStream = getOutputCodec().createCodec().openOutputStream(
+                    this.outputStream, getOutputFileName(), settings.getCompressionThreads());
+            } catch (DBException e) {
+                ContentUtils.close(this.outputStream);
+                throw new IOException("Can't open compressed output stream", e);
+            }
         }
-
-        // If we need to split files - use stream wrapper to calculate fiel size
-        if (settings.isSplitOutFiles()) {
+        if (settings.isSplitOutFiles() && !countCompressedSize) {
             this.outputStream = new OutputStreamStatProxy(this.outputStream);
         }
 
@@ -298,10 +305,25 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         }
 
         if (!parameters.isBinary) {
-            this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, settings.getOutputEncoding()), true);
+            // No auto flush: each flush of compressing stream would write out a partial block
+            this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, settings.getOutputEncoding()), false);
         }
     }
 
+    @NotNull
+    private DataTransferOutputCodecDescriptor getOutputCodec() throws DBException {
+        DataTransferRegistry registry = DataTransferRegistry.getInstance();
+        DataTransferOutputCodecDescriptor codec = registry.getOutputCodec(settings.getCompressionFormat());
+        if (codec == null) {
+            log.warn("Output compression format '" + settings.getCompressionFormat() + "' not found, using " + StreamConsumerSettings.DEFAULT_COMPRESSION_FORMAT);
+            codec = registry.getOutputCodec(StreamConsumerSettings.DEFAULT_COMPRESSION_FORMAT);
+            if (codec == null) {
+                throw new DBException("Output compression format '" + settings.getCompressionFormat() + "' not found");
+            }
+        }
+        return codec;
+    }
+
     private void closeOutputStreams() {
         if (this.writer != null) {
             this.writer.flush();
@@ -309,21 +331,6 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
             this.writer = null;
         }
 
-        // Finish zip stream
-        if (zipStream != null) {
-            try {
-                zipStream.closeEntry();
-            } catch (IOException e) {
-                log.debug(e);
-            }
-            try {
-                zipStream.finish();
-            } catch (IOException e) {
-                log.debug(e);
-            }
-            zipStream = null;
-        }
-
         if (outputStream != null) {
             try {
                 outputStream.flush();
@@ -465,7 +472,11 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
         }
         String fileName = getOutputFileName();
         if (settings.isCompressResults()) {
-            fileName += ".zip";
+            try {
+                fileName += "." + getOutputCodec().getFileExtension();
+            } catch (DBException e) {
+                log.error(e);
+            }
         }
         return new File(dir, fileName);
     }
@@ -85,9 +85,16 @@ public class StreamTransferResultSet implements DBCResultSet {
 
     @Override
     public Object getAttributeValue(int index) throws DBCException {
+        return convertStreamValue(index, streamRow[index]);
+    }
+
+    /**
+     * Converts stream value into attribute value according to transform hints.
+     * Doesn't depend on current row so it may be called by parallel readers before the row is set.
+     */
+    public Object convertStreamValue(int index, Object value) {
         StreamDataImporterColumnInfo attr = this.attributeMappings.get(index);
 
-        Object value = streamRow[index];
         if (value != null && dateTimeFormat != null && attr.getDataKind() == DBPDataKind.DATETIME && !(value instanceof Date)) {
             // Convert string to timestamp
             try {
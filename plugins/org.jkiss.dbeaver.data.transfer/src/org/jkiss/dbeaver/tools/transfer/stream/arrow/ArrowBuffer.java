@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable little-endian byte buffer
+ */
+class ArrowBuffer {
+
+    private byte[] data;
+    private int size;
+
+    ArrowBuffer(int initialCapacity) {
+        this.data = new byte[Math.max(16, initialCapacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(data, 0, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        data[size++] = (byte) value;
+    }
+
+    void writeShort(int value) {
+        ensureCapacity(2);
+        data[size++] = (byte) value;
+        data[size++] = (byte) (value >> 8);
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        setInt(size, value);
+        size += 4;
+    }
+
+    void writeLong(long value) {
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            data[size++] = (byte) (value >> (i * 8));
+        }
+    }
+
+    void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    void write(ArrowBuffer buffer) {
+        write(buffer.data, 0, buffer.size);
+    }
+
+    void write(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, data, size, length);
+        size += length;
+    }
+
+    /**
+     * Appends zero bytes until size is a multiple of alignment
+     */
+    void align(int alignment) {
+        int padding = (alignment - size % alignment) % alignment;
+        ensureCapacity(padding);
+        for (int i = 0; i < padding; i++) {
+            data[size++] = 0;
+        }
+    }
+
+    /**
+     * Sets bit in bitmap (LSB numbering). Bitmap grows if needed.
+     */
+    void setBit(int index) {
+        int byteIndex = index >> 3;
+        if (byteIndex >= size) {
+            ensureCapacity(byteIndex + 1 - size);
+            Arrays.fill(data, size, byteIndex + 1, (byte) 0);
+            size = byteIndex + 1;
+        }
+        data[byteIndex] |= 1 << (index & 7);
+    }
+
+    /**
+     * Grows bitmap so it can hold specified number of bits
+     */
+    void ensureBits(int bitCount) {
+        int byteCount = (bitCount + 7) >> 3;
+        if (byteCount > size) {
+            ensureCapacity(byteCount - size);
+            Arrays.fill(data, size, byteCount, (byte) 0);
+            size = byteCount;
+        }
+    }
+
+    void setShort(int pos, int value) {
+        data[pos] = (byte) value;
+        data[pos + 1] = (byte) (value >> 8);
+    }
+
+    void setInt(int pos, int value) {
+        data[pos] = (byte) value;
+        data[pos + 1] = (byte) (value >> 8);
+        data[pos + 2] = (byte) (value >> 16);
+        data[pos + 3] = (byte) (value >> 24);
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+
+/**
+ * Nullable flat Arrow field
+ */
+public class ArrowField {
+
+    private final String name;
+    private final ArrowType type;
+    private final int precision;
+    private final int scale;
+
+    public ArrowField(@NotNull String name, @NotNull ArrowType type) {
+        this(name, type, 0, 0);
+    }
+
+    private ArrowField(@NotNull String name, @NotNull ArrowType type, int precision, int scale) {
+        this.name = name;
+        this.type = type;
+        this.precision = precision;
+        this.scale = scale;
+    }
+
+    public static ArrowField createDecimal(@NotNull String name, int precision, int scale) {
+        return new ArrowField(name, ArrowType.DECIMAL128, precision, scale);
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ArrowType getType() {
+        return type;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + type;
+    }
+}
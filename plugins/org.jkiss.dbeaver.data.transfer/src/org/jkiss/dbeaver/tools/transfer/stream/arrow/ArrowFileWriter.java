@@ -0,0 +1,480 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.*;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes Apache Arrow IPC file or stream.
+ * Rows are accumulated in column vectors and written as record batches.
+ * File format can be memory-mapped by Arrow readers (e.g. pyarrow.ipc.open_file).
+ * Underlying stream is not closed by the writer.
+ */
+public class ArrowFileWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 65536;
+
+    // Batch is flushed earlier if its buffers grow too large (variable width offsets are 32-bit)
+    private static final long MAX_BATCH_BYTES = 64L * 1024 * 1024;
+
+    static final byte[] FILE_MAGIC = {'A', 'R', 'R', 'O', 'W', '1'};
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final int METADATA_VERSION_V5 = 4;
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_RECORD_BATCH = 3;
+
+    private static final int TIME_UNIT_MILLISECOND = 1;
+    private static final int TIME_UNIT_MICROSECOND = 2;
+    private static final int DATE_UNIT_DAY = 0;
+    private static final int PRECISION_SINGLE = 1;
+    private static final int PRECISION_DOUBLE = 2;
+
+    private static class Block {
+        final long offset;
+        final int metaDataLength;
+        final long bodyLength;
+
+        Block(long offset, int metaDataLength, long bodyLength) {
+            this.offset = offset;
+            this.metaDataLength = metaDataLength;
+            this.bodyLength = bodyLength;
+        }
+    }
+
+    private final OutputStream out;
+    private final List<ArrowField> fields;
+    private final boolean fileFormat;
+    private final int batchSize;
+    private final VectorBuilder[] vectors;
+    private final List<Block> recordBatches = new ArrayList<>();
+    private long position;
+    private int batchRows;
+    private long totalRows;
+    private boolean finished;
+
+    /**
+     * @param fileFormat write IPC file format (with footer) if true or IPC streaming format otherwise
+     */
+    public ArrowFileWriter(@NotNull OutputStream out, @NotNull List<ArrowField> fields, boolean fileFormat, int batchSize) throws IOException {
+        this.out = out;
+        this.fields = new ArrayList<>(fields);
+        this.fileFormat = fileFormat;
+        this.batchSize = batchSize <= 0 ? DEFAULT_BATCH_SIZE : batchSize;
+        this.vectors = new VectorBuilder[fields.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new VectorBuilder(this.fields.get(i));
+        }
+        if (fileFormat) {
+            write(FILE_MAGIC, 0, FILE_MAGIC.length);
+            write(new byte[2], 0, 2);
+        }
+        writeMessage(HEADER_SCHEMA, makeSchema(), null);
+    }
+
+    @NotNull
+    public List<ArrowField> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    public long getRowCount() {
+        return totalRows;
+    }
+
+    /**
+     * Writes one row. Values are converted into field types, nulls are allowed in all fields.
+     */
+    public void writeRow(@NotNull Object[] values) throws IOException {
+        if (finished) {
+            throw new IOException("Arrow file is already finished");
+        }
+        if (values.length != vectors.length) {
+            throw new IOException("Row has " + values.length + " values while Arrow schema has " + vectors.length + " fields");
+        }
+        long batchBytes = 0;
+        for (int i = 0; i < vectors.length; i++) {
+            VectorBuilder vector = vectors[i];
+            try {
+                vector.append(batchRows, values[i]);
+            } catch (RuntimeException e) {
+                throw new IOException("Can't convert value of field '" + vector.field.getName() + "' into " + vector.field.getType(), e);
+            }
+            batchBytes += vector.getBufferedSize();
+        }
+        batchRows++;
+        totalRows++;
+        if (batchRows >= batchSize || batchBytes >= MAX_BATCH_BYTES) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Writes last record batch, end-of-stream marker and file footer
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        flushBatch();
+
+        ArrowBuffer eos = new ArrowBuffer(8);
+        eos.writeInt(CONTINUATION_MARKER);
+        eos.writeInt(0);
+        write(eos);
+
+        if (fileFormat) {
+            ArrowBuffer blocks = new ArrowBuffer(recordBatches.size() * 24);
+            for (Block block : recordBatches) {
+                blocks.writeLong(block.offset);
+                blocks.writeInt(block.metaDataLength);
+                blocks.writeInt(0);
+                blocks.writeLong(block.bodyLength);
+            }
+            byte[] footer = ArrowFlatBuffer.serialize(new ArrowFlatBuffer.Table()
+                .addShort(0, METADATA_VERSION_V5)
+                .addTable(1, makeSchema())
+                .addStructVector(2, new ArrowBuffer(0), 0)
+                .addStructVector(3, blocks, recordBatches.size()));
+            ArrowBuffer tail = new ArrowBuffer(footer.length + 10);
+            tail.write(footer);
+            tail.writeInt(footer.length);
+            tail.write(FILE_MAGIC);
+            write(tail);
+        }
+        out.flush();
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        out.write(data, offset, length);
+        position += length;
+    }
+
+    private void write(ArrowBuffer buffer) throws IOException {
+        buffer.writeTo(out);
+        position += buffer.size();
+    }
+
+    private void flushBatch() throws IOException {
+        if (batchRows == 0) {
+            return;
+        }
+        ArrowBuffer nodes = new ArrowBuffer(vectors.length * 16);
+        ArrowBuffer buffers = new ArrowBuffer(vectors.length * 48);
+        List<ArrowBuffer> body = new ArrayList<>();
+        long bodyLength = 0;
+        int bufferCount = 0;
+        for (VectorBuilder vector : vectors) {
+            nodes.writeLong(batchRows);
+            nodes.writeLong(vector.nullCount);
+            for (ArrowBuffer buffer : vector.getBuffers(batchRows)) {
+                buffers.writeLong(bodyLength);
+                buffers.writeLong(buffer.size());
+                buffer.align(8);
+                bodyLength += buffer.size();
+                body.add(buffer);
+                bufferCount++;
+            }
+        }
+        ArrowFlatBuffer.Table recordBatch = new ArrowFlatBuffer.Table()
+            .addLong(0, batchRows)
+            .addStructVector(1, nodes, vectors.length)
+            .addStructVector(2, buffers, bufferCount);
+        recordBatches.add(writeMessage(HEADER_RECORD_BATCH, recordBatch, body));
+
+        for (VectorBuilder vector : vectors) {
+            vector.reset();
+        }
+        batchRows = 0;
+    }
+
+    private Block writeMessage(int headerType, ArrowFlatBuffer.Table header, List<ArrowBuffer> body) throws IOException {
+        long bodyLength = 0;
+        if (body != null) {
+            for (ArrowBuffer buffer : body) {
+                bodyLength += buffer.size();
+            }
+        }
+        byte[] metadata = ArrowFlatBuffer.serialize(new ArrowFlatBuffer.Table()
+            .addShort(0, METADATA_VERSION_V5)
+            .addUnion(1, headerType, header)
+            .addLong(3, bodyLength));
+        long offset = position;
+        ArrowBuffer prefix = new ArrowBuffer(8);
+        prefix.writeInt(CONTINUATION_MARKER);
+        prefix.writeInt(metadata.length);
+        write(prefix);
+        write(metadata, 0, metadata.length);
+        if (body != null) {
+            for (ArrowBuffer buffer : body) {
+                write(buffer);
+            }
+        }
+        return new Block(offset, 8 + metadata.length, bodyLength);
+    }
+
+    private ArrowFlatBuffer.Table makeSchema() {
+        List<ArrowFlatBuffer.Table> fieldTables = new ArrayList<>(fields.size());
+        for (ArrowField field : fields) {
+            fieldTables.add(new ArrowFlatBuffer.Table()
+                .addString(0, field.getName())
+                .addBoolean(1, true)
+                .addUnion(2, field.getType().getTypeId(), makeType(field))
+                .addTableVector(5, Collections.<ArrowFlatBuffer.Table>emptyList()));
+        }
+        return new ArrowFlatBuffer.Table()
+            .addShort(0, 0)
+            .addTableVector(1, fieldTables);
+    }
+
+    private static ArrowFlatBuffer.Table makeType(ArrowField field) {
+        ArrowFlatBuffer.Table type = new ArrowFlatBuffer.Table();
+        switch (field.getType()) {
+            case INT8:
+            case INT16:
+            case INT32:
+            case INT64:
+                type.addInt(0, field.getType().getByteWidth() * 8).addBoolean(1, true);
+                break;
+            case FLOAT32:
+                type.addShort(0, PRECISION_SINGLE);
+                break;
+            case FLOAT64:
+                type.addShort(0, PRECISION_DOUBLE);
+                break;
+            case DECIMAL128:
+                type.addInt(0, field.getPrecision()).addInt(1, field.getScale()).addInt(2, 128);
+                break;
+            case DATE32:
+                type.addShort(0, DATE_UNIT_DAY);
+                break;
+            case TIME32_MILLI:
+                type.addShort(0, TIME_UNIT_MILLISECOND).addInt(1, 32);
+                break;
+            case TIMESTAMP_MICRO:
+                type.addShort(0, TIME_UNIT_MICROSECOND).addString(1, "UTC");
+                break;
+            default:
+                // Bool, Utf8 and Binary types have no properties
+                break;
+        }
+        return type;
+    }
+
+    private static class VectorBuilder {
+        private final ArrowField field;
+        private final ArrowBuffer validity = new ArrowBuffer(64);
+        private final ArrowBuffer offsets = new ArrowBuffer(64);
+        private final ArrowBuffer values = new ArrowBuffer(1024);
+        private int nullCount;
+
+        VectorBuilder(ArrowField field) {
+            this.field = field;
+            reset();
+        }
+
+        long getBufferedSize() {
+            return validity.size() + offsets.size() + values.size();
+        }
+
+        void reset() {
+            validity.reset();
+            offsets.reset();
+            values.reset();
+            nullCount = 0;
+            if (field.getType().isVariableWidth()) {
+                offsets.writeInt(0);
+            }
+        }
+
+        /**
+         * Returns buffers in Arrow layout order. Validity bitmap is omitted (empty) if there are no nulls.
+         */
+        List<ArrowBuffer> getBuffers(int rowCount) {
+            List<ArrowBuffer> buffers = new ArrayList<>(3);
+            if (nullCount > 0) {
+                validity.ensureBits(rowCount);
+                buffers.add(validity);
+            } else {
+                buffers.add(new ArrowBuffer(0));
+            }
+            if (field.getType().isVariableWidth()) {
+                buffers.add(offsets);
+            } else if (field.getType() == ArrowType.BOOL) {
+                values.ensureBits(rowCount);
+            }
+            buffers.add(values);
+            return buffers;
+        }
+
+        void append(int index, Object value) {
+            ArrowType type = field.getType();
+            if (value == null) {
+                nullCount++;
+                if (type.isVariableWidth()) {
+                    offsets.writeInt(values.size());
+                } else if (type != ArrowType.BOOL) {
+                    for (int i = 0; i < type.getByteWidth(); i++) {
+                        values.writeByte(0);
+                    }
+                }
+                return;
+            }
+            validity.setBit(index);
+            switch (type) {
+                case BOOL:
+                    if (toBoolean(value)) {
+                        values.setBit(index);
+                    } else {
+                        values.ensureBits(index + 1);
+                    }
+                    break;
+                case INT8:
+                    values.writeByte((int) toLong(value));
+                    break;
+                case INT16:
+                    values.writeShort((int) toLong(value));
+                    break;
+                case INT32:
+                    values.writeInt((int) toLong(value));
+                    break;
+                case INT64:
+                    values.writeLong(toLong(value));
+                    break;
+                case FLOAT32:
+                    values.writeInt(Float.floatToRawIntBits(
+                        value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString().trim())));
+                    break;
+                case FLOAT64:
+                    values.writeLong(Double.doubleToRawLongBits(
+                        value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim())));
+                    break;
+                case DECIMAL128:
+                    writeDecimal(value);
+                    break;
+                case DATE32:
+                    values.writeInt((int) toLocalDate(value).toEpochDay());
+                    break;
+                case TIME32_MILLI:
+                    values.writeInt((int) (toLocalTime(value).toNanoOfDay() / 1000000L));
+                    break;
+                case TIMESTAMP_MICRO:
+                    values.writeLong(toEpochMicros(value));
+                    break;
+                default: {
+                    byte[] bytes = value instanceof byte[] ? (byte[]) value : value.toString().getBytes(StandardCharsets.UTF_8);
+                    values.write(bytes);
+                    offsets.writeInt(values.size());
+                    break;
+                }
+            }
+        }
+
+        private void writeDecimal(Object value) {
+            BigDecimal decimal;
+            if (value instanceof BigDecimal) {
+                decimal = (BigDecimal) value;
+            } else if (value instanceof BigInteger) {
+                decimal = new BigDecimal((BigInteger) value);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                decimal = BigDecimal.valueOf(((Number) value).longValue());
+            } else {
+                decimal = new BigDecimal(value.toString().trim());
+            }
+            BigInteger unscaled = decimal.setScale(field.getScale(), RoundingMode.HALF_UP).unscaledValue();
+            if (unscaled.bitLength() > 127) {
+                throw new ArithmeticException("Value " + value + " doesn't fit 128-bit decimal");
+            }
+            // 128-bit little-endian two's complement
+            byte[] bigEndian = unscaled.toByteArray();
+            byte fill = (byte) (unscaled.signum() < 0 ? 0xFF : 0);
+            for (int i = 0; i < 16; i++) {
+                int index = bigEndian.length - 1 - i;
+                values.writeByte(index >= 0 ? bigEndian[index] : fill);
+            }
+        }
+
+        private static boolean toBoolean(Object value) {
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            } else if (value instanceof Number) {
+                return ((Number) value).intValue() != 0;
+            }
+            String strValue = value.toString().trim();
+            return strValue.equalsIgnoreCase("true") || strValue.equals("1") || strValue.equalsIgnoreCase("yes");
+        }
+
+        private static long toLong(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+            return Long.parseLong(value.toString().trim());
+        }
+
+        private static LocalDate toLocalDate(Object value) {
+            if (value instanceof java.sql.Date) {
+                return ((java.sql.Date) value).toLocalDate();
+            } else if (value instanceof java.util.Date) {
+                return Instant.ofEpochMilli(((java.util.Date) value).getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+            } else if (value instanceof TemporalAccessor) {
+                return LocalDate.from((TemporalAccessor) value);
+            }
+            return LocalDate.parse(value.toString().trim());
+        }
+
+        private static LocalTime toLocalTime(Object value) {
+            if (value instanceof java.util.Date) {
+                return Instant.ofEpochMilli(((java.util.Date) value).getTime()).atZone(ZoneId.systemDefault()).toLocalTime();
+            } else if (value instanceof TemporalAccessor) {
+                return LocalTime.from((TemporalAccessor) value);
+            }
+            return LocalTime.parse(value.toString().trim());
+        }
+
+        private static long toEpochMicros(Object value) {
+            Instant instant;
+            if (value instanceof Timestamp) {
+                instant = ((Timestamp) value).toInstant();
+            } else if (value instanceof java.util.Date) {
+                instant = Instant.ofEpochMilli(((java.util.Date) value).getTime());
+            } else if (value instanceof Instant) {
+                instant = (Instant) value;
+            } else if (value instanceof TemporalAccessor && ((TemporalAccessor) value).isSupported(ChronoField.INSTANT_SECONDS)) {
+                instant = Instant.from((TemporalAccessor) value);
+            } else {
+                LocalDateTime localDateTime = value instanceof LocalDateTime ?
+                    (LocalDateTime) value : Timestamp.valueOf(value.toString().trim()).toLocalDateTime();
+                instant = localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+            }
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1000000L), instant.getNano() / 1000);
+        }
+    }
+
+}
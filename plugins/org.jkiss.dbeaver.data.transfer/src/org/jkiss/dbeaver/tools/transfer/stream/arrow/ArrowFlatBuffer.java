@@ -0,0 +1,239 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal FlatBuffers serializer for Arrow IPC metadata.
+ * Tables are described as a tree and written front-to-back:
+ * each table is preceded by its vtable and followed by the objects it references.
+ */
+class ArrowFlatBuffer {
+
+    private static final int KIND_SCALAR = 0;
+    private static final int KIND_STRING = 1;
+    private static final int KIND_TABLE = 2;
+    private static final int KIND_TABLE_VECTOR = 3;
+    private static final int KIND_STRUCT_VECTOR = 4;
+
+    private static class Field {
+        final int id;
+        final int kind;
+        final int size;
+        final long scalar;
+        final Object object;
+
+        Field(int id, int kind, int size, long scalar, Object object) {
+            this.id = id;
+            this.kind = kind;
+            this.size = size;
+            this.scalar = scalar;
+            this.object = object;
+        }
+    }
+
+    /**
+     * Vector of fixed size structs (already serialized)
+     */
+    private static class StructVector {
+        final ArrowBuffer data;
+        final int count;
+
+        StructVector(ArrowBuffer data, int count) {
+            this.data = data;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Table builder. Field ids are zero-based field indexes from the schema.
+     */
+    static class Table {
+        private final List<Field> fields = new ArrayList<>();
+
+        Table addByte(int id, int value) {
+            fields.add(new Field(id, KIND_SCALAR, 1, value, null));
+            return this;
+        }
+
+        Table addBoolean(int id, boolean value) {
+            return addByte(id, value ? 1 : 0);
+        }
+
+        Table addShort(int id, int value) {
+            fields.add(new Field(id, KIND_SCALAR, 2, value, null));
+            return this;
+        }
+
+        Table addInt(int id, int value) {
+            fields.add(new Field(id, KIND_SCALAR, 4, value, null));
+            return this;
+        }
+
+        Table addLong(int id, long value) {
+            fields.add(new Field(id, KIND_SCALAR, 8, value, null));
+            return this;
+        }
+
+        Table addString(int id, String value) {
+            fields.add(new Field(id, KIND_STRING, 4, 0, value));
+            return this;
+        }
+
+        Table addTable(int id, Table value) {
+            fields.add(new Field(id, KIND_TABLE, 4, 0, value));
+            return this;
+        }
+
+        /**
+         * Adds union value: type field (id) and value field (id + 1)
+         */
+        Table addUnion(int id, int type, Table value) {
+            addByte(id, type);
+            return addTable(id + 1, value);
+        }
+
+        Table addTableVector(int id, List<Table> value) {
+            fields.add(new Field(id, KIND_TABLE_VECTOR, 4, 0, value));
+            return this;
+        }
+
+        /**
+         * Adds vector of structs. Struct data must be serialized in little-endian with 8-byte alignment.
+         */
+        Table addStructVector(int id, ArrowBuffer data, int count) {
+            fields.add(new Field(id, KIND_STRUCT_VECTOR, 4, 0, new StructVector(data, count)));
+            return this;
+        }
+    }
+
+    private ArrowFlatBuffer() {
+    }
+
+    /**
+     * Serializes root table. Result is padded to 8 bytes.
+     */
+    static byte[] serialize(Table root) {
+        ArrowBuffer out = new ArrowBuffer(256);
+        out.writeInt(0);
+        int rootPosition = writeTable(out, root);
+        out.setInt(0, rootPosition);
+        out.align(8);
+        return out.toByteArray();
+    }
+
+    private static int writeTable(ArrowBuffer out, Table table) {
+        int fieldCount = 0;
+        for (Field field : table.fields) {
+            fieldCount = Math.max(fieldCount, field.id + 1);
+        }
+        // VTable: vtable size, table size, field offsets
+        out.align(2);
+        int vtablePosition = out.size();
+        for (int i = 0; i < 2 + fieldCount; i++) {
+            out.writeShort(0);
+        }
+        // Table: vtable offset followed by fields (largest first to minimize padding)
+        out.align(8);
+        int tablePosition = out.size();
+        out.writeInt(tablePosition - vtablePosition);
+        int[] fieldPositions = new int[table.fields.size()];
+        for (int size = 8; size >= 1; size /= 2) {
+            for (int i = 0; i < table.fields.size(); i++) {
+                Field field = table.fields.get(i);
+                if (field.size != size) {
+                    continue;
+                }
+                out.align(size);
+                fieldPositions[i] = out.size();
+                out.setShort(vtablePosition + 4 + field.id * 2, out.size() - tablePosition);
+                switch (size) {
+                    case 1: out.writeByte((int) field.scalar); break;
+                    case 2: out.writeShort((int) field.scalar); break;
+                    case 4: out.writeInt((int) field.scalar); break;
+                    default: out.writeLong(field.scalar); break;
+                }
+            }
+        }
+        out.setShort(vtablePosition, 4 + fieldCount * 2);
+        out.setShort(vtablePosition + 2, out.size() - tablePosition);
+
+        // Referenced objects. Offsets are unsigned so objects are always written after the table.
+        for (int i = 0; i < table.fields.size(); i++) {
+            Field field = table.fields.get(i);
+            int objectPosition;
+            switch (field.kind) {
+                case KIND_STRING:
+                    objectPosition = writeString(out, (String) field.object);
+                    break;
+                case KIND_TABLE:
+                    objectPosition = writeTable(out, (Table) field.object);
+                    break;
+                case KIND_TABLE_VECTOR:
+                    objectPosition = writeTableVector(out, (List<?>) field.object);
+                    break;
+                case KIND_STRUCT_VECTOR:
+                    objectPosition = writeStructVector(out, (StructVector) field.object);
+                    break;
+                default:
+                    continue;
+            }
+            out.setInt(fieldPositions[i], objectPosition - fieldPositions[i]);
+        }
+        return tablePosition;
+    }
+
+    private static int writeString(ArrowBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.align(4);
+        int position = out.size();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeByte(0);
+        return position;
+    }
+
+    private static int writeTableVector(ArrowBuffer out, List<?> tables) {
+        out.align(4);
+        int position = out.size();
+        out.writeInt(tables.size());
+        int slotsPosition = out.size();
+        for (int i = 0; i < tables.size(); i++) {
+            out.writeInt(0);
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            int slotPosition = slotsPosition + i * 4;
+            int tablePosition = writeTable(out, (Table) tables.get(i));
+            out.setInt(slotPosition, tablePosition - slotPosition);
+        }
+        return position;
+    }
+
+    private static int writeStructVector(ArrowBuffer out, StructVector vector) {
+        // Struct elements must be 8-byte aligned, length prefix precedes them
+        out.align(8);
+        out.writeInt(0);
+        int position = out.size();
+        out.writeInt(vector.count);
+        out.write(vector.data);
+        return position;
+    }
+
+}
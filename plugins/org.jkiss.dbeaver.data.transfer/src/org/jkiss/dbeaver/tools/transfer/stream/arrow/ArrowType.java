@@ -0,0 +1,60 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+/**
+ * Arrow column types supported by the writer
+ */
+public enum ArrowType {
+    // Type union id (see Schema.fbs) and value width
+    BOOL(6, 0),
+    INT8(2, 1),
+    INT16(2, 2),
+    INT32(2, 4),
+    INT64(2, 8),
+    FLOAT32(3, 4),
+    FLOAT64(3, 8),
+    DECIMAL128(7, 16),
+    DATE32(8, 4),
+    TIME32_MILLI(9, 4),
+    TIMESTAMP_MICRO(10, 8),
+    UTF8(5, -1),
+    BINARY(4, -1);
+
+    private final int typeId;
+    private final int byteWidth;
+
+    ArrowType(int typeId, int byteWidth) {
+        this.typeId = typeId;
+        this.byteWidth = byteWidth;
+    }
+
+    int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Value width in bytes. Zero for bit-packed booleans, -1 for variable length types.
+     */
+    int getByteWidth() {
+        return byteWidth;
+    }
+
+    boolean isVariableWidth() {
+        return byteWidth < 0;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.codec;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+
+/**
+ * Output stream which splits data into fixed size blocks and compresses them independently.
+ * With more than one thread blocks are compressed in parallel and written in the original order.
+ * Flush doesn't compress incomplete block, it is compressed when the block is full or the stream is closed.
+ */
+public abstract class BlockCompressorOutputStream extends OutputStream {
+
+    // Blocks compressed ahead of the writer, per thread
+    private static final int BLOCKS_PER_THREAD = 2;
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final ExecutorService executor;
+    private final int maxPendingBlocks;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+    private byte[] block;
+    private int blockLength;
+    private long blockCount;
+    private boolean headerWritten;
+    private boolean closed;
+
+    protected BlockCompressorOutputStream(@NotNull OutputStream out, int blockSize, int threadCount) {
+        this.out = out;
+        this.blockSize = blockSize;
+        this.block = new byte[blockSize];
+        if (threadCount > 1) {
+            this.maxPendingBlocks = threadCount * BLOCKS_PER_THREAD;
+            this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+                Thread thread = new Thread(runnable, "Output compressor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.maxPendingBlocks = 0;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Writes stream header. Called before the first block.
+     */
+    protected abstract void writeHeader(@NotNull OutputStream out) throws IOException;
+
+    /**
+     * Compresses one block. May be called from different threads at the same time.
+     * @return compressed block with all framing
+     */
+    @NotNull
+    protected abstract byte[] compressBlock(@NotNull byte[] data, int length) throws IOException;
+
+    /**
+     * Writes stream trailer. Called after the last block.
+     */
+    protected abstract void writeTrailer(@NotNull OutputStream out) throws IOException;
+
+    /**
+     * Returns true if no data was written
+     */
+    protected boolean isEmpty() {
+        return blockCount == 0;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (blockLength == blockSize) {
+            flushBlock();
+        }
+        block[blockLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (blockLength == blockSize) {
+                flushBlock();
+            }
+            int count = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, count);
+            blockLength += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (blockLength > 0 || !headerWritten) {
+                flushBlock();
+            }
+            while (!pendingBlocks.isEmpty()) {
+                writeCompressedBlock(pendingBlocks.poll());
+            }
+            writeTrailer(out);
+            out.flush();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            out.close();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (!headerWritten) {
+            writeHeader(out);
+            headerWritten = true;
+        }
+        if (blockLength == 0) {
+            return;
+        }
+        byte[] data = block;
+        int length = blockLength;
+        blockCount++;
+        if (executor == null) {
+            out.write(compressBlock(data, length));
+        } else {
+            while (pendingBlocks.size() >= maxPendingBlocks) {
+                writeCompressedBlock(pendingBlocks.poll());
+            }
+            pendingBlocks.add(executor.submit(() -> compressBlock(data, length)));
+            // Block is owned by compression task now
+            block = new byte[blockSize];
+        }
+        blockLength = 0;
+    }
+
+    private void writeCompressedBlock(Future<byte[]> compressedBlock) throws IOException {
+        try {
+            out.write(compressedBlock.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compression interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error compressing output", cause);
+        }
+    }
+
+}
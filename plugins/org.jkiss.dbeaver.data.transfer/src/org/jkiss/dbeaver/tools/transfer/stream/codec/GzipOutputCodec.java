@@ -0,0 +1,75 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.codec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamOutputCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZip (.gz).
+ * Parallel compression writes each block as a separate gzip member, concatenated members are read as one stream.
+ */
+public class GzipOutputCodec implements IStreamOutputCodec {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    @NotNull
+    @Override
+    public OutputStream openOutputStream(@NotNull OutputStream outputStream, @NotNull String entryName, int threadCount) throws IOException {
+        if (threadCount <= 1) {
+            return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        }
+        return new GzipMembersOutputStream(outputStream, threadCount);
+    }
+
+    private static class GzipMembersOutputStream extends BlockCompressorOutputStream {
+
+        GzipMembersOutputStream(OutputStream out, int threadCount) {
+            super(out, BLOCK_SIZE, threadCount);
+        }
+
+        @Override
+        protected void writeHeader(@NotNull OutputStream out) {
+            // Each member has its own header
+        }
+
+        @NotNull
+        @Override
+        protected byte[] compressBlock(@NotNull byte[] data, int length) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, BUFFER_SIZE)) {
+                gzip.write(data, 0, length);
+            }
+            return buffer.toByteArray();
+        }
+
+        @Override
+        protected void writeTrailer(@NotNull OutputStream out) throws IOException {
+            if (isEmpty()) {
+                // Write empty member to make a valid gzip file
+                out.write(compressBlock(new byte[0], 0));
+            }
+        }
+    }
+
+}
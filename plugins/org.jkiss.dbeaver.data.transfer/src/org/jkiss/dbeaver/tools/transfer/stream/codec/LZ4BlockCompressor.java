@@ -0,0 +1,120 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.codec;
+
+import java.util.Arrays;
+
+/**
+ * LZ4 block format compressor (greedy single-pass matching, as in LZ4 fast mode).
+ * Instances are not thread-safe.
+ */
+class LZ4BlockCompressor {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 16;
+    // Increases search step on incompressible data
+    private static final int SKIP_STRENGTH = 6;
+
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses src[0..length) into dst starting from dstOffset.
+     * There must be at least maxCompressedLength(length) bytes after dstOffset.
+     * @return compressed length
+     */
+    int compress(byte[] src, int length, byte[] dst, int dstOffset) {
+        int anchor = 0;
+        int op = dstOffset;
+        if (length >= MF_LIMIT + 1) {
+            Arrays.fill(hashTable, -1);
+            int matchLimit = length - LAST_LITERALS;
+            int ipLimit = length - MF_LIMIT;
+            int ip = 0;
+            int misses = 0;
+            while (ip < ipLimit) {
+                int sequence = readInt(src, ip);
+                int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+                int ref = hashTable[hash];
+                hashTable[hash] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip += 1 + (misses++ >> SKIP_STRENGTH);
+                    continue;
+                }
+                misses = 0;
+                // Extend match backward over pending literals
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(src, anchor, ip - anchor, dst, op, ip - ref, matchLength);
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        // Last literals
+        return writeSequence(src, anchor, length - anchor, dst, op, 0, 0) - dstOffset;
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, byte[] dst, int op, int offset, int matchLength) {
+        int token = op++;
+        int tokenValue = Math.min(literalLength, 15) << 4;
+        if (literalLength >= 15) {
+            op = writeLength(dst, op, literalLength - 15);
+        }
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        op += literalLength;
+        if (matchLength > 0) {
+            dst[op++] = (byte) offset;
+            dst[op++] = (byte) (offset >>> 8);
+            int length = matchLength - MIN_MATCH;
+            tokenValue |= Math.min(length, 15);
+            if (length >= 15) {
+                op = writeLength(dst, op, length - 15);
+            }
+        }
+        dst[token] = (byte) tokenValue;
+        return op;
+    }
+
+    private static int writeLength(byte[] dst, int op, int length) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) |
+            (buffer[offset + 1] & 0xFF) << 8 |
+            (buffer[offset + 2] & 0xFF) << 16 |
+            (buffer[offset + 3] & 0xFF) << 24;
+    }
+
+}
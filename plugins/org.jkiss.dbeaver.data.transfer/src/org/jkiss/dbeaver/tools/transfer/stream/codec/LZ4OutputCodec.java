@@ -0,0 +1,89 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.codec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamOutputCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * LZ4 frame format (.lz4) with independent 4Mb blocks
+ */
+public class LZ4OutputCodec implements IStreamOutputCodec {
+
+    private static final int MAGIC = 0x184D2204;
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+    // Version 01, independent blocks, no checksums
+    private static final byte FRAME_FLAGS = 0x60;
+    // Max block size 4Mb
+    private static final byte FRAME_BLOCK_DESCRIPTOR = 0x70;
+    private static final int UNCOMPRESSED_BLOCK_FLAG = 0x80000000;
+
+    @NotNull
+    @Override
+    public OutputStream openOutputStream(@NotNull OutputStream outputStream, @NotNull String entryName, int threadCount) {
+        return new LZ4FrameOutputStream(outputStream, threadCount);
+    }
+
+    private static class LZ4FrameOutputStream extends BlockCompressorOutputStream {
+
+        LZ4FrameOutputStream(OutputStream out, int threadCount) {
+            super(out, BLOCK_SIZE, threadCount);
+        }
+
+        @Override
+        protected void writeHeader(@NotNull OutputStream out) throws IOException {
+            byte[] header = new byte[7];
+            writeInt(header, 0, MAGIC);
+            header[4] = FRAME_FLAGS;
+            header[5] = FRAME_BLOCK_DESCRIPTOR;
+            header[6] = (byte) (XXHash32.hash(header, 4, 2, 0) >> 8);
+            out.write(header);
+        }
+
+        @NotNull
+        @Override
+        protected byte[] compressBlock(@NotNull byte[] data, int length) {
+            byte[] block = new byte[4 + LZ4BlockCompressor.maxCompressedLength(length)];
+            int compressedLength = new LZ4BlockCompressor().compress(data, length, block, 4);
+            if (compressedLength >= length) {
+                // Incompressible data is stored as is
+                writeInt(block, 0, length | UNCOMPRESSED_BLOCK_FLAG);
+                System.arraycopy(data, 0, block, 4, length);
+                return Arrays.copyOf(block, 4 + length);
+            }
+            writeInt(block, 0, compressedLength);
+            return Arrays.copyOf(block, 4 + compressedLength);
+        }
+
+        @Override
+        protected void writeTrailer(@NotNull OutputStream out) throws IOException {
+            out.write(new byte[4]);
+        }
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+
+}
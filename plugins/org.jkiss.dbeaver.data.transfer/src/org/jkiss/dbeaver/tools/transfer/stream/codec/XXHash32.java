@@ -0,0 +1,75 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.codec;
+
+/**
+ * xxHash32 checksum (used by LZ4 frame format)
+ */
+class XXHash32 {
+
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+    static int hash(byte[] data, int offset, int length, int seed) {
+        int end = offset + length;
+        int pos = offset;
+        int h;
+        if (length >= 16) {
+            int v1 = seed + PRIME1 + PRIME2;
+            int v2 = seed + PRIME2;
+            int v3 = seed;
+            int v4 = seed - PRIME1;
+            for (int limit = end - 16; pos <= limit; pos += 16) {
+                v1 = round(v1, readInt(data, pos));
+                v2 = round(v2, readInt(data, pos + 4));
+                v3 = round(v3, readInt(data, pos + 8));
+                v4 = round(v4, readInt(data, pos + 12));
+            }
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h = seed + PRIME5;
+        }
+        h += length;
+        for (; pos + 4 <= end; pos += 4) {
+            h = Integer.rotateLeft(h + readInt(data, pos) * PRIME3, 17) * PRIME4;
+        }
+        for (; pos < end; pos++) {
+            h = Integer.rotateLeft(h + (data[pos] & 0xFF) * PRIME5, 11) * PRIME1;
+        }
+        h ^= h >>> 15;
+        h *= PRIME2;
+        h ^= h >>> 13;
+        h *= PRIME3;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int round(int acc, int input) {
+        return Integer.rotateLeft(acc + input * PRIME2, 13) * PRIME1;
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) |
+            (buffer[offset + 1] & 0xFF) << 8 |
+            (buffer[offset + 2] & 0xFF) << 16 |
+            (buffer[offset + 3] & 0xFF) << 24;
+    }
+
+}
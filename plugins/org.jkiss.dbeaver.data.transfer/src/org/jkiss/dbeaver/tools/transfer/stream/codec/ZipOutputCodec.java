@@ -0,0 +1,40 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.codec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamOutputCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zip archive (.zip) with a single file entry
+ */
+public class ZipOutputCodec implements IStreamOutputCodec {
+
+    @NotNull
+    @Override
+    public OutputStream openOutputStream(@NotNull OutputStream outputStream, @NotNull String entryName, int threadCount) throws IOException {
+        ZipOutputStream zipStream = new ZipOutputStream(outputStream);
+        zipStream.putNextEntry(new ZipEntry(entryName));
+        return zipStream;
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowField;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowFileWriter;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowType;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * Apache Arrow IPC exporter.
+ * Values are written into typed column vectors as is, display strings are used only for types without Arrow counterpart.
+ */
+public class DataExporterArrow extends StreamExporterAbstract {
+
+    public static final String PROP_FORMAT = "format";
+    public static final String PROP_BATCH_SIZE = "batchSize";
+
+    private static final int MAX_DECIMAL_PRECISION = 38;
+
+    public enum ArrowFormat {
+        file,
+        stream
+    }
+
+    private ArrowFormat format;
+    private int batchSize;
+    private DBDAttributeBinding[] columns;
+    private boolean[] stringColumns;
+    private ArrowFileWriter writer;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException
+    {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        format = CommonUtils.valueOf(ArrowFormat.class, CommonUtils.toString(properties.get(PROP_FORMAT)), ArrowFormat.file);
+        batchSize = CommonUtils.toInt(properties.get(PROP_BATCH_SIZE), ArrowFileWriter.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public void dispose()
+    {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException
+    {
+        columns = getSite().getAttributes();
+        stringColumns = new boolean[columns.length];
+        List<ArrowField> fields = new ArrayList<>(columns.length);
+        Set<String> fieldNames = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            DBDAttributeBinding attr = columns[i];
+            String fieldName = attr.getLabel();
+            if (CommonUtils.isEmpty(fieldName)) {
+                fieldName = attr.getName();
+            }
+            if (CommonUtils.isEmpty(fieldName)) {
+                fieldName = "column" + (i + 1);
+            }
+            // Keep field names unique, most of Arrow consumers address fields by name
+            String uniqueName = fieldName;
+            for (int index = 2; !fieldNames.add(uniqueName); index++) {
+                uniqueName = fieldName + "_" + index;
+            }
+            ArrowField field = makeField(attr, uniqueName);
+            stringColumns[i] = field.getType() == ArrowType.UTF8;
+            fields.add(field);
+        }
+        writer = new ArrowFileWriter(getOutputStream(), fields, format == ArrowFormat.file, batchSize);
+    }
+
+    private static ArrowField makeField(DBDAttributeBinding attr, String name) {
+        switch (attr.getDataKind()) {
+            case BOOLEAN:
+                return new ArrowField(name, ArrowType.BOOL);
+            case NUMERIC:
+                switch (attr.getTypeID()) {
+                    case Types.TINYINT:
+                        return new ArrowField(name, ArrowType.INT8);
+                    case Types.SMALLINT:
+                        return new ArrowField(name, ArrowType.INT16);
+                    case Types.INTEGER:
+                        return new ArrowField(name, ArrowType.INT32);
+                    case Types.BIGINT:
+                        return new ArrowField(name, ArrowType.INT64);
+                    case Types.REAL:
+                        return new ArrowField(name, ArrowType.FLOAT32);
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        return new ArrowField(name, ArrowType.FLOAT64);
+                    case Types.DECIMAL:
+                    case Types.NUMERIC: {
+                        int precision = CommonUtils.toInt(attr.getPrecision());
+                        int scale = CommonUtils.toInt(attr.getScale());
+                        if (precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return ArrowField.createDecimal(name, precision, scale);
+                        }
+                        // Unbounded numbers can't be stored without precision loss
+                        return new ArrowField(name, ArrowType.UTF8);
+                    }
+                    default:
+                        return new ArrowField(name, ArrowType.FLOAT64);
+                }
+            case DATETIME:
+                switch (attr.getTypeID()) {
+                    case Types.DATE:
+                        return new ArrowField(name, ArrowType.DATE32);
+                    case Types.TIME:
+                        return new ArrowField(name, ArrowType.TIME32_MILLI);
+                    default:
+                        return new ArrowField(name, ArrowType.TIMESTAMP_MICRO);
+                }
+            case BINARY:
+                return new ArrowField(name, ArrowType.BINARY);
+            case CONTENT:
+                switch (attr.getTypeID()) {
+                    case Types.BLOB:
+                    case Types.LONGVARBINARY:
+                    case Types.VARBINARY:
+                    case Types.BINARY:
+                        return new ArrowField(name, ArrowType.BINARY);
+                    default:
+                        return new ArrowField(name, ArrowType.UTF8);
+                }
+            default:
+                return new ArrowField(name, ArrowType.UTF8);
+        }
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException
+    {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            DBDAttributeBinding column = columns[i];
+            Object cellValue = row[column.getOrdinalPosition()];
+            if (DBUtils.isNullValue(cellValue)) {
+                continue;
+            }
+            if (cellValue instanceof DBDContent) {
+                values[i] = readContentValue(session.getProgressMonitor(), (DBDContent) cellValue, stringColumns[i]);
+            } else if (stringColumns[i]) {
+                if (cellValue instanceof String || cellValue instanceof BigDecimal || cellValue instanceof BigInteger) {
+                    values[i] = cellValue.toString();
+                } else {
+                    values[i] = super.getValueDisplayString(column, cellValue);
+                }
+            } else if (cellValue instanceof Number || cellValue instanceof Boolean || cellValue instanceof Date ||
+                cellValue instanceof TemporalAccessor || cellValue instanceof byte[]) {
+                values[i] = cellValue;
+            } else {
+                // Let writer parse the string representation
+                values[i] = super.getValueDisplayString(column, cellValue);
+            }
+        }
+        writer.writeRow(values);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws IOException
+    {
+        if (writer != null) {
+            writer.finish();
+        }
+    }
+
+}
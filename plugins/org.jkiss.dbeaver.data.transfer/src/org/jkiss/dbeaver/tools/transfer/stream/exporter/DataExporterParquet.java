@@ -0,0 +1,198 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.*;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+
+/**
+ * Apache Parquet exporter.
+ * Column types are derived from result set attributes, values which don't have Parquet counterpart are exported as strings.
+ */
+public class DataExporterParquet extends StreamExporterAbstract {
+
+    public static final String PROP_COMPRESSION = "compression";
+    public static final String PROP_ROW_GROUP_SIZE = "rowGroupSize";
+
+    private static final int MAX_DECIMAL_PRECISION = 38;
+
+    private ParquetCodec codec;
+    private long rowGroupSize;
+    private DBDAttributeBinding[] columns;
+    private boolean[] stringColumns;
+    private ParquetFileWriter writer;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException
+    {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        codec = CommonUtils.valueOf(ParquetCodec.class, CommonUtils.toString(properties.get(PROP_COMPRESSION)).toUpperCase(Locale.ENGLISH), ParquetCodec.SNAPPY);
+        if (!codec.isSupported()) {
+            throw new DBException("Parquet compression " + codec + " is not supported");
+        }
+        int rowGroupSizeMB = CommonUtils.toInt(properties.get(PROP_ROW_GROUP_SIZE), 64);
+        rowGroupSize = rowGroupSizeMB <= 0 ? ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE : rowGroupSizeMB * 1024L * 1024L;
+    }
+
+    @Override
+    public void dispose()
+    {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException
+    {
+        columns = getSite().getAttributes();
+        stringColumns = new boolean[columns.length];
+        List<ParquetColumn> schema = new ArrayList<>(columns.length);
+        Set<String> columnNames = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            DBDAttributeBinding attr = columns[i];
+            String columnName = attr.getLabel();
+            if (CommonUtils.isEmpty(columnName)) {
+                columnName = attr.getName();
+            }
+            if (CommonUtils.isEmpty(columnName)) {
+                columnName = "column" + (i + 1);
+            }
+            // Parquet column names must be unique
+            String uniqueName = columnName;
+            for (int index = 2; !columnNames.add(uniqueName); index++) {
+                uniqueName = columnName + "_" + index;
+            }
+            ParquetColumn column = makeColumn(attr, uniqueName);
+            stringColumns[i] = column.getLogicalType() == ParquetLogicalType.STRING;
+            schema.add(column);
+        }
+        writer = new ParquetFileWriter(getOutputStream(), schema, codec, rowGroupSize);
+    }
+
+    private static ParquetColumn makeColumn(DBDAttributeBinding attr, String name) {
+        switch (attr.getDataKind()) {
+            case BOOLEAN:
+                return new ParquetColumn(name, ParquetType.BOOLEAN, ParquetLogicalType.NONE);
+            case NUMERIC:
+                switch (attr.getTypeID()) {
+                    case Types.TINYINT:
+                        return new ParquetColumn(name, ParquetType.INT32, ParquetLogicalType.INT_8);
+                    case Types.SMALLINT:
+                        return new ParquetColumn(name, ParquetType.INT32, ParquetLogicalType.INT_16);
+                    case Types.INTEGER:
+                        return new ParquetColumn(name, ParquetType.INT32, ParquetLogicalType.NONE);
+                    case Types.BIGINT:
+                        return new ParquetColumn(name, ParquetType.INT64, ParquetLogicalType.NONE);
+                    case Types.REAL:
+                        return new ParquetColumn(name, ParquetType.FLOAT, ParquetLogicalType.NONE);
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        return new ParquetColumn(name, ParquetType.DOUBLE, ParquetLogicalType.NONE);
+                    case Types.DECIMAL:
+                    case Types.NUMERIC: {
+                        int precision = CommonUtils.toInt(attr.getPrecision());
+                        int scale = CommonUtils.toInt(attr.getScale());
+                        if (precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return ParquetColumn.createDecimal(name, precision, scale);
+                        }
+                        // Unbounded numbers can't be stored without precision loss
+                        return new ParquetColumn(name, ParquetType.BYTE_ARRAY, ParquetLogicalType.STRING);
+                    }
+                    default:
+                        return new ParquetColumn(name, ParquetType.DOUBLE, ParquetLogicalType.NONE);
+                }
+            case DATETIME:
+                switch (attr.getTypeID()) {
+                    case Types.DATE:
+                        return new ParquetColumn(name, ParquetType.INT32, ParquetLogicalType.DATE);
+                    case Types.TIME:
+                        return new ParquetColumn(name, ParquetType.INT32, ParquetLogicalType.TIME_MILLIS);
+                    default:
+                        return new ParquetColumn(name, ParquetType.INT64, ParquetLogicalType.TIMESTAMP_MICROS);
+                }
+            case BINARY:
+                return new ParquetColumn(name, ParquetType.BYTE_ARRAY, ParquetLogicalType.NONE);
+            case CONTENT:
+                switch (attr.getTypeID()) {
+                    case Types.BLOB:
+                    case Types.LONGVARBINARY:
+                    case Types.VARBINARY:
+                    case Types.BINARY:
+                        return new ParquetColumn(name, ParquetType.BYTE_ARRAY, ParquetLogicalType.NONE);
+                    default:
+                        return new ParquetColumn(name, ParquetType.BYTE_ARRAY, ParquetLogicalType.STRING);
+                }
+            default:
+                return new ParquetColumn(name, ParquetType.BYTE_ARRAY, ParquetLogicalType.STRING);
+        }
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException
+    {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            DBDAttributeBinding column = columns[i];
+            Object cellValue = row[column.getOrdinalPosition()];
+            if (DBUtils.isNullValue(cellValue)) {
+                continue;
+            }
+            if (cellValue instanceof DBDContent) {
+                values[i] = readContentValue(session.getProgressMonitor(), (DBDContent) cellValue, stringColumns[i]);
+            } else if (stringColumns[i]) {
+                if (cellValue instanceof BigDecimal || cellValue instanceof BigInteger) {
+                    // Keep full precision of unbounded numbers
+                    values[i] = cellValue.toString();
+                } else {
+                    values[i] = super.getValueDisplayString(column, cellValue);
+                }
+            } else if (cellValue instanceof Number || cellValue instanceof Boolean || cellValue instanceof Date ||
+                cellValue instanceof TemporalAccessor || cellValue instanceof byte[]) {
+                values[i] = cellValue;
+            } else {
+                // Let writer parse the string representation
+                values[i] = super.getValueDisplayString(column, cellValue);
+            }
+        }
+        writer.writeRow(values);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws IOException
+    {
+        if (writer != null) {
+            writer.finish();
+        }
+    }
+
+}
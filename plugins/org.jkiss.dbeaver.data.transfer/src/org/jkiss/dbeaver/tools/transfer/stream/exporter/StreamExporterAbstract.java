@@ -16,15 +16,16 @@
  */
 package org.jkiss.dbeaver.tools.transfer.stream.exporter;
 
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
-import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
-import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
-import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.data.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporter;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.IOUtils;
 
-import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.*;
 
 /**
  * Abstract Exporter
@@ -67,6 +68,32 @@ public abstract class StreamExporterAbstract implements IStreamDataExporter {
         return valueHandler.getValueDisplayString(column, value, getValueExportFormat(column));
     }
 
+    /**
+     * Reads content value into String (for textual content) or byte array. Releases content.
+     */
+    @Nullable
+    protected Object readContentValue(DBRProgressMonitor monitor, DBDContent content, boolean forceText) throws DBException, IOException {
+        try {
+            DBDContentStorage cs = content.getContents(monitor);
+            if (cs == null) {
+                return null;
+            }
+            if (forceText || ContentUtils.isTextContent(content)) {
+                try (Reader in = cs.getContentReader()) {
+                    return IOUtils.readToString(in);
+                }
+            } else {
+                try (InputStream in = cs.getContentStream()) {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    IOUtils.fastCopy(in, buffer);
+                    return buffer.toByteArray();
+                }
+            }
+        } finally {
+            content.release();
+        }
+    }
+
     protected DBDDisplayFormat getValueExportFormat(DBDAttributeBinding column) {
         if (this.exportFormat == null) {
             this.exportFormat = getSite().getExportFormat();
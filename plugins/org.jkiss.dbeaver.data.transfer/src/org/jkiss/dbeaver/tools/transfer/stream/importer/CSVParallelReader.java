@@ -0,0 +1,296 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import au.com.bytecode.opencsv.CSVReader;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.CharArrayReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Parallel CSV reader.
+ * File is memory-mapped and split into chunks which end at line feeds outside of quoted values.
+ * Chunks are parsed by worker threads, rows are returned in the file order.
+ */
+public class CSVParallelReader implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE - 8;
+    // Chunks parsed ahead of the reader, per worker thread
+    private static final int CHUNKS_PER_THREAD = 2;
+    // Total size of chunks parsed ahead of the reader. Parsed rows take several times more memory than raw bytes.
+    private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    private static class PendingChunk {
+        final Future<List<Object[]>> rows;
+        final int length;
+
+        PendingChunk(Future<List<Object[]>> rows, int length) {
+            this.rows = rows;
+            this.length = length;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final char delimiter;
+    private final char quoteChar;
+    private final char escapeChar;
+    private final int chunkSize;
+    @Nullable
+    private final Function<String[], Object[]> rowConverter;
+    private final ExecutorService executor;
+    private final int maxPendingChunks;
+    private final Deque<PendingChunk> pendingChunks = new ArrayDeque<>();
+    private final long fileSize;
+    private long position;
+    private long pendingBytes;
+
+    private List<Object[]> currentChunk;
+    private int currentRow;
+
+    /**
+     * @param rowConverter converts parsed lines. Called by worker threads so it must be thread-safe.
+     */
+    public CSVParallelReader(
+        @NotNull FileChannel channel,
+        @NotNull Charset charset,
+        char delimiter,
+        char quoteChar,
+        char escapeChar,
+        int threadCount,
+        int chunkSize,
+        @Nullable Function<String[], Object[]> rowConverter) throws IOException
+    {
+        if (!isSupported(charset, delimiter, quoteChar, escapeChar)) {
+            throw new IOException("Parallel CSV reading is not supported for charset " + charset.name());
+        }
+        this.channel = channel;
+        this.charset = charset;
+        this.delimiter = delimiter;
+        this.quoteChar = quoteChar;
+        this.escapeChar = escapeChar;
+        this.chunkSize = chunkSize <= 0 ? DEFAULT_CHUNK_SIZE : chunkSize;
+        this.rowConverter = rowConverter;
+        this.position = channel.position();
+        this.fileSize = channel.size();
+
+        int threads = threadCount <= 0 ? Runtime.getRuntime().availableProcessors() : threadCount;
+        this.maxPendingChunks = threads * CHUNKS_PER_THREAD;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "CSV parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Chunk boundaries are searched in raw bytes, so line feed, quote and escape characters must be encoded
+     * as the same single bytes everywhere in the file. This is true for UTF-8 and ASCII based single-byte charsets.
+     */
+    public static boolean isSupported(@NotNull Charset charset, char... specialChars) {
+        CharsetEncoder encoder = charset.newEncoder();
+        if (!StandardCharsets.UTF_8.equals(charset) && encoder.maxBytesPerChar() != 1.0f) {
+            return false;
+        }
+        for (char c : specialChars) {
+            if (c >= 0x80) {
+                return false;
+            }
+        }
+        try {
+            String chars = "\n" + new String(specialChars);
+            ByteBuffer encoded = encoder.encode(CharBuffer.wrap(chars));
+            for (int i = 0; i < chars.length(); i++) {
+                if (encoded.get(i) != (byte) chars.charAt(i)) {
+                    return false;
+                }
+            }
+        } catch (CharacterCodingException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns next row or null at the end of file
+     */
+    @Nullable
+    public Object[] readNext() throws IOException {
+        while (currentChunk == null || currentRow >= currentChunk.size()) {
+            currentChunk = null;
+            scheduleChunks();
+            PendingChunk chunk = pendingChunks.poll();
+            if (chunk == null) {
+                return null;
+            }
+            pendingBytes -= chunk.length;
+            currentChunk = waitForChunk(chunk.rows);
+            currentRow = 0;
+        }
+        return currentChunk.get(currentRow++);
+    }
+
+    @Override
+    public void close() {
+        for (PendingChunk chunk : pendingChunks) {
+            chunk.rows.cancel(true);
+        }
+        pendingChunks.clear();
+        pendingBytes = 0;
+        currentChunk = null;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedules chunks until there are enough of them in work. Queue is limited by chunk count and by total bytes,
+     * so large chunks (with records longer than chunk size) don't pile up in memory. At least one chunk is always scheduled.
+     */
+    private void scheduleChunks() throws IOException {
+        while (position < fileSize && (pendingChunks.isEmpty() ||
+            (pendingChunks.size() < maxPendingChunks && pendingBytes + chunkSize <= MAX_PENDING_BYTES)))
+        {
+            ByteBuffer chunk = nextChunk();
+            int length = chunk.limit();
+            pendingChunks.add(new PendingChunk(executor.submit(() -> parseChunk(chunk)), length));
+            pendingBytes += length;
+        }
+    }
+
+    private List<Object[]> waitForChunk(Future<List<Object[]>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("CSV reading interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error parsing CSV", cause);
+        }
+    }
+
+    private ByteBuffer nextChunk() throws IOException {
+        long start = position;
+        int windowSize = (int) Math.min(chunkSize, fileSize - start);
+        while (true) {
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize);
+            int chunkLength = start + windowSize >= fileSize ? windowSize : findChunkEnd(window, windowSize);
+            if (chunkLength > 0) {
+                window.limit(chunkLength);
+                position = start + chunkLength;
+                return window;
+            }
+            // Record is longer than the window
+            if (windowSize >= MAX_CHUNK_SIZE) {
+                throw new IOException("CSV record at offset " + start + " is too long");
+            }
+            windowSize = (int) Math.min(Math.min((long) windowSize * 2, MAX_CHUNK_SIZE), fileSize - start);
+        }
+    }
+
+    /**
+     * Returns position after the last line feed which is not inside quotes, or 0 if there is no such line feed.
+     * Quote and escape characters are interpreted the same way as CSVParser does it (including "in field" state).
+     */
+    private int findChunkEnd(ByteBuffer buffer, int length) {
+        byte delimiterByte = (byte) delimiter;
+        byte quoteByte = (byte) quoteChar;
+        byte escapeByte = (byte) escapeChar;
+        boolean inQuotes = false;
+        boolean inField = false;
+        int chunkEnd = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (b == escapeByte) {
+                if ((inQuotes || inField) && i + 1 < length) {
+                    byte next = buffer.get(i + 1);
+                    if (next == quoteByte || next == escapeByte) {
+                        i++;
+                    }
+                }
+            } else if (b == quoteByte) {
+                if ((inQuotes || inField) && i + 1 < length && buffer.get(i + 1) == quoteByte) {
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+                inField = !inField;
+            } else if (b == '\n') {
+                if (!inQuotes && isSafeLineStart(buffer, i + 1, length)) {
+                    chunkEnd = i + 1;
+                }
+            } else if (b == '\r') {
+                // Line separators are stripped by the reader
+            } else if (b == delimiterByte && !inQuotes) {
+                inField = false;
+            } else {
+                inField = true;
+            }
+        }
+        return chunkEnd;
+    }
+
+    /**
+     * CSVParser keeps "in field" state between lines. Chunk parser starts with a fresh state,
+     * so chunk can't start with escape char or doubled quote which are interpreted differently depending on that state.
+     */
+    private boolean isSafeLineStart(ByteBuffer buffer, int offset, int length) {
+        if (offset + 1 >= length) {
+            return false;
+        }
+        byte first = buffer.get(offset);
+        return first != (byte) escapeChar && !(first == (byte) quoteChar && buffer.get(offset + 1) == (byte) quoteChar);
+    }
+
+    private List<Object[]> parseChunk(ByteBuffer chunk) throws IOException {
+        CharBuffer chars = charset.decode(chunk);
+        List<Object[]> rows = new ArrayList<>();
+        try (CSVReader csvReader = new CSVReader(
+            new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()),
+            delimiter, quoteChar, escapeChar))
+        {
+            for (String[] line = csvReader.readNext(); line != null; line = csvReader.readNext()) {
+                if (line.length == 0) {
+                    continue;
+                }
+                rows.add(rowConverter == null ? line : rowConverter.apply(line));
+            }
+        }
+        return rows;
+    }
+
+}
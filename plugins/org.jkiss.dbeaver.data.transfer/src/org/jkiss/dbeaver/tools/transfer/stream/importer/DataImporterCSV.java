@@ -35,9 +35,11 @@ import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.Pair;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * CSV importer
@@ -52,6 +54,7 @@ public class DataImporterCSV extends StreamImporterAbstract {
     private static final String PROP_NULL_STRING = "nullString";
     private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
     private static final String PROP_ESCAPE_CHAR = "escapeChar";
+    private static final String PROP_PARSE_THREADS = "parseThreads";
     private static final int MAX_COLUMN_LENGTH = 1024;
 
     private static final int MAX_DATA_TYPE_SAMPLES = 1000;
@@ -149,16 +152,61 @@ public class DataImporterCSV extends StreamImporterAbstract {
     }
 
     private CSVReader openCSVReader(Reader reader, Map<String, Object> processorProperties) {
-        String delimiter = StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER);
+        return new CSVReader(reader, getDelimiter(processorProperties), getQuoteChar(processorProperties), getEscapeChar(processorProperties));
+    }
+
+    /**
+     * Opens parallel reader if it is enabled and input is a local file in one of supported encodings.
+     * Returns null otherwise.
+     */
+    private CSVParallelReader openParallelReader(InputStream inputStream, Map<String, Object> processorProperties, Function<String[], Object[]> rowConverter) throws IOException {
+        int parseThreads = CommonUtils.toInt(processorProperties.get(PROP_PARSE_THREADS), 1);
+        if (parseThreads == 1 || !(inputStream instanceof FileInputStream)) {
+            return null;
+        }
+        Charset charset;
+        try {
+            charset = Charset.forName(CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
+        } catch (IllegalArgumentException e) {
+            // Sequential reader reports wrong encoding
+            return null;
+        }
+        char delimiter = getDelimiter(processorProperties);
+        char quoteChar = getQuoteChar(processorProperties);
+        char escapeChar = getEscapeChar(processorProperties);
+        if (!CSVParallelReader.isSupported(charset, delimiter, quoteChar, escapeChar)) {
+            log.debug("Parallel CSV parsing is not supported for encoding " + charset.name() + ", reading sequentially");
+            return null;
+        }
+        return new CSVParallelReader(
+            ((FileInputStream) inputStream).getChannel(),
+            charset,
+            delimiter,
+            quoteChar,
+            escapeChar,
+            parseThreads,
+            CSVParallelReader.DEFAULT_CHUNK_SIZE,
+            rowConverter);
+    }
+
+    private static char getDelimiter(Map<String, Object> processorProperties) {
+        return StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER).charAt(0);
+    }
+
+    private static char getQuoteChar(Map<String, Object> processorProperties) {
         String quoteChar = CommonUtils.toString(processorProperties.get(PROP_QUOTE_CHAR));
         if (CommonUtils.isEmpty(quoteChar)) {
             quoteChar = "'";
         }
+        return quoteChar.charAt(0);
+    }
+
+    private static char getEscapeChar(Map<String, Object> processorProperties) {
         String escapeChar = CommonUtils.toString(processorProperties.get(PROP_ESCAPE_CHAR));
         if (CommonUtils.isEmpty(escapeChar)) {
             escapeChar = "\\";
         }
-        return new CSVReader(reader, delimiter.charAt(0), quoteChar.charAt(0), escapeChar.charAt(0));
+        return escapeChar.charAt(0);
     }
 
     private InputStreamReader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties) throws UnsupportedEncodingException {
@@ -221,62 +269,21 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
             applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
 
-            try (Reader reader = openStreamReader(inputStream, properties)) {
-                try (CSVReader csvReader = openCSVReader(reader, properties)) {
-
-                    int maxRows = site.getSettings().getMaxRows();
-                    int targetAttrSize = entityMapping.getStreamColumns().size();
-                    boolean headerRead = false;
-                    for (int lineNum = 0; ; ) {
-                        if (monitor.isCanceled()) {
-                            break;
-                        }
-                        String[] line = csvReader.readNext();
-                        if (line == null) {
-                            break;
-                        }
-                        if (line.length == 0) {
-                            continue;
-                        }
-                        if (headerPosition != HeaderPosition.none && !headerRead) {
-                            // First line is a header
-                            headerRead = true;
-                            continue;
-                        }
-                        if (maxRows > 0 && lineNum >= maxRows) {
-                            break;
-                        }
-
-                        if (line.length < targetAttrSize) {
-                            // Stream row may be shorter than header
-                            String[] newLine = new String[targetAttrSize];
-                            System.arraycopy(line, 0, newLine, 0, line.length);
-                            for (int i = line.length; i < targetAttrSize; i++) {
-                                newLine[i] = null;
-                            }
-                            line = newLine;
-                        }
-                        if (emptyStringNull) {
-                            for (int i = 0; i < line.length; i++) {
-                                if ("".equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-                        if (!CommonUtils.isEmpty(nullValueMark)) {
-                            for (int i = 0; i < line.length; i++) {
-                                if (nullValueMark.equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-
-                        resultSet.setStreamRow(line);
-                        consumer.fetchRow(producerSession, resultSet);
-                        lineNum++;
-
-                        if (lineNum % 1000 == 0) {
-                            monitor.subTask(String.valueOf(lineNum) + " rows processed");
+            int targetAttrSize = entityMapping.getStreamColumns().size();
+            Function<String[], Object[]> rowConverter = line -> convertLine(resultSet, line, targetAttrSize, emptyStringNull, nullValueMark);
+            try {
+                CSVParallelReader parallelReader = openParallelReader(inputStream, properties, rowConverter);
+                if (parallelReader != null) {
+                    try (CSVParallelReader csvReader = parallelReader) {
+                        importRows(monitor, producerSession, consumer, resultSet, headerPosition, csvReader::readNext);
+                    }
+                } else {
+                    try (Reader reader = openStreamReader(inputStream, properties)) {
+                        try (CSVReader csvReader = openCSVReader(reader, properties)) {
+                            importRows(monitor, producerSession, consumer, resultSet, headerPosition, () -> {
+                                String[] line = getNextLine(csvReader);
+                                return line == null ? null : rowConverter.apply(line);
+                            });
                         }
                     }
                 }
@@ -293,4 +300,61 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
     }
 
+    private void importRows(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession producerSession,
+        @NotNull IDataTransferConsumer consumer,
+        @NotNull StreamTransferResultSet resultSet,
+        @NotNull HeaderPosition headerPosition,
+        @NotNull RowSource rowSource) throws DBException, IOException
+    {
+        int maxRows = getSite().getSettings().getMaxRows();
+        boolean headerRead = false;
+        for (int lineNum = 0; ; ) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            Object[] row = rowSource.readNext();
+            if (row == null) {
+                break;
+            }
+            if (headerPosition != HeaderPosition.none && !headerRead) {
+                // First line is a header
+                headerRead = true;
+                continue;
+            }
+            if (maxRows > 0 && lineNum >= maxRows) {
+                break;
+            }
+
+            resultSet.setStreamRow(row);
+            consumer.fetchRow(producerSession, resultSet);
+            lineNum++;
+
+            if (lineNum % 1000 == 0) {
+                monitor.subTask(String.valueOf(lineNum) + " rows processed");
+            }
+        }
+    }
+
+    private static Object[] convertLine(StreamTransferResultSet resultSet, String[] line, int targetAttrSize, boolean emptyStringNull, String nullValueMark) {
+        // Stream row may be shorter than header
+        Object[] row = new Object[Math.max(line.length, targetAttrSize)];
+        for (int i = 0; i < line.length; i++) {
+            String value = line[i];
+            if (emptyStringNull && "".equals(value)) {
+                value = null;
+            }
+            if (!CommonUtils.isEmpty(nullValueMark) && nullValueMark.equals(value)) {
+                value = null;
+            }
+            row[i] = value != null && i < targetAttrSize ? resultSet.convertStreamValue(i, value) : value;
+        }
+        return row;
+    }
+
+    private interface RowSource {
+        Object[] readNext() throws IOException;
+    }
+
 }
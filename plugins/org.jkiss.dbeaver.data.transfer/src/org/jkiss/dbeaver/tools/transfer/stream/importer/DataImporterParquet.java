@@ -0,0 +1,231 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetFileReader;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Apache Parquet importer.
+ * Only column chunks of mapped columns are read from the file.
+ */
+public class DataImporterParquet extends StreamImporterAbstract {
+
+    private static final int MAX_COLUMN_LENGTH = 1024;
+
+    public DataImporterParquet() {
+    }
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        List<ParquetColumn> columns;
+        try {
+            columns = new ParquetFileReader(inputStream).getColumns();
+        } catch (IOException e) {
+            throw new DBException("IO error reading Parquet file", e);
+        }
+        List<StreamDataImporterColumnInfo> columnsInfo = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            ParquetColumn column = columns.get(i);
+            String columnName = column.getName();
+            if (CommonUtils.isEmptyTrimmed(columnName)) {
+                columnName = "Column" + (i + 1);
+            }
+            StreamDataImporterColumnInfo columnInfo = new StreamDataImporterColumnInfo(entityMapping, i, columnName, null, MAX_COLUMN_LENGTH, DBPDataKind.UNKNOWN);
+            columnInfo.setMappingMetadataPresent(true);
+            columnInfo.setRequired(!column.isOptional());
+            setColumnType(columnInfo, column);
+            columnsInfo.add(columnInfo);
+        }
+        return columnsInfo;
+    }
+
+    private static void setColumnType(StreamDataImporterColumnInfo columnInfo, ParquetColumn column) {
+        switch (column.getLogicalType()) {
+            case DECIMAL:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "DECIMAL", Types.DECIMAL);
+                columnInfo.setPrecision(column.getPrecision());
+                columnInfo.setScale(column.getScale());
+                return;
+            case DATE:
+                setColumnType(columnInfo, DBPDataKind.DATETIME, "DATE", Types.DATE);
+                return;
+            case TIME_MILLIS:
+            case TIME_MICROS:
+            case TIME_NANOS:
+                setColumnType(columnInfo, DBPDataKind.DATETIME, "TIME", Types.TIME);
+                return;
+            case TIMESTAMP_MILLIS:
+            case TIMESTAMP_MICROS:
+            case TIMESTAMP_NANOS:
+                setColumnType(columnInfo, DBPDataKind.DATETIME, "TIMESTAMP", Types.TIMESTAMP);
+                return;
+            case INT_8:
+            case INT_16:
+            case UINT_8:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "SMALLINT", Types.SMALLINT);
+                return;
+            case UINT_16:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "INTEGER", Types.INTEGER);
+                return;
+            case UINT_32:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "BIGINT", Types.BIGINT);
+                return;
+            case UINT_64:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "DECIMAL", Types.DECIMAL);
+                columnInfo.setPrecision(20);
+                columnInfo.setScale(0);
+                return;
+            case STRING:
+            case ENUM:
+            case JSON:
+            case UUID:
+                setColumnType(columnInfo, DBPDataKind.STRING, "VARCHAR", Types.VARCHAR);
+                return;
+            default:
+                break;
+        }
+        switch (column.getType()) {
+            case BOOLEAN:
+                setColumnType(columnInfo, DBPDataKind.BOOLEAN, "BOOLEAN", Types.BOOLEAN);
+                break;
+            case INT32:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "INTEGER", Types.INTEGER);
+                break;
+            case INT64:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "BIGINT", Types.BIGINT);
+                break;
+            case INT96:
+                setColumnType(columnInfo, DBPDataKind.DATETIME, "TIMESTAMP", Types.TIMESTAMP);
+                break;
+            case FLOAT:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "REAL", Types.REAL);
+                break;
+            case DOUBLE:
+                setColumnType(columnInfo, DBPDataKind.NUMERIC, "DOUBLE", Types.DOUBLE);
+                break;
+            default:
+                setColumnType(columnInfo, DBPDataKind.BINARY, "VARBINARY", Types.VARBINARY);
+                break;
+        }
+    }
+
+    private static void setColumnType(StreamDataImporterColumnInfo columnInfo, DBPDataKind dataKind, String typeName, int valueType) {
+        columnInfo.setDataKind(dataKind);
+        columnInfo.setTypeName(typeName);
+        columnInfo.setValueType(valueType);
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            try {
+                ParquetFileReader reader = new ParquetFileReader(inputStream);
+                reader.setProjection(getColumnProjection(consumer, reader.getColumns()));
+
+                int maxRows = site.getSettings().getMaxRows();
+                for (int rowNum = 0; ; ) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    if (maxRows > 0 && rowNum >= maxRows) {
+                        break;
+                    }
+                    Object[] row = reader.readRow();
+                    if (row == null) {
+                        break;
+                    }
+                    resultSet.setStreamRow(row);
+                    consumer.fetchRow(producerSession, resultSet);
+                    rowNum++;
+
+                    if (rowNum % 1000 == 0) {
+                        monitor.subTask(String.valueOf(rowNum) + " rows processed");
+                    }
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading Parquet file", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns columns which are mapped to target attributes.
+     * Returns null (all columns) if consumer doesn't provide column mappings.
+     */
+    private static boolean[] getColumnProjection(IDataTransferConsumer consumer, List<ParquetColumn> columns) {
+        if (!(consumer instanceof DatabaseTransferConsumer)) {
+            return null;
+        }
+        DatabaseTransferConsumer.ColumnMapping[] columnMappings = ((DatabaseTransferConsumer) consumer).getColumnMappings();
+        if (columnMappings == null) {
+            return null;
+        }
+        boolean[] projection = new boolean[columns.size()];
+        for (DatabaseTransferConsumer.ColumnMapping columnMapping : columnMappings) {
+            if (columnMapping == null || columnMapping.targetAttr == null || !columnMapping.targetAttr.getMappingType().isValid()) {
+                continue;
+            }
+            String sourceName = columnMapping.sourceAttr.getName();
+            for (int i = 0; i < projection.length; i++) {
+                if (columns.get(i).getName().equals(sourceName) || CommonUtils.isEmptyTrimmed(columns.get(i).getName()) && sourceName.equals("Column" + (i + 1))) {
+                    projection[i] = true;
+                }
+            }
+        }
+        return projection;
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parquet page compression codec
+ */
+public enum ParquetCodec {
+    UNCOMPRESSED(0),
+    SNAPPY(1),
+    GZIP(2),
+    LZO(3),
+    BROTLI(4),
+    LZ4(5),
+    ZSTD(6),
+    LZ4_RAW(7);
+
+    private final int id;
+
+    ParquetCodec(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Codecs which can be used for writing and reading
+     */
+    public boolean isSupported() {
+        return this == UNCOMPRESSED || this == SNAPPY || this == GZIP;
+    }
+
+    byte[] compress(byte[] data, int length) throws IOException {
+        switch (this) {
+            case UNCOMPRESSED:
+                return data.length == length ? data : ParquetBuffer.copyOf(data, length);
+            case SNAPPY:
+                return ParquetSnappy.compress(data, 0, length);
+            case GZIP: {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 2 + 64);
+                try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                    out.write(data, 0, length);
+                }
+                return buffer.toByteArray();
+            }
+            default:
+                throw new IOException("Parquet compression codec " + this + " is not supported");
+        }
+    }
+
+    byte[] decompress(byte[] data, int offset, int length, int uncompressedLength) throws IOException {
+        switch (this) {
+            case UNCOMPRESSED:
+                return ParquetBuffer.copyOfRange(data, offset, offset + length);
+            case SNAPPY:
+                return ParquetSnappy.decompress(data, offset, length);
+            case GZIP: {
+                byte[] result = new byte[uncompressedLength];
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data, offset, length))) {
+                    int pos = 0;
+                    while (pos < uncompressedLength) {
+                        int count = in.read(result, pos, uncompressedLength - pos);
+                        if (count < 0) {
+                            throw new IOException("Unexpected end of GZIP page");
+                        }
+                        pos += count;
+                    }
+                }
+                return result;
+            }
+            default:
+                throw new IOException("Parquet compression codec " + this + " is not supported");
+        }
+    }
+
+    static ParquetCodec getById(int id) throws IOException {
+        for (ParquetCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        throw new IOException("Unknown Parquet compression codec " + id);
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Flat Parquet column (leaf field of the root schema group)
+ */
+public class ParquetColumn {
+
+    static final int REPETITION_REQUIRED = 0;
+    static final int REPETITION_OPTIONAL = 1;
+    static final int REPETITION_REPEATED = 2;
+
+    // Julian day of 1970-01-01. INT96 timestamps store Julian day and nanos of day.
+    private static final long JULIAN_EPOCH_DAY = 2440588;
+    private static final long NANOS_PER_DAY = 86400L * 1000000000L;
+
+    private final String name;
+    private final ParquetType type;
+    private final ParquetLogicalType logicalType;
+    private final int typeLength;
+    private final int precision;
+    private final int scale;
+    private final boolean optional;
+    private final boolean adjustedToUTC;
+
+    public ParquetColumn(@NotNull String name, @NotNull ParquetType type, @NotNull ParquetLogicalType logicalType) {
+        this(name, type, logicalType, 0, 0, 0, true, true);
+    }
+
+    ParquetColumn(@NotNull String name, @NotNull ParquetType type, @NotNull ParquetLogicalType logicalType,
+                  int typeLength, int precision, int scale, boolean optional, boolean adjustedToUTC) {
+        this.name = name;
+        this.type = type;
+        this.logicalType = logicalType;
+        this.typeLength = typeLength;
+        this.precision = precision;
+        this.scale = scale;
+        this.optional = optional;
+        this.adjustedToUTC = adjustedToUTC;
+    }
+
+    /**
+     * Creates decimal column. Unscaled value is stored in INT32, INT64 or fixed length byte array depending on precision.
+     */
+    public static ParquetColumn createDecimal(@NotNull String name, int precision, int scale) {
+        if (precision <= 9) {
+            return new ParquetColumn(name, ParquetType.INT32, ParquetLogicalType.DECIMAL, 0, precision, scale, true, true);
+        } else if (precision <= 18) {
+            return new ParquetColumn(name, ParquetType.INT64, ParquetLogicalType.DECIMAL, 0, precision, scale, true, true);
+        } else {
+            return new ParquetColumn(name, ParquetType.FIXED_LEN_BYTE_ARRAY, ParquetLogicalType.DECIMAL,
+                getDecimalByteLength(precision), precision, scale, true, true);
+        }
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ParquetType getType() {
+        return type;
+    }
+
+    @NotNull
+    public ParquetLogicalType getLogicalType() {
+        return logicalType;
+    }
+
+    public int getTypeLength() {
+        return typeLength;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * Timestamps are stored as UTC instants (true) or as local wall clock values (false)
+     */
+    public boolean isAdjustedToUTC() {
+        return adjustedToUTC;
+    }
+
+    /**
+     * Converts Java value into value of column physical type.
+     * Accepts numbers, booleans, strings, dates (java.util and java.time), BigDecimals and byte arrays.
+     *
+     * @throws IllegalArgumentException if value can't be converted
+     */
+    Object toPhysicalValue(@NotNull Object value) {
+        switch (type) {
+            case BOOLEAN:
+                if (value instanceof Boolean) {
+                    return value;
+                } else if (value instanceof Number) {
+                    return ((Number) value).intValue() != 0;
+                } else {
+                    String strValue = value.toString().trim();
+                    return strValue.equalsIgnoreCase("true") || strValue.equals("1") || strValue.equalsIgnoreCase("yes");
+                }
+            case INT32:
+                switch (logicalType) {
+                    case DATE:
+                        return (int) toLocalDate(value).toEpochDay();
+                    case TIME_MILLIS:
+                        return (int) (toLocalTime(value).toNanoOfDay() / 1000000L);
+                    case DECIMAL:
+                        return toUnscaledDecimal(value).intValueExact();
+                    default:
+                        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString().trim());
+                }
+            case INT64:
+                switch (logicalType) {
+                    case TIMESTAMP_MILLIS:
+                        return Math.floorDiv(toEpochNanos(value), 1000000L);
+                    case TIMESTAMP_MICROS:
+                        return Math.floorDiv(toEpochNanos(value), 1000L);
+                    case TIMESTAMP_NANOS:
+                        return toEpochNanos(value);
+                    case TIME_MICROS:
+                        return toLocalTime(value).toNanoOfDay() / 1000L;
+                    case TIME_NANOS:
+                        return toLocalTime(value).toNanoOfDay();
+                    case DECIMAL:
+                        return toUnscaledDecimal(value).longValueExact();
+                    default:
+                        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString().trim());
+                }
+            case FLOAT:
+                return value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString().trim());
+            case DOUBLE:
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim());
+            case FIXED_LEN_BYTE_ARRAY:
+                if (logicalType == ParquetLogicalType.DECIMAL) {
+                    return toFixedLengthBytes(toUnscaledDecimal(value).toByteArray());
+                }
+                return toFixedLengthBytes(value instanceof byte[] ? (byte[]) value : value.toString().getBytes(StandardCharsets.UTF_8));
+            default:
+                if (value instanceof byte[]) {
+                    return value;
+                }
+                return value.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private BigInteger toUnscaledDecimal(Object value) {
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            decimal = BigDecimal.valueOf(((Number) value).longValue());
+        } else {
+            decimal = new BigDecimal(value.toString().trim());
+        }
+        BigInteger unscaled = decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+        if (precision > 0 && unscaled.abs().compareTo(BigInteger.TEN.pow(precision)) >= 0) {
+            throw new ArithmeticException("Value " + value + " doesn't fit DECIMAL(" + precision + "," + scale + ")");
+        }
+        return unscaled;
+    }
+
+    private byte[] toFixedLengthBytes(byte[] bytes) {
+        if (bytes.length == typeLength) {
+            return bytes;
+        }
+        if (bytes.length > typeLength) {
+            throw new IllegalArgumentException("Value is longer than " + typeLength + " bytes");
+        }
+        byte[] result = new byte[typeLength];
+        if (logicalType == ParquetLogicalType.DECIMAL && bytes.length > 0 && bytes[0] < 0) {
+            // Sign extension of negative two's complement number
+            Arrays.fill(result, 0, typeLength - bytes.length, (byte) 0xFF);
+        }
+        System.arraycopy(bytes, 0, result, typeLength - bytes.length, bytes.length);
+        return result;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        } else if (value instanceof java.util.Date) {
+            return Instant.ofEpochMilli(((java.util.Date) value).getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        } else if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        } else if (value instanceof TemporalAccessor) {
+            return LocalDate.from((TemporalAccessor) value);
+        }
+        return LocalDate.parse(value.toString().trim());
+    }
+
+    private static LocalTime toLocalTime(Object value) {
+        if (value instanceof java.util.Date) {
+            return Instant.ofEpochMilli(((java.util.Date) value).getTime()).atZone(ZoneId.systemDefault()).toLocalTime();
+        } else if (value instanceof TemporalAccessor) {
+            return LocalTime.from((TemporalAccessor) value);
+        }
+        return LocalTime.parse(value.toString().trim());
+    }
+
+    private long toEpochNanos(Object value) {
+        Instant instant;
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            if (!adjustedToUTC) {
+                instant = timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC);
+            } else {
+                instant = timestamp.toInstant();
+            }
+        } else if (value instanceof java.util.Date) {
+            instant = Instant.ofEpochMilli(((java.util.Date) value).getTime());
+            if (!adjustedToUTC) {
+                instant = instant.atZone(ZoneId.systemDefault()).toLocalDateTime().toInstant(ZoneOffset.UTC);
+            }
+        } else if (value instanceof Instant) {
+            instant = (Instant) value;
+        } else if (value instanceof TemporalAccessor && ((TemporalAccessor) value).isSupported(ChronoField.INSTANT_SECONDS)) {
+            instant = Instant.from((TemporalAccessor) value);
+        } else {
+            LocalDateTime localDateTime = value instanceof LocalDateTime ?
+                (LocalDateTime) value : Timestamp.valueOf(value.toString().trim()).toLocalDateTime();
+            instant = adjustedToUTC ?
+                localDateTime.atZone(ZoneId.systemDefault()).toInstant() :
+                localDateTime.toInstant(ZoneOffset.UTC);
+        }
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1000000000L), instant.getNano());
+    }
+
+    /**
+     * Converts value of physical type (as it is stored in file) into Java value of logical type.
+     * Timestamps are converted into java.sql.Timestamp, dates into java.sql.Date,
+     * decimals into BigDecimal, strings into String.
+     */
+    Object toLogicalValue(Object value) {
+        switch (type) {
+            case INT32: {
+                int intValue = (Integer) value;
+                switch (logicalType) {
+                    case DATE:
+                        return Date.valueOf(LocalDate.ofEpochDay(intValue));
+                    case TIME_MILLIS:
+                        return Time.valueOf(LocalTime.ofNanoOfDay(intValue * 1000000L));
+                    case DECIMAL:
+                        return BigDecimal.valueOf(intValue, scale);
+                    case UINT_32:
+                        return intValue & 0xFFFFFFFFL;
+                    default:
+                        return value;
+                }
+            }
+            case INT64: {
+                long longValue = (Long) value;
+                switch (logicalType) {
+                    case TIMESTAMP_MILLIS:
+                        return makeTimestamp(Math.floorDiv(longValue, 1000L), (int) Math.floorMod(longValue, 1000L) * 1000000);
+                    case TIMESTAMP_MICROS:
+                        return makeTimestamp(Math.floorDiv(longValue, 1000000L), (int) Math.floorMod(longValue, 1000000L) * 1000);
+                    case TIMESTAMP_NANOS:
+                        return makeTimestamp(Math.floorDiv(longValue, 1000000000L), (int) Math.floorMod(longValue, 1000000000L));
+                    case TIME_MICROS:
+                        return Time.valueOf(LocalTime.ofNanoOfDay(longValue * 1000L));
+                    case TIME_NANOS:
+                        return Time.valueOf(LocalTime.ofNanoOfDay(longValue));
+                    case DECIMAL:
+                        return BigDecimal.valueOf(longValue, scale);
+                    case UINT_64:
+                        return longValue >= 0 ? value : new BigInteger(Long.toUnsignedString(longValue));
+                    default:
+                        return value;
+                }
+            }
+            case INT96: {
+                byte[] bytes = (byte[]) value;
+                long nanosOfDay = ParquetBuffer.readLongLE(bytes, 0);
+                long julianDay = ParquetBuffer.readIntLE(bytes, 8) & 0xFFFFFFFFL;
+                long epochNanos = (julianDay - JULIAN_EPOCH_DAY) * NANOS_PER_DAY + nanosOfDay;
+                return makeTimestamp(Math.floorDiv(epochNanos, 1000000000L), (int) Math.floorMod(epochNanos, 1000000000L));
+            }
+            case BYTE_ARRAY:
+            case FIXED_LEN_BYTE_ARRAY: {
+                byte[] bytes = (byte[]) value;
+                switch (logicalType) {
+                    case STRING:
+                    case ENUM:
+                    case JSON:
+                        return new String(bytes, StandardCharsets.UTF_8);
+                    case DECIMAL:
+                        return new BigDecimal(new BigInteger(bytes), scale);
+                    case UUID:
+                        if (bytes.length == 16) {
+                            return new UUID(ParquetBuffer.readLongBE(bytes, 0), ParquetBuffer.readLongBE(bytes, 8)).toString();
+                        }
+                        return value;
+                    default:
+                        return value;
+                }
+            }
+            default:
+                return value;
+        }
+    }
+
+    private Timestamp makeTimestamp(long epochSecond, int nanos) {
+        if (adjustedToUTC) {
+            return Timestamp.from(Instant.ofEpochSecond(epochSecond, nanos));
+        } else {
+            // Local (wall clock) timestamp
+            return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC));
+        }
+    }
+
+    /**
+     * Minimal number of bytes required to store unscaled decimal of specified precision
+     */
+    static int getDecimalByteLength(int precision) {
+        return (BigInteger.TEN.pow(precision).bitLength() + 1 + 7) / 8;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + type + (logicalType == ParquetLogicalType.NONE ? "" : " (" + logicalType + ")");
+    }
+}
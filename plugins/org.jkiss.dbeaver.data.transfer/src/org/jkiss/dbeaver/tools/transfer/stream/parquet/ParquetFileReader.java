@@ -0,0 +1,824 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetFileWriter.*;
+import static org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetThriftWriter.*;
+
+/**
+ * Reads flat Apache Parquet files.
+ * Supports PLAIN, dictionary and RLE encodings in v1 and v2 data pages.
+ * Only projected column chunks are read from the file.
+ * File streams are read with positional channel reads, other streams are read into memory.
+ * Underlying stream is not closed by the reader.
+ */
+public class ParquetFileReader {
+
+    private final FileChannel channel;
+    private final byte[] content;
+    private final long fileLength;
+
+    private final List<ParquetColumn> columns = new ArrayList<>();
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long rowCount;
+    private String createdBy;
+
+    private boolean[] projection;
+    private int rowGroupIndex = -1;
+    private long rowGroupRowsLeft;
+    private ColumnReader[] columnReaders;
+
+    public ParquetFileReader(@NotNull InputStream stream) throws IOException {
+        if (stream instanceof FileInputStream) {
+            this.channel = ((FileInputStream) stream).getChannel();
+            this.content = null;
+            this.fileLength = channel.size();
+        } else {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[64 * 1024];
+            for (int count; (count = stream.read(chunk)) > 0; ) {
+                buffer.write(chunk, 0, count);
+            }
+            this.channel = null;
+            this.content = buffer.toByteArray();
+            this.fileLength = content.length;
+        }
+        readFooter();
+    }
+
+    @NotNull
+    public List<ParquetColumn> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRowGroupCount() {
+        return rowGroups.size();
+    }
+
+    @Nullable
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    /**
+     * Sets columns to read. Values of other columns are returned as nulls.
+     * Must be called before the first row is read.
+     */
+    public void setProjection(@Nullable boolean[] projection) {
+        if (projection != null && projection.length != columns.size()) {
+            throw new IllegalArgumentException("Projection size " + projection.length + " doesn't match column count " + columns.size());
+        }
+        this.projection = projection;
+    }
+
+    /**
+     * Reads next row
+     * @return row values or null if there are no more rows
+     */
+    @Nullable
+    public Object[] readRow() throws IOException {
+        while (rowGroupRowsLeft <= 0) {
+            if (!nextRowGroup()) {
+                return null;
+            }
+        }
+        Object[] row = new Object[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            ColumnReader reader = columnReaders[i];
+            if (reader != null) {
+                Object value = reader.readValue();
+                row[i] = value == null ? null : reader.column.toLogicalValue(value);
+            }
+        }
+        rowGroupRowsLeft--;
+        return row;
+    }
+
+    private boolean nextRowGroup() throws IOException {
+        if (rowGroupIndex + 1 >= rowGroups.size()) {
+            return false;
+        }
+        rowGroupIndex++;
+        RowGroupInfo rowGroup = rowGroups.get(rowGroupIndex);
+        if (rowGroup.columns.size() != columns.size()) {
+            throw new IOException("Row group " + rowGroupIndex + " has " + rowGroup.columns.size() + " column chunks while schema has " + columns.size() + " columns");
+        }
+        columnReaders = new ColumnReader[columns.size()];
+        for (int i = 0; i < columnReaders.length; i++) {
+            if (projection == null || projection[i]) {
+                ColumnChunkInfo chunk = rowGroup.columns.get(i);
+                long start = chunk.dataPageOffset;
+                if (chunk.dictionaryPageOffset > 0 && chunk.dictionaryPageOffset < start) {
+                    start = chunk.dictionaryPageOffset;
+                }
+                if (chunk.totalCompressedSize < 0 || chunk.totalCompressedSize > Integer.MAX_VALUE) {
+                    throw new IOException("Bad column chunk size: " + chunk.totalCompressedSize);
+                }
+                columnReaders[i] = new ColumnReader(
+                    columns.get(i),
+                    ParquetCodec.getById(chunk.codecId),
+                    readRange(start, (int) chunk.totalCompressedSize),
+                    chunk.valueCount);
+            }
+        }
+        rowGroupRowsLeft = rowGroup.rowCount;
+        return true;
+    }
+
+    private byte[] readRange(long offset, int length) throws IOException {
+        if (offset < 0 || offset + length > fileLength) {
+            throw new IOException("Parquet data range [" + offset + "," + (offset + length) + ") is outside of file");
+        }
+        if (content != null) {
+            return Arrays.copyOfRange(content, (int) offset, (int) offset + length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of Parquet file");
+            }
+        }
+        return buffer.array();
+    }
+
+    ////////////////////////////////////////////////////////
+    // Metadata
+
+    private void readFooter() throws IOException {
+        if (fileLength < MAGIC.length * 2 + 4) {
+            throw new IOException("File is too short to be a Parquet file");
+        }
+        if (!Arrays.equals(readRange(0, MAGIC.length), MAGIC)) {
+            throw new IOException("Not a Parquet file (bad header magic)");
+        }
+        byte[] tail = readRange(fileLength - 8, 8);
+        if (!Arrays.equals(Arrays.copyOfRange(tail, 4, 8), MAGIC)) {
+            throw new IOException("Not a Parquet file (bad footer magic)");
+        }
+        int footerLength = ParquetBuffer.readIntLE(tail, 0);
+        if (footerLength <= 0 || footerLength > fileLength - 12) {
+            throw new IOException("Bad Parquet footer length: " + footerLength);
+        }
+        byte[] footer = readRange(fileLength - 8 - footerLength, footerLength);
+        readFileMetaData(new ParquetThriftReader(footer, 0));
+    }
+
+    private void readFileMetaData(ParquetThriftReader thrift) throws IOException {
+        List<SchemaElement> schema = new ArrayList<>();
+        thrift.beginStruct();
+        for (int type; (type = thrift.readFieldHeader()) != TYPE_STOP; ) {
+            switch (thrift.getFieldId()) {
+                case 2: {
+                    int size = thrift.readListHeader();
+                    for (int i = 0; i < size; i++) {
+                        schema.add(readSchemaElement(thrift));
+                    }
+                    break;
+                }
+                case 3:
+                    rowCount = thrift.readI64();
+                    break;
+                case 4: {
+                    int size = thrift.readListHeader();
+                    for (int i = 0; i < size; i++) {
+                        rowGroups.add(readRowGroup(thrift));
+                    }
+                    break;
+                }
+                case 6:
+                    createdBy = thrift.readString();
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.endStruct();
+
+        if (schema.isEmpty()) {
+            throw new IOException("Empty Parquet schema");
+        }
+        if (schema.get(0).numChildren != schema.size() - 1) {
+            throw new IOException("Nested Parquet schemas are not supported");
+        }
+        for (int i = 1; i < schema.size(); i++) {
+            columns.add(schema.get(i).toColumn());
+        }
+    }
+
+    private static SchemaElement readSchemaElement(ParquetThriftReader thrift) throws IOException {
+        SchemaElement element = new SchemaElement();
+        thrift.beginStruct();
+        for (int type; (type = thrift.readFieldHeader()) != TYPE_STOP; ) {
+            switch (thrift.getFieldId()) {
+                case 1:
+                    element.type = thrift.readI32();
+                    break;
+                case 2:
+                    element.typeLength = thrift.readI32();
+                    break;
+                case 3:
+                    element.repetition = thrift.readI32();
+                    break;
+                case 4:
+                    element.name = thrift.readString();
+                    break;
+                case 5:
+                    element.numChildren = thrift.readI32();
+                    break;
+                case 6:
+                    element.convertedType = thrift.readI32();
+                    break;
+                case 7:
+                    element.scale = thrift.readI32();
+                    break;
+                case 8:
+                    element.precision = thrift.readI32();
+                    break;
+                case 10:
+                    readLogicalType(thrift, element);
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.endStruct();
+        return element;
+    }
+
+    private static void readLogicalType(ParquetThriftReader thrift, SchemaElement element) throws IOException {
+        thrift.beginStruct();
+        for (int type; (type = thrift.readFieldHeader()) != TYPE_STOP; ) {
+            int kind = thrift.getFieldId();
+            if (type != TYPE_STRUCT) {
+                thrift.skip(type);
+                continue;
+            }
+            int bitWidth = 0, timeUnit = 0;
+            boolean signed = true;
+            thrift.beginStruct();
+            for (int fieldType; (fieldType = thrift.readFieldHeader()) != TYPE_STOP; ) {
+                int fieldId = thrift.getFieldId();
+                if (kind == 5 && fieldId == 1 && fieldType == TYPE_I32) {
+                    element.scale = thrift.readI32();
+                } else if (kind == 5 && fieldId == 2 && fieldType == TYPE_I32) {
+                    element.precision = thrift.readI32();
+                } else if ((kind == 7 || kind == 8) && fieldId == 1) {
+                    element.adjustedToUTC = thrift.getBooleanValue();
+                } else if ((kind == 7 || kind == 8) && fieldId == 2 && fieldType == TYPE_STRUCT) {
+                    // TimeUnit union: field id defines the unit
+                    thrift.beginStruct();
+                    for (int unitType; (unitType = thrift.readFieldHeader()) != TYPE_STOP; ) {
+                        timeUnit = thrift.getFieldId();
+                        thrift.skip(unitType);
+                    }
+                    thrift.endStruct();
+                } else if (kind == 10 && fieldId == 1 && fieldType == TYPE_BYTE) {
+                    bitWidth = thrift.readByte();
+                } else if (kind == 10 && fieldId == 2) {
+                    signed = thrift.getBooleanValue();
+                } else {
+                    thrift.skip(fieldType);
+                }
+            }
+            thrift.endStruct();
+            element.logicalType = getLogicalType(kind, timeUnit, bitWidth, signed);
+        }
+        thrift.endStruct();
+    }
+
+    @Nullable
+    private static ParquetLogicalType getLogicalType(int kind, int timeUnit, int bitWidth, boolean signed) {
+        switch (kind) {
+            case 1: return ParquetLogicalType.STRING;
+            case 4: return ParquetLogicalType.ENUM;
+            case 5: return ParquetLogicalType.DECIMAL;
+            case 6: return ParquetLogicalType.DATE;
+            case 7:
+                return timeUnit == 1 ? ParquetLogicalType.TIME_MILLIS :
+                    timeUnit == 2 ? ParquetLogicalType.TIME_MICROS : ParquetLogicalType.TIME_NANOS;
+            case 8:
+                return timeUnit == 1 ? ParquetLogicalType.TIMESTAMP_MILLIS :
+                    timeUnit == 2 ? ParquetLogicalType.TIMESTAMP_MICROS : ParquetLogicalType.TIMESTAMP_NANOS;
+            case 10:
+                switch (bitWidth) {
+                    case 8: return signed ? ParquetLogicalType.INT_8 : ParquetLogicalType.UINT_8;
+                    case 16: return signed ? ParquetLogicalType.INT_16 : ParquetLogicalType.UINT_16;
+                    case 32: return signed ? ParquetLogicalType.INT_32 : ParquetLogicalType.UINT_32;
+                    default: return signed ? ParquetLogicalType.INT_64 : ParquetLogicalType.UINT_64;
+                }
+            case 12: return ParquetLogicalType.JSON;
+            case 13: return ParquetLogicalType.BSON;
+            case 14: return ParquetLogicalType.UUID;
+            default: return null;
+        }
+    }
+
+    private static RowGroupInfo readRowGroup(ParquetThriftReader thrift) throws IOException {
+        RowGroupInfo rowGroup = new RowGroupInfo();
+        thrift.beginStruct();
+        for (int type; (type = thrift.readFieldHeader()) != TYPE_STOP; ) {
+            switch (thrift.getFieldId()) {
+                case 1: {
+                    int size = thrift.readListHeader();
+                    for (int i = 0; i < size; i++) {
+                        rowGroup.columns.add(readColumnChunk(thrift));
+                    }
+                    break;
+                }
+                case 3:
+                    rowGroup.rowCount = thrift.readI64();
+                    break;
+                default:
+                    thrift.skip(type);
+                    break;
+            }
+        }
+        thrift.endStruct();
+        return rowGroup;
+    }
+
+    private static ColumnChunkInfo readColumnChunk(ParquetThriftReader thrift) throws IOException {
+        ColumnChunkInfo chunk = new ColumnChunkInfo();
+        boolean hasMetaData = false;
+        thrift.beginStruct();
+        for (int type; (type = thrift.readFieldHeader()) != TYPE_STOP; ) {
+            if (thrift.getFieldId() == 1 && type == TYPE_BINARY) {
+                thrift.readString();
+                throw new IOException("Parquet column chunks in external files are not supported");
+            } else if (thrift.getFieldId() == 3 && type == TYPE_STRUCT) {
+                hasMetaData = true;
+                thrift.beginStruct();
+                for (int fieldType; (fieldType = thrift.readFieldHeader()) != TYPE_STOP; ) {
+                    switch (thrift.getFieldId()) {
+                        case 4:
+                            chunk.codecId = thrift.readI32();
+                            break;
+                        case 5:
+                            chunk.valueCount = thrift.readI64();
+                            break;
+                        case 7:
+                            chunk.totalCompressedSize = thrift.readI64();
+                            break;
+                        case 9:
+                            chunk.dataPageOffset = thrift.readI64();
+                            break;
+                        case 11:
+                            chunk.dictionaryPageOffset = thrift.readI64();
+                            break;
+                        default:
+                            thrift.skip(fieldType);
+                            break;
+                    }
+                }
+                thrift.endStruct();
+            } else {
+                thrift.skip(type);
+            }
+        }
+        thrift.endStruct();
+        if (!hasMetaData) {
+            throw new IOException("Parquet column chunk metadata is missing");
+        }
+        return chunk;
+    }
+
+    ////////////////////////////////////////////////////////
+    // Data
+
+    private static class ColumnReader {
+        private final ParquetColumn column;
+        private final ParquetCodec codec;
+        private final byte[] chunk;
+        private int chunkPosition;
+        private long valuesLeft;
+        private Object[] dictionary;
+
+        // Current page
+        private int pageValuesLeft;
+        private byte[] page;
+        private int position;
+        private RleDecoder definitionLevels;
+        private RleDecoder dictionaryIndexes;
+        private RleDecoder booleanValues;
+        private int bitIndex;
+
+        ColumnReader(ParquetColumn column, ParquetCodec codec, byte[] chunk, long valueCount) {
+            this.column = column;
+            this.codec = codec;
+            this.chunk = chunk;
+            this.valuesLeft = valueCount;
+        }
+
+        Object readValue() throws IOException {
+            while (pageValuesLeft <= 0) {
+                if (valuesLeft <= 0) {
+                    throw new IOException("Column '" + column.getName() + "' has less values than rows");
+                }
+                readPage();
+            }
+            pageValuesLeft--;
+            valuesLeft--;
+            if (definitionLevels != null && definitionLevels.next() == 0) {
+                return null;
+            }
+            if (dictionaryIndexes != null) {
+                int index = dictionaryIndexes.next();
+                if (dictionary == null || index < 0 || index >= dictionary.length) {
+                    throw new IOException("Bad dictionary index " + index + " in column '" + column.getName() + "'");
+                }
+                return dictionary[index];
+            }
+            if (booleanValues != null) {
+                return booleanValues.next() != 0;
+            }
+            return readPlainValue();
+        }
+
+        private void readPage() throws IOException {
+            if (chunkPosition >= chunk.length) {
+                throw new IOException("Unexpected end of column chunk '" + column.getName() + "'");
+            }
+            PageHeader header = readPageHeader();
+            int dataStart = chunkPosition;
+            if (header.compressedSize < 0 || dataStart + header.compressedSize > chunk.length) {
+                throw new IOException("Bad page size in column '" + column.getName() + "'");
+            }
+            chunkPosition += header.compressedSize;
+
+            switch (header.type) {
+                case PAGE_TYPE_DICTIONARY: {
+                    page = codec.decompress(chunk, dataStart, header.compressedSize, header.uncompressedSize);
+                    position = 0;
+                    bitIndex = 0;
+                    dictionary = new Object[header.valueCount];
+                    for (int i = 0; i < header.valueCount; i++) {
+                        dictionary[i] = readPlainValue();
+                    }
+                    break;
+                }
+                case PAGE_TYPE_DATA: {
+                    page = codec.decompress(chunk, dataStart, header.compressedSize, header.uncompressedSize);
+                    position = 0;
+                    definitionLevels = null;
+                    if (column.isOptional()) {
+                        int length = readLength();
+                        definitionLevels = new RleDecoder(page, position, position + length, 1);
+                        position += length;
+                    }
+                    startValues(header.encoding);
+                    pageValuesLeft = header.valueCount;
+                    break;
+                }
+                case PAGE_TYPE_DATA_V2: {
+                    // Levels are never compressed in v2 pages
+                    int levelsLength = header.repetitionLevelsLength + header.definitionLevelsLength;
+                    if (levelsLength < 0 || levelsLength > header.compressedSize) {
+                        throw new IOException("Bad levels size in column '" + column.getName() + "'");
+                    }
+                    int valuesStart = dataStart + levelsLength;
+                    byte[] values = header.compressed ?
+                        codec.decompress(chunk, valuesStart, header.compressedSize - levelsLength, header.uncompressedSize - levelsLength) :
+                        Arrays.copyOfRange(chunk, valuesStart, dataStart + header.compressedSize);
+                    page = new byte[levelsLength + values.length];
+                    System.arraycopy(chunk, dataStart, page, 0, levelsLength);
+                    System.arraycopy(values, 0, page, levelsLength, values.length);
+                    definitionLevels = null;
+                    if (column.isOptional()) {
+                        definitionLevels = new RleDecoder(page, header.repetitionLevelsLength, levelsLength, 1);
+                    }
+                    position = levelsLength;
+                    startValues(header.encoding);
+                    pageValuesLeft = header.valueCount;
+                    break;
+                }
+                default:
+                    // Index pages and unknown pages are skipped
+                    break;
+            }
+        }
+
+        private void startValues(int encoding) throws IOException {
+            bitIndex = 0;
+            dictionaryIndexes = null;
+            booleanValues = null;
+            switch (encoding) {
+                case ENCODING_PLAIN:
+                    break;
+                case ENCODING_PLAIN_DICTIONARY:
+                case ENCODING_RLE_DICTIONARY: {
+                    if (position >= page.length) {
+                        // Page has only nulls
+                        dictionaryIndexes = new RleDecoder(page, position, position, 0);
+                        break;
+                    }
+                    int bitWidth = page[position++] & 0xFF;
+                    dictionaryIndexes = new RleDecoder(page, position, page.length, bitWidth);
+                    break;
+                }
+                case ENCODING_RLE:
+                    if (column.getType() == ParquetType.BOOLEAN) {
+                        int length = readLength();
+                        booleanValues = new RleDecoder(page, position, position + length, 1);
+                        break;
+                    }
+                    // fall through
+                default:
+                    throw new IOException("Parquet encoding " + encoding + " of column '" + column.getName() + "' is not supported");
+            }
+        }
+
+        private int readLength() throws IOException {
+            checkAvailable(4);
+            int length = ParquetBuffer.readIntLE(page, position);
+            position += 4;
+            if (length < 0 || position + length > page.length) {
+                throw new IOException("Bad data length in column '" + column.getName() + "'");
+            }
+            return length;
+        }
+
+        private Object readPlainValue() throws IOException {
+            switch (column.getType()) {
+                case BOOLEAN: {
+                    checkAvailable(1);
+                    boolean value = (page[position] & (1 << bitIndex)) != 0;
+                    if (++bitIndex == 8) {
+                        bitIndex = 0;
+                        position++;
+                    }
+                    return value;
+                }
+                case INT32: {
+                    checkAvailable(4);
+                    int value = ParquetBuffer.readIntLE(page, position);
+                    position += 4;
+                    return value;
+                }
+                case INT64: {
+                    checkAvailable(8);
+                    long value = ParquetBuffer.readLongLE(page, position);
+                    position += 8;
+                    return value;
+                }
+                case FLOAT: {
+                    checkAvailable(4);
+                    float value = Float.intBitsToFloat(ParquetBuffer.readIntLE(page, position));
+                    position += 4;
+                    return value;
+                }
+                case DOUBLE: {
+                    checkAvailable(8);
+                    double value = Double.longBitsToDouble(ParquetBuffer.readLongLE(page, position));
+                    position += 8;
+                    return value;
+                }
+                case BYTE_ARRAY: {
+                    int length = readLength();
+                    byte[] value = Arrays.copyOfRange(page, position, position + length);
+                    position += length;
+                    return value;
+                }
+                case INT96:
+                    return readFixed(12);
+                default:
+                    return readFixed(column.getTypeLength());
+            }
+        }
+
+        private byte[] readFixed(int length) throws IOException {
+            checkAvailable(length);
+            byte[] value = Arrays.copyOfRange(page, position, position + length);
+            position += length;
+            return value;
+        }
+
+        private void checkAvailable(int length) throws IOException {
+            if (position + length > page.length) {
+                throw new IOException("Unexpected end of page in column '" + column.getName() + "'");
+            }
+        }
+
+        private PageHeader readPageHeader() throws IOException {
+            PageHeader header = new PageHeader();
+            ParquetThriftReader thrift = new ParquetThriftReader(chunk, chunkPosition);
+            thrift.beginStruct();
+            for (int type; (type = thrift.readFieldHeader()) != TYPE_STOP; ) {
+                int fieldId = thrift.getFieldId();
+                if (fieldId == 1) {
+                    header.type = thrift.readI32();
+                } else if (fieldId == 2) {
+                    header.uncompressedSize = thrift.readI32();
+                } else if (fieldId == 3) {
+                    header.compressedSize = thrift.readI32();
+                } else if ((fieldId == 5 || fieldId == 7 || fieldId == 8) && type == TYPE_STRUCT) {
+                    thrift.beginStruct();
+                    for (int fieldType; (fieldType = thrift.readFieldHeader()) != TYPE_STOP; ) {
+                        int subFieldId = thrift.getFieldId();
+                        if (subFieldId == 1) {
+                            header.valueCount = thrift.readI32();
+                        } else if (fieldId == 5 && subFieldId == 2 || fieldId == 7 && subFieldId == 2 || fieldId == 8 && subFieldId == 4) {
+                            header.encoding = thrift.readI32();
+                        } else if (fieldId == 8 && subFieldId == 5) {
+                            header.definitionLevelsLength = thrift.readI32();
+                        } else if (fieldId == 8 && subFieldId == 6) {
+                            header.repetitionLevelsLength = thrift.readI32();
+                        } else if (fieldId == 8 && subFieldId == 7) {
+                            header.compressed = thrift.getBooleanValue();
+                        } else {
+                            thrift.skip(fieldType);
+                        }
+                    }
+                    thrift.endStruct();
+                } else {
+                    thrift.skip(type);
+                }
+            }
+            thrift.endStruct();
+            chunkPosition = thrift.getPosition();
+            return header;
+        }
+    }
+
+    /**
+     * Decoder of RLE/bit-packed hybrid encoding
+     */
+    private static class RleDecoder {
+        private final byte[] data;
+        private final int end;
+        private final int bitWidth;
+        private final int byteWidth;
+        private int position;
+        // Current run
+        private int runLeft;
+        private boolean packed;
+        private int runValue;
+        private long packedBitPosition;
+
+        RleDecoder(byte[] data, int start, int end, int bitWidth) throws IOException {
+            if (bitWidth < 0 || bitWidth > 32) {
+                throw new IOException("Bad RLE bit width: " + bitWidth);
+            }
+            this.data = data;
+            this.position = start;
+            this.end = end;
+            this.bitWidth = bitWidth;
+            this.byteWidth = (bitWidth + 7) / 8;
+        }
+
+        int next() throws IOException {
+            if (runLeft == 0) {
+                readRunHeader();
+            }
+            runLeft--;
+            if (!packed) {
+                return runValue;
+            }
+            int value = 0;
+            for (int bit = 0; bit < bitWidth; bit++, packedBitPosition++) {
+                int bytePos = (int) (packedBitPosition >>> 3);
+                if ((data[bytePos] & (1 << (packedBitPosition & 7))) != 0) {
+                    value |= 1 << bit;
+                }
+            }
+            return value;
+        }
+
+        private void readRunHeader() throws IOException {
+            long header = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (position >= end || shift > 35) {
+                    throw new IOException("Unexpected end of RLE data");
+                }
+                int b = data[position++];
+                header |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            if ((header & 1) == 0) {
+                packed = false;
+                runLeft = (int) (header >>> 1);
+                if (position + byteWidth > end) {
+                    throw new IOException("Unexpected end of RLE data");
+                }
+                runValue = 0;
+                for (int i = 0; i < byteWidth; i++) {
+                    runValue |= (data[position++] & 0xFF) << (i * 8);
+                }
+            } else {
+                packed = true;
+                int groupCount = (int) (header >>> 1);
+                runLeft = groupCount * 8;
+                packedBitPosition = (long) position * 8;
+                // Last group may be truncated if it contains only padding
+                position = (int) Math.min(end, position + (long) groupCount * bitWidth);
+                if ((packedBitPosition + (long) runLeft * bitWidth + 7) / 8 > end) {
+                    runLeft = (int) (((long) end * 8 - packedBitPosition) / Math.max(1, bitWidth));
+                }
+            }
+            if (runLeft <= 0) {
+                throw new IOException("Empty RLE run");
+            }
+        }
+    }
+
+    private static class PageHeader {
+        int type;
+        int uncompressedSize;
+        int compressedSize;
+        int valueCount;
+        int encoding;
+        int definitionLevelsLength;
+        int repetitionLevelsLength;
+        boolean compressed = true;
+    }
+
+    private static class SchemaElement {
+        int type = -1;
+        int typeLength;
+        int repetition = ParquetColumn.REPETITION_REQUIRED;
+        String name;
+        int numChildren;
+        int convertedType = -1;
+        int scale;
+        int precision;
+        ParquetLogicalType logicalType;
+        boolean adjustedToUTC = true;
+
+        ParquetColumn toColumn() throws IOException {
+            if (numChildren > 0 || type < 0) {
+                throw new IOException("Nested Parquet column '" + name + "' is not supported");
+            }
+            if (repetition == ParquetColumn.REPETITION_REPEATED) {
+                throw new IOException("Repeated Parquet column '" + name + "' is not supported");
+            }
+            ParquetLogicalType columnLogicalType = logicalType;
+            if (columnLogicalType == null) {
+                columnLogicalType = ParquetLogicalType.getByConvertedType(convertedType);
+            }
+            ParquetType columnType;
+            try {
+                columnType = ParquetType.getById(type);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unsupported type of Parquet column '" + name + "'", e);
+            }
+            return new ParquetColumn(
+                name == null ? "" : name,
+                columnType,
+                columnLogicalType,
+                typeLength,
+                precision,
+                scale,
+                repetition == ParquetColumn.REPETITION_OPTIONAL,
+                adjustedToUTC);
+        }
+    }
+
+    private static class RowGroupInfo {
+        final List<ColumnChunkInfo> columns = new ArrayList<>();
+        long rowCount;
+    }
+
+    private static class ColumnChunkInfo {
+        int codecId;
+        long valueCount;
+        long totalCompressedSize;
+        long dataPageOffset;
+        long dictionaryPageOffset;
+    }
+
+}
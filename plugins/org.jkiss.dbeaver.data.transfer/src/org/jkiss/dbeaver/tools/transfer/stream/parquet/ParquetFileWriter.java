@@ -0,0 +1,522 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetThriftWriter.*;
+
+/**
+ * Writes flat tables in Apache Parquet format.
+ * Values are written with PLAIN encoding in v1 data pages, definition levels use RLE/bit-packed hybrid encoding.
+ * Each row group is buffered in memory until it reaches configured size.
+ * Underlying stream is not closed by the writer.
+ */
+public class ParquetFileWriter {
+
+    public static final long DEFAULT_ROW_GROUP_SIZE = 64L * 1024 * 1024;
+    public static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+
+    static final byte[] MAGIC = {'P', 'A', 'R', '1'};
+    static final String CREATED_BY = "DBeaver";
+
+    static final int PAGE_TYPE_DATA = 0;
+    static final int PAGE_TYPE_INDEX = 1;
+    static final int PAGE_TYPE_DICTIONARY = 2;
+    static final int PAGE_TYPE_DATA_V2 = 3;
+
+    static final int ENCODING_PLAIN = 0;
+    static final int ENCODING_PLAIN_DICTIONARY = 2;
+    static final int ENCODING_RLE = 3;
+    static final int ENCODING_RLE_DICTIONARY = 8;
+
+    private final OutputStream out;
+    private final List<ParquetColumn> columns;
+    private final ParquetCodec codec;
+    private final long rowGroupSize;
+    private final int pageSize;
+    private final ColumnWriter[] columnWriters;
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long position;
+    private long rowGroupRows;
+    private long totalRows;
+    private boolean finished;
+
+    public ParquetFileWriter(@NotNull OutputStream out, @NotNull List<ParquetColumn> columns, @NotNull ParquetCodec codec, long rowGroupSize) throws IOException {
+        this(out, columns, codec, rowGroupSize, DEFAULT_PAGE_SIZE);
+    }
+
+    public ParquetFileWriter(@NotNull OutputStream out, @NotNull List<ParquetColumn> columns, @NotNull ParquetCodec codec, long rowGroupSize, int pageSize) throws IOException {
+        if (!codec.isSupported()) {
+            throw new IOException("Parquet codec " + codec + " is not supported");
+        }
+        this.out = out;
+        this.columns = new ArrayList<>(columns);
+        this.codec = codec;
+        this.rowGroupSize = Math.max(1, rowGroupSize);
+        this.pageSize = Math.max(1, pageSize);
+        this.columnWriters = new ColumnWriter[columns.size()];
+        for (int i = 0; i < columnWriters.length; i++) {
+            columnWriters[i] = new ColumnWriter(this.columns.get(i));
+        }
+        write(MAGIC, 0, MAGIC.length);
+    }
+
+    @NotNull
+    public List<ParquetColumn> getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return totalRows;
+    }
+
+    /**
+     * Writes one row. Values are converted into column physical types (see {@link ParquetColumn#toPhysicalValue(Object)}).
+     */
+    public void writeRow(@NotNull Object[] values) throws IOException {
+        if (finished) {
+            throw new IOException("Parquet file is already finished");
+        }
+        if (values.length != columnWriters.length) {
+            throw new IOException("Row has " + values.length + " values while Parquet schema has " + columnWriters.length + " columns");
+        }
+        long bufferedSize = 0;
+        for (int i = 0; i < columnWriters.length; i++) {
+            ColumnWriter writer = columnWriters[i];
+            Object value = values[i];
+            if (value != null) {
+                try {
+                    value = writer.column.toPhysicalValue(value);
+                } catch (RuntimeException e) {
+                    throw new IOException("Can't convert value of column '" + writer.column.getName() + "' into " + writer.column.getType(), e);
+                }
+            }
+            writer.writeValue(value);
+            bufferedSize += writer.getBufferedSize();
+        }
+        rowGroupRows++;
+        totalRows++;
+        if (bufferedSize >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Flushes last row group and writes file footer
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        flushRowGroup();
+
+        ParquetBuffer footer = new ParquetBuffer(1024);
+        writeFileMetaData(new ParquetThriftWriter(footer));
+        int footerLength = footer.size();
+        footer.writeIntLE(footerLength);
+        footer.write(MAGIC);
+        write(footer.getData(), 0, footer.size());
+        out.flush();
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        out.write(data, offset, length);
+        position += length;
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rowGroupRows == 0) {
+            return;
+        }
+        RowGroupInfo rowGroup = new RowGroupInfo(rowGroupRows, position);
+        for (ColumnWriter writer : columnWriters) {
+            writer.flushPage();
+            ColumnChunkInfo chunk = new ColumnChunkInfo(writer.column, position, writer.chunkValueCount, writer.chunkUncompressedSize, writer.chunk.size());
+            write(writer.chunk.getData(), 0, writer.chunk.size());
+            writer.resetChunk();
+            rowGroup.columns.add(chunk);
+            rowGroup.totalByteSize += chunk.uncompressedSize;
+            rowGroup.totalCompressedSize += chunk.compressedSize;
+        }
+        rowGroups.add(rowGroup);
+        rowGroupRows = 0;
+    }
+
+    private void writeFileMetaData(ParquetThriftWriter thrift) {
+        thrift.beginStruct();
+        thrift.writeI32Field(1, 1);
+        // Schema. Root group followed by leaf columns
+        thrift.beginListField(2, TYPE_STRUCT, columns.size() + 1);
+        thrift.beginStruct();
+        thrift.writeStringField(4, "schema");
+        thrift.writeI32Field(5, columns.size());
+        thrift.endStruct();
+        for (ParquetColumn column : columns) {
+            writeSchemaElement(thrift, column);
+        }
+        thrift.writeI64Field(3, totalRows);
+        thrift.beginListField(4, TYPE_STRUCT, rowGroups.size());
+        for (RowGroupInfo rowGroup : rowGroups) {
+            writeRowGroup(thrift, rowGroup);
+        }
+        thrift.writeStringField(6, CREATED_BY);
+        thrift.endStruct();
+    }
+
+    private static void writeSchemaElement(ParquetThriftWriter thrift, ParquetColumn column) {
+        ParquetLogicalType logicalType = column.getLogicalType();
+        thrift.beginStruct();
+        thrift.writeI32Field(1, column.getType().getId());
+        if (column.getType() == ParquetType.FIXED_LEN_BYTE_ARRAY) {
+            thrift.writeI32Field(2, column.getTypeLength());
+        }
+        thrift.writeI32Field(3, column.isOptional() ? ParquetColumn.REPETITION_OPTIONAL : ParquetColumn.REPETITION_REQUIRED);
+        thrift.writeStringField(4, column.getName());
+        if (logicalType.getConvertedType() >= 0 && (!logicalType.isTimestamp() && !logicalType.isTime() || column.isAdjustedToUTC())) {
+            // Converted type implies UTC-adjusted time values
+            thrift.writeI32Field(6, logicalType.getConvertedType());
+        }
+        if (logicalType == ParquetLogicalType.DECIMAL) {
+            thrift.writeI32Field(7, column.getScale());
+            thrift.writeI32Field(8, column.getPrecision());
+        }
+        if (logicalType != ParquetLogicalType.NONE) {
+            thrift.beginStructField(10);
+            writeLogicalType(thrift, column);
+            thrift.endStruct();
+        }
+        thrift.endStruct();
+    }
+
+    private static void writeLogicalType(ParquetThriftWriter thrift, ParquetColumn column) {
+        ParquetLogicalType logicalType = column.getLogicalType();
+        switch (logicalType) {
+            case STRING:
+                writeEmptyStruct(thrift, 1);
+                break;
+            case ENUM:
+                writeEmptyStruct(thrift, 4);
+                break;
+            case DECIMAL:
+                thrift.beginStructField(5);
+                thrift.writeI32Field(1, column.getScale());
+                thrift.writeI32Field(2, column.getPrecision());
+                thrift.endStruct();
+                break;
+            case DATE:
+                writeEmptyStruct(thrift, 6);
+                break;
+            case TIME_MILLIS:
+            case TIME_MICROS:
+            case TIME_NANOS:
+            case TIMESTAMP_MILLIS:
+            case TIMESTAMP_MICROS:
+            case TIMESTAMP_NANOS:
+                thrift.beginStructField(logicalType.isTime() ? 7 : 8);
+                thrift.writeBooleanField(1, column.isAdjustedToUTC());
+                thrift.beginStructField(2);
+                writeEmptyStruct(thrift, getTimeUnit(logicalType));
+                thrift.endStruct();
+                thrift.endStruct();
+                break;
+            case INT_8:
+            case INT_16:
+            case INT_32:
+            case INT_64:
+            case UINT_8:
+            case UINT_16:
+            case UINT_32:
+            case UINT_64:
+                thrift.beginStructField(10);
+                thrift.writeByteField(1, getIntegerBitWidth(logicalType));
+                thrift.writeBooleanField(2, logicalType.ordinal() >= ParquetLogicalType.INT_8.ordinal());
+                thrift.endStruct();
+                break;
+            case JSON:
+                writeEmptyStruct(thrift, 12);
+                break;
+            case BSON:
+                writeEmptyStruct(thrift, 13);
+                break;
+            case UUID:
+                writeEmptyStruct(thrift, 14);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void writeEmptyStruct(ParquetThriftWriter thrift, int fieldId) {
+        thrift.beginStructField(fieldId);
+        thrift.endStruct();
+    }
+
+    private static int getTimeUnit(ParquetLogicalType logicalType) {
+        switch (logicalType) {
+            case TIME_MILLIS:
+            case TIMESTAMP_MILLIS:
+                return 1;
+            case TIME_MICROS:
+            case TIMESTAMP_MICROS:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    private static int getIntegerBitWidth(ParquetLogicalType logicalType) {
+        switch (logicalType) {
+            case INT_8:
+            case UINT_8:
+                return 8;
+            case INT_16:
+            case UINT_16:
+                return 16;
+            case INT_32:
+            case UINT_32:
+                return 32;
+            default:
+                return 64;
+        }
+    }
+
+    private static void writeRowGroup(ParquetThriftWriter thrift, RowGroupInfo rowGroup) {
+        thrift.beginStruct();
+        thrift.beginListField(1, TYPE_STRUCT, rowGroup.columns.size());
+        for (ColumnChunkInfo chunk : rowGroup.columns) {
+            thrift.beginStruct();
+            thrift.writeI64Field(2, chunk.offset);
+            thrift.beginStructField(3);
+            thrift.writeI32Field(1, chunk.column.getType().getId());
+            thrift.beginListField(2, TYPE_I32, 2);
+            thrift.writeI32(ENCODING_PLAIN);
+            thrift.writeI32(ENCODING_RLE);
+            thrift.beginListField(3, TYPE_BINARY, 1);
+            thrift.writeString(chunk.column.getName());
+            thrift.writeI32Field(4, chunk.codecId);
+            thrift.writeI64Field(5, chunk.valueCount);
+            thrift.writeI64Field(6, chunk.uncompressedSize);
+            thrift.writeI64Field(7, chunk.compressedSize);
+            thrift.writeI64Field(9, chunk.offset);
+            thrift.endStruct();
+            thrift.endStruct();
+        }
+        thrift.writeI64Field(2, rowGroup.totalByteSize);
+        thrift.writeI64Field(3, rowGroup.rowCount);
+        thrift.writeI64Field(5, rowGroup.offset);
+        thrift.writeI64Field(6, rowGroup.totalCompressedSize);
+        thrift.endStruct();
+    }
+
+    private class ColumnWriter {
+        private final ParquetColumn column;
+        // Current page
+        private final ParquetBuffer values = new ParquetBuffer(1024);
+        private final ParquetBuffer definitionLevels = new ParquetBuffer(256);
+        private int pageValueCount;
+        private int bitBuffer;
+        private int bitCount;
+        // Current column chunk (encoded pages)
+        private final ParquetBuffer chunk = new ParquetBuffer(1024);
+        private long chunkValueCount;
+        private long chunkUncompressedSize;
+
+        ColumnWriter(ParquetColumn column) {
+            this.column = column;
+        }
+
+        long getBufferedSize() {
+            return chunk.size() + values.size() + pageValueCount / 8;
+        }
+
+        void writeValue(Object value) throws IOException {
+            if (value == null) {
+                if (!column.isOptional()) {
+                    throw new IOException("Null value in required column '" + column.getName() + "'");
+                }
+                definitionLevels.write(0);
+            } else {
+                definitionLevels.write(1);
+                writePlainValue(value);
+            }
+            pageValueCount++;
+            if (values.size() >= pageSize) {
+                flushPage();
+            }
+        }
+
+        private void writePlainValue(Object value) {
+            switch (column.getType()) {
+                case BOOLEAN:
+                    if ((Boolean) value) {
+                        bitBuffer |= 1 << bitCount;
+                    }
+                    if (++bitCount == 8) {
+                        values.write(bitBuffer);
+                        bitBuffer = 0;
+                        bitCount = 0;
+                    }
+                    break;
+                case INT32:
+                    values.writeIntLE((Integer) value);
+                    break;
+                case INT64:
+                    values.writeLongLE((Long) value);
+                    break;
+                case FLOAT:
+                    values.writeIntLE(Float.floatToRawIntBits((Float) value));
+                    break;
+                case DOUBLE:
+                    values.writeLongLE(Double.doubleToRawLongBits((Double) value));
+                    break;
+                case BYTE_ARRAY: {
+                    byte[] bytes = (byte[]) value;
+                    values.writeIntLE(bytes.length);
+                    values.write(bytes);
+                    break;
+                }
+                default:
+                    // INT96 and FIXED_LEN_BYTE_ARRAY
+                    values.write((byte[]) value);
+                    break;
+            }
+        }
+
+        void flushPage() throws IOException {
+            if (pageValueCount == 0) {
+                return;
+            }
+            if (bitCount > 0) {
+                values.write(bitBuffer);
+                bitBuffer = 0;
+                bitCount = 0;
+            }
+            ParquetBuffer body;
+            if (column.isOptional()) {
+                body = new ParquetBuffer(values.size() + pageValueCount / 8 + 16);
+                encodeDefinitionLevels(body);
+                body.write(values.getData(), 0, values.size());
+            } else {
+                body = values;
+            }
+            byte[] compressed = codec.compress(body.getData(), body.size());
+
+            ParquetBuffer header = new ParquetBuffer(64);
+            ParquetThriftWriter thrift = new ParquetThriftWriter(header);
+            thrift.beginStruct();
+            thrift.writeI32Field(1, PAGE_TYPE_DATA);
+            thrift.writeI32Field(2, body.size());
+            thrift.writeI32Field(3, compressed.length);
+            thrift.beginStructField(5);
+            thrift.writeI32Field(1, pageValueCount);
+            thrift.writeI32Field(2, ENCODING_PLAIN);
+            thrift.writeI32Field(3, ENCODING_RLE);
+            thrift.writeI32Field(4, ENCODING_RLE);
+            thrift.endStruct();
+            thrift.endStruct();
+
+            chunk.write(header.getData(), 0, header.size());
+            chunk.write(compressed, 0, compressed.length);
+            chunkValueCount += pageValueCount;
+            chunkUncompressedSize += header.size() + body.size();
+
+            values.reset();
+            definitionLevels.reset();
+            pageValueCount = 0;
+        }
+
+        /**
+         * Writes definition levels (bit width 1) with 4-byte length prefix.
+         * Uses single RLE run if all values are the same, otherwise bit-packs all levels.
+         */
+        private void encodeDefinitionLevels(ParquetBuffer body) {
+            byte[] levels = definitionLevels.getData();
+            boolean sameLevels = true;
+            for (int i = 1; i < pageValueCount; i++) {
+                if (levels[i] != levels[0]) {
+                    sameLevels = false;
+                    break;
+                }
+            }
+            ParquetBuffer encoded = new ParquetBuffer(pageValueCount / 8 + 16);
+            if (sameLevels) {
+                encoded.writeVarInt((long) pageValueCount << 1);
+                encoded.write(levels[0]);
+            } else {
+                int groupCount = (pageValueCount + 7) / 8;
+                encoded.writeVarInt(((long) groupCount << 1) | 1);
+                for (int group = 0; group < groupCount; group++) {
+                    int packed = 0;
+                    for (int bit = 0; bit < 8; bit++) {
+                        int index = group * 8 + bit;
+                        if (index < pageValueCount && levels[index] != 0) {
+                            packed |= 1 << bit;
+                        }
+                    }
+                    encoded.write(packed);
+                }
+            }
+            body.writeIntLE(encoded.size());
+            body.write(encoded.getData(), 0, encoded.size());
+        }
+
+        void resetChunk() {
+            chunk.reset();
+            chunkValueCount = 0;
+            chunkUncompressedSize = 0;
+        }
+    }
+
+    private class ColumnChunkInfo {
+        private final ParquetColumn column;
+        private final long offset;
+        private final int codecId;
+        private final long valueCount;
+        private final long uncompressedSize;
+        private final long compressedSize;
+
+        ColumnChunkInfo(ParquetColumn column, long offset, long valueCount, long uncompressedSize, long compressedSize) {
+            this.column = column;
+            this.offset = offset;
+            this.codecId = codec.getId();
+            this.valueCount = valueCount;
+            this.uncompressedSize = uncompressedSize;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    private static class RowGroupInfo {
+        private final long rowCount;
+        private final long offset;
+        private final List<ColumnChunkInfo> columns = new ArrayList<>();
+        private long totalByteSize;
+        private long totalCompressedSize;
+
+        RowGroupInfo(long rowCount, long offset) {
+            this.rowCount = rowCount;
+            this.offset = offset;
+        }
+    }
+
+}
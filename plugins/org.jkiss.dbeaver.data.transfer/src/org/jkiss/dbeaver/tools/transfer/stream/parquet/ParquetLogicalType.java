@@ -0,0 +1,78 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+/**
+ * Parquet logical type (annotation of physical type).
+ * Types which have legacy converted type id are written as converted types which are supported by all readers.
+ */
+public enum ParquetLogicalType {
+    NONE(-1),
+    STRING(0),
+    ENUM(4),
+    DECIMAL(5),
+    DATE(6),
+    TIME_MILLIS(7),
+    TIME_MICROS(8),
+    TIME_NANOS(-1),
+    TIMESTAMP_MILLIS(9),
+    TIMESTAMP_MICROS(10),
+    TIMESTAMP_NANOS(-1),
+    UINT_8(11),
+    UINT_16(12),
+    UINT_32(13),
+    UINT_64(14),
+    INT_8(15),
+    INT_16(16),
+    INT_32(17),
+    INT_64(18),
+    JSON(19),
+    BSON(20),
+    INTERVAL(21),
+    UUID(-1);
+
+    private final int convertedType;
+
+    ParquetLogicalType(int convertedType) {
+        this.convertedType = convertedType;
+    }
+
+    /**
+     * Legacy converted type id or -1
+     */
+    public int getConvertedType() {
+        return convertedType;
+    }
+
+    public boolean isTime() {
+        return this == TIME_MILLIS || this == TIME_MICROS || this == TIME_NANOS;
+    }
+
+    public boolean isTimestamp() {
+        return this == TIMESTAMP_MILLIS || this == TIMESTAMP_MICROS || this == TIMESTAMP_NANOS;
+    }
+
+    static ParquetLogicalType getByConvertedType(int convertedType) {
+        for (ParquetLogicalType type : values()) {
+            if (type.convertedType == convertedType && convertedType >= 0) {
+                return type;
+            }
+        }
+        // Nested types (MAP, LIST) or unknown annotation
+        return NONE;
+    }
+}
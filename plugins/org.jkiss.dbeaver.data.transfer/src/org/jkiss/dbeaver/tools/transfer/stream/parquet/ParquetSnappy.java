@@ -0,0 +1,181 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Raw Snappy block format compressor and decompressor.
+ * Compressor is a simple greedy matcher. It produces valid but not maximally compressed blocks.
+ */
+class ParquetSnappy {
+
+    private static final int HASH_BITS = 14;
+    private static final int MAX_OFFSET = 65535;
+
+    static byte[] compress(byte[] data, int offset, int length) {
+        ParquetBuffer out = new ParquetBuffer(32 + length + length / 6);
+        out.writeVarInt(length);
+        int[] table = new int[1 << HASH_BITS];
+        Arrays.fill(table, -1);
+        int pos = 0;
+        int literalStart = 0;
+        while (pos + 4 <= length) {
+            int value = readInt(data, offset + pos);
+            int hash = (value * 0x1e35a7bd) >>> (32 - HASH_BITS);
+            int candidate = table[hash];
+            table[hash] = pos;
+            if (candidate >= 0 && pos - candidate <= MAX_OFFSET && readInt(data, offset + candidate) == value) {
+                int matchLength = 4;
+                while (pos + matchLength < length && data[offset + candidate + matchLength] == data[offset + pos + matchLength]) {
+                    matchLength++;
+                }
+                writeLiteral(out, data, offset + literalStart, pos - literalStart);
+                writeCopy(out, pos - candidate, matchLength);
+                pos += matchLength;
+                literalStart = pos;
+            } else {
+                pos++;
+            }
+        }
+        writeLiteral(out, data, offset + literalStart, length - literalStart);
+        return out.toByteArray();
+    }
+
+    static byte[] decompress(byte[] data, int offset, int length) throws IOException {
+        try {
+            int pos = offset;
+            int end = offset + length;
+            int uncompressedLength = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = data[pos++];
+                uncompressedLength |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            byte[] result = new byte[uncompressedLength];
+            int outPos = 0;
+            while (pos < end) {
+                int tag = data[pos++] & 0xFF;
+                int copyLength;
+                int copyOffset;
+                switch (tag & 3) {
+                    case 0: {
+                        int literalLength = tag >>> 2;
+                        if (literalLength >= 60) {
+                            int lengthBytes = literalLength - 59;
+                            literalLength = 0;
+                            for (int i = 0; i < lengthBytes; i++) {
+                                literalLength |= (data[pos++] & 0xFF) << (8 * i);
+                            }
+                        }
+                        literalLength++;
+                        System.arraycopy(data, pos, result, outPos, literalLength);
+                        pos += literalLength;
+                        outPos += literalLength;
+                        continue;
+                    }
+                    case 1:
+                        copyLength = 4 + ((tag >>> 2) & 7);
+                        copyOffset = ((tag >>> 5) << 8) | (data[pos++] & 0xFF);
+                        break;
+                    case 2:
+                        copyLength = (tag >>> 2) + 1;
+                        copyOffset = (data[pos] & 0xFF) | ((data[pos + 1] & 0xFF) << 8);
+                        pos += 2;
+                        break;
+                    default:
+                        copyLength = (tag >>> 2) + 1;
+                        copyOffset = readInt(data, pos);
+                        pos += 4;
+                        break;
+                }
+                if (copyOffset <= 0 || copyOffset > outPos) {
+                    throw new IOException("Corrupted Snappy data: bad copy offset");
+                }
+                // Source and target may overlap
+                for (int i = 0; i < copyLength; i++) {
+                    result[outPos + i] = result[outPos - copyOffset + i];
+                }
+                outPos += copyLength;
+            }
+            if (outPos != uncompressedLength) {
+                throw new IOException("Corrupted Snappy data: length mismatch");
+            }
+            return result;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted Snappy data", e);
+        }
+    }
+
+    private static int readInt(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | ((data[pos + 1] & 0xFF) << 8) | ((data[pos + 2] & 0xFF) << 16) | ((data[pos + 3] & 0xFF) << 24);
+    }
+
+    private static void writeLiteral(ParquetBuffer out, byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        int n = length - 1;
+        if (n < 60) {
+            out.write(n << 2);
+        } else if (n < (1 << 8)) {
+            out.write(60 << 2);
+            out.write(n);
+        } else if (n < (1 << 16)) {
+            out.write(61 << 2);
+            out.write(n);
+            out.write(n >>> 8);
+        } else if (n < (1 << 24)) {
+            out.write(62 << 2);
+            out.write(n);
+            out.write(n >>> 8);
+            out.write(n >>> 16);
+        } else {
+            out.write(63 << 2);
+            out.writeIntLE(n);
+        }
+        out.write(data, offset, length);
+    }
+
+    private static void writeCopy(ParquetBuffer out, int offset, int length) {
+        // Copy length is limited with 64 bytes
+        while (length >= 68) {
+            writeCopy2(out, offset, 64);
+            length -= 64;
+        }
+        if (length > 64) {
+            writeCopy2(out, offset, 60);
+            length -= 60;
+        }
+        if (length < 12 && offset < 2048) {
+            out.write(1 | ((length - 4) << 2) | ((offset >>> 8) << 5));
+            out.write(offset);
+        } else {
+            writeCopy2(out, offset, length);
+        }
+    }
+
+    private static void writeCopy2(ParquetBuffer out, int offset, int length) {
+        out.write(2 | ((length - 1) << 2));
+        out.write(offset);
+        out.write(offset >>> 8);
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetThriftWriter.*;
+
+/**
+ * Thrift compact protocol reader.
+ * Usage: beginStruct(), then readFieldHeader() until it returns TYPE_STOP, then endStruct().
+ * Unknown fields must be skipped with skip(type).
+ */
+class ParquetThriftReader {
+
+    private final byte[] data;
+    private int pos;
+    private int[] fieldIdStack = new int[16];
+    private int stackDepth;
+    private int lastFieldId;
+    private int fieldId;
+    private boolean booleanValue;
+    private int listElementType;
+
+    ParquetThriftReader(byte[] data, int pos) {
+        this.data = data;
+        this.pos = pos;
+    }
+
+    int getPosition() {
+        return pos;
+    }
+
+    int getFieldId() {
+        return fieldId;
+    }
+
+    void beginStruct() {
+        if (stackDepth == fieldIdStack.length) {
+            fieldIdStack = Arrays.copyOf(fieldIdStack, stackDepth * 2);
+        }
+        fieldIdStack[stackDepth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void endStruct() {
+        lastFieldId = fieldIdStack[--stackDepth];
+    }
+
+    /**
+     * Reads field header. Returns field type or TYPE_STOP at the end of struct.
+     */
+    int readFieldHeader() throws IOException {
+        int header = readByte() & 0xFF;
+        if (header == TYPE_STOP) {
+            return TYPE_STOP;
+        }
+        int type = header & 0x0F;
+        int delta = header >>> 4;
+        fieldId = delta != 0 ? lastFieldId + delta : readI32();
+        lastFieldId = fieldId;
+        if (type == TYPE_BOOLEAN_TRUE || type == TYPE_BOOLEAN_FALSE) {
+            booleanValue = type == TYPE_BOOLEAN_TRUE;
+        }
+        return type;
+    }
+
+    /**
+     * Value of the last read boolean field
+     */
+    boolean getBooleanValue() {
+        return booleanValue;
+    }
+
+    byte readByte() throws IOException {
+        if (pos >= data.length) {
+            throw new IOException("Unexpected end of Parquet metadata");
+        }
+        return data[pos++];
+    }
+
+    int readI32() throws IOException {
+        int value = (int) readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readI64() throws IOException {
+        long value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    byte[] readBinary() throws IOException {
+        int length = (int) readVarInt();
+        if (length < 0 || pos + length > data.length) {
+            throw new IOException("Bad binary length in Parquet metadata");
+        }
+        byte[] result = Arrays.copyOfRange(data, pos, pos + length);
+        pos += length;
+        return result;
+    }
+
+    String readString() throws IOException {
+        return new String(readBinary(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads list header
+     * @return list size. Element type can be obtained with getListElementType
+     */
+    int readListHeader() throws IOException {
+        int header = readByte() & 0xFF;
+        listElementType = header & 0x0F;
+        int size = header >>> 4;
+        if (size == 15) {
+            size = (int) readVarInt();
+        }
+        return size;
+    }
+
+    int getListElementType() {
+        return listElementType;
+    }
+
+    void skip(int type) throws IOException {
+        switch (type) {
+            case TYPE_BOOLEAN_TRUE:
+            case TYPE_BOOLEAN_FALSE:
+                // Field value is in the header
+                break;
+            case TYPE_BYTE:
+                readByte();
+                break;
+            case TYPE_I16:
+            case TYPE_I32:
+            case TYPE_I64:
+                readVarInt();
+                break;
+            case TYPE_DOUBLE:
+                pos += 8;
+                break;
+            case TYPE_BINARY: {
+                int length = (int) readVarInt();
+                pos += length;
+                break;
+            }
+            case TYPE_LIST:
+            case TYPE_SET: {
+                int size = readListHeader();
+                int elementType = listElementType;
+                for (int i = 0; i < size; i++) {
+                    skipElement(elementType);
+                }
+                break;
+            }
+            case TYPE_MAP: {
+                int size = (int) readVarInt();
+                if (size > 0) {
+                    int types = readByte() & 0xFF;
+                    for (int i = 0; i < size; i++) {
+                        skipElement(types >>> 4);
+                        skipElement(types & 0x0F);
+                    }
+                }
+                break;
+            }
+            case TYPE_STRUCT: {
+                beginStruct();
+                for (int fieldType = readFieldHeader(); fieldType != TYPE_STOP; fieldType = readFieldHeader()) {
+                    skip(fieldType);
+                }
+                endStruct();
+                break;
+            }
+            default:
+                throw new IOException("Bad Thrift type " + type + " in Parquet metadata");
+        }
+        if (pos > data.length) {
+            throw new IOException("Unexpected end of Parquet metadata");
+        }
+    }
+
+    private void skipElement(int type) throws IOException {
+        if (type == TYPE_BOOLEAN_TRUE || type == TYPE_BOOLEAN_FALSE) {
+            // Booleans are stored as bytes in collections
+            readByte();
+        } else {
+            skip(type);
+        }
+    }
+
+    private long readVarInt() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Bad varint in Parquet metadata");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Thrift compact protocol writer. Parquet uses it for page headers and file footer.
+ */
+class ParquetThriftWriter {
+
+    static final int TYPE_STOP = 0;
+    static final int TYPE_BOOLEAN_TRUE = 1;
+    static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_BYTE = 3;
+    static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_DOUBLE = 7;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_LIST = 9;
+    static final int TYPE_SET = 10;
+    static final int TYPE_MAP = 11;
+    static final int TYPE_STRUCT = 12;
+
+    private final ParquetBuffer out;
+    private int[] fieldIdStack = new int[16];
+    private int stackDepth;
+    private int lastFieldId;
+
+    ParquetThriftWriter(ParquetBuffer out) {
+        this.out = out;
+    }
+
+    void beginStruct() {
+        if (stackDepth == fieldIdStack.length) {
+            fieldIdStack = Arrays.copyOf(fieldIdStack, stackDepth * 2);
+        }
+        fieldIdStack[stackDepth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void endStruct() {
+        out.write(TYPE_STOP);
+        lastFieldId = fieldIdStack[--stackDepth];
+    }
+
+    void beginStructField(int fieldId) {
+        writeFieldHeader(fieldId, TYPE_STRUCT);
+        beginStruct();
+    }
+
+    void writeI32Field(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_I32);
+        writeI32(value);
+    }
+
+    void writeI64Field(int fieldId, long value) {
+        writeFieldHeader(fieldId, TYPE_I64);
+        writeI64(value);
+    }
+
+    void writeBooleanField(int fieldId, boolean value) {
+        writeFieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void writeByteField(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_BYTE);
+        out.write(value);
+    }
+
+    void writeStringField(int fieldId, String value) {
+        writeFieldHeader(fieldId, TYPE_BINARY);
+        writeString(value);
+    }
+
+    void beginListField(int fieldId, int elementType, int size) {
+        writeFieldHeader(fieldId, TYPE_LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            out.writeVarInt(size);
+        }
+    }
+
+    void writeI32(int value) {
+        out.writeVarInt(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    void writeI64(long value) {
+        out.writeVarInt((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeFieldHeader(int fieldId, int type) {
+        int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            writeI32(fieldId);
+        }
+        lastFieldId = fieldId;
+    }
+}
@@ -36,6 +36,10 @@ public class DiagramObjectCollector {
 
     private static final Log log = Log.getLog(DiagramObjectCollector.class);
 
+    // Containers with fewer diagram entities are not prefetched: reading a few entities one by one
+    // is cheaper than loading metadata of the whole container
+    private static final int BULK_PREFETCH_MIN_ENTITIES = 10;
+
     private final ERDDiagram diagram;
     private final List<ERDEntity> erdEntities = new ArrayList<>();
     private boolean showViews;
@@ -54,7 +58,16 @@ public class DiagramObjectCollector {
         throws DBException
     {
         Set<DBSEntity> tables = new LinkedHashSet<>();
-        collectTables(monitor, roots, tables, settings, forceShowViews);
+        Set<DBSObjectContainer> cachedContainers = new HashSet<>();
+        long startTime = System.currentTimeMillis();
+        collectTables(monitor, roots, tables, cachedContainers, settings, forceShowViews);
+        log.debug("Diagram entities collected: " + tables.size() + " (" + (System.currentTimeMillis() - startTime) + "ms)");
+
+        startTime = System.currentTimeMillis();
+        int prefetchCount = prefetchStructure(monitor, tables, cachedContainers);
+        if (prefetchCount > 0) {
+            log.debug("Diagram metadata prefetched from " + prefetchCount + " container(s) (" + (System.currentTimeMillis() - startTime) + "ms)");
+        }
         return tables;
     }
 
@@ -66,6 +79,7 @@ public class DiagramObjectCollector {
         DBRProgressMonitor monitor,
         Collection<? extends DBSObject> roots,
         Set<DBSEntity> tables,
+        Set<DBSObjectContainer> cachedContainers,
         DiagramCollectSettings settings,
         boolean forceShowViews)
         throws DBException
@@ -83,7 +97,7 @@ public class DiagramObjectCollector {
             }
 
             if (root instanceof DBSFolder) {
-                collectTables(monitor, ((DBSFolder) root).getChildrenObjects(monitor), tables, settings, false);
+                collectTables(monitor, ((DBSFolder) root).getChildrenObjects(monitor), tables, cachedContainers, settings, false);
             } else if (root instanceof DBSEntity) {
                 if ((root instanceof DBSTablePartition && !showPartitions) || (DBUtils.isView((DBSEntity) root) && !(showViews || forceShowViews))) {
                     continue;
@@ -91,7 +105,7 @@ public class DiagramObjectCollector {
                 tables.add((DBSEntity) root);
             }
             if (root instanceof DBSObjectContainer) {
-                collectTables(monitor, (DBSObjectContainer) root, tables, showViews, showPartitions);
+                collectTables(monitor, (DBSObjectContainer) root, tables, cachedContainers, showViews, showPartitions);
             }
         }
     }
@@ -100,6 +114,7 @@ public class DiagramObjectCollector {
         DBRProgressMonitor monitor,
         DBSObjectContainer container,
         Set<DBSEntity> tables,
+        Set<DBSObjectContainer> cachedContainers,
         boolean showViews,
         boolean showPartitions)
         throws DBException
@@ -108,6 +123,7 @@ public class DiagramObjectCollector {
             return;
         }
         container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
+        cachedContainers.add(container);
         final Collection<? extends DBSObject> children = container.getChildren(monitor);
         if (!CommonUtils.isEmpty(children)) {
             Class<? extends DBSObject> childType = container.getPrimaryChildType(monitor);
@@ -126,12 +142,52 @@ public class DiagramObjectCollector {
 
                     tables.add((DBSEntity) entity);
                 } else if (entity instanceof DBSObjectContainer) {
-                    collectTables(monitor, (DBSObjectContainer) entity, tables, showViews, showPartitions);
+                    collectTables(monitor, (DBSObjectContainer) entity, tables, cachedContainers, showViews, showPartitions);
                 }
             }
         }
     }
 
+    /**
+     * Loads attributes and associations of all entities with a few queries per container
+     * (instead of several queries per entity).
+     * Entities which were collected from containers are already cached.
+     * @return number of prefetched containers
+     */
+    private static int prefetchStructure(
+        DBRProgressMonitor monitor,
+        Collection<DBSEntity> tables,
+        Set<DBSObjectContainer> cachedContainers)
+    {
+        Map<DBSObjectContainer, Integer> containerEntities = new LinkedHashMap<>();
+        for (DBSEntity table : tables) {
+            DBSObjectContainer container = DBUtils.getParentOfType(DBSObjectContainer.class, table);
+            if (container != null && !cachedContainers.contains(container)) {
+                containerEntities.merge(container, 1, Integer::sum);
+            }
+        }
+        int prefetchCount = 0;
+        for (Map.Entry<DBSObjectContainer, Integer> entry : containerEntities.entrySet()) {
+            if (monitor.isCanceled()) {
+                break;
+            }
+            if (entry.getValue() < BULK_PREFETCH_MIN_ENTITIES) {
+                continue;
+            }
+            DBSObjectContainer container = entry.getKey();
+            monitor.subTask("Load '" + container.getName() + "' metadata");
+            try {
+                container.cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
+                cachedContainers.add(container);
+                prefetchCount++;
+            } catch (DBException e) {
+                // Not fatal - metadata will be read per entity
+                log.debug("Error prefetching '" + container.getName() + "' metadata", e);
+            }
+        }
+        return prefetchCount;
+    }
+
     public void generateDiagramObjects(
         DBRProgressMonitor monitor,
         Collection<? extends DBSObject> roots,
@@ -139,6 +195,7 @@ public class DiagramObjectCollector {
         throws DBException
     {
         Collection<DBSEntity> tables = collectTables(monitor, roots, settings, showViews);
+        long startTime = System.currentTimeMillis();
         for (DBSEntity table : tables) {
             if (DBUtils.isHiddenObject(table)) {
                 // Skip hidden tables
@@ -146,11 +203,14 @@ public class DiagramObjectCollector {
             }
             addDiagramEntity(monitor, table);
         }
+        log.debug("Diagram entities created: " + erdEntities.size() + " (" + (System.currentTimeMillis() - startTime) + "ms)");
 
         // Add new relations
+        startTime = System.currentTimeMillis();
         for (ERDEntity erdEntity : erdEntities) {
             erdEntity.addModelRelations(monitor, diagram, true, false);
         }
+        log.debug("Diagram relations created (" + (System.currentTimeMillis() - startTime) + "ms)");
     }
 
     private void addDiagramEntity(DBRProgressMonitor monitor, DBSEntity table)
@@ -258,6 +258,7 @@ public class ERDDiagram extends ERDObject<DBSObject> implements ERDContainer {
 
     public void fillEntities(DBRProgressMonitor monitor, Collection<DBSEntity> entities, DBSObject dbObject) throws DBException {
         // Load entities
+        long startTime = System.currentTimeMillis();
         monitor.beginTask("Load entities metadata", entities.size());
         List<ERDEntity> entityCache = new ArrayList<>();
         for (DBSEntity table : entities) {
@@ -284,8 +285,10 @@ public class ERDDiagram extends ERDObject<DBSObject> implements ERDContainer {
         }
 
         monitor.done();
+        log.debug("Diagram entities created: " + entityCache.size() + " (" + (System.currentTimeMillis() - startTime) + "ms)");
 
         // Load relations
+        startTime = System.currentTimeMillis();
         monitor.beginTask("Load entities' relations", entities.size());
         for (ERDEntity erdEntity : entityCache) {
             if (monitor.isCanceled()) {
@@ -296,6 +299,7 @@ public class ERDDiagram extends ERDObject<DBSObject> implements ERDContainer {
             monitor.worked(1);
         }
         monitor.done();
+        log.debug("Diagram relations created (" + (System.currentTimeMillis() - startTime) + "ms)");
     }
 
     public boolean containsTable(DBSEntity table) {
@@ -155,7 +155,8 @@ public abstract class GenericObjectContainer implements GenericStructContainer,
                 // If index list is empty then try to read by tables
                 List<GenericTableIndex> newIndexCache;
                 try {
-                    newIndexCache = indexCache.getObjects(monitor, this, null);
+                    // Copy: cache list is immutable and is merged with old indexes below
+                    newIndexCache = new ArrayList<>(indexCache.getObjects(monitor, this, null));
                 } catch (DBException e) {
                     log.debug("Error reading global indexes. Get indexes from tables", e);
                     newIndexCache = new ArrayList<>();
@@ -233,6 +233,8 @@ public class MySQLTable extends MySQLTableBase implements DBPObjectStatistics
         if (getDataSource().supportsCheckConstraints()) {
             List<MySQLTableConstraint> checkConstraintObjects = getContainer().checkConstraintCache.getObjects(monitor, getContainer(), this);
             if (!CommonUtils.isEmpty(checkConstraintObjects)) {
+                // Cache lists are immutable
+                constraintObjects = new ArrayList<>(constraintObjects);
                 constraintObjects.addAll(checkConstraintObjects);
             }
             return constraintObjects;
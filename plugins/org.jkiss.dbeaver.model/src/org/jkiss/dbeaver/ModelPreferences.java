@@ -52,6 +52,11 @@ public final class ModelPreferences
     public static final String CONNECTION_OPEN_TIMEOUT = "connection.open.timeout"; //$NON-NLS-1$
     public static final String CONNECTION_VALIDATION_TIMEOUT = "connection.validation.timeout"; //$NON-NLS-1$
     public static final String CONNECTION_CLOSE_TIMEOUT = "connection.close.timeout"; //$NON-NLS-1$
+    public static final String CONNECTION_POOL_MAX_SIZE = "connection.pool.maxSize"; //$NON-NLS-1$
+    public static final String CONNECTION_POOL_IDLE_TIMEOUT = "connection.pool.idleTimeout"; //$NON-NLS-1$
+    public static final String CONNECTION_POOL_MAX_LIFETIME = "connection.pool.maxLifetime"; //$NON-NLS-1$
+    public static final String CONNECTION_POOL_LEAK_TIMEOUT = "connection.pool.leakTimeout"; //$NON-NLS-1$
+    public static final String CONNECTION_STATEMENT_CACHE_SIZE = "connection.statement.cacheSize"; //$NON-NLS-1$
 
     public static final String SCRIPT_STATEMENT_DELIMITER = "script.sql.delimiter"; //$NON-NLS-1$
     public static final String SCRIPT_IGNORE_NATIVE_DELIMITER = "script.sql.ignoreNativeDelimiter"; //$NON-NLS-1$
@@ -172,6 +177,11 @@ public final class ModelPreferences
         PrefUtils.setDefaultPreferenceValue(store, CONNECTION_OPEN_TIMEOUT, 0);
         PrefUtils.setDefaultPreferenceValue(store, CONNECTION_VALIDATION_TIMEOUT, 10000);
         PrefUtils.setDefaultPreferenceValue(store, CONNECTION_CLOSE_TIMEOUT, 5000);
+        PrefUtils.setDefaultPreferenceValue(store, CONNECTION_POOL_MAX_SIZE, 4);
+        PrefUtils.setDefaultPreferenceValue(store, CONNECTION_POOL_IDLE_TIMEOUT, 5 * 60 * 1000);
+        PrefUtils.setDefaultPreferenceValue(store, CONNECTION_POOL_MAX_LIFETIME, 30 * 60 * 1000);
+        PrefUtils.setDefaultPreferenceValue(store, CONNECTION_POOL_LEAK_TIMEOUT, 10 * 60 * 1000);
+        PrefUtils.setDefaultPreferenceValue(store, CONNECTION_STATEMENT_CACHE_SIZE, 20);
 
         // SQL execution
         PrefUtils.setDefaultPreferenceValue(store, SCRIPT_STATEMENT_DELIMITER, SQLConstants.DEFAULT_STATEMENT_DELIMITER);
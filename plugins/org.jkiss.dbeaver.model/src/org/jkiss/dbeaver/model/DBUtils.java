@@ -809,8 +809,16 @@ public final class DBUtils {
                 return row[index];
             }
         }
-        Object curValue = row[attribute.getTopParent().getOrdinalPosition()];
+        return getNestedAttributeValue(attribute, row[attribute.getTopParent().getOrdinalPosition()]);
+    }
 
+    /**
+     * Extracts value of nested attribute from the value of its top level parent
+     */
+    @Nullable
+    public static Object getNestedAttributeValue(@NotNull DBDAttributeBinding attribute, @Nullable Object topValue) {
+        int depth = attribute.getLevel();
+        Object curValue = topValue;
         for (int i = 0; i < depth; i++) {
             if (curValue == null) {
                 break;
@@ -46,4 +46,13 @@ public class FunctionAvg extends FunctionNumeric {
         }
         return result / valueCount;
     }
+
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        double otherResult = ((FunctionAvg) other).result;
+        if (!Double.isNaN(otherResult)) {
+            result = Double.isNaN(result) ? otherResult : result + otherResult;
+        }
+        return true;
+    }
 }
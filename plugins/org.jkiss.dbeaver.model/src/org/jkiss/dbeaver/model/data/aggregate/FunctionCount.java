@@ -33,4 +33,10 @@ public class FunctionCount implements IAggregateFunction {
     public Object getResult(int valueCount) {
         return count;
     }
+
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        count += ((FunctionCount) other).count;
+        return true;
+    }
 }
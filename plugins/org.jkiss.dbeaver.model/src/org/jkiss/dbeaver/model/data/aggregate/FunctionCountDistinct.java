@@ -20,18 +20,26 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * FunctionCountDistinct
+ * FunctionCountDistinct.
+ * Counts values exactly up to {@link #EXACT_LIMIT} distinct values, then switches to HyperLogLog estimation.
  */
 public class FunctionCountDistinct implements IAggregateFunction {
 
-    private int count = 0;
+    private static final int EXACT_LIMIT = 100000;
+
     private Set<Object> cache = new HashSet<>();
+    private HyperLogLog sketch;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
-        if (!cache.contains(value)) {
-            count++;
-            cache.add(value);
+        if (sketch != null) {
+            sketch.add(value);
+            return true;
+        }
+        if (cache.add(value)) {
+            if (cache.size() > EXACT_LIMIT) {
+                switchToSketch();
+            }
             return true;
         }
         return false;
@@ -39,6 +47,45 @@ public class FunctionCountDistinct implements IAggregateFunction {
 
     @Override
     public Object getResult(int valueCount) {
-        return count;
+        if (sketch != null) {
+            return sketch.estimate();
+        }
+        return cache.size();
+    }
+
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        FunctionCountDistinct otherFunc = (FunctionCountDistinct) other;
+        if (sketch == null && otherFunc.sketch == null) {
+            cache.addAll(otherFunc.cache);
+            if (cache.size() > EXACT_LIMIT) {
+                switchToSketch();
+            }
+            return true;
+        }
+        if (sketch == null) {
+            switchToSketch();
+        }
+        if (otherFunc.sketch != null) {
+            sketch.merge(otherFunc.sketch);
+        } else {
+            for (Object value : otherFunc.cache) {
+                sketch.add(value);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isApproximate() {
+        return sketch != null;
+    }
+
+    private void switchToSketch() {
+        sketch = new HyperLogLog();
+        for (Object value : cache) {
+            sketch.add(value);
+        }
+        cache = null;
     }
 }
@@ -40,4 +40,13 @@ public class FunctionMax implements IAggregateFunction {
         return result;
     }
 
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        Comparable otherResult = ((FunctionMax) other).result;
+        if (otherResult != null && (result == null || AggregateUtils.compareValues(otherResult, result) > 0)) {
+            result = otherResult;
+        }
+        return true;
+    }
+
 }
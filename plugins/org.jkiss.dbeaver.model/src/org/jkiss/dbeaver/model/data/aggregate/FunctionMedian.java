@@ -23,19 +23,30 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Median
+ * Median.
+ * Keeps up to {@link #EXACT_LIMIT} values to evaluate exact median, then switches to quantile sketch.
  */
 public class FunctionMedian implements IAggregateFunction {
 
     private static final Log log = Log.getLog(FunctionMedian.class);
 
+    private static final int EXACT_LIMIT = 100000;
+
     private List<Comparable> cache = new ArrayList<>();
+    private QuantileSketch sketch;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
         value = FunctionNumeric.getComparable(value, aggregateAsStrings);
         if (value != null) {
-            cache.add((Comparable) value);
+            if (sketch != null) {
+                sketch.add((Comparable) value);
+            } else {
+                cache.add((Comparable) value);
+                if (cache.size() > EXACT_LIMIT) {
+                    switchToSketch();
+                }
+            }
             return true;
         }
         return false;
@@ -43,6 +54,9 @@ public class FunctionMedian implements IAggregateFunction {
 
     @Override
     public Object getResult(int valueCount) {
+        if (sketch != null) {
+            return sketch.getQuantile(0.5);
+        }
         try {
             Collections.sort(cache);
         } catch (Exception e) {
@@ -65,4 +79,40 @@ public class FunctionMedian implements IAggregateFunction {
             return val1;
         }
     }
+
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        FunctionMedian otherFunc = (FunctionMedian) other;
+        if (sketch == null && otherFunc.sketch == null) {
+            cache.addAll(otherFunc.cache);
+            if (cache.size() > EXACT_LIMIT) {
+                switchToSketch();
+            }
+            return true;
+        }
+        if (sketch == null) {
+            switchToSketch();
+        }
+        if (otherFunc.sketch != null) {
+            sketch.merge(otherFunc.sketch);
+        } else {
+            for (Comparable value : otherFunc.cache) {
+                sketch.add(value);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isApproximate() {
+        return sketch != null;
+    }
+
+    private void switchToSketch() {
+        sketch = new QuantileSketch();
+        for (Comparable value : cache) {
+            sketch.add(value);
+        }
+        cache = null;
+    }
 }
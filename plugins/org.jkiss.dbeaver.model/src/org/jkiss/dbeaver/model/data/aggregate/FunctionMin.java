@@ -39,4 +39,13 @@ public class FunctionMin implements IAggregateFunction {
     public Object getResult(int valueCount) {
         return result;
     }
+
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        Comparable otherResult = ((FunctionMin) other).result;
+        if (otherResult != null && (result == null || AggregateUtils.compareValues(otherResult, result) < 0)) {
+            result = otherResult;
+        }
+        return true;
+    }
 }
@@ -44,4 +44,13 @@ public class FunctionSum extends FunctionNumeric {
         return result;
     }
 
+    @Override
+    public boolean merge(IAggregateFunction other) {
+        double otherResult = ((FunctionSum) other).result;
+        if (!Double.isNaN(otherResult)) {
+            result = Double.isNaN(result) ? otherResult : result + otherResult;
+        }
+        return true;
+    }
+
 }
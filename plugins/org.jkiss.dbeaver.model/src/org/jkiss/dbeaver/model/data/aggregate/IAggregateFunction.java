@@ -25,4 +25,21 @@ public interface IAggregateFunction {
 
     Object getResult(int valueCount);
 
+    /**
+     * Merges state of another instance of the same function into this one.
+     * Used to aggregate values in parallel chunks.
+     * Support of merge is checked by merging an empty instance, so such merge must not change function state.
+     * @return false if function doesn't support merge
+     */
+    default boolean merge(IAggregateFunction other) {
+        return false;
+    }
+
+    /**
+     * Returns true if result was estimated (e.g. with a sketch) and may differ from exact value.
+     */
+    default boolean isApproximate() {
+        return false;
+    }
+
 }
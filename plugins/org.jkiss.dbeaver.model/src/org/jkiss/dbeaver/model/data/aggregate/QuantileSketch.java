@@ -0,0 +1,120 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mergeable quantile sketch (KLL-style compactors).
+ * Each level keeps at most {@link #LEVEL_CAPACITY} items. Item on level N represents 2^N source values.
+ * When level is full it is sorted and every other item is promoted to the next level.
+ */
+public class QuantileSketch {
+
+    private static final int LEVEL_CAPACITY = 256;
+
+    private final List<List<Comparable>> levels = new ArrayList<>();
+    private long count;
+    private boolean compactOdd;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(Comparable value) {
+        getLevel(0).add(value);
+        count++;
+        compact();
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < other.levels.size(); i++) {
+            getLevel(i).addAll(other.levels.get(i));
+        }
+        count += other.count;
+        compact();
+    }
+
+    /**
+     * Returns estimated value of the specified rank (0..1)
+     */
+    public Comparable getQuantile(double rank) {
+        List<Comparable> items = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+        for (int i = 0; i < levels.size(); i++) {
+            for (Comparable item : levels.get(i)) {
+                items.add(item);
+                weights.add(1L << i);
+            }
+        }
+        if (items.isEmpty()) {
+            return null;
+        }
+        Integer[] order = new Integer[items.size()];
+        long totalWeight = 0;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            totalWeight += weights.get(i);
+        }
+        Arrays.sort(order, (o1, o2) -> AggregateUtils.compareValues(items.get(o1), items.get(o2)));
+        long targetWeight = (long) Math.ceil(rank * totalWeight);
+        long weight = 0;
+        for (Integer index : order) {
+            weight += weights.get(index);
+            if (weight >= targetWeight) {
+                return items.get(index);
+            }
+        }
+        return items.get(order[order.length - 1]);
+    }
+
+    private List<Comparable> getLevel(int level) {
+        while (levels.size() <= level) {
+            levels.add(new ArrayList<>());
+        }
+        return levels.get(level);
+    }
+
+    private void compact() {
+        for (int i = 0; i < levels.size(); i++) {
+            List<Comparable> level = levels.get(i);
+            if (level.size() < LEVEL_CAPACITY) {
+                continue;
+            }
+            level.sort(AggregateUtils::compareValues);
+            List<Comparable> nextLevel = getLevel(i + 1);
+            // Alternate offset to avoid systematic bias
+            int start = compactOdd ? 1 : 0;
+            compactOdd = !compactOdd;
+            int pairedSize = level.size() & ~1;
+            for (int k = start; k < pairedSize; k += 2) {
+                nextLevel.add(level.get(k));
+            }
+            if (pairedSize < level.size()) {
+                // Keep unpaired item on this level
+                Comparable last = level.get(level.size() - 1);
+                level.clear();
+                level.add(last);
+            } else {
+                level.clear();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.model.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+/**
+ * Pool of isolated execution contexts.
+ * Borrowed context must be returned with {@link #releaseContext(DBCExecutionContext)}.
+ * Pool validates contexts on borrow, evicts idle and expired contexts and reports contexts which were not returned.
+ */
+public interface DBCExecutionContextPool {
+
+    /**
+     * Borrows context from pool. Opens new context if there are no idle contexts.
+     *
+     * @param monitor progress monitor
+     * @param purpose context purpose (just a descriptive string)
+     * @param initFrom initialize context parameters from specified context
+     * @return execution context
+     */
+    @NotNull
+    DBCExecutionContext borrowContext(@NotNull DBRProgressMonitor monitor, @NotNull String purpose, @Nullable DBCExecutionContext initFrom) throws DBException;
+
+    /**
+     * Returns context to pool. Context must not be used after release.
+     */
+    void releaseContext(@NotNull DBCExecutionContext context);
+
+    /**
+     * Closes all idle contexts
+     */
+    void clear();
+
+    int getMaxSize();
+
+    int getActiveCount();
+
+    int getIdleCount();
+
+    long getBorrowCount();
+
+    long getCreatedCount();
+
+    long getEvictedCount();
+
+    long getLeakCount();
+
+    /**
+     * Average time (ms) which borrowers spent waiting for a context
+     */
+    long getAverageWaitTime();
+
+    /**
+     * Maximum time (ms) which borrower spent waiting for a context
+     */
+    long getMaxWaitTime();
+
+}
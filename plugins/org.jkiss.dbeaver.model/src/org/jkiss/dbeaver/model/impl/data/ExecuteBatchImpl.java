@@ -136,20 +136,17 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
                     for (int i = 0; i < rowValues.length; i++) {
                         nulls[i] = DBUtils.isNullValue(rowValues[i]);
                     }
-                    if (!Arrays.equals(prevNulls, nulls) && statementsInBatch > 0) {
-                        reuse = false;
-                    }
-                    System.arraycopy(nulls, 0, prevNulls, 0, nulls.length);
-                    if (!reuse && statementsInBatch > 0) {
-                        // Flush batch
-                        if (actions == null) {
+                    if (statement != null && !Arrays.equals(prevNulls, nulls)) {
+                        // Statement was prepared for other nulls (e.g. "= ?" instead of "IS NULL").
+                        // It must be replaced even if batches aren't used.
+                        if (statementsInBatch > 0 && actions == null) {
                             flushBatch(statistics, statement);
                         }
                         statement.close();
                         statement = null;
                         statementsInBatch = 0;
-                        reuse = true;
                     }
+                    System.arraycopy(nulls, 0, prevNulls, 0, nulls.length);
                 }
                 if (statement == null || !reuse) {
                     statement = prepareStatement(session, handlers, rowValues, options);
@@ -176,7 +173,7 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
                             // Read keys
                             if (keysReceiver != null) {
                                 try {
-                                    readKeys(statement.getSession(), statement, keysReceiver);
+                                    readKeys(statement.getSession(), statement, keysReceiver, rowIndex);
                                 } catch (Exception e) {
                                     log.warn("Error reading auto-generated keys", e);
                                 }
@@ -318,7 +315,11 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
     {
     }
 
-    private void readKeys(@NotNull DBCSession session, @NotNull DBCStatement dbStat, @NotNull DBDDataReceiver keysReceiver)
+    /**
+     * Reads generated keys of the specified row.
+     * Row index is passed to receiver as fetch offset.
+     */
+    private void readKeys(@NotNull DBCSession session, @NotNull DBCStatement dbStat, @NotNull DBDDataReceiver keysReceiver, int rowIndex)
         throws DBCException
     {
         DBCResultSet dbResult;
@@ -333,7 +334,7 @@ public abstract class ExecuteBatchImpl implements DBSDataManipulator.ExecuteBatc
             return;
         }
         try {
-            keysReceiver.fetchStart(session, dbResult, -1, -1);
+            keysReceiver.fetchStart(session, dbResult, rowIndex, -1);
             try {
                 while (dbResult.nextRow()) {
                     keysReceiver.fetchRow(session, dbResult);
@@ -0,0 +1,325 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCLogicalOperator;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.sql.Timestamp;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Client-side rows ordering and filtering.
+ * Sort keys are extracted once per column (numbers, dates and strings are kept in typed arrays),
+ * then rows permutation is sorted with parallel stable merge sort.
+ * Order of values is the same as in {@link DBUtils#compareDataValues(Object, Object)}. Nulls go last.
+ */
+public class RowOrderingEngine {
+
+    /**
+     * Reads value of the specified key (ordering or filter column) from the row.
+     * Reader is called from sort and filter worker threads.
+     */
+    public interface ValueReader {
+        @Nullable
+        Object getValue(int row, int key);
+    }
+
+    // Rows count handled by a single sort task
+    private static final int PARALLEL_THRESHOLD = 8192;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final ValueReader reader;
+    private final int rowCount;
+    private final boolean[] descending;
+    private SortKey[] keys;
+    private DBRProgressMonitor monitor;
+
+    /**
+     * @param descending descending flag for each key
+     */
+    public RowOrderingEngine(@NotNull ValueReader reader, int rowCount, @NotNull boolean[] descending) {
+        this.reader = reader;
+        this.rowCount = rowCount;
+        this.descending = descending;
+    }
+
+    /**
+     * Sorts rows. Rows with equal keys keep their original order.
+     * Sort keys are extracted in the caller thread.
+     * @return rows permutation (indexes of rows in sorted order) or null if sort was canceled
+     */
+    @Nullable
+    public int[] sort(@NotNull DBRProgressMonitor monitor) {
+        this.monitor = monitor;
+        if (keys == null) {
+            keys = new SortKey[descending.length];
+            for (int i = 0; i < descending.length; i++) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                keys[i] = SortKey.extract(reader, rowCount, i, descending[i]);
+            }
+        }
+        int[] order = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            order[i] = i;
+        }
+        if (keys.length == 0 || rowCount < 2) {
+            return order;
+        }
+        int[] buffer = new int[rowCount];
+        if (rowCount <= PARALLEL_THRESHOLD) {
+            mergeSort(order, buffer, 0, rowCount);
+        } else {
+            ForkJoinPool.commonPool().invoke(new SortTask(order, buffer, 0, rowCount));
+        }
+        return monitor.isCanceled() ? null : order;
+    }
+
+    /**
+     * Evaluates filter conditions in parallel.
+     * Reader keys are condition indexes.
+     * @return indexes of rows which match all conditions, in the original order
+     */
+    @NotNull
+    public static int[] filter(@NotNull ValueReader reader, int rowCount, @NotNull DBCLogicalOperator[] operators, @NotNull Object[][] arguments) {
+        return IntStream.range(0, rowCount).parallel().filter(row -> {
+            for (int i = 0; i < operators.length; i++) {
+                if (!operators[i].evaluate(reader.getValue(row, i), arguments[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }).toArray();
+    }
+
+    private int compareRows(int row1, int row2) {
+        for (SortKey key : keys) {
+            int result = key.compare(row1, row2);
+            if (result != 0) {
+                return key.descending ? -result : result;
+            }
+        }
+        return 0;
+    }
+
+    private void mergeSort(int[] order, int[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int row = order[i];
+                int j = i - 1;
+                while (j >= from && compareRows(order[j], row) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = row;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, buffer, from, middle);
+        mergeSort(order, buffer, middle, to);
+        merge(order, buffer, from, middle, to);
+    }
+
+    private void merge(int[] order, int[] buffer, int from, int middle, int to) {
+        if (compareRows(order[middle - 1], order[middle]) <= 0) {
+            // Already ordered
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from, right = middle, pos = from;
+        while (left < middle && right < to) {
+            // Take left on equality to keep sort stable
+            if (compareRows(buffer[right], buffer[left]) < 0) {
+                order[pos++] = buffer[right++];
+            } else {
+                order[pos++] = buffer[left++];
+            }
+        }
+        while (left < middle) {
+            order[pos++] = buffer[left++];
+        }
+        while (right < to) {
+            order[pos++] = buffer[right++];
+        }
+    }
+
+    private class SortTask extends RecursiveAction {
+        private final int[] order;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        SortTask(int[] order, int[] buffer, int from, int to) {
+            this.order = order;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            if (to - from <= PARALLEL_THRESHOLD) {
+                mergeSort(order, buffer, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new SortTask(order, buffer, from, middle),
+                new SortTask(order, buffer, middle, to));
+            merge(order, buffer, from, middle, to);
+        }
+    }
+
+    private enum KeyType {
+        NUMBER,
+        STRING,
+        TIMESTAMP,
+        DATE,
+        OBJECT
+    }
+
+    private static class SortKey {
+        private final boolean descending;
+        private final KeyType type;
+        private final BitSet nulls;
+        private double[] numbers;
+        private long[] times;
+        private int[] nanos;
+        private String[] strings;
+        private Object[] objects;
+
+        private SortKey(boolean descending, KeyType type, BitSet nulls) {
+            this.descending = descending;
+            this.type = type;
+            this.nulls = nulls;
+        }
+
+        static SortKey extract(ValueReader reader, int rowCount, int keyIndex, boolean descending) {
+            Object[] values = new Object[rowCount];
+            BitSet nulls = new BitSet(rowCount);
+            KeyType type = null;
+            Class<?> valueClass = null;
+            for (int i = 0; i < rowCount; i++) {
+                Object value = reader.getValue(i, keyIndex);
+                if (DBUtils.isNullValue(value)) {
+                    nulls.set(i);
+                    continue;
+                }
+                values[i] = value;
+                KeyType valueType = getKeyType(value);
+                if (type == null) {
+                    type = valueType;
+                    valueClass = value.getClass();
+                } else if (type != valueType || (type == KeyType.DATE && valueClass != value.getClass())) {
+                    // Mixed values are compared as objects
+                    type = KeyType.OBJECT;
+                }
+            }
+            if (type == null) {
+                type = KeyType.OBJECT;
+            }
+            SortKey key = new SortKey(descending, type, nulls);
+            switch (type) {
+                case NUMBER:
+                    key.numbers = new double[rowCount];
+                    for (int i = 0; i < rowCount; i++) {
+                        if (values[i] != null) {
+                            key.numbers[i] = ((Number) values[i]).doubleValue();
+                        }
+                    }
+                    break;
+                case STRING:
+                    key.strings = new String[rowCount];
+                    for (int i = 0; i < rowCount; i++) {
+                        key.strings[i] = (String) values[i];
+                    }
+                    break;
+                case TIMESTAMP:
+                case DATE:
+                    key.times = new long[rowCount];
+                    if (type == KeyType.TIMESTAMP) {
+                        key.nanos = new int[rowCount];
+                    }
+                    for (int i = 0; i < rowCount; i++) {
+                        if (values[i] != null) {
+                            key.times[i] = ((Date) values[i]).getTime();
+                            if (key.nanos != null) {
+                                key.nanos[i] = ((Timestamp) values[i]).getNanos();
+                            }
+                        }
+                    }
+                    break;
+                default:
+                    key.objects = values;
+                    break;
+            }
+            return key;
+        }
+
+        private static KeyType getKeyType(Object value) {
+            if (value instanceof Number) {
+                return KeyType.NUMBER;
+            } else if (value instanceof String) {
+                return KeyType.STRING;
+            } else if (value instanceof Timestamp) {
+                return KeyType.TIMESTAMP;
+            } else if (value instanceof Date) {
+                return KeyType.DATE;
+            } else {
+                return KeyType.OBJECT;
+            }
+        }
+
+        int compare(int row1, int row2) {
+            boolean null1 = nulls.get(row1), null2 = nulls.get(row2);
+            if (null1 || null2) {
+                return null1 == null2 ? 0 : (null1 ? 1 : -1);
+            }
+            switch (type) {
+                case NUMBER: {
+                    double diff = numbers[row1] - numbers[row2];
+                    return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+                }
+                case STRING:
+                    return strings[row1].compareTo(strings[row2]);
+                case TIMESTAMP: {
+                    // Timestamp time already includes milliseconds of nanos
+                    int result = Long.compare(times[row1], times[row2]);
+                    return result != 0 ? result : Integer.compare(nanos[row1], nanos[row2]);
+                }
+                case DATE:
+                    return Long.compare(times[row1], times[row2]);
+                default:
+                    return DBUtils.compareDataValues(objects[row1], objects[row2]);
+            }
+        }
+    }
+
+}
@@ -21,11 +21,13 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPTransactionIsolation;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionContext;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCSavepointImpl;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCStatementCache;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
 import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -58,10 +60,16 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
     private volatile Boolean autoCommit;
     private volatile Integer transactionIsolationLevel;
     private transient volatile boolean txnIsolationLevelReadInProgress;
+    // Name of the current context user. Pooled contexts are reused for different purposes.
+    private volatile String contextName;
+    @NotNull
+    private final JDBCStatementCache statementCache;
 
     public JDBCExecutionContext(@NotNull JDBCRemoteInstance instance, String purpose) {
         super(instance.getDataSource(), purpose);
         this.instance = instance;
+        this.statementCache = new JDBCStatementCache(
+            instance.getDataSource().getContainer().getPreferenceStore().getInt(ModelPreferences.CONNECTION_STATEMENT_CACHE_SIZE));
     }
 
     @Override
@@ -73,6 +81,17 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         this.instance = instance;
     }
 
+    @NotNull
+    @Override
+    public String getContextName() {
+        String name = contextName;
+        return name != null ? name : super.getContextName();
+    }
+
+    void setContextName(@Nullable String contextName) {
+        this.contextName = contextName;
+    }
+
     @NotNull
     private Connection getConnection() throws DBCException {
         Connection dbCon = this.connection;
@@ -173,6 +192,8 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
     }
 
     protected void disconnect() {
+        // Cached statements belong to the closing connection
+        statementCache.invalidate();
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
         synchronized (this) {
@@ -203,6 +224,14 @@ public class JDBCExecutionContext extends AbstractExecutionContext<JDBCDataSourc
         return connection;
     }
 
+    /**
+     * Prepared statements cache of this context connection
+     */
+    @NotNull
+    public JDBCStatementCache getStatementCache() {
+        return statementCache;
+    }
+
     @NotNull
     @Override
     public JDBCSession openSession(@NotNull DBRProgressMonitor monitor, @NotNull DBCExecutionPurpose purpose, @NotNull String taskTitle) {
@@ -0,0 +1,443 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPTransactionIsolation;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Bounded pool of isolated contexts of JDBC remote instance.
+ *
+ * Pool keeps at most "max size" contexts (borrowed and idle). If all contexts are borrowed then borrower waits
+ * for a short time and then gets new non-pooled context which is closed on release.
+ * Idle contexts are validated on borrow. Contexts idle for too long or older than max lifetime are closed by eviction job.
+ * Returned contexts get back their initial state (transaction mode, isolation level, default catalog and schema).
+ * Eviction job also reports contexts which were borrowed and not returned for too long.
+ */
+public class JDBCExecutionContextPool implements DBCExecutionContextPool {
+
+    private static final Log log = Log.getLog(JDBCExecutionContextPool.class);
+
+    // Context used recently is considered alive
+    private static final long VALIDATION_INTERVAL = 5000;
+    private static final long BORROW_WAIT_TIMEOUT = 1000;
+    private static final long BORROW_WAIT_STEP = 100;
+    private static final long EVICTION_PERIOD = 30000;
+
+    private static class PooledContext {
+        final JDBCExecutionContext context;
+        final boolean pooled;
+        // Isolation level the context was opened with
+        final DBPTransactionIsolation defaultIsolation;
+        final long createTime;
+        long lastUsedTime;
+        long borrowTime;
+        Thread borrowThread;
+        Throwable borrowTrace;
+        boolean leakReported;
+
+        PooledContext(JDBCExecutionContext context, boolean pooled, DBPTransactionIsolation defaultIsolation) {
+            this.context = context;
+            this.pooled = pooled;
+            this.defaultIsolation = defaultIsolation;
+            this.createTime = this.lastUsedTime = System.currentTimeMillis();
+        }
+    }
+
+    @NotNull
+    private final JDBCRemoteInstance instance;
+    // Most recently used contexts go first
+    private final Deque<PooledContext> idleContexts = new ArrayDeque<>();
+    private final Map<DBCExecutionContext, PooledContext> activeContexts = new IdentityHashMap<>();
+    // Number of pooled contexts which are borrowed or being opened
+    private int pooledActiveCount;
+    private EvictionJob evictionJob;
+
+    private long borrowCount;
+    private long createdCount;
+    private long evictedCount;
+    private long leakCount;
+    private long totalWaitTime;
+    private long maxWaitTime;
+
+    JDBCExecutionContextPool(@NotNull JDBCRemoteInstance instance) {
+        this.instance = instance;
+    }
+
+    @NotNull
+    @Override
+    public JDBCExecutionContext borrowContext(@NotNull DBRProgressMonitor monitor, @NotNull String purpose, @Nullable DBCExecutionContext initFrom) throws DBException {
+        final long startTime = System.currentTimeMillis();
+        final long waitDeadline = startTime + BORROW_WAIT_TIMEOUT;
+        for (;;) {
+            PooledContext pooledContext = null;
+            boolean pooled = true;
+            synchronized (this) {
+                for (;;) {
+                    pooledContext = idleContexts.pollFirst();
+                    if (pooledContext != null) {
+                        break;
+                    }
+                    final int maxSize = getMaxSize();
+                    if (pooledActiveCount + idleContexts.size() < maxSize) {
+                        break;
+                    }
+                    final long waitTime = waitDeadline - System.currentTimeMillis();
+                    if (maxSize <= 0 || waitTime <= 0 || monitor.isCanceled() || isBorrowedByCurrentThread()) {
+                        // Pool exhausted. Do not block borrower, open a non-pooled context instead.
+                        // Do not wait for contexts held by the same thread, they won't be released while it waits.
+                        pooled = false;
+                        break;
+                    }
+                    try {
+                        wait(Math.min(waitTime, BORROW_WAIT_STEP));
+                    } catch (InterruptedException e) {
+                        throw new DBCException("Context borrow interrupted", e);
+                    }
+                }
+                if (pooled) {
+                    // Reserve pool slot
+                    pooledActiveCount++;
+                }
+            }
+
+            if (pooledContext == null) {
+                // Open new context
+                JDBCExecutionContext context = null;
+                DBPTransactionIsolation defaultIsolation = null;
+                try {
+                    context = (JDBCExecutionContext) instance.openIsolatedContext(monitor, purpose, initFrom);
+                    if (pooled) {
+                        defaultIsolation = context.getTransactionIsolation();
+                    }
+                } finally {
+                    synchronized (this) {
+                        if (context != null) {
+                            createdCount++;
+                            registerBorrow(new PooledContext(context, pooled, defaultIsolation), startTime);
+                        } else if (pooled) {
+                            pooledActiveCount--;
+                            notifyAll();
+                        }
+                    }
+                }
+                return context;
+            }
+
+            if (prepareContext(monitor, pooledContext, initFrom)) {
+                pooledContext.context.setContextName(purpose);
+                synchronized (this) {
+                    registerBorrow(pooledContext, startTime);
+                }
+                return pooledContext.context;
+            }
+            // Context is dead or expired. Close it and try again.
+            synchronized (this) {
+                pooledActiveCount--;
+                evictedCount++;
+                notifyAll();
+            }
+            pooledContext.context.close();
+        }
+    }
+
+    @Override
+    public void releaseContext(@NotNull DBCExecutionContext context) {
+        PooledContext pooledContext;
+        synchronized (this) {
+            pooledContext = activeContexts.remove(context);
+        }
+        if (pooledContext == null || !pooledContext.pooled) {
+            context.close();
+            return;
+        }
+        boolean reusable = resetContext(pooledContext);
+        synchronized (this) {
+            pooledActiveCount--;
+            if (reusable && pooledActiveCount + idleContexts.size() < getMaxSize()) {
+                pooledContext.lastUsedTime = System.currentTimeMillis();
+                pooledContext.borrowThread = null;
+                pooledContext.borrowTrace = null;
+                idleContexts.addFirst(pooledContext);
+                scheduleEviction();
+            } else {
+                reusable = false;
+            }
+            notifyAll();
+        }
+        if (!reusable) {
+            context.close();
+        }
+    }
+
+    @Override
+    public void clear() {
+        List<PooledContext> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(idleContexts);
+            idleContexts.clear();
+            if (evictionJob != null) {
+                evictionJob.cancel();
+                evictionJob = null;
+            }
+        }
+        for (PooledContext pooledContext : toClose) {
+            pooledContext.context.close();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return getPreferenceStore().getInt(ModelPreferences.CONNECTION_POOL_MAX_SIZE);
+    }
+
+    @Override
+    public synchronized int getActiveCount() {
+        return activeContexts.size();
+    }
+
+    @Override
+    public synchronized int getIdleCount() {
+        return idleContexts.size();
+    }
+
+    @Override
+    public synchronized long getBorrowCount() {
+        return borrowCount;
+    }
+
+    @Override
+    public synchronized long getCreatedCount() {
+        return createdCount;
+    }
+
+    @Override
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+
+    @Override
+    public synchronized long getLeakCount() {
+        return leakCount;
+    }
+
+    @Override
+    public synchronized long getAverageWaitTime() {
+        return borrowCount == 0 ? 0 : totalWaitTime / borrowCount;
+    }
+
+    @Override
+    public synchronized long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    private DBPPreferenceStore getPreferenceStore() {
+        return instance.getDataSource().getContainer().getPreferenceStore();
+    }
+
+    private void registerBorrow(PooledContext pooledContext, long startTime) {
+        final long currentTime = System.currentTimeMillis();
+        pooledContext.borrowTime = currentTime;
+        pooledContext.borrowThread = Thread.currentThread();
+        pooledContext.borrowTrace = new Exception("Context borrowed by " + Thread.currentThread().getName());
+        pooledContext.leakReported = false;
+        activeContexts.put(pooledContext.context, pooledContext);
+
+        final long waitTime = currentTime - startTime;
+        borrowCount++;
+        totalWaitTime += waitTime;
+        maxWaitTime = Math.max(maxWaitTime, waitTime);
+        scheduleEviction();
+    }
+
+    private boolean isBorrowedByCurrentThread() {
+        final Thread currentThread = Thread.currentThread();
+        for (PooledContext pooledContext : activeContexts.values()) {
+            if (pooledContext.pooled && pooledContext.borrowThread == currentThread) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExpired(PooledContext pooledContext, long currentTime) {
+        final long maxLifetime = getPreferenceStore().getLong(ModelPreferences.CONNECTION_POOL_MAX_LIFETIME);
+        return maxLifetime > 0 && currentTime - pooledContext.createTime > maxLifetime;
+    }
+
+    /**
+     * Validates idle context and initializes its state before borrowing
+     */
+    private boolean prepareContext(DBRProgressMonitor monitor, PooledContext pooledContext, @Nullable DBCExecutionContext initFrom) {
+        final JDBCExecutionContext context = pooledContext.context;
+        final long currentTime = System.currentTimeMillis();
+        if (!context.isConnected() || isExpired(pooledContext, currentTime)) {
+            return false;
+        }
+        if (currentTime - pooledContext.lastUsedTime > VALIDATION_INTERVAL) {
+            try {
+                if (!JDBCUtils.isConnectionAlive(instance.getDataSource(), context.getConnection(monitor))) {
+                    log.debug("Pooled context '" + context.getContextName() + "' is dead");
+                    return false;
+                }
+            } catch (SQLException e) {
+                log.debug("Error validating pooled context", e);
+                return false;
+            }
+        }
+        try {
+            instance.getDataSource().initializeContextState(monitor, context, (JDBCExecutionContext) initFrom);
+        } catch (DBException e) {
+            log.debug("Error initializing pooled context state", e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ends borrower's transaction and restores default auto-commit mode, isolation level and default catalog/schema
+     */
+    private boolean resetContext(PooledContext pooledContext) {
+        final JDBCExecutionContext context = pooledContext.context;
+        if (!context.isConnected()) {
+            return false;
+        }
+        final DBRProgressMonitor monitor = new VoidProgressMonitor();
+        try {
+            if (!context.isAutoCommit()) {
+                try (JDBCSession session = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Rollback pooled context")) {
+                    context.rollback(session, null);
+                }
+            }
+            final boolean defaultAutoCommit = instance.getDataSource().getContainer().isDefaultAutoCommit();
+            if (context.isAutoCommit() != defaultAutoCommit) {
+                context.setAutoCommit(monitor, defaultAutoCommit);
+            }
+            if (pooledContext.defaultIsolation != null && context.getTransactionIsolation() != pooledContext.defaultIsolation) {
+                context.setTransactionIsolation(monitor, pooledContext.defaultIsolation);
+            }
+            final DBCExecutionContextDefaults contextDefaults = context.getContextDefaults();
+            if (contextDefaults != null) {
+                // Switch back to bootstrap catalog/schema
+                contextDefaults.refreshDefaults(monitor, true);
+            }
+            return true;
+        } catch (DBException e) {
+            log.debug("Error resetting pooled context", e);
+            return false;
+        }
+    }
+
+    private void scheduleEviction() {
+        if (evictionJob == null) {
+            evictionJob = new EvictionJob();
+            evictionJob.schedule(EVICTION_PERIOD);
+        }
+    }
+
+    /**
+     * Closes idle and expired contexts, reports leaked contexts.
+     * Returns true if pool is still not empty
+     */
+    private boolean evictContexts() {
+        final long currentTime = System.currentTimeMillis();
+        final long idleTimeout = getPreferenceStore().getLong(ModelPreferences.CONNECTION_POOL_IDLE_TIMEOUT);
+        final long leakTimeout = getPreferenceStore().getLong(ModelPreferences.CONNECTION_POOL_LEAK_TIMEOUT);
+        final List<PooledContext> toClose = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<PooledContext> iter = idleContexts.iterator(); iter.hasNext(); ) {
+                PooledContext pooledContext = iter.next();
+                if (!pooledContext.context.isConnected() ||
+                    (idleTimeout > 0 && currentTime - pooledContext.lastUsedTime > idleTimeout) ||
+                    isExpired(pooledContext, currentTime))
+                {
+                    iter.remove();
+                    toClose.add(pooledContext);
+                    evictedCount++;
+                }
+            }
+            for (Iterator<PooledContext> iter = activeContexts.values().iterator(); iter.hasNext(); ) {
+                PooledContext pooledContext = iter.next();
+                if (!pooledContext.context.isConnected()) {
+                    // Closed by borrower without release
+                    iter.remove();
+                    if (pooledContext.pooled) {
+                        pooledActiveCount--;
+                    }
+                    continue;
+                }
+                if (leakTimeout > 0 && !pooledContext.leakReported && currentTime - pooledContext.borrowTime > leakTimeout) {
+                    pooledContext.leakReported = true;
+                    leakCount++;
+                    log.warn("Context '" + pooledContext.context.getContextName() + "' of '" + instance.getName() +
+                        "' was not returned to pool for " + (currentTime - pooledContext.borrowTime) / 1000 + " seconds",
+                        pooledContext.borrowTrace);
+                }
+            }
+            notifyAll();
+        }
+        for (PooledContext pooledContext : toClose) {
+            log.debug("Close idle pooled context '" + pooledContext.context.getContextName() + "'");
+            pooledContext.context.close();
+        }
+        synchronized (this) {
+            return !idleContexts.isEmpty() || !activeContexts.isEmpty();
+        }
+    }
+
+    private class EvictionJob extends AbstractJob {
+
+        EvictionJob() {
+            super("Evict pooled contexts of " + instance.getName());
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            boolean reschedule = evictContexts();
+            synchronized (JDBCExecutionContextPool.this) {
+                if (evictionJob != this) {
+                    // Pool was cleared
+                    return Status.OK_STATUS;
+                }
+                if (reschedule) {
+                    schedule(EVICTION_PERIOD);
+                } else {
+                    evictionJob = null;
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -24,6 +24,7 @@ import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPExclusiveResource;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContextPool;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
 import org.jkiss.dbeaver.model.impl.SimpleExclusiveLock;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -49,6 +50,8 @@ public class JDBCRemoteInstance implements DBSInstance {
     @NotNull
     private final List<JDBCExecutionContext> allContexts = new ArrayList<>();
     private final DBPExclusiveResource exclusiveLock = new SimpleExclusiveLock();
+    @Nullable
+    private volatile JDBCExecutionContextPool contextPool;
 
     protected JDBCRemoteInstance(@NotNull DBRProgressMonitor monitor, @NotNull JDBCDataSource dataSource, boolean initContext)
         throws DBException {
@@ -137,6 +140,19 @@ public class JDBCRemoteInstance implements DBSInstance {
         return context;
     }
 
+    @NotNull
+    @Override
+    public DBCExecutionContextPool getContextPool() {
+        if (contextPool == null) {
+            synchronized (allContexts) {
+                if (contextPool == null) {
+                    contextPool = new JDBCExecutionContextPool(this);
+                }
+            }
+        }
+        return contextPool;
+    }
+
     @NotNull
     @Override
     public JDBCExecutionContext[] getAllContexts() {
@@ -183,6 +199,10 @@ public class JDBCRemoteInstance implements DBSInstance {
     public void shutdown(DBRProgressMonitor monitor, boolean keepMeta) {
         // [JDBC] Need sync here because real connection close could take some time
         // while UI may invoke callbacks to operate with connection
+        if (contextPool != null) {
+            // Close idle contexts. Borrowed contexts will be closed below and discarded on release.
+            contextPool.clear();
+        }
         List<JDBCExecutionContext> ctxCopy;
         synchronized (allContexts) {
             ctxCopy = new ArrayList<>(allContexts);
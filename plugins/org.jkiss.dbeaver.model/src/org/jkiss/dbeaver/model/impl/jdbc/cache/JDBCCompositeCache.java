@@ -30,12 +30,14 @@ import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.cache.AbstractObjectCache;
+import org.jkiss.dbeaver.model.struct.cache.CacheObjectList;
 import org.jkiss.dbeaver.model.struct.cache.DBSCompositeCache;
 import org.jkiss.utils.CommonUtils;
 
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Composite objects cache.
@@ -62,7 +64,11 @@ public abstract class JDBCCompositeCache<
     private final Object parentColumnName;
     private final Object objectColumnName;
 
-    private final Map<PARENT, List<OBJECT>> objectCache = new IdentityHashMap<>();
+    // Objects by parent. Immutable map: readers use it without locking,
+    // writers build new map under parentCacheSync and replace the reference when parents set changes.
+    // Parent's object list is replaced in its own reference, so caching of a single object doesn't copy the map.
+    private volatile Map<PARENT, AtomicReference<CacheObjectList<OBJECT>>> objectCache = Collections.emptyMap();
+    private final Object parentCacheSync = new Object();
 
     protected JDBCCompositeCache(
         JDBCStructCache<OWNER,?,?> parentCache,
@@ -137,9 +143,7 @@ public abstract class JDBCCompositeCache<
         if (forParent == null) {
             return getCachedObjects();
         } else {
-            synchronized (objectCache) {
-                return objectCache.get(forParent);
-            }
+            return getParentObjects(forParent);
         }
     }
 
@@ -159,24 +163,31 @@ public abstract class JDBCCompositeCache<
         if (forParent == null) {
             return getCachedObject(objectName);
         } else {
-            synchronized (objectCache) {
-                return DBUtils.findObject(objectCache.get(forParent), objectName);
-            }
+            return DBUtils.findObject(getParentObjects(forParent), objectName);
         }
     }
 
+    @Nullable
+    private List<OBJECT> getParentObjects(PARENT parent)
+    {
+        AtomicReference<CacheObjectList<OBJECT>> objects = objectCache.get(parent);
+        return objects == null ? null : objects.get();
+    }
+
     @Override
     public void cacheObject(@NotNull OBJECT object)
     {
         super.cacheObject(object);
-        synchronized (objectCache) {
+        synchronized (parentCacheSync) {
             PARENT parent = getParent(object);
-            List<OBJECT> objects = objectCache.get(parent);
-            if (objects == null) {
-                objects = new ArrayList<>();
-                objectCache.put(parent, objects);
+            AtomicReference<CacheObjectList<OBJECT>> objects = objectCache.get(parent);
+            if (objects != null) {
+                objects.set(objects.get().append(object));
+            } else {
+                Map<PARENT, AtomicReference<CacheObjectList<OBJECT>>> newCache = new IdentityHashMap<>(objectCache);
+                newCache.put(parent, new AtomicReference<>(CacheObjectList.<OBJECT>empty().append(object)));
+                objectCache = newCache;
             }
-            objects.add(object);
         }
     }
 
@@ -184,14 +195,19 @@ public abstract class JDBCCompositeCache<
     public void removeObject(@NotNull OBJECT object, boolean resetFullCache)
     {
         super.removeObject(object, resetFullCache);
-        synchronized (objectCache) {
+        synchronized (parentCacheSync) {
             PARENT parent = getParent(object);
             if (resetFullCache) {
-                objectCache.remove(parent);
+                Map<PARENT, AtomicReference<CacheObjectList<OBJECT>>> newCache = new IdentityHashMap<>(objectCache);
+                newCache.remove(parent);
+                objectCache = newCache;
             } else {
-                List<OBJECT> subCache = objectCache.get(parent);
+                AtomicReference<CacheObjectList<OBJECT>> subCache = objectCache.get(parent);
                 if (subCache != null) {
-                    subCache.remove(object);
+                    List<OBJECT> objects = new ArrayList<>(subCache.get());
+                    if (objects.remove(object)) {
+                        subCache.set(CacheObjectList.copyOf(objects));
+                    }
                 }
             }
         }
@@ -202,9 +218,19 @@ public abstract class JDBCCompositeCache<
     {
         if (forParent == null) {
             super.clearCache();
-            objectCache.clear();
+            synchronized (parentCacheSync) {
+                objectCache = Collections.emptyMap();
+            }
         } else {
-            List<OBJECT> removedObjects = objectCache.remove(forParent);
+            List<OBJECT> removedObjects = null;
+            synchronized (parentCacheSync) {
+                Map<PARENT, AtomicReference<CacheObjectList<OBJECT>>> newCache = new IdentityHashMap<>(objectCache);
+                AtomicReference<CacheObjectList<OBJECT>> removed = newCache.remove(forParent);
+                if (removed != null) {
+                    removedObjects = removed.get();
+                }
+                objectCache = newCache;
+            }
             if (removedObjects != null) {
                 for (OBJECT obj : removedObjects) {
                     super.removeObject(obj, false);
@@ -220,8 +246,8 @@ public abstract class JDBCCompositeCache<
     @Override
     public void clearCache()
     {
-        synchronized (objectCache) {
-            this.objectCache.clear();
+        synchronized (parentCacheSync) {
+            this.objectCache = Collections.emptyMap();
         }
         super.clearCache();
     }
@@ -229,17 +255,16 @@ public abstract class JDBCCompositeCache<
     @Override
     public void setCache(List<OBJECT> objects) {
         super.setCache(objects);
-        synchronized (objectCache) {
-            objectCache.clear();
-            for (OBJECT object : objects) {
-                PARENT parent = getParent(object);
-                List<OBJECT> parentObjects = objectCache.get(parent);
-                if (parentObjects == null) {
-                    parentObjects = new ArrayList<>();
-                    objectCache.put(parent, parentObjects);
-                }
-                parentObjects.add(object);
-            }
+        Map<PARENT, List<OBJECT>> parentObjects = new IdentityHashMap<>();
+        for (OBJECT object : objects) {
+            parentObjects.computeIfAbsent(getParent(object), k -> new ArrayList<>()).add(object);
+        }
+        Map<PARENT, AtomicReference<CacheObjectList<OBJECT>>> newCache = new IdentityHashMap<>(parentObjects.size());
+        for (Map.Entry<PARENT, List<OBJECT>> entry : parentObjects.entrySet()) {
+            newCache.put(entry.getKey(), new AtomicReference<>(CacheObjectList.copyOf(entry.getValue())));
+        }
+        synchronized (parentCacheSync) {
+            objectCache = newCache;
         }
     }
 
@@ -258,12 +283,10 @@ public abstract class JDBCCompositeCache<
     protected void loadObjects(DBRProgressMonitor monitor, OWNER owner, PARENT forParent)
         throws DBException
     {
-        synchronized (objectCache) {
-            if ((forParent == null && isFullyCached()) ||
-                (forParent != null && (!forParent.isPersisted() || objectCache.containsKey(forParent))))
-            {
-                return;
-            }
+        if ((forParent == null && isFullyCached()) ||
+            (forParent != null && (!forParent.isPersisted() || objectCache.containsKey(forParent))))
+        {
+            return;
         }
 
         // Load tables and columns first
@@ -318,11 +341,9 @@ public abstract class JDBCCompositeCache<
                                 continue;
                             }
                         }
-                        synchronized (objectCache) {
-                            if (objectCache.containsKey(parent)) {
-                                // Already cached
-                                continue;
-                            }
+                        if (objectCache.containsKey(parent)) {
+                            // Already cached
+                            continue;
                         }
                         // Add to map
                         Map<String, ObjectInfo> objectMap = parentObjectMap.get(parent);
@@ -380,9 +401,13 @@ public abstract class JDBCCompositeCache<
             return;
         }
 
+        // Load parents before cache update to avoid metadata reading under cache lock
+        List<PARENT> allParents = forParent == null ? parentCache.getTypedObjects(monitor, owner, parentType) : null;
+
         // Fill global cache
         synchronized (this) {
-            synchronized (objectCache) {
+            synchronized (parentCacheSync) {
+                Map<PARENT, AtomicReference<CacheObjectList<OBJECT>>> newCache = new IdentityHashMap<>(objectCache);
                 if (forParent != null || !parentObjectMap.isEmpty()) {
                     if (forParent == null) {
                         // Cache global object list
@@ -397,8 +422,8 @@ public abstract class JDBCCompositeCache<
                             }
                         }
                         // Save precached objects in global cache
-                        for (List<OBJECT> objects : objectCache.values()) {
-                            globalCache.addAll(objects);
+                        for (AtomicReference<CacheObjectList<OBJECT>> objects : newCache.values()) {
+                            globalCache.addAll(objects.get());
                         }
                         // Add precached objects to global cache too
                         super.setCache(globalCache);
@@ -411,7 +436,7 @@ public abstract class JDBCCompositeCache<
 
                 // All objects are read. Now assign them to parents
                 for (Map.Entry<PARENT, Map<String, ObjectInfo>> colEntry : parentObjectMap.entrySet()) {
-                    if (colEntry.getValue() == null || objectCache.containsKey(colEntry.getKey())) {
+                    if (colEntry.getValue() == null || newCache.containsKey(colEntry.getKey())) {
                         // Do not overwrite this object's cache
                         continue;
                     }
@@ -421,18 +446,20 @@ public abstract class JDBCCompositeCache<
                         objectInfo.needsCaching = true;
                         objects.add(objectInfo.object);
                     }
-                    objectCache.put(colEntry.getKey(), objects);
+                    newCache.put(colEntry.getKey(), new AtomicReference<>(CacheObjectList.copyOf(objects)));
                 }
                 // Now set empty object list for other parents
-                if (forParent == null) {
-                    for (PARENT tmpParent : parentCache.getTypedObjects(monitor, owner, parentType)) {
-                        if (!parentObjectMap.containsKey(tmpParent) && !objectCache.containsKey(tmpParent)) {
-                            objectCache.put(tmpParent, new ArrayList<OBJECT>());
+                if (allParents != null) {
+                    for (PARENT tmpParent : allParents) {
+                        if (!parentObjectMap.containsKey(tmpParent) && !newCache.containsKey(tmpParent)) {
+                            newCache.put(tmpParent, new AtomicReference<>(CacheObjectList.empty()));
                         }
                     }
-                } else if (!parentObjectMap.containsKey(forParent) && !objectCache.containsKey(forParent)) {
-                    objectCache.put(forParent, new ArrayList<OBJECT>());
+                } else if (!parentObjectMap.containsKey(forParent) && !newCache.containsKey(forParent)) {
+                    newCache.put(forParent, new AtomicReference<>(CacheObjectList.empty()));
                 }
+                // Publish new cache state
+                objectCache = newCache;
             }
             // Cache children lists (we do it in the end because children caching may operate with other model objects)
             for (Map.Entry<PARENT, Map<String, ObjectInfo>> colEntry : parentObjectMap.entrySet()) {
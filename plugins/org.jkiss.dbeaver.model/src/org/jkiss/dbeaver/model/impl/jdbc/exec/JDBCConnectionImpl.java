@@ -241,6 +241,10 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
     public JDBCPreparedStatement prepareStatement(String sql)
         throws SQLException
     {
+        JDBCStatementCache statementCache = context.getStatementCache();
+        if (statementCache.isEnabled() && sql != null) {
+            return prepareCachedStatement(statementCache, sql, JDBCStatementCache.DEFAULT_RESULT_SET_MODE, JDBCStatementCache.DEFAULT_RESULT_SET_MODE);
+        }
         return createPreparedStatementImpl(getOriginal().prepareStatement(sql), sql);
     }
 
@@ -402,6 +406,10 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
     public JDBCPreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
         throws SQLException
     {
+        JDBCStatementCache statementCache = context.getStatementCache();
+        if (statementCache.isEnabled() && sql != null) {
+            return prepareCachedStatement(statementCache, sql, resultSetType, resultSetConcurrency);
+        }
         return createPreparedStatementImpl(
             getOriginal().prepareStatement(sql, resultSetType, resultSetConcurrency),
             sql);
@@ -721,6 +729,27 @@ public class JDBCConnectionImpl extends AbstractSession implements JDBCSession,
         return context.getDataSource().getJdbcFactory().createPreparedStatement(this, original, sql, !isLoggingEnabled());
     }
 
+    /**
+     * Takes statement from context statement cache or prepares a new one.
+     * Statement returns to the cache on close.
+     */
+    private JDBCPreparedStatement prepareCachedStatement(@NotNull JDBCStatementCache statementCache, @NotNull String sql, int resultSetType, int resultSetConcurrency)
+        throws SQLException
+    {
+        JDBCStatementCache.Key key = new JDBCStatementCache.Key(sql, resultSetType, resultSetConcurrency);
+        JDBCStatementCache.Entry entry = statementCache.acquire(key);
+        if (entry == null) {
+            PreparedStatement original = resultSetType == JDBCStatementCache.DEFAULT_RESULT_SET_MODE ?
+                getOriginal().prepareStatement(sql) :
+                getOriginal().prepareStatement(sql, resultSetType, resultSetConcurrency);
+            if (original == null) {
+                throw new IllegalArgumentException("Null statement");
+            }
+            entry = statementCache.createEntry(key, original);
+        }
+        return new JDBCPreparedStatementCachedImpl(this, statementCache, entry, !isLoggingEnabled());
+    }
+
     protected JDBCCallableStatement createCallableStatementImpl(CallableStatement original, @Nullable String sql)
         throws SQLException,IllegalArgumentException
     {
@@ -16,20 +16,72 @@
  */
 package org.jkiss.dbeaver.model.impl.jdbc.exec;
 
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 
+import java.sql.SQLException;
+import java.util.Collections;
+
+/**
+ * Prepared statement taken from connection statement cache.
+ * Close returns original statement to the cache instead of closing it.
+ */
 public class JDBCPreparedStatementCachedImpl extends JDBCPreparedStatementImpl {
 
-	public JDBCPreparedStatementCachedImpl(JDBCPreparedStatementImpl statment){
-		super(statment.getSession(), statment.original, statment.query, statment.disableLogging);
+	private final JDBCStatementCache cache;
+	private JDBCStatementCache.Entry entry;
+
+	JDBCPreparedStatementCachedImpl(
+		@NotNull JDBCSession session,
+		@NotNull JDBCStatementCache cache,
+		@NotNull JDBCStatementCache.Entry entry,
+		boolean disableLogging)
+	{
+		super(session, entry.statement, entry.key.sql, disableLogging);
+		this.cache = cache;
+		this.entry = entry;
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+		super.setEscapeProcessing(enable);
+		if (entry != null) {
+			entry.escapeProcessingChanged = true;
+		}
 	}
 
 	@Override
-	public void close() {
-		// For cached statement close() do nothing
+	public void setCursorName(String name) throws SQLException {
+		super.setCursorName(name);
+		if (entry != null) {
+			entry.cursorNameChanged = true;
+		}
 	}
-	
-	public void drop(){
+
+	@Override
+	protected void closeStatement() {
+		JDBCStatementCache.Entry cacheEntry = this.entry;
+		if (cacheEntry == null) {
+			return;
+		}
+		this.entry = null;
+		if (getExecuteError() != null) {
+			// Statement may be broken (e.g. cached plan is invalid after DDL). Prepare it again next time.
+			JDBCStatementCache.closeStatements(Collections.singletonList(cacheEntry));
+		} else {
+			cache.release(cacheEntry);
+		}
+	}
+
+	/**
+	 * Closes original statement without returning it to the cache
+	 */
+	public void drop() {
+		if (entry != null) {
+			JDBCStatementCache.closeStatements(Collections.singletonList(entry));
+			entry = null;
+		}
 		super.close();
 	}
-	
+
 }
@@ -0,0 +1,257 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.exec;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.*;
+
+/**
+ * LRU cache of prepared statements of a single JDBC connection.
+ * Statements are keyed by SQL text, result set type and concurrency.
+ *
+ * Cached statement is removed from cache while it is in use, so it is never shared between sessions.
+ * On release it is reset and put back (or closed if cache was invalidated after it was acquired
+ * or its state can't be reset).
+ */
+public class JDBCStatementCache {
+
+    private static final Log log = Log.getLog(JDBCStatementCache.class);
+
+    // Result set type/concurrency of statements prepared with driver defaults
+    static final int DEFAULT_RESULT_SET_MODE = 0;
+
+    static final class Key {
+        final String sql;
+        final int resultSetType;
+        final int resultSetConcurrency;
+
+        Key(@NotNull String sql, int resultSetType, int resultSetConcurrency) {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return resultSetType == key.resultSetType && resultSetConcurrency == key.resultSetConcurrency && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return sql.hashCode() + resultSetType * 31 + resultSetConcurrency;
+        }
+    }
+
+    static final class Entry {
+        final Key key;
+        final PreparedStatement statement;
+        final long generation;
+        // Statement settings which may be changed by user of statement
+        final int fetchSize;
+        final int maxRows;
+        final int queryTimeout;
+        int fetchDirection;
+        int maxFieldSize;
+        boolean poolable;
+        // False if driver doesn't support reading of some statement settings. Such statement is not reused.
+        boolean resettable = true;
+        // Settings which can't be read from statement. They are tracked by statement wrapper.
+        boolean escapeProcessingChanged;
+        boolean cursorNameChanged;
+
+        Entry(Key key, PreparedStatement statement, long generation) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            this.generation = generation;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+            try {
+                this.fetchDirection = statement.getFetchDirection();
+                this.maxFieldSize = statement.getMaxFieldSize();
+                this.poolable = statement.isPoolable();
+            } catch (Throwable e) {
+                // Old or limited driver
+                this.resettable = false;
+            }
+        }
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<Key, Entry> statements = new LinkedHashMap<>(16, 0.75f, true);
+    // Incremented on invalidate. Statements acquired before invalidate are not returned to cache.
+    private long generation;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public JDBCStatementCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int getSize() {
+        return statements.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Takes statement out of cache.
+     * @return cached statement or null on cache miss
+     */
+    synchronized Entry acquire(@NotNull Key key) {
+        Entry entry = statements.remove(key);
+        if (entry != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return entry;
+    }
+
+    synchronized Entry createEntry(@NotNull Key key, @NotNull PreparedStatement statement) throws SQLException {
+        return new Entry(key, statement, generation);
+    }
+
+    /**
+     * Returns statement to cache
+     */
+    void release(@NotNull Entry entry) {
+        List<Entry> toClose = new ArrayList<>();
+        if (resetStatement(entry)) {
+            synchronized (this) {
+                if (entry.generation == generation) {
+                    Entry prevEntry = statements.put(entry.key, entry);
+                    if (prevEntry != null) {
+                        // The same query was prepared by another session
+                        toClose.add(prevEntry);
+                    }
+                    for (Iterator<Entry> iter = statements.values().iterator(); statements.size() > maxSize && iter.hasNext(); ) {
+                        toClose.add(iter.next());
+                        iter.remove();
+                        evictionCount++;
+                    }
+                } else {
+                    toClose.add(entry);
+                }
+            }
+        } else {
+            toClose.add(entry);
+        }
+        closeStatements(toClose);
+    }
+
+    /**
+     * Closes all cached statements. Statements which are in use will be closed on release.
+     */
+    public void invalidate() {
+        List<Entry> toClose;
+        synchronized (this) {
+            generation++;
+            toClose = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        closeStatements(toClose);
+    }
+
+    private static boolean resetStatement(Entry entry) {
+        PreparedStatement statement = entry.statement;
+        try {
+            if (statement.isClosed() || !entry.resettable || entry.cursorNameChanged) {
+                // Cursor name can't be reset to driver default
+                return false;
+            }
+            statement.clearParameters();
+            statement.clearWarnings();
+            try {
+                statement.clearBatch();
+            } catch (SQLFeatureNotSupportedException | UnsupportedOperationException e) {
+                // Batches are not supported so there is nothing to clear
+            }
+            if (statement.getFetchSize() != entry.fetchSize) {
+                statement.setFetchSize(entry.fetchSize);
+            }
+            if (statement.getMaxRows() != entry.maxRows) {
+                statement.setMaxRows(entry.maxRows);
+            }
+            if (statement.getQueryTimeout() != entry.queryTimeout) {
+                statement.setQueryTimeout(entry.queryTimeout);
+            }
+            if (statement.getFetchDirection() != entry.fetchDirection) {
+                statement.setFetchDirection(entry.fetchDirection);
+            }
+            if (statement.getMaxFieldSize() != entry.maxFieldSize) {
+                statement.setMaxFieldSize(entry.maxFieldSize);
+            }
+            if (statement.isPoolable() != entry.poolable) {
+                statement.setPoolable(entry.poolable);
+            }
+            if (entry.escapeProcessingChanged) {
+                // Escape processing is enabled by default
+                statement.setEscapeProcessing(true);
+                entry.escapeProcessingChanged = false;
+            }
+            return true;
+        } catch (Throwable e) {
+            log.debug("Can't reset cached statement: " + e.getMessage());
+            return false;
+        }
+    }
+
+    static void closeStatements(Collection<Entry> entries) {
+        for (Entry entry : entries) {
+            try {
+                entry.statement.close();
+            } catch (Throwable e) {
+                log.debug("Can't close cached statement", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Statement cache: " + statements.size() + "/" + maxSize + ", hits: " + hitCount + ", misses: " + missCount + ", evictions: " + evictionCount;
+    }
+}
@@ -490,7 +490,14 @@ public class JDBCStatementImpl<STATEMENT extends Statement> extends AbstractStat
             QMUtils.getDefaultHandler().handleStatementClose(this, updateCount);
         }
 
-        // Close statement
+        closeStatement();
+    }
+
+    /**
+     * Closes original statement
+     */
+    protected void closeStatement()
+    {
         try {
             getOriginal().close();
         }
@@ -499,6 +506,15 @@ public class JDBCStatementImpl<STATEMENT extends Statement> extends AbstractStat
         }
     }
 
+    /**
+     * Error of the last execution (null if it was successful)
+     */
+    @Nullable
+    protected Throwable getExecuteError()
+    {
+        return executeError;
+    }
+
     ////////////////////////////////////
     // Other
 
@@ -416,8 +416,18 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         readRequiredMeta(session.getProgressMonitor());
 
         DBSAttributeBase[] attributes = ArrayUtils.concatArrays(updateAttributes, keyAttributes);
+        // Value binders may put value-specific expressions in query so statement can't be reused
+        boolean reuseStatement = true;
+        for (DBSAttributeBase attribute : updateAttributes) {
+            DBDValueHandler valueHandler = attribute instanceof DBDAttributeBinding ?
+                ((DBDAttributeBinding) attribute).getValueHandler() : DBUtils.findValueHandler(session, attribute);
+            if (valueHandler instanceof DBDValueBinder) {
+                reuseStatement = false;
+                break;
+            }
+        }
 
-        return new ExecuteBatchImpl(attributes, keysReceiver, false) {
+        return new ExecuteBatchImpl(attributes, keysReceiver, reuseStatement) {
             @NotNull
             @Override
             protected DBCStatement prepareStatement(@NotNull DBCSession session, DBDValueHandler[] handlers, Object[] attributeValues, Map<String, Object> options) throws DBCException {
@@ -494,7 +504,8 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
     {
         readRequiredMeta(session.getProgressMonitor());
 
-        return new ExecuteBatchImpl(keyAttributes, null, false) {
+        // Query depends only on key values nullability
+        return new ExecuteBatchImpl(keyAttributes, null, true) {
             @NotNull
             @Override
             protected DBCStatement prepareStatement(@NotNull DBCSession session, DBDValueHandler[] handlers, Object[] attributeValues, Map<String, Object> options) throws DBCException {
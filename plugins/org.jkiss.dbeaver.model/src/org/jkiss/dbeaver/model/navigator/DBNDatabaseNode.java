@@ -36,6 +36,7 @@ import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.struct.rdb.DBSPackage;
 import org.jkiss.dbeaver.model.struct.rdb.DBSSequence;
+import org.jkiss.dbeaver.runtime.properties.ObjectPropertyRegistry;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.BeanUtils;
 import org.jkiss.utils.CommonUtils;
@@ -361,6 +362,8 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
         }
         this.locked = true;
         DBNModel model = getModel();
+        // Deliver all child updates together with this node refresh
+        model.beginEventBatch();
         try {
             if (newObject != getObject()) {
                 reloadObject(monitor, newObject);
@@ -370,6 +373,7 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
 
             if (reflect) model.fireNodeUpdate(source, this, DBNEvent.NodeChange.REFRESH);
         } finally {
+            model.endEventBatch();
             this.locked = false;
         }
     }
@@ -558,6 +562,19 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
             return false;
         }
 
+        // Index old children by object key. Folders may contain thousands of items so avoid nested scans.
+        Map<ObjectKey, DBNDatabaseNode> oldChildren = null;
+        Set<ObjectKey> newObjects = null;
+        if (oldList != null) {
+            oldChildren = new HashMap<>();
+            for (DBNDatabaseNode oldChild : oldList) {
+                if (oldChild.getMeta() == meta) {
+                    oldChildren.putIfAbsent(new ObjectKey(oldChild.getObject()), oldChild);
+                }
+            }
+            newObjects = new HashSet<>();
+        }
+
         for (Object childItem : itemList) {
             if (childItem == null) {
                 continue;
@@ -566,6 +583,11 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
                 log.warn("Bad item type: " + childItem.getClass().getName()); //$NON-NLS-1$
                 continue;
             }
+            ObjectKey objectKey = null;
+            if (newObjects != null) {
+                objectKey = new ObjectKey((DBSObject) childItem);
+                newObjects.add(objectKey);
+            }
             if (DBUtils.isHiddenObject(childItem)) {
                 // Skip hidden objects
                 continue;
@@ -583,28 +605,21 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
                 continue;
             }
             DBSObject object = (DBSObject) childItem;
-            boolean added = false;
-            if (oldList != null) {
-                // Check that new object is a replacement of old one
-                for (DBNDatabaseNode oldChild : oldList) {
-                    if (oldChild.getMeta() == meta && equalObjects(oldChild.getObject(), object)) {
-                        oldChild.reloadObject(monitor, object);
-
-                        if (oldChild.hasChildren(false) && !oldChild.needsInitialization()) {
-                            // Refresh children recursive
-                            oldChild.reloadChildren(monitor, source, reflect);
-                        }
-                        if (reflect) {
-                            getModel().fireNodeUpdate(source, oldChild, DBNEvent.NodeChange.REFRESH);
-                        }
-
-                        toList.add(oldChild);
-                        added = true;
-                        break;
-                    }
+            // Check that new object is a replacement of old one
+            DBNDatabaseNode oldChild = oldChildren == null ? null : oldChildren.get(objectKey);
+            if (oldChild != null) {
+                oldChild.reloadObject(monitor, object);
+
+                if (oldChild.hasChildren(false) && !oldChild.needsInitialization()) {
+                    // Refresh children recursive
+                    oldChild.reloadChildren(monitor, source, reflect);
                 }
-            }
-            if (!added) {
+                if (reflect) {
+                    getModel().fireNodeUpdate(source, oldChild, DBNEvent.NodeChange.REFRESH);
+                }
+
+                toList.add(oldChild);
+            } else {
                 // Simply add new item
                 DBNDatabaseItem treeItem = new DBNDatabaseItem(this, meta, object, oldList != null);
                 toList.add(treeItem);
@@ -618,14 +633,7 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
                     // Wrong type
                     continue;
                 }
-                boolean found = false;
-                for (Object childItem : itemList) {
-                    if (childItem instanceof DBSObject && equalObjects(oldChild.getObject(), (DBSObject) childItem)) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
+                if (!newObjects.contains(new ObjectKey(oldChild.getObject()))) {
                     // Remove old child object
                     oldChild.dispose(true);
                 }
@@ -773,6 +781,29 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
         return true;
     }
 
+    /**
+     * Hash key of database object. Keys are equal if objects are equal in terms of {@link #equalObjects(DBSObject, DBSObject)}.
+     */
+    private static final class ObjectKey {
+        private final DBSObject object;
+        private final int hashCode;
+
+        ObjectKey(DBSObject object) {
+            this.object = object;
+            this.hashCode = object == null ? 0 : object.getClass().hashCode() * 31 + CommonUtils.notEmpty(DBUtils.getObjectUniqueName(object)).hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ObjectKey && hashCode == ((ObjectKey) obj).hashCode && equalObjects(object, ((ObjectKey) obj).object);
+        }
+    }
+
     public abstract Object getValueObject();
 
     public abstract DBXTreeNode getMeta();
@@ -863,12 +894,9 @@ public abstract class DBNDatabaseNode extends DBNNode implements DBSWrapper, DBP
                 return null;
             }
             Class<?>[] paramTypes = getter.getParameterTypes();
-            if (paramTypes.length == 0) {
-                // No params - just read it
-                return getter.invoke(object);
-            } else if (paramTypes.length == 1 && paramTypes[0] == DBRProgressMonitor.class) {
-                // Read with progress monitor
-                return getter.invoke(object, monitor);
+            if (paramTypes.length == 0 || (paramTypes.length == 1 && paramTypes[0] == DBRProgressMonitor.class)) {
+                // No params or progress monitor - read it with cached accessor
+                return ObjectPropertyRegistry.getAccessor(getter).read(object, monitor);
             } else {
                 log.warn("Can't read property '" + propertyName + "' - bad method signature: " + getter.toString());
                 return null;
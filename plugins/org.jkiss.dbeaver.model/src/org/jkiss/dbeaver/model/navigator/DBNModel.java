@@ -43,6 +43,7 @@ import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -80,6 +81,8 @@ public class DBNModel implements IResourceChangeListener {
     private final List<INavigatorListener> listeners = new ArrayList<>();
     private transient INavigatorListener[] listenersCopy = null;
     private final transient List<DBNEvent> eventCache = new ArrayList<>();
+    // Events fired by the current thread within event batch
+    private final transient ThreadLocal<EventBatch> eventBatch = new ThreadLocal<>();
     private final Map<DBSObject, Object> nodeMap = new HashMap<>();
     private final List<Function<DBNNode, Boolean>> nodeFilters = new ArrayList<>();
 
@@ -585,11 +588,49 @@ public class DBNModel implements IResourceChangeListener {
         if (!isGlobal() || platform.isShuttingDown()) {
             return;
         }
+        EventBatch batch = eventBatch.get();
+        if (batch != null) {
+            batch.events.add(event);
+            return;
+        }
         synchronized (eventCache) {
             eventCache.add(event);
         }
     }
 
+    /**
+     * Starts events batch in the current thread.
+     * All events will be delivered to listeners at once in {@link #endEventBatch()}.
+     * Batches may be nested.
+     */
+    void beginEventBatch()
+    {
+        EventBatch batch = eventBatch.get();
+        if (batch == null) {
+            batch = new EventBatch();
+            eventBatch.set(batch);
+        }
+        batch.depth++;
+    }
+
+    void endEventBatch()
+    {
+        EventBatch batch = eventBatch.get();
+        if (batch == null) {
+            log.warn("Event batch end without begin");
+            return;
+        }
+        if (--batch.depth > 0) {
+            return;
+        }
+        eventBatch.remove();
+        if (!batch.events.isEmpty()) {
+            synchronized (eventCache) {
+                eventCache.addAll(batch.events);
+            }
+        }
+    }
+
     @Override
     public void resourceChanged(IResourceChangeEvent event)
     {
@@ -688,6 +729,11 @@ public class DBNModel implements IResourceChangeListener {
         node.dispose(reflect);
     }
 
+    private static class EventBatch {
+        private final List<DBNEvent> events = new ArrayList<>();
+        private int depth;
+    }
+
     private class EventProcessingJob extends Job {
 
         EventProcessingJob() {
@@ -717,11 +763,10 @@ public class DBNModel implements IResourceChangeListener {
                 }
 
                 try {
+                    final List<DBNEvent> eventList = Arrays.asList(realEvents);
                     DBWorkbench.getPlatformUI().executeWithProgress(() -> {
-                        for (int i = 0; i < realEvents.length; i++) {
-                            for (INavigatorListener listener : listenersCopy) {
-                                listener.nodeChanged(realEvents[i]);
-                            }
+                        for (INavigatorListener listener : realListeners) {
+                            listener.nodesChanged(eventList);
                         }
                     });
                 } catch (Exception e) {
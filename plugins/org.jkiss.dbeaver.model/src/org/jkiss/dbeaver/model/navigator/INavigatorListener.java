@@ -17,6 +17,8 @@
 
 package org.jkiss.dbeaver.model.navigator;
 
+import java.util.List;
+
 /**
  * INavigatorListener
  */
@@ -26,4 +28,14 @@ public interface INavigatorListener
      * Called in UI thread
      */
     void nodeChanged(DBNEvent event);
+
+    /**
+     * Called in UI thread with all events collected since the previous notification.
+     * Listeners may override it to coalesce multiple updates (e.g. after big folder refresh).
+     */
+    default void nodesChanged(List<DBNEvent> events) {
+        for (DBNEvent event : events) {
+            nodeChanged(event);
+        }
+    }
 }
@@ -37,6 +37,10 @@ public class QMEventCriteria {
     DBCExecutionPurpose[] queryTypes = new DBCExecutionPurpose[0];
     @Nullable
     String searchString;
+    // Time range and minimal query duration (in ms). Zero means no restriction.
+    long startTime;
+    long endTime;
+    long minDuration;
 
     public String getContainerId() {
         return containerId;
@@ -95,4 +99,28 @@ public class QMEventCriteria {
     public void setSearchString(String searchString) {
         this.searchString = searchString;
     }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getMinDuration() {
+        return minDuration;
+    }
+
+    public void setMinDuration(long minDuration) {
+        this.minDuration = minDuration;
+    }
 }
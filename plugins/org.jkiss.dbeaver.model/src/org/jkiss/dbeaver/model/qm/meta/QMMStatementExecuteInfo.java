@@ -62,10 +62,15 @@ public class QMMStatementExecuteInfo extends QMMObject {
     }
 
     public QMMStatementExecuteInfo(long openTime, long closeTime, QMMStatementInfo stmt, String queryString, long rowCount, int errorCode, String errorMessage, long fetchBeginTime, long fetchEndTime, boolean transactional) {
+        this(openTime, closeTime, stmt, queryString, rowCount, -1, errorCode, errorMessage, fetchBeginTime, fetchEndTime, transactional);
+    }
+
+    public QMMStatementExecuteInfo(long openTime, long closeTime, QMMStatementInfo stmt, String queryString, long fetchRowCount, long updateRowCount, int errorCode, String errorMessage, long fetchBeginTime, long fetchEndTime, boolean transactional) {
         super(openTime, closeTime);
         this.statement = stmt;
         this.queryString = queryString;
-        this.fetchRowCount = rowCount;
+        this.fetchRowCount = fetchRowCount;
+        this.updateRowCount = updateRowCount;
         this.errorCode = errorCode;
         this.errorMessage = errorMessage;
         this.fetchBeginTime = fetchBeginTime;
@@ -21,6 +21,7 @@ import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.DBPExclusiveResource;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContextPool;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 
 /**
@@ -61,6 +62,42 @@ public interface DBSInstance extends DBSObject
     @NotNull
     DBCExecutionContext openIsolatedContext(@NotNull DBRProgressMonitor monitor, @NotNull String purpose, @Nullable DBCExecutionContext initFrom) throws DBException;
 
+    /**
+     * Pool of isolated contexts.
+     *
+     * @return context pool or null if instance doesn't support context pooling
+     */
+    @Nullable
+    default DBCExecutionContextPool getContextPool() {
+        return null;
+    }
+
+    /**
+     * Borrows isolated context from the instance context pool.
+     * Opens new isolated context if pooling is not supported.
+     * Context must be returned with {@link #releaseIsolatedContext(DBCExecutionContext)}.
+     */
+    @NotNull
+    default DBCExecutionContext borrowIsolatedContext(@NotNull DBRProgressMonitor monitor, @NotNull String purpose, @Nullable DBCExecutionContext initFrom) throws DBException {
+        DBCExecutionContextPool pool = getContextPool();
+        if (pool != null) {
+            return pool.borrowContext(monitor, purpose, initFrom);
+        }
+        return openIsolatedContext(monitor, purpose, initFrom);
+    }
+
+    /**
+     * Returns isolated context borrowed with {@link #borrowIsolatedContext(DBRProgressMonitor, String, DBCExecutionContext)}
+     */
+    default void releaseIsolatedContext(@NotNull DBCExecutionContext context) {
+        DBCExecutionContextPool pool = getContextPool();
+        if (pool != null) {
+            pool.releaseContext(context);
+        } else {
+            context.close();
+        }
+    }
+
     void shutdown(DBRProgressMonitor monitor);
 
     @NotNull
@@ -30,22 +30,42 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Various objects cache
+ * Various objects cache.
+ * Cache state is kept in immutable snapshots. Readers never lock: they use the current snapshot.
+ * Writers build a new snapshot under the cache monitor and publish it atomically.
+ * Appended objects share storage with the previous snapshot, so incremental caching doesn't copy the whole cache.
+ * Lists returned by cache are immutable.
  */
 public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extends DBSObject>
     implements DBSObjectCache<OWNER, OBJECT>
 {
     private static final Log log = Log.getLog(AbstractObjectCache.class);
 
-    private List<OBJECT> objectList;
-    private Map<String, OBJECT> objectMap;
+    /**
+     * Cache state. Name index is built lazily on first lookup by name.
+     * Index maps object name to its position in the list. Appends to the list add new names in the same index,
+     * so older snapshots which share the index ignore positions after their own list end.
+     */
+    private static final class CacheSnapshot<OBJECT> {
+        final CacheObjectList<OBJECT> objectList;
+        final Map<String, Integer> nameIndex;
+
+        CacheSnapshot(CacheObjectList<OBJECT> objectList, Map<String, Integer> nameIndex) {
+            this.objectList = objectList;
+            this.nameIndex = nameIndex;
+        }
+    }
+
+    private final AtomicReference<CacheSnapshot<OBJECT>> snapshot = new AtomicReference<>(new CacheSnapshot<>(null, null));
     protected volatile boolean fullCache = false;
     protected volatile boolean caseSensitive = true;
 
     private Comparator<OBJECT> listOrderComparator;
-    // Use this monitor to void entire cache object locking
+    // Use this monitor to void entire cache object locking. Only writers use it.
     private final Object cacheSync = new Object();
 
     protected AbstractObjectCache() {
@@ -74,9 +94,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public List<OBJECT> getCachedObjects()
     {
-        synchronized (cacheSync) {
-            return objectList == null ? Collections.<OBJECT>emptyList() : objectList;
-        }
+        List<OBJECT> objectList = snapshot.get().objectList;
+        return objectList == null ? Collections.<OBJECT>emptyList() : objectList;
     }
 
     public <SUB_TYPE> List<SUB_TYPE> getTypedObjects(DBRProgressMonitor monitor, OWNER owner, Class<SUB_TYPE> type)
@@ -95,31 +114,26 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public OBJECT getCachedObject(@NotNull String name)
     {
-        synchronized (cacheSync) {
-            return objectList == null || name == null ? null : getObjectMap().get(caseSensitive ? name : name.toUpperCase());
-        }
+        CacheSnapshot<OBJECT> cache = snapshot.get();
+        return cache.objectList == null || name == null ? null : findObject(cache, caseSensitive ? name : name.toUpperCase());
     }
 
     public int getCacheSize() {
-        synchronized (cacheSync) {
-            return objectList == null ? 0 : objectList.size();
-        }
+        List<OBJECT> objectList = snapshot.get().objectList;
+        return objectList == null ? 0 : objectList.size();
     }
 
     @Override
     public void cacheObject(@NotNull OBJECT object)
     {
         synchronized (cacheSync) {
-            if (this.objectList == null) {
-                this.objectList = new ArrayList<>();
-            }
+            CacheSnapshot<OBJECT> cache = snapshot.get();
+            CacheObjectList<OBJECT> objectList = cache.objectList == null ? CacheObjectList.empty() : cache.objectList;
             detectCaseSensitivity(object);
-            this.objectList.add(object);
-            if (this.objectMap != null) {
-                String name = getObjectName(object);
-                checkDuplicateName(name, object);
-                this.objectMap.put(name, object);
+            if (cache.nameIndex != null) {
+                addToIndex(cache.nameIndex, object, objectList.size());
             }
+            snapshot.set(new CacheSnapshot<>(objectList.append(object), cache.nameIndex));
         }
     }
 
@@ -127,12 +141,10 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void removeObject(@NotNull OBJECT object, boolean resetFullCache)
     {
         synchronized (cacheSync) {
-            if (this.objectList != null) {
+            CacheSnapshot<OBJECT> cache = snapshot.get();
+            if (cache.objectList != null) {
                 detectCaseSensitivity(object);
-                this.objectList.remove(object);
-                if (this.objectMap != null) {
-                    this.objectMap.remove(getObjectName(object));
-                }
+                removeCachedObject(cache, object);
             }
             if (resetFullCache) {
                 fullCache = false;
@@ -143,13 +155,19 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public void renameObject(@NotNull OBJECT object, @NotNull String oldName, @NotNull String newName) {
         synchronized (cacheSync) {
-            if (this.objectMap != null) {
+            CacheSnapshot<OBJECT> cache = snapshot.get();
+            if (cache.nameIndex != null) {
                 if (!caseSensitive) {
                     oldName = oldName.toUpperCase(Locale.ENGLISH);
                     newName = newName.toUpperCase(Locale.ENGLISH);
                 }
-                if (this.objectMap.remove(oldName) == object) {
-                    this.objectMap.put(newName, object);
+                Integer index = cache.nameIndex.get(oldName);
+                if (index != null && cache.objectList.get(index) == object) {
+                    // Older snapshots still use the old name
+                    Map<String, Integer> nameIndex = new ConcurrentHashMap<>(cache.nameIndex);
+                    nameIndex.remove(oldName);
+                    nameIndex.put(newName, index);
+                    snapshot.set(new CacheSnapshot<>(cache.objectList, nameIndex));
                 }
             }
         }
@@ -172,8 +190,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void clearCache()
     {
         synchronized (cacheSync) {
-            this.objectList = null;
-            this.objectMap = null;
+            snapshot.set(new CacheSnapshot<>(null, null));
             this.fullCache = false;
         }
     }
@@ -181,8 +198,7 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void setCache(List<OBJECT> objects)
     {
         synchronized (cacheSync) {
-            this.objectList = objects;
-            this.objectMap = null;
+            snapshot.set(new CacheSnapshot<>(CacheObjectList.copyOf(objects), null));
             this.fullCache = true;
         }
     }
@@ -204,49 +220,90 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     protected void mergeCache(List<OBJECT> objects)
     {
         synchronized (cacheSync) {
-            if (this.objectList != null) {
+            List<OBJECT> objectList = snapshot.get().objectList;
+            if (objectList != null) {
                 // Merge lists
+                Map<String, OBJECT> oldObjects = new HashMap<>(objectList.size());
+                for (OBJECT oldObject : objectList) {
+                    // First object with the same name wins
+                    oldObjects.putIfAbsent(getObjectName(oldObject), oldObject);
+                }
                 objects = new ArrayList<>(objects);
                 for (int i = 0; i < objects.size(); i++) {
-                    OBJECT newObject = objects.get(i);
-                    String newObjectName = getObjectName(newObject);
-                    for (int k = 0; k < objectList.size(); k++) {
-                        OBJECT oldObject = objectList.get(k);
-                        String oldObjectName = getObjectName(oldObject);
-                        if (newObjectName.equals(oldObjectName)) {
-                            objects.set(i, oldObject);
-                            break;
-                        }
+                    OBJECT oldObject = oldObjects.get(getObjectName(objects.get(i)));
+                    if (oldObject != null) {
+                        objects.set(i, oldObject);
                     }
                 }
             }
+            setCache(objects);
         }
-        setCache(objects);
     }
 
-    private Map<String, OBJECT> getObjectMap()
+    /**
+     * Finds object by name in the snapshot. Builds name index if necessary.
+     */
+    private OBJECT findObject(CacheSnapshot<OBJECT> cache, String name)
     {
-        synchronized (cacheSync) {
-            if (this.objectMap == null) {
-                this.objectMap = new HashMap<>();
-                if (objectList.size() > 0) {
-                    detectCaseSensitivity(objectList.get(0));
-                }
-
-                for (OBJECT object : objectList) {
-                    String name = getObjectName(object);
-                    checkDuplicateName(name, object);
-                    this.objectMap.put(name, object);
-                }
+        Integer index = getNameIndex(cache).get(name);
+        if (index == null) {
+            return null;
+        }
+        if (index < cache.objectList.size()) {
+            return cache.objectList.get(index);
+        }
+        // Name was added to the shared index after this snapshot. Search for an older object with the same name.
+        OBJECT result = null;
+        for (OBJECT object : cache.objectList) {
+            if (name.equals(getObjectName(object))) {
+                result = object;
             }
-            return this.objectMap;
         }
+        return result;
+    }
+
+    /**
+     * Returns name index of the snapshot. Builds it if necessary.
+     * Built index is published without locking: if the cache was changed meanwhile the index is just used once.
+     */
+    private Map<String, Integer> getNameIndex(CacheSnapshot<OBJECT> cache)
+    {
+        if (cache.nameIndex != null) {
+            return cache.nameIndex;
+        }
+        Map<String, Integer> nameIndex = new ConcurrentHashMap<>();
+        if (cache.objectList.size() > 0) {
+            detectCaseSensitivity(cache.objectList.get(0));
+        }
+
+        for (int i = 0; i < cache.objectList.size(); i++) {
+            addToIndex(nameIndex, cache.objectList.get(i), i);
+        }
+        snapshot.compareAndSet(cache, new CacheSnapshot<>(cache.objectList, nameIndex));
+        return nameIndex;
     }
 
-    private void checkDuplicateName(String name, OBJECT object) {
-        if (this.objectMap.containsKey(name)) {
+    private void addToIndex(Map<String, Integer> nameIndex, OBJECT object, int index) {
+        String name = getObjectName(object);
+        if (name == null) {
+            return;
+        }
+        if (nameIndex.containsKey(name)) {
             log.debug("Duplicate object name '" + name + "' in cache " + this.getClass().getSimpleName() + ". Last value: " + DBUtils.getObjectFullName(object, DBPEvaluationContext.DDL));
         }
+        nameIndex.put(name, index);
+    }
+
+    /**
+     * Publishes new snapshot without specified object. Must be called under cache monitor.
+     * Positions of the following objects change so name index is rebuilt on next lookup.
+     */
+    private void removeCachedObject(CacheSnapshot<OBJECT> cache, OBJECT object) {
+        List<OBJECT> objectList = new ArrayList<>(cache.objectList);
+        if (!objectList.remove(object)) {
+            return;
+        }
+        snapshot.set(new CacheSnapshot<>(CacheObjectList.copyOf(objectList), null));
     }
 
     protected void detectCaseSensitivity(DBSObject object) {
@@ -270,21 +327,21 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 
     public void clearChildrenOf(DBSObject parent) {
         synchronized (cacheSync) {
-            if (objectList == null) {
+            CacheSnapshot<OBJECT> cache = snapshot.get();
+            if (cache.objectList == null) {
                 return;
             }
-            for (int i = 0; i < objectList.size(); ) {
-                OBJECT object = objectList.get(i);
+            List<OBJECT> objectList = new ArrayList<>(cache.objectList.size());
+            for (OBJECT object : cache.objectList) {
                 if (object.getParentObject() == parent) {
-                    this.objectList.remove(object);
-                    if (this.objectMap != null) {
-                        this.objectMap.remove(getObjectName(object));
-                    }
                     fullCache = false;
                 } else {
-                    i++;
+                    objectList.add(object);
                 }
             }
+            if (objectList.size() != cache.objectList.size()) {
+                snapshot.set(new CacheSnapshot<>(CacheObjectList.copyOf(objectList), null));
+            }
         }
     }
 
@@ -354,8 +411,11 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         }
     }
 
+    /**
+     * Iterates over the current snapshot. Removed objects are removed from the cache.
+     */
     protected class CacheIterator implements Iterator<OBJECT> {
-        private Iterator<OBJECT> listIterator = objectList.iterator();
+        private Iterator<OBJECT> listIterator = getCachedObjects().iterator();
         private OBJECT curObject;
         public CacheIterator()
         {
@@ -376,9 +436,11 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         @Override
         public void remove()
         {
-            listIterator.remove();
-            if (objectMap != null) {
-                objectMap.remove(getObjectName(curObject));
+            synchronized (cacheSync) {
+                CacheSnapshot<OBJECT> cache = snapshot.get();
+                if (cache.objectList != null) {
+                    removeCachedObject(cache, curObject);
+                }
             }
         }
     }
@@ -0,0 +1,102 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct.cache;
+
+import org.jkiss.code.NotNull;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of cached objects.
+ * Lists produced by {@link #append(Object)} share storage with the source list:
+ * new element is written after the end of the source list so the source list never changes.
+ * Thus sequential appends cost amortized O(1) instead of copying the whole list.
+ */
+public final class CacheObjectList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int MIN_CAPACITY = 10;
+
+    private static final class Storage {
+        final Object[] elements;
+        // Number of elements written in storage. Guarded by storage monitor.
+        int count;
+
+        Storage(Object[] elements, int count) {
+            this.elements = elements;
+            this.count = count;
+        }
+    }
+
+    private static final CacheObjectList<?> EMPTY = new CacheObjectList<>(new Storage(new Object[0], 0), 0);
+
+    private final Storage storage;
+    private final int size;
+
+    private CacheObjectList(Storage storage, int size) {
+        this.storage = storage;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> CacheObjectList<T> empty() {
+        return (CacheObjectList<T>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> CacheObjectList<T> copyOf(@NotNull Collection<? extends T> objects) {
+        if (objects instanceof CacheObjectList) {
+            return (CacheObjectList<T>) objects;
+        }
+        Object[] elements = objects.toArray();
+        return new CacheObjectList<>(new Storage(elements, elements.length), elements.length);
+    }
+
+    /**
+     * Returns new list with the object added to the end. This list is not changed.
+     */
+    public CacheObjectList<T> append(T object) {
+        synchronized (storage) {
+            if (storage.count == size && size < storage.elements.length) {
+                // This is the longest list of the storage - reuse free space
+                storage.elements[size] = object;
+                storage.count++;
+                return new CacheObjectList<>(storage, size + 1);
+            }
+        }
+        Object[] elements = new Object[Math.max(MIN_CAPACITY, size + (size >> 1) + 1)];
+        System.arraycopy(storage.elements, 0, elements, 0, size);
+        elements[size] = object;
+        return new CacheObjectList<>(new Storage(elements, size + 1), size + 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) storage.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
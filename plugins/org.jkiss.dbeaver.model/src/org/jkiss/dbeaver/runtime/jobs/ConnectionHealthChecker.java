@@ -0,0 +1,325 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.jobs;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection health checker.
+ * Runs connection checks in a bounded worker pool, so one hung check doesn't delay others.
+ * Tracks check state and latency per connection. Check intervals are jittered to avoid check bursts.
+ */
+public class ConnectionHealthChecker {
+
+    private static final Log log = Log.getLog(ConnectionHealthChecker.class);
+
+    // Weight of the last check in average latency
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    public enum CheckResult {
+        ALIVE,
+        FAILED,
+        TIMED_OUT
+    }
+
+    /**
+     * Connection check. Throws exception if connection is broken.
+     */
+    public interface HealthCheck {
+        void checkHealth(@NotNull DBRProgressMonitor monitor) throws Exception;
+    }
+
+    /**
+     * Check result handler.
+     * Called in worker thread for finished checks and in {@link #scheduleCheck} caller thread for timed out checks.
+     * Timed out check which fails later is reported once more as FAILED. Its result doesn't change health state.
+     */
+    public interface ResultHandler {
+        void handleResult(@NotNull String id, @NotNull CheckResult result, @NotNull HealthState state, @Nullable Throwable error);
+    }
+
+    /**
+     * Connection health state
+     */
+    public static class HealthState {
+        private long nextCheckTime = -1;
+        private long lastCheckTime;
+        private long lastLatency = -1;
+        private double averageLatency = -1;
+        private long checkCount;
+        private int consecutiveFailures;
+        private CheckResult lastResult;
+
+        // Current check
+        private CheckTask currentCheck;
+
+        public synchronized long getLastCheckTime() {
+            return lastCheckTime;
+        }
+
+        /**
+         * Last check latency in ms or -1 if connection wasn't checked yet
+         */
+        public synchronized long getLastLatency() {
+            return lastLatency;
+        }
+
+        /**
+         * Average check latency in ms or -1 if connection wasn't checked yet
+         */
+        public synchronized long getAverageLatency() {
+            return Math.round(averageLatency);
+        }
+
+        public synchronized long getCheckCount() {
+            return checkCount;
+        }
+
+        /**
+         * Number of failed or timed out checks in a row
+         */
+        public synchronized int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        @Nullable
+        public synchronized CheckResult getLastResult() {
+            return lastResult;
+        }
+
+        public synchronized boolean isCheckInProgress() {
+            return currentCheck != null;
+        }
+
+        private synchronized void finishCheck(CheckResult result, long finishTime, long latency) {
+            currentCheck = null;
+            lastResult = result;
+            lastCheckTime = finishTime;
+            lastLatency = latency;
+            averageLatency = averageLatency < 0 ? latency : averageLatency * (1 - LATENCY_WEIGHT) + latency * LATENCY_WEIGHT;
+            checkCount++;
+            if (result == CheckResult.ALIVE) {
+                consecutiveFailures = 0;
+            } else {
+                consecutiveFailures++;
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            return lastResult + " (latency " + lastLatency + "ms, average " + getAverageLatency() + "ms)";
+        }
+    }
+
+    private static class CheckTask {
+        private final long startTime;
+        private Future<?> future;
+        private boolean running;
+        private volatile boolean canceled;
+
+        CheckTask(long startTime) {
+            this.startTime = startTime;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int maxWorkers;
+    private final double jitter;
+    private final Random random = new Random();
+    private final Map<String, HealthState> states = new ConcurrentHashMap<>();
+    // Timed out checks which still hold worker threads
+    private final AtomicInteger abandonedChecks = new AtomicInteger();
+
+    /**
+     * @param maxWorkers maximum number of parallel checks
+     * @param jitter     random part of check interval (0..1)
+     */
+    public ConnectionHealthChecker(int maxWorkers, double jitter) {
+        this.maxWorkers = maxWorkers;
+        this.jitter = jitter;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            maxWorkers, maxWorkers,
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, "Connection health check " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Nullable
+    public HealthState getState(@NotNull String id) {
+        return states.get(id);
+    }
+
+    /**
+     * Submits connection check if it is due. Also detects timed out checks.
+     *
+     * @param lastActivityTime time of connect (used if connection wasn't checked yet)
+     * @param immediate check now regardless of interval (e.g. after system suspend)
+     * @param interval  check interval (ms)
+     * @param timeout   check timeout (ms)
+     * @return true if check was submitted
+     */
+    public boolean scheduleCheck(
+        @NotNull String id,
+        long lastActivityTime,
+        boolean immediate,
+        long interval,
+        long timeout,
+        @NotNull HealthCheck check,
+        @NotNull ResultHandler handler)
+    {
+        final long currentTime = System.currentTimeMillis();
+        final HealthState state = states.computeIfAbsent(id, s -> new HealthState());
+        synchronized (state) {
+            final CheckTask currentCheck = state.currentCheck;
+            if (currentCheck != null) {
+                if (currentTime - currentCheck.startTime > timeout) {
+                    // Hanged check. Abandon it, so next check can be scheduled later.
+                    // Do not interrupt worker: some drivers close connection on thread interrupt.
+                    // Check sees cancel in its monitor.
+                    currentCheck.canceled = true;
+                    currentCheck.future.cancel(false);
+                    if (currentCheck.running) {
+                        adjustPoolSize(abandonedChecks.incrementAndGet());
+                    }
+                    state.finishCheck(CheckResult.TIMED_OUT, currentTime, currentTime - currentCheck.startTime);
+                    state.nextCheckTime = currentTime + jitteredInterval(interval);
+                } else {
+                    // Still in progress
+                    return false;
+                }
+            } else {
+                if (immediate) {
+                    state.nextCheckTime = currentTime;
+                } else if (state.nextCheckTime < 0) {
+                    state.nextCheckTime = lastActivityTime + jitteredInterval(interval);
+                }
+                if (currentTime < state.nextCheckTime) {
+                    return false;
+                }
+                if (executor.getQueue().size() >= maxWorkers) {
+                    // Rate limit. Too many checks are waiting for workers - check it next time.
+                    return false;
+                }
+                final CheckTask task = new CheckTask(currentTime);
+                state.currentCheck = task;
+                task.future = executor.submit(() -> runCheck(id, state, task, interval, check, handler));
+                return true;
+            }
+        }
+        // Notify outside of state lock
+        handler.handleResult(id, CheckResult.TIMED_OUT, state, null);
+        return false;
+    }
+
+    /**
+     * Removes state of connections which are not in the specified set (e.g. disconnected)
+     */
+    public void retainConnections(@NotNull Set<String> ids) {
+        states.entrySet().removeIf(entry -> !ids.contains(entry.getKey()) && !entry.getValue().isCheckInProgress());
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+        states.clear();
+    }
+
+    private void runCheck(String id, HealthState state, CheckTask task, long interval, HealthCheck check, ResultHandler handler) {
+        synchronized (state) {
+            if (task.canceled) {
+                return;
+            }
+            task.running = true;
+        }
+        final long startTime = System.nanoTime();
+        CheckResult result;
+        Throwable error = null;
+        try {
+            check.checkHealth(new VoidProgressMonitor() {
+                @Override
+                public boolean isCanceled() {
+                    return task.canceled;
+                }
+            });
+            result = CheckResult.ALIVE;
+        } catch (Throwable e) {
+            result = CheckResult.FAILED;
+            error = e;
+        }
+        final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        synchronized (state) {
+            if (task.canceled) {
+                // Timed out and already reported
+                adjustPoolSize(abandonedChecks.decrementAndGet());
+                if (result == CheckResult.ALIVE) {
+                    return;
+                }
+            } else {
+                final long finishTime = System.currentTimeMillis();
+                state.finishCheck(result, finishTime, latency);
+                state.nextCheckTime = finishTime + jitteredInterval(interval);
+            }
+        }
+        // Late failure of timed out check is still reported: it is the only error of a silently dropped connection
+        try {
+            handler.handleResult(id, result, state, error);
+        } catch (Throwable e) {
+            log.debug("Error handling connection check result", e);
+        }
+    }
+
+    /**
+     * Abandoned checks hold worker threads. Add extra workers (up to pool size) so they don't block other checks.
+     */
+    private void adjustPoolSize(int abandoned) {
+        synchronized (executor) {
+            int poolSize = maxWorkers + Math.min(Math.max(abandoned, 0), maxWorkers);
+            if (poolSize > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(poolSize);
+                executor.setCorePoolSize(poolSize);
+            } else {
+                executor.setCorePoolSize(poolSize);
+                executor.setMaximumPoolSize(poolSize);
+            }
+        }
+    }
+
+    private long jitteredInterval(long interval) {
+        if (jitter <= 0) {
+            return interval;
+        }
+        double factor;
+        synchronized (random) {
+            factor = 1 + jitter * (random.nextDouble() * 2 - 1);
+        }
+        return Math.round(interval * factor);
+    }
+
+}
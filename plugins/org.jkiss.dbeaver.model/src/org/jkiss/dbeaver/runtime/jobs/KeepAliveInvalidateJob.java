@@ -18,27 +18,24 @@ package org.jkiss.dbeaver.runtime.jobs;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
-import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
-import org.jkiss.dbeaver.model.struct.DBSInstance;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 
 import java.util.List;
 
 /**
- * KeepAlivePingJob
+ * Invalidates connection after failed keep-alive check
  */
-class KeepAlivePingJob extends AbstractJob {
-    private static final Log log = Log.getLog(KeepAlivePingJob.class);
+class KeepAliveInvalidateJob extends AbstractJob {
+    private static final Log log = Log.getLog(KeepAliveInvalidateJob.class);
 
     private final DBPDataSource dataSource;
 
-    KeepAlivePingJob(DBPDataSource dataSource) {
-        super("Connection ping (" + dataSource.getContainer().getName() + ")");
+    KeepAliveInvalidateJob(DBPDataSource dataSource) {
+        super("Connection invalidate (" + dataSource.getContainer().getName() + ")");
         setUser(false);
         setSystem(true);
         this.dataSource = dataSource;
@@ -46,26 +43,15 @@ class KeepAlivePingJob extends AbstractJob {
 
     @Override
     protected IStatus run(DBRProgressMonitor monitor) {
-        for (final DBSInstance instance : dataSource.getAvailableInstances()) {
-            for (final DBCExecutionContext context : instance.getAllContexts()) {
-                try {
-                    context.checkContextAlive(monitor);
-                } catch (Exception e) {
-                    log.debug("Context [" + dataSource.getName() + "::" + context.getContextName() + "] check failed: " + e.getMessage());
-                    // Invalidate. Do not log errors (as it can spam tons of logs)
-                    if (e instanceof DBException) {
-                        final List<InvalidateJob.ContextInvalidateResult> results = InvalidateJob.invalidateDataSource(
-                            monitor,
-                            dataSource,
-                            false,
-                            false,
-                            () -> DBWorkbench.getPlatformUI().openConnectionEditor(dataSource.getContainer()));
-                        if (isSuccess(results)) {
-                            log.debug("Connection invalidated: " + results);
-                        }
-                    }
-                }
-            }
+        // Invalidate. Do not log errors (as it can spam tons of logs)
+        final List<InvalidateJob.ContextInvalidateResult> results = InvalidateJob.invalidateDataSource(
+            monitor,
+            dataSource,
+            false,
+            false,
+            () -> DBWorkbench.getPlatformUI().openConnectionEditor(dataSource.getContainer()));
+        if (isSuccess(results)) {
+            log.debug("Connection invalidated: " + results);
         }
         return Status.OK_STATUS;
     }
@@ -20,17 +20,22 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.app.DBPDataSourceRegistry;
 import org.jkiss.dbeaver.model.app.DBPPlatform;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.app.DBPWorkspace;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * KeepAliveListenerJob
@@ -39,12 +44,16 @@ public class KeepAliveListenerJob extends AbstractJob
 {
     private static final int MONITOR_INTERVAL = 3000; // once per 3 seconds
     private static final long SYSTEM_SUSPEND_INTERVAL = 30000; // 30 seconds of inactivity - most likely a system suspend
+    private static final int MAX_CHECK_WORKERS = 8;
+    private static final double CHECK_INTERVAL_JITTER = 0.1; // +-10% of keep-alive interval
+    private static final long CHECK_TIMEOUT_MARGIN = 2000; // Same margin as in JDBCUtils.isConnectionAlive
+    private static final int MAX_TIMED_OUT_CHECKS = 3; // Invalidate connection after this number of timed out checks in a row
 
     private static final Log log = Log.getLog(KeepAliveListenerJob.class);
 
     private final DBPPlatform platform;
-    private Map<String, Long> checkCache = new HashMap<>();
-    private final Set<String> pingCache = new HashSet<>();
+    private final ConnectionHealthChecker healthChecker = new ConnectionHealthChecker(MAX_CHECK_WORKERS, CHECK_INTERVAL_JITTER);
+    private final Set<String> invalidateCache = ConcurrentHashMap.newKeySet();
     private long lastPingTime = -1;
 
     public KeepAliveListenerJob(DBPPlatform platform)
@@ -59,81 +68,137 @@ public class KeepAliveListenerJob extends AbstractJob
     protected IStatus run(DBRProgressMonitor monitor)
     {
         if (platform.isShuttingDown()) {
+            healthChecker.dispose();
             return Status.OK_STATUS;
         }
+        boolean systemSuspended = false;
         if (lastPingTime > 0 && System.currentTimeMillis() - lastPingTime > SYSTEM_SUSPEND_INTERVAL) {
-            log.debug("System suspend detected! Reinitialize all remote connections.");
+            log.debug("System suspend detected! Check all remote connections.");
+            systemSuspended = true;
         }
         lastPingTime = System.currentTimeMillis();
 
+        final Set<String> connectedIds = new HashSet<>();
         final DBPWorkspace workspace = platform.getWorkspace();
         for (DBPProject project : workspace.getProjects()) {
             if (project.isOpen() && project.isRegistryLoaded()) {
                 DBPDataSourceRegistry dataSourceRegistry = project.getDataSourceRegistry();
                 for (DBPDataSourceContainer ds : dataSourceRegistry.getDataSources()) {
-                    checkDataSourceAlive(ds);
+                    if (ds.isConnected()) {
+                        connectedIds.add(ds.getId());
+                        checkDataSourceAlive(ds, systemSuspended);
+                    }
                 }
             }
         }
+        healthChecker.retainConnections(connectedIds);
         if (!platform.isShuttingDown()) {
             scheduleMonitor();
+        } else {
+            healthChecker.dispose();
         }
         return Status.OK_STATUS;
     }
 
-    private void checkDataSourceAlive(final DBPDataSourceContainer dataSourceDescriptor) {
-        if (!dataSourceDescriptor.isConnected()) {
-            return;
-        }
+    /**
+     * Returns health state of connection or null if connection wasn't checked yet
+     */
+    public ConnectionHealthChecker.HealthState getHealthState(DBPDataSourceContainer dataSourceContainer) {
+        return healthChecker.getState(dataSourceContainer.getId());
+    }
+
+    private void checkDataSourceAlive(final DBPDataSourceContainer dataSourceDescriptor, boolean systemSuspended) {
         final int keepAliveInterval = dataSourceDescriptor.getConnectionConfiguration().getKeepAliveInterval();
-        if (keepAliveInterval <= 0) {
+        if (keepAliveInterval <= 0 && !systemSuspended) {
             return;
         }
         final String dsId = dataSourceDescriptor.getId();
-        synchronized (this) {
-            if (pingCache.contains(dsId)) {
-                // Ping is still in progress. Hanged?
-                // Anyway - just skip it
-                return;
-            }
+        if (invalidateCache.contains(dsId)) {
+            // Invalidate is in progress
+            return;
         }
         final DBPDataSource dataSource = dataSourceDescriptor.getDataSource();
         if (dataSource == null) {
             return;
         }
-        Long lastCheckTime;
-        synchronized (this) {
-            lastCheckTime = checkCache.get(dsId);
-        }
-        if (lastCheckTime == null) {
-            final Date connectTime = dataSourceDescriptor.getConnectTime();
-            if (connectTime != null) {
-                lastCheckTime = connectTime.getTime();
-            }
-        }
-        if (lastCheckTime == null) {
+        final Date connectTime = dataSourceDescriptor.getConnectTime();
+        if (connectTime == null) {
             log.debug("Can't determine last check time for " + dsId);
             return;
         }
-        long curTime = System.currentTimeMillis();
-        if ((curTime - lastCheckTime) / 1000 > keepAliveInterval) {
-            final KeepAlivePingJob pingJob = new KeepAlivePingJob(dataSource);
-            pingJob.addJobChangeListener(new JobChangeAdapter() {
-                @Override
-                public void done(IJobChangeEvent event) {
-                    synchronized (KeepAliveListenerJob.this) {
-                        checkCache.put(dsId, System.currentTimeMillis());
-                        pingCache.remove(dsId);
-                    }
+        // Validation timeout is per context and contexts are checked one by one
+        long contextTimeout = dataSourceDescriptor.getPreferenceStore().getInt(ModelPreferences.CONNECTION_VALIDATION_TIMEOUT);
+        if (contextTimeout <= 0) {
+            contextTimeout = SYSTEM_SUSPEND_INTERVAL;
+        }
+        int contextCount = 0;
+        for (DBSInstance instance : dataSource.getAvailableInstances()) {
+            contextCount += instance.getAllContexts().length;
+        }
+        final long checkTimeout = contextTimeout * Math.max(contextCount, 1) + CHECK_TIMEOUT_MARGIN;
+        healthChecker.scheduleCheck(
+            dsId,
+            connectTime.getTime(),
+            systemSuspended,
+            keepAliveInterval > 0 ? keepAliveInterval * 1000L : SYSTEM_SUSPEND_INTERVAL,
+            checkTimeout,
+            monitor -> pingDataSource(monitor, dataSource),
+            (id, result, state, error) -> handleCheckResult(dataSource, result, state, error));
+    }
+
+    private static void pingDataSource(DBRProgressMonitor monitor, DBPDataSource dataSource) throws DBException {
+        for (final DBSInstance instance : dataSource.getAvailableInstances()) {
+            for (final DBCExecutionContext context : instance.getAllContexts()) {
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                try {
+                    context.checkContextAlive(monitor);
+                } catch (DBException e) {
+                    log.debug("Context [" + dataSource.getName() + "::" + context.getContextName() + "] check failed: " + e.getMessage());
+                    throw e;
+                } catch (Exception e) {
+                    // Not a connection error
+                    log.debug("Context [" + dataSource.getName() + "::" + context.getContextName() + "] check error: " + e.getMessage());
                 }
-            });
-            synchronized (this) {
-                pingCache.add(dsId);
             }
-            pingJob.schedule();
         }
     }
 
+    private void handleCheckResult(DBPDataSource dataSource, ConnectionHealthChecker.CheckResult result, ConnectionHealthChecker.HealthState state, Throwable error) {
+        switch (result) {
+            case FAILED:
+                if (error instanceof DBException) {
+                    invalidateDataSource(dataSource);
+                }
+                break;
+            case TIMED_OUT:
+                // Single timeout may be just a slow server. Timed out check still reports its late failure.
+                log.debug("Connection [" + dataSource.getName() + "] check timed out: " + state);
+                if (state.getConsecutiveFailures() >= MAX_TIMED_OUT_CHECKS) {
+                    invalidateDataSource(dataSource);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void invalidateDataSource(DBPDataSource dataSource) {
+        final String dsId = dataSource.getContainer().getId();
+        if (!invalidateCache.add(dsId)) {
+            return;
+        }
+        final KeepAliveInvalidateJob invalidateJob = new KeepAliveInvalidateJob(dataSource);
+        invalidateJob.addJobChangeListener(new JobChangeAdapter() {
+            @Override
+            public void done(IJobChangeEvent event) {
+                invalidateCache.remove(dsId);
+            }
+        });
+        invalidateJob.schedule();
+    }
+
     public void scheduleMonitor() {
         schedule(MONITOR_INTERVAL);
     }
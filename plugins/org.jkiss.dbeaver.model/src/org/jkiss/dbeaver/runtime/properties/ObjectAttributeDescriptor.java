@@ -52,6 +52,7 @@ public abstract class ObjectAttributeDescriptor {
     private int orderNumber;
     private String id;
     private Method getter;
+    private volatile ObjectPropertyAccessor accessor;
     private boolean isLazy;
     private IPropertyCacheValidator cacheValidator;
     private Class<?> declaringClass;
@@ -119,6 +120,18 @@ public abstract class ObjectAttributeDescriptor {
         return getter;
     }
 
+    /**
+     * Getter accessor. Faster than direct getter invocation thru reflection.
+     */
+    public ObjectPropertyAccessor getAccessor()
+    {
+        ObjectPropertyAccessor result = accessor;
+        if (result == null) {
+            result = accessor = ObjectPropertyRegistry.getAccessor(getter);
+        }
+        return result;
+    }
+
     public boolean isNameProperty() {
         return id.equals(DBConstants.PROP_ID_NAME) || orderNumber == 1;
     }
@@ -200,9 +213,9 @@ public abstract class ObjectAttributeDescriptor {
         @Nullable String locale)
     {
         Object object = source == null ? null : source.getEditableValue();
-        Method[] methods = theClass.getMethods();
         Map<String, Method> passedNames = new HashMap<>();
-        for (Method method : methods) {
+        for (ObjectPropertyRegistry.PropertyMethod propertyMethod : ObjectPropertyRegistry.getPropertyMethods(theClass)) {
+            final Method method = propertyMethod.getMethod();
             String methodFullName = method.getDeclaringClass().getName() + "." + method.getName();
             final Method prevMethod = passedNames.get(methodFullName);
             if (prevMethod != null) {
@@ -214,13 +227,13 @@ public abstract class ObjectAttributeDescriptor {
                 }
                 // Let it another chance. New return types seems to be subclass of previous
             }
-            final PropertyGroup propGroupInfo = method.getAnnotation(PropertyGroup.class);
+            final PropertyGroup propGroupInfo = propertyMethod.getGroupInfo();
             if (propGroupInfo != null && method.getReturnType() != null) {
                 // Property group
                 ObjectPropertyGroupDescriptor groupDescriptor = new ObjectPropertyGroupDescriptor(source, parent, method, propGroupInfo, filter, locale);
                 annoProps.addAll(groupDescriptor.getChildren());
             } else {
-                final Property propInfo = method.getAnnotation(Property.class);
+                final Property propInfo = propertyMethod.getPropertyInfo();
                 if (propInfo == null || !BeanUtils.isGetterName(method.getName()) || method.getReturnType() == null) {
                     continue;
                 }
@@ -0,0 +1,155 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.properties;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.lang.invoke.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Property getter accessor.
+ * Reads property values through a generated lambda (LambdaMetafactory) instead of Method.invoke.
+ * Falls back to reflection if accessor can't be generated (e.g. on Java 8 where private lookup
+ * in foreign classes is not available). Accessor linkage is checked by lambda metafactory when accessor is generated,
+ * so all errors thrown by generated accessor come from the getter itself.
+ * Instances are cached by {@link ObjectPropertyRegistry}.
+ */
+public final class ObjectPropertyAccessor {
+
+    private static final Log log = Log.getLog(ObjectPropertyAccessor.class);
+
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType BI_FUNCTION_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final Method PRIVATE_LOOKUP_METHOD;
+
+    static {
+        Method privateLookupIn = null;
+        try {
+            // Java 9+
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            // Java 8. Use reflection
+        }
+        PRIVATE_LOOKUP_METHOD = privateLookupIn;
+    }
+
+    @NotNull
+    private final Method method;
+    private final Class<?> declaringClass;
+    private final int paramCount;
+    private final boolean monitorParam;
+    @Nullable
+    private final Function<Object, Object> function;
+    @Nullable
+    private final BiFunction<Object, Object, Object> monitorFunction;
+
+    ObjectPropertyAccessor(@NotNull Method method) {
+        this.method = method;
+        this.declaringClass = method.getDeclaringClass();
+        this.paramCount = method.getParameterCount();
+        this.monitorParam = paramCount > 0 && method.getParameterTypes()[0] == DBRProgressMonitor.class;
+        Function<Object, Object> function = null;
+        BiFunction<Object, Object, Object> monitorFunction = null;
+        if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != Void.TYPE) {
+            if (paramCount == 0) {
+                function = generateAccessor(Function.class, FUNCTION_TYPE);
+            } else if (paramCount == 1 && monitorParam) {
+                monitorFunction = generateAccessor(BiFunction.class, BI_FUNCTION_TYPE);
+            }
+        }
+        this.function = function;
+        this.monitorFunction = monitorFunction;
+    }
+
+    @NotNull
+    public Method getMethod() {
+        return method;
+    }
+
+    public boolean isGenerated() {
+        return function != null || monitorFunction != null;
+    }
+
+    /**
+     * Reads property value. Semantics are the same as for Method.invoke: exceptions thrown by getter
+     * are wrapped in InvocationTargetException.
+     * @param monitor passed to getter if its first parameter is a progress monitor
+     */
+    public Object read(@NotNull Object object, @Nullable DBRProgressMonitor monitor)
+        throws IllegalAccessException, InvocationTargetException
+    {
+        if (function != null || monitorFunction != null) {
+            if (!declaringClass.isInstance(object)) {
+                if (object == null) {
+                    throw new NullPointerException("Null object passed to property getter " + method.getName());
+                }
+                throw new IllegalArgumentException("Object of class " + object.getClass().getName() + " is not an instance of " + declaringClass.getName());
+            }
+            try {
+                return function != null ? function.apply(object) : monitorFunction.apply(object, monitor);
+            } catch (Throwable e) {
+                // Linkage errors too: getter may call missing or changed classes
+                throw new InvocationTargetException(e);
+            }
+        }
+        Object[] params = null;
+        if (paramCount > 0) {
+            params = new Object[paramCount];
+            if (monitorParam) {
+                params[0] = monitor;
+            }
+        }
+        return method.invoke(object, params);
+    }
+
+    @Nullable
+    private <T> T generateAccessor(Class<T> functionType, MethodType samType) {
+        if (PRIVATE_LOOKUP_METHOD == null) {
+            return null;
+        }
+        try {
+            // Lambda must be defined in getter class loader.
+            // Otherwise it won't be able to see classes from other bundles.
+            MethodHandles.Lookup lookup = (MethodHandles.Lookup) PRIVATE_LOOKUP_METHOD.invoke(null, declaringClass, MethodHandles.lookup());
+            MethodHandle getterHandle = lookup.unreflect(method);
+            CallSite callSite = LambdaMetafactory.metafactory(
+                lookup,
+                "apply",
+                MethodType.methodType(functionType),
+                samType,
+                getterHandle,
+                getterHandle.type().wrap());
+            return functionType.cast(callSite.getTarget().invoke());
+        } catch (Throwable e) {
+            log.debug("Can't generate property accessor for " + method + ", fallback to reflection: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return method.toString();
+    }
+}
@@ -74,15 +74,7 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
 
         final String propertyName = BeanUtils.getPropertyNameFromGetter(getter.getName());
         declaringClass = getter.getDeclaringClass();
-        Class<?> c = declaringClass;
-        while (setter == null && c != Object.class && c != null) {
-            this.setter = BeanUtils.getSetMethod(
-                c,
-                propertyName);
-            if (setter == null) {
-                c = c.getSuperclass();
-            }
-        }
+        this.setter = ObjectPropertyRegistry.getPropertySetter(declaringClass, propertyName);
 
         // Obtain value transformer
         Class<? extends IPropertyValueTransformer> valueTransformerClass = propInfo.valueTransformer();
@@ -366,16 +358,13 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
                 return null;
             }
         }
-        Method getter = getGetter();
-        Object[] params = getter.getParameterCount() > 0 ?
-            new Object[getter.getParameterCount()] : null;
+        final ObjectPropertyAccessor accessor = getAccessor();
 
-        if (isLazy() && params != null) {
+        if (isLazy()) {
             // Lazy (probably cached)
             if (isLazy(object, true) && progressMonitor == null && !supportsPreview()) {
                 throw new IllegalAccessException("Lazy property can't be read with null progress monitor");
             }
-            params[0] = progressMonitor;
         }
         if (progressMonitor != null && isLazy() && object instanceof DBSObject) {
             Object finalObject = object;
@@ -383,7 +372,7 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
             try {
                 DBExecUtils.tryExecuteRecover(progressMonitor, ((DBSObject) object).getDataSource(), param -> {
                     try {
-                        finalResult[0] = getter.invoke(finalObject, params);
+                        finalResult[0] = accessor.read(finalObject, progressMonitor);
                     } catch (Exception e) {
                         throw new InvocationTargetException(e);
                     }
@@ -393,7 +382,7 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
             }
             value = finalResult[0];
         } else {
-            value = getter.invoke(object, params);
+            value = accessor.read(object, progressMonitor);
         }
 
         if (formatValue) {
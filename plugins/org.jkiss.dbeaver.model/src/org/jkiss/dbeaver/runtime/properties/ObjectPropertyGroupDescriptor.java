@@ -75,10 +75,6 @@ public class ObjectPropertyGroupDescriptor extends ObjectAttributeDescriptor
                 throw new IllegalAccessException("Can't read lazy properties with null progress monitor");
             }
         }
-        if (isLazy()) {
-            return getGetter().invoke(object, progressMonitor);
-        } else {
-            return getGetter().invoke(object);
-        }
+        return getAccessor().read(object, progressMonitor);
     }
 }
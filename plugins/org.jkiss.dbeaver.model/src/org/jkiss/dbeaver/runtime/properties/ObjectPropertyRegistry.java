@@ -0,0 +1,157 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.properties;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.meta.Property;
+import org.jkiss.dbeaver.model.meta.PropertyGroup;
+import org.jkiss.utils.BeanUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-class property metadata registry.
+ * Each class is introspected only once: annotated getters, setters and generated accessors are cached.
+ * Metadata is bound to classes with ClassValue so it doesn't prevent plugin classes unloading.
+ */
+public final class ObjectPropertyRegistry {
+
+    /**
+     * Annotated property (or property group) getter
+     */
+    public static final class PropertyMethod {
+        @NotNull
+        private final Method method;
+        @Nullable
+        private final Property propertyInfo;
+        @Nullable
+        private final PropertyGroup groupInfo;
+
+        PropertyMethod(@NotNull Method method, @Nullable Property propertyInfo, @Nullable PropertyGroup groupInfo) {
+            this.method = method;
+            this.propertyInfo = propertyInfo;
+            this.groupInfo = groupInfo;
+        }
+
+        @NotNull
+        public Method getMethod() {
+            return method;
+        }
+
+        @Nullable
+        public Property getPropertyInfo() {
+            return propertyInfo;
+        }
+
+        @Nullable
+        public PropertyGroup getGroupInfo() {
+            return groupInfo;
+        }
+
+        @Override
+        public String toString() {
+            return method.toString();
+        }
+    }
+
+    private static class ClassInfo {
+        private final Class<?> theClass;
+        private volatile List<PropertyMethod> propertyMethods;
+        private final Map<Method, ObjectPropertyAccessor> accessors = new ConcurrentHashMap<>();
+        private final Map<String, Optional<Method>> setters = new ConcurrentHashMap<>();
+
+        ClassInfo(Class<?> theClass) {
+            this.theClass = theClass;
+        }
+
+        List<PropertyMethod> getPropertyMethods() {
+            List<PropertyMethod> result = propertyMethods;
+            if (result == null) {
+                synchronized (this) {
+                    result = propertyMethods;
+                    if (result == null) {
+                        result = introspect(theClass);
+                        propertyMethods = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        Method getSetter(String propertyName) {
+            return setters.computeIfAbsent(propertyName, name -> {
+                Method setter = null;
+                for (Class<?> c = theClass; setter == null && c != Object.class && c != null; c = c.getSuperclass()) {
+                    setter = BeanUtils.getSetMethod(c, name);
+                }
+                return Optional.ofNullable(setter);
+            }).orElse(null);
+        }
+    }
+
+    private static final ClassValue<ClassInfo> CLASS_INFO = new ClassValue<ClassInfo>() {
+        @Override
+        protected ClassInfo computeValue(Class<?> type) {
+            return new ClassInfo(type);
+        }
+    };
+
+    private ObjectPropertyRegistry() {
+    }
+
+    /**
+     * Returns all public methods of the class annotated with {@link Property} or {@link PropertyGroup}.
+     * Methods are returned in the same order as {@link Class#getMethods()}.
+     */
+    @NotNull
+    public static List<PropertyMethod> getPropertyMethods(@NotNull Class<?> theClass) {
+        return CLASS_INFO.get(theClass).getPropertyMethods();
+    }
+
+    /**
+     * Returns setter for the property. Searches in declaring class and its superclasses.
+     */
+    @Nullable
+    public static Method getPropertySetter(@NotNull Class<?> declaringClass, @NotNull String propertyName) {
+        return CLASS_INFO.get(declaringClass).getSetter(propertyName);
+    }
+
+    @NotNull
+    public static ObjectPropertyAccessor getAccessor(@NotNull Method getter) {
+        return CLASS_INFO.get(getter.getDeclaringClass()).accessors.computeIfAbsent(getter, ObjectPropertyAccessor::new);
+    }
+
+    private static List<PropertyMethod> introspect(Class<?> theClass) {
+        List<PropertyMethod> result = new ArrayList<>();
+        for (Method method : theClass.getMethods()) {
+            final PropertyGroup groupInfo = method.getAnnotation(PropertyGroup.class);
+            final Property propInfo = method.getAnnotation(Property.class);
+            if (groupInfo != null || (propInfo != null && BeanUtils.isGetterName(method.getName()))) {
+                result.add(new PropertyMethod(method, propInfo, groupInfo));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+}
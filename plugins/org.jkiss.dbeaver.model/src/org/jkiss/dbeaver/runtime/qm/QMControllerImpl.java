@@ -103,6 +103,24 @@ public class QMControllerImpl implements QMController {
         return eventBrowser;
     }
 
+    /**
+     * Checks whether some browser for the whole query history was registered (by adapter or explicitly)
+     */
+    public synchronized boolean hasCustomEventBrowser() {
+        return getEventBrowser(false) != defaultEventBrowser;
+    }
+
+    /**
+     * Sets browser for the whole query history (e.g. persistent history store)
+     * @return previous browser
+     */
+    @Nullable
+    public synchronized QMEventBrowser setEventBrowser(@Nullable QMEventBrowser eventBrowser) {
+        QMEventBrowser prevBrowser = this.eventBrowser;
+        this.eventBrowser = eventBrowser;
+        return prevBrowser;
+    }
+
     @Override
     public void registerHandler(QMExecutionHandler handler) {
         synchronized (handlers) {
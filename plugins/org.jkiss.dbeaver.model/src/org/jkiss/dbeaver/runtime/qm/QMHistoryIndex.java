@@ -0,0 +1,585 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.QMObjectType;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Query history segment index.
+ * Keeps record offsets and per-record time, duration, type, purpose and data source plus
+ * inverted token index over record text. Records are identified by their ordinal in segment.
+ * Index of the active segment keeps tokens in a hash map. Index loaded from file keeps sorted vocabulary
+ * and raw posting lists which are decoded only for matched tokens.
+ */
+final class QMHistoryIndex {
+
+    private static final int INDEX_MAGIC = 0x514D4849;
+    private static final int INDEX_VERSION = 1;
+
+    // Longer tokens are not indexed (literals, encoded blobs, etc)
+    static final int MAX_TOKEN_LENGTH = 64;
+    // Longer texts are not tokenized at all
+    static final int MAX_INDEXED_TEXT_LENGTH = 64 * 1024;
+
+    private static final byte NO_PURPOSE = -1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int count;
+    private long dataSize;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+
+    private long[] offsets = new long[INITIAL_CAPACITY];
+    private long[] times = new long[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] purposes = new byte[INITIAL_CAPACITY];
+    private int[] containers = new int[INITIAL_CAPACITY];
+
+    private final List<String> containerIds = new ArrayList<>();
+    private final Map<String, Integer> containerMap = new HashMap<>();
+    // Mutable token index
+    private Map<String, Postings> tokens = new HashMap<>();
+    // Read-only token index: sorted tokens and their delta encoded posting lists
+    private String[] vocabulary;
+    private int[] postingStarts;
+    private byte[] postingData;
+    // Records which text wasn't indexed completely. They always match text search.
+    private final BitSet unindexed = new BitSet();
+
+    int getCount() {
+        return count;
+    }
+
+    long getDataSize() {
+        return dataSize;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    void add(@NotNull QMHistoryRecord record, long offset, long recordSize) {
+        if (tokens == null) {
+            makeMutable();
+        }
+        if (count == offsets.length) {
+            int newCapacity = count * 2;
+            offsets = Arrays.copyOf(offsets, newCapacity);
+            times = Arrays.copyOf(times, newCapacity);
+            durations = Arrays.copyOf(durations, newCapacity);
+            types = Arrays.copyOf(types, newCapacity);
+            purposes = Arrays.copyOf(purposes, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+        int ordinal = count;
+        long time = record.getTime();
+        offsets[ordinal] = offset;
+        times[ordinal] = time;
+        durations[ordinal] = record.getDuration();
+        types[ordinal] = record.type;
+        purposes[ordinal] = record.purpose == null ? NO_PURPOSE : (byte) record.purpose.ordinal();
+        containers[ordinal] = getContainerOrdinal(CommonUtils.notEmpty(record.containerId));
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+
+        String text = record.getText();
+        if (text != null) {
+            if (text.length() > MAX_INDEXED_TEXT_LENGTH) {
+                unindexed.set(ordinal);
+            } else if (!indexText(text.toLowerCase(), ordinal)) {
+                unindexed.set(ordinal);
+            }
+        }
+        count++;
+        dataSize = offset + recordSize;
+    }
+
+    private int getContainerOrdinal(String containerId) {
+        Integer ordinal = containerMap.get(containerId);
+        if (ordinal == null) {
+            ordinal = containerIds.size();
+            containerIds.add(containerId);
+            containerMap.put(containerId, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Adds all text tokens in the index. Returns false if some tokens were skipped.
+     */
+    private boolean indexText(String text, int ordinal) {
+        boolean complete = true;
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            if (!isTokenChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            if (i - start > MAX_TOKEN_LENGTH) {
+                complete = false;
+                continue;
+            }
+            String token = text.substring(start, i);
+            Postings postings = tokens.get(token);
+            if (postings == null) {
+                postings = new Postings();
+                tokens.put(token, postings);
+            }
+            postings.add(ordinal);
+        }
+        return complete;
+    }
+
+    static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Finds records matching the query. Text search gives a superset of matching records,
+     * exact text match must be checked by caller.
+     */
+    @NotNull
+    BitSet find(@NotNull Query query) {
+        BitSet result = new BitSet(count);
+        if (count == 0 || !query.matchesTimeRange(minTime, maxTime)) {
+            return result;
+        }
+        int containerOrdinal = -1;
+        if (query.containerId != null) {
+            Integer ordinal = containerMap.get(query.containerId);
+            if (ordinal == null) {
+                return result;
+            }
+            containerOrdinal = ordinal;
+        }
+        if (query.tokens.isEmpty()) {
+            result.set(0, count);
+        } else {
+            boolean first = true;
+            for (SearchToken searchToken : query.tokens) {
+                BitSet tokenMatches = new BitSet(count);
+                if (tokens != null) {
+                    findMutableToken(searchToken, tokenMatches);
+                } else {
+                    findToken(searchToken, tokenMatches);
+                }
+                if (first) {
+                    result = tokenMatches;
+                    first = false;
+                } else {
+                    result.and(tokenMatches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            result.or(unindexed);
+        }
+
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            if (!query.matchesType(types[i], purposes[i]) ||
+                (containerOrdinal >= 0 && containers[i] != containerOrdinal) ||
+                !query.matchesTime(times[i]) ||
+                (query.minDuration > 0 && durations[i] < query.minDuration))
+            {
+                result.clear(i);
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    long[] getOffsets(@NotNull BitSet ordinals) {
+        long[] result = new long[ordinals.cardinality()];
+        int pos = 0;
+        for (int i = ordinals.nextSetBit(0); i >= 0; i = ordinals.nextSetBit(i + 1)) {
+            result[pos++] = offsets[i];
+        }
+        return result;
+    }
+
+    private void findMutableToken(SearchToken searchToken, BitSet result) {
+        if (searchToken.mode == TokenMode.EXACT) {
+            Postings postings = tokens.get(searchToken.token);
+            if (postings != null) {
+                postings.addTo(result);
+            }
+        } else {
+            for (Map.Entry<String, Postings> entry : tokens.entrySet()) {
+                if (searchToken.matches(entry.getKey())) {
+                    entry.getValue().addTo(result);
+                }
+            }
+        }
+    }
+
+    private void findToken(SearchToken searchToken, BitSet result) {
+        switch (searchToken.mode) {
+            case EXACT:
+            case PREFIX: {
+                // Vocabulary is sorted, so tokens with the same prefix follow each other
+                int pos = Arrays.binarySearch(vocabulary, searchToken.token);
+                if (pos < 0) {
+                    if (searchToken.mode == TokenMode.EXACT) {
+                        return;
+                    }
+                    pos = -pos - 1;
+                }
+                for (int i = pos; i < vocabulary.length && searchToken.matches(vocabulary[i]); i++) {
+                    decodePostings(i, result);
+                }
+                break;
+            }
+            default:
+                for (int i = 0; i < vocabulary.length; i++) {
+                    if (searchToken.matches(vocabulary[i])) {
+                        decodePostings(i, result);
+                    }
+                }
+                break;
+        }
+    }
+
+    private void decodePostings(int tokenIndex, BitSet result) {
+        int ordinal = 0;
+        for (int pos = postingStarts[tokenIndex], end = postingStarts[tokenIndex + 1]; pos < end; ) {
+            int delta = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = postingData[pos++];
+                delta |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            ordinal += delta;
+            result.set(ordinal);
+        }
+    }
+
+    private void makeMutable() {
+        tokens = new HashMap<>(vocabulary.length * 2);
+        for (int i = 0; i < vocabulary.length; i++) {
+            BitSet ordinals = new BitSet(count);
+            decodePostings(i, ordinals);
+            Postings postings = new Postings();
+            for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+                postings.add(ordinal);
+            }
+            tokens.put(vocabulary[i], postings);
+        }
+        vocabulary = null;
+        postingStarts = null;
+        postingData = null;
+    }
+
+    /**
+     * Writes index. Per-record values are written column by column, so they can be read in bulk.
+     */
+    void write(@NotNull DataOutputStream out) throws IOException {
+        if (tokens == null) {
+            makeMutable();
+        }
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(INDEX_VERSION);
+        out.writeInt(count);
+        out.writeLong(dataSize);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(offsets[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(times[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(durations[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(containers[i]);
+        }
+        out.write(types, 0, count);
+        out.write(purposes, 0, count);
+        out.writeInt(containerIds.size());
+        for (String containerId : containerIds) {
+            writeString(out, containerId);
+        }
+        int[] unindexedOrdinals = unindexed.stream().toArray();
+        out.writeInt(unindexedOrdinals.length);
+        for (int ordinal : unindexedOrdinals) {
+            out.writeInt(ordinal);
+        }
+
+        String[] sortedTokens = tokens.keySet().toArray(new String[0]);
+        Arrays.sort(sortedTokens);
+        ByteArrayOutputStream postingBuffer = new ByteArrayOutputStream(sortedTokens.length * 4);
+        out.writeInt(sortedTokens.length);
+        for (String token : sortedTokens) {
+            writeString(out, token);
+            int start = postingBuffer.size();
+            tokens.get(token).write(postingBuffer);
+            out.writeInt(postingBuffer.size() - start);
+        }
+        out.writeInt(postingBuffer.size());
+        postingBuffer.writeTo(out);
+    }
+
+    @NotNull
+    static QMHistoryIndex read(@NotNull byte[] data) throws IOException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (buffer.getInt() != INDEX_MAGIC) {
+                throw new IOException("Bad query history index signature");
+            }
+            int version = buffer.getInt();
+            if (version != INDEX_VERSION) {
+                throw new IOException("Unsupported query history index version: " + version);
+            }
+            QMHistoryIndex index = new QMHistoryIndex();
+            int count = buffer.getInt();
+            index.dataSize = buffer.getLong();
+            index.minTime = buffer.getLong();
+            index.maxTime = buffer.getLong();
+            int capacity = Math.max(INITIAL_CAPACITY, count);
+            index.offsets = new long[capacity];
+            buffer.asLongBuffer().get(index.offsets, 0, count);
+            buffer.position(buffer.position() + count * 8);
+            index.times = new long[capacity];
+            buffer.asLongBuffer().get(index.times, 0, count);
+            buffer.position(buffer.position() + count * 8);
+            index.durations = new int[capacity];
+            buffer.asIntBuffer().get(index.durations, 0, count);
+            buffer.position(buffer.position() + count * 4);
+            index.containers = new int[capacity];
+            buffer.asIntBuffer().get(index.containers, 0, count);
+            buffer.position(buffer.position() + count * 4);
+            index.types = new byte[capacity];
+            buffer.get(index.types, 0, count);
+            index.purposes = new byte[capacity];
+            buffer.get(index.purposes, 0, count);
+            index.count = count;
+
+            int containerCount = buffer.getInt();
+            for (int i = 0; i < containerCount; i++) {
+                index.getContainerOrdinal(readString(buffer));
+            }
+            int unindexedCount = buffer.getInt();
+            for (int i = 0; i < unindexedCount; i++) {
+                index.unindexed.set(buffer.getInt());
+            }
+
+            int tokenCount = buffer.getInt();
+            index.tokens = null;
+            index.vocabulary = new String[tokenCount];
+            index.postingStarts = new int[tokenCount + 1];
+            for (int i = 0; i < tokenCount; i++) {
+                index.vocabulary[i] = readString(buffer);
+                index.postingStarts[i + 1] = index.postingStarts[i] + buffer.getInt();
+            }
+            int postingSize = buffer.getInt();
+            if (postingSize != index.postingStarts[tokenCount]) {
+                throw new IOException("Broken query history index posting lists");
+            }
+            index.postingData = new byte[postingSize];
+            buffer.get(index.postingData);
+            return index;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Broken query history index", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String str = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return str;
+    }
+
+    enum TokenMode {
+        // Search token is surrounded by other search text, so it must match the whole text token
+        EXACT,
+        // Search token starts the search string, so text token may end with it
+        SUFFIX,
+        // Search token ends the search string, so text token may start with it
+        PREFIX,
+        // Search string is a part of a single token
+        SUBSTRING
+    }
+
+    static class SearchToken {
+        final String token;
+        final TokenMode mode;
+
+        SearchToken(String token, TokenMode mode) {
+            this.token = token;
+            this.mode = mode;
+        }
+
+        boolean matches(String indexToken) {
+            switch (mode) {
+                case EXACT: return indexToken.equals(token);
+                case SUFFIX: return indexToken.endsWith(token);
+                case PREFIX: return indexToken.startsWith(token);
+                default: return indexToken.contains(token);
+            }
+        }
+    }
+
+    /**
+     * History query. Built from event criteria.
+     */
+    static class Query {
+        @Nullable
+        final String searchString;
+        final List<SearchToken> tokens = new ArrayList<>();
+        @Nullable
+        final String containerId;
+        final long startTime;
+        final long endTime;
+        final long minDuration;
+        final boolean acceptSessions;
+        final boolean acceptQueries;
+        final boolean[] acceptPurposes = new boolean[DBCExecutionPurpose.values().length];
+
+        Query(@NotNull QMEventCriteria criteria) {
+            this.searchString = CommonUtils.isEmpty(criteria.getSearchString()) ? null : criteria.getSearchString().toLowerCase();
+            this.containerId = CommonUtils.isEmpty(criteria.getContainerId()) ? null : criteria.getContainerId();
+            this.startTime = criteria.getStartTime();
+            this.endTime = criteria.getEndTime();
+            this.minDuration = criteria.getMinDuration();
+            QMObjectType[] objectTypes = criteria.getObjectTypes();
+            this.acceptSessions = objectTypes == null || ArrayUtils.contains(objectTypes, QMObjectType.session);
+            this.acceptQueries = objectTypes == null || ArrayUtils.contains(objectTypes, QMObjectType.query);
+            DBCExecutionPurpose[] queryTypes = criteria.getQueryTypes();
+            for (DBCExecutionPurpose purpose : DBCExecutionPurpose.values()) {
+                acceptPurposes[purpose.ordinal()] = queryTypes == null || ArrayUtils.contains(queryTypes, purpose);
+            }
+            if (searchString != null) {
+                parseSearchTokens(searchString);
+            }
+        }
+
+        private void parseSearchTokens(String text) {
+            int length = text.length();
+            for (int i = 0; i < length; ) {
+                if (!isTokenChar(text.charAt(i))) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                while (i < length && isTokenChar(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start > MAX_TOKEN_LENGTH) {
+                    // Such tokens are not indexed. Text will be checked directly.
+                    continue;
+                }
+                boolean atStart = start == 0, atEnd = i == length;
+                TokenMode mode = atStart ?
+                    (atEnd ? TokenMode.SUBSTRING : TokenMode.SUFFIX) :
+                    (atEnd ? TokenMode.PREFIX : TokenMode.EXACT);
+                tokens.add(new SearchToken(text.substring(start, i), mode));
+            }
+        }
+
+        boolean matchesTimeRange(long fromTime, long toTime) {
+            return (startTime <= 0 || toTime >= startTime) && (endTime <= 0 || fromTime <= endTime);
+        }
+
+        boolean matchesTime(long time) {
+            return (startTime <= 0 || time >= startTime) && (endTime <= 0 || time <= endTime);
+        }
+
+        boolean matchesType(byte type, byte purpose) {
+            if (type == QMHistoryRecord.TYPE_SESSION) {
+                return acceptSessions;
+            }
+            return acceptQueries && (purpose == NO_PURPOSE || (purpose < acceptPurposes.length && acceptPurposes[purpose]));
+        }
+
+        boolean matchesText(@Nullable String text) {
+            return searchString == null || (text != null && text.toLowerCase().contains(searchString));
+        }
+    }
+
+    /**
+     * Ascending list of record ordinals. Stored as delta encoded varints.
+     */
+    private static class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                // Token repeats in the same text
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(ordinals[i]);
+            }
+        }
+
+        void write(ByteArrayOutputStream out) {
+            int prev = 0;
+            for (int i = 0; i < size; i++) {
+                int value = ordinals[i] - prev;
+                prev = ordinals[i];
+                while ((value & ~0x7F) != 0) {
+                    out.write((value & 0x7F) | 0x80);
+                    value >>>= 7;
+                }
+                out.write(value);
+            }
+        }
+    }
+
+}
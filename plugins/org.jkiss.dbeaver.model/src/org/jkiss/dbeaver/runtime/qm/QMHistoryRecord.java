@@ -0,0 +1,233 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.meta.QMMObject;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Query history record.
+ * Flat copy of query execution or session event which can be written to history store and restored back.
+ */
+final class QMHistoryRecord {
+
+    static final byte TYPE_SESSION = 1;
+    static final byte TYPE_QUERY = 2;
+
+    byte type;
+    QMMetaEvent.Action action;
+    long openTime;
+    long closeTime;
+
+    String containerId;
+    String containerName;
+    String driverId;
+    String instanceId;
+    String contextName;
+    boolean transactional;
+
+    DBCExecutionPurpose purpose;
+    String queryString;
+    long fetchRowCount;
+    long updateRowCount;
+    int errorCode;
+    String errorMessage;
+    long fetchBeginTime;
+    long fetchEndTime;
+    boolean queryTransactional;
+
+    /**
+     * Makes history record from QM event. Returns null for events which are not kept in history.
+     */
+    @Nullable
+    static QMHistoryRecord fromEvent(@NotNull QMMetaEvent event) {
+        QMMObject object = event.getObject();
+        QMHistoryRecord record = new QMHistoryRecord();
+        if (object instanceof QMMStatementExecuteInfo) {
+            if (event.getAction() != QMMetaEvent.Action.END) {
+                return null;
+            }
+            QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) object;
+            record.type = TYPE_QUERY;
+            record.setSession(exec.getStatement().getSession());
+            record.purpose = exec.getStatement().getPurpose();
+            record.queryString = exec.getQueryString();
+            record.fetchRowCount = exec.getFetchRowCount();
+            record.updateRowCount = exec.getUpdateRowCount();
+            record.errorCode = exec.getErrorCode();
+            record.errorMessage = exec.getErrorMessage();
+            record.fetchBeginTime = exec.getFetchBeginTime();
+            record.fetchEndTime = exec.getFetchEndTime();
+            record.queryTransactional = exec.isTransactional();
+        } else if (object instanceof QMMSessionInfo) {
+            if (event.getAction() == QMMetaEvent.Action.UPDATE) {
+                return null;
+            }
+            record.type = TYPE_SESSION;
+            record.setSession((QMMSessionInfo) object);
+        } else {
+            return null;
+        }
+        record.action = event.getAction();
+        record.openTime = object.getOpenTime();
+        record.closeTime = object.getCloseTime();
+        return record;
+    }
+
+    private void setSession(QMMSessionInfo session) {
+        containerId = session.getContainerId();
+        containerName = session.getContainerName();
+        driverId = session.getDriverId();
+        instanceId = session.getInstanceId();
+        contextName = session.getContextName();
+        transactional = session.isTransactional();
+    }
+
+    /**
+     * Event time. Used for history ordering and time range search.
+     */
+    long getTime() {
+        return closeTime > 0 ? closeTime : openTime;
+    }
+
+    /**
+     * Query duration in ms (zero for non-query records)
+     */
+    int getDuration() {
+        if (type != TYPE_QUERY || closeTime <= openTime) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, closeTime - openTime);
+    }
+
+    @Nullable
+    String getText() {
+        return type == TYPE_QUERY ? queryString : containerName + " - " + contextName;
+    }
+
+    @NotNull
+    QMMetaEvent toEvent() {
+        if (type == TYPE_QUERY) {
+            QMMSessionInfo session = new QMMSessionInfo(
+                openTime, closeTime, containerId, containerName, driverId, null, instanceId, contextName, transactional);
+            QMMStatementInfo statement = new QMMStatementInfo(openTime, closeTime, session, purpose);
+            QMMStatementExecuteInfo exec = new QMMStatementExecuteInfo(
+                openTime, closeTime, statement, queryString, fetchRowCount, updateRowCount,
+                errorCode, errorMessage, fetchBeginTime, fetchEndTime, queryTransactional);
+            return new QMMetaEvent(exec, action);
+        } else {
+            QMMSessionInfo session = new QMMSessionInfo(
+                openTime, action == QMMetaEvent.Action.END ? closeTime : 0,
+                containerId, containerName, driverId, null, instanceId, contextName, transactional);
+            return new QMMetaEvent(session, action);
+        }
+    }
+
+    void write(@NotNull DataOutput out) throws IOException {
+        out.writeByte(type);
+        out.writeByte(action.getId());
+        out.writeLong(openTime);
+        out.writeLong(closeTime);
+        writeString(out, containerId);
+        writeString(out, containerName);
+        writeString(out, driverId);
+        writeString(out, instanceId);
+        writeString(out, contextName);
+        out.writeBoolean(transactional);
+        if (type == TYPE_QUERY) {
+            writeString(out, purpose == null ? null : purpose.name());
+            writeString(out, queryString);
+            out.writeLong(fetchRowCount);
+            out.writeLong(updateRowCount);
+            out.writeInt(errorCode);
+            writeString(out, errorMessage);
+            out.writeLong(fetchBeginTime);
+            out.writeLong(fetchEndTime);
+            out.writeBoolean(queryTransactional);
+        }
+    }
+
+    @NotNull
+    static QMHistoryRecord read(@NotNull DataInput in) throws IOException {
+        QMHistoryRecord record = new QMHistoryRecord();
+        record.type = in.readByte();
+        if (record.type != TYPE_QUERY && record.type != TYPE_SESSION) {
+            throw new IOException("Bad history record type: " + record.type);
+        }
+        record.action = QMMetaEvent.Action.getById(in.readByte());
+        record.openTime = in.readLong();
+        record.closeTime = in.readLong();
+        record.containerId = readString(in);
+        record.containerName = readString(in);
+        record.driverId = readString(in);
+        record.instanceId = readString(in);
+        record.contextName = readString(in);
+        record.transactional = in.readBoolean();
+        if (record.type == TYPE_QUERY) {
+            String purposeName = readString(in);
+            if (purposeName != null) {
+                try {
+                    record.purpose = DBCExecutionPurpose.valueOf(purposeName);
+                } catch (IllegalArgumentException e) {
+                    record.purpose = DBCExecutionPurpose.USER;
+                }
+            }
+            record.queryString = readString(in);
+            record.fetchRowCount = in.readLong();
+            record.updateRowCount = in.readLong();
+            record.errorCode = in.readInt();
+            record.errorMessage = readString(in);
+            record.fetchBeginTime = in.readLong();
+            record.fetchEndTime = in.readLong();
+            record.queryTransactional = in.readBoolean();
+        }
+        return record;
+    }
+
+    static void writeString(DataOutput out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+        } else {
+            // writeUTF is limited by 64k, queries may be much longer
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.utils.ContentUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Query history segment.
+ * Data file contains length-prefixed records. Records are only appended to the last (active) segment,
+ * when it reaches the size limit it is sealed and never changed after that.
+ * Segment index is kept in a separate file and is rebuilt from data if it is missing or outdated.
+ */
+final class QMHistorySegment {
+
+    private static final Log log = Log.getLog(QMHistorySegment.class);
+
+    static final String DATA_FILE_EXT = ".qmh";
+    static final String INDEX_FILE_EXT = ".qmi";
+
+    private final long id;
+    private final File dataFile;
+    private final File indexFile;
+
+    // Segment summary. Allows to skip segments without index loading.
+    private volatile int recordCount;
+    private volatile long dataSize;
+    private volatile long minTime;
+    private volatile long maxTime;
+
+    // Active segment state
+    private QMHistoryIndex activeIndex;
+    private DataOutputStream writer;
+
+    private QMHistorySegment(@NotNull File folder, long id) {
+        this.id = id;
+        String fileName = String.format("history-%010d", id);
+        this.dataFile = new File(folder, fileName + DATA_FILE_EXT);
+        this.indexFile = new File(folder, fileName + INDEX_FILE_EXT);
+    }
+
+    static long parseSegmentId(@NotNull String fileName) {
+        if (!fileName.startsWith("history-") || !fileName.endsWith(DATA_FILE_EXT)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring("history-".length(), fileName.length() - DATA_FILE_EXT.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @NotNull
+    static QMHistorySegment createSegment(@NotNull File folder, long id) throws IOException {
+        QMHistorySegment segment = new QMHistorySegment(folder, id);
+        segment.activeIndex = new QMHistoryIndex();
+        segment.updateSummary(segment.activeIndex);
+        segment.openWriter();
+        return segment;
+    }
+
+    /**
+     * Opens existing segment. Sealed segments keep only summary in memory.
+     */
+    @NotNull
+    static QMHistorySegment openSegment(@NotNull File folder, long id, boolean active) throws IOException {
+        QMHistorySegment segment = new QMHistorySegment(folder, id);
+        QMHistoryIndex index = segment.readIndex();
+        if (index == null || index.getDataSize() != segment.dataFile.length()) {
+            index = segment.rebuildIndex();
+            if (!active) {
+                segment.writeIndex(index);
+            }
+        }
+        segment.updateSummary(index);
+        if (active) {
+            segment.activeIndex = index;
+            segment.openWriter();
+        }
+        return segment;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    long getDataSize() {
+        return dataSize;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    boolean isActive() {
+        return activeIndex != null;
+    }
+
+    @NotNull
+    File getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * Active segment index. Must be accessed under store lock.
+     */
+    QMHistoryIndex getActiveIndex() {
+        return activeIndex;
+    }
+
+    void append(@NotNull List<QMHistoryRecord> records) throws IOException {
+        if (writer == null) {
+            throw new IOException("Segment " + id + " is read-only");
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1000);
+        DataOutputStream recordOut = new DataOutputStream(buffer);
+        long offset = dataSize;
+        long[] recordOffsets = new long[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            buffer.reset();
+            records.get(i).write(recordOut);
+            recordOut.flush();
+            writer.writeInt(buffer.size());
+            buffer.writeTo(writer);
+            recordOffsets[i] = offset;
+            offset += 4 + buffer.size();
+        }
+        // Flush before index update. Readers must see all indexed records.
+        writer.flush();
+        for (int i = 0; i < records.size(); i++) {
+            long nextOffset = i < records.size() - 1 ? recordOffsets[i + 1] : offset;
+            activeIndex.add(records.get(i), recordOffsets[i], nextOffset - recordOffsets[i]);
+        }
+        updateSummary(activeIndex);
+    }
+
+    /**
+     * Makes segment read-only and writes its index
+     */
+    void seal() {
+        if (activeIndex == null) {
+            return;
+        }
+        closeWriter();
+        try {
+            writeIndex(activeIndex);
+        } catch (IOException e) {
+            log.warn("Error writing query history index", e);
+        }
+        activeIndex = null;
+    }
+
+    /**
+     * Closes active segment writer. Segment stays active and will be reopened on next start.
+     */
+    void close() {
+        if (activeIndex == null) {
+            return;
+        }
+        closeWriter();
+        try {
+            writeIndex(activeIndex);
+        } catch (IOException e) {
+            log.warn("Error writing query history index", e);
+        }
+    }
+
+    void delete() {
+        closeWriter();
+        activeIndex = null;
+        if (indexFile.exists() && !indexFile.delete()) {
+            log.debug("Can't delete query history index '" + indexFile.getAbsolutePath() + "'");
+        }
+        if (dataFile.exists() && !dataFile.delete()) {
+            log.debug("Can't delete query history segment '" + dataFile.getAbsolutePath() + "'");
+        }
+    }
+
+    @NotNull
+    QMHistoryIndex loadIndex() throws IOException {
+        QMHistoryIndex index = readIndex();
+        if (index == null) {
+            index = rebuildIndex();
+        }
+        return index;
+    }
+
+    @NotNull
+    static QMHistoryRecord readRecord(@NotNull RandomAccessFile file, long offset) throws IOException {
+        file.seek(offset);
+        int length = file.readInt();
+        if (length < 0 || offset + 4 + length > file.length()) {
+            throw new IOException("Bad query history record at " + offset);
+        }
+        byte[] data = new byte[length];
+        file.readFully(data);
+        return QMHistoryRecord.read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private void updateSummary(QMHistoryIndex index) {
+        this.recordCount = index.getCount();
+        this.dataSize = index.getDataSize();
+        this.minTime = index.getMinTime();
+        this.maxTime = index.getMaxTime();
+    }
+
+    private void openWriter() throws IOException {
+        writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile, true), 64 * 1024));
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            ContentUtils.close(writer);
+            writer = null;
+        }
+    }
+
+    private QMHistoryIndex readIndex() {
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try {
+            return QMHistoryIndex.read(Files.readAllBytes(indexFile.toPath()));
+        } catch (IOException e) {
+            log.debug("Error reading query history index '" + indexFile.getAbsolutePath() + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeIndex(QMHistoryIndex index) throws IOException {
+        // Write in temp file first. Partially written index must never be read.
+        File tempFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024))) {
+            index.write(out);
+        }
+        if (indexFile.exists() && !indexFile.delete()) {
+            throw new IOException("Can't delete old index file '" + indexFile.getAbsolutePath() + "'");
+        }
+        if (!tempFile.renameTo(indexFile)) {
+            throw new IOException("Can't rename index file '" + tempFile.getAbsolutePath() + "'");
+        }
+    }
+
+    /**
+     * Reads all records from data file. Truncated tail (e.g. after crash) is cut off.
+     */
+    private QMHistoryIndex rebuildIndex() throws IOException {
+        QMHistoryIndex index = new QMHistoryIndex();
+        if (!dataFile.exists()) {
+            return index;
+        }
+        long validSize = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile), 64 * 1024))) {
+            long fileLength = dataFile.length();
+            while (validSize + 4 <= fileLength) {
+                int length = in.readInt();
+                if (length < 0 || validSize + 4 + length > fileLength) {
+                    break;
+                }
+                byte[] data = new byte[length];
+                in.readFully(data);
+                QMHistoryRecord record;
+                try {
+                    record = QMHistoryRecord.read(new DataInputStream(new ByteArrayInputStream(data)));
+                } catch (IOException e) {
+                    break;
+                }
+                index.add(record, validSize, 4 + length);
+                validSize += 4 + length;
+            }
+        }
+        if (validSize < dataFile.length()) {
+            log.debug("Truncate broken query history segment '" + dataFile.getAbsolutePath() + "' to " + validSize + " bytes");
+            try (RandomAccessFile file = new RandomAccessFile(dataFile, "rw")) {
+                file.setLength(validSize);
+            }
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,355 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.*;
+
+/**
+ * Persistent query history.
+ * Query executions and session events are appended to segment files in the history folder.
+ * Each segment has its own index (see {@link QMHistoryIndex}) so search reads only matching records.
+ * Segments older than history retention period are deleted.
+ */
+public class QMHistoryStore implements QMMetaListener, QMEventBrowser {
+
+    private static final Log log = Log.getLog(QMHistoryStore.class);
+
+    private static final long DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+    private static final int INDEX_CACHE_SIZE = 8;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final File folder;
+    private final long maxSegmentSize;
+    private final int historyDays;
+
+    private final Object storeSync = new Object();
+    // Segments ordered from oldest to newest. The last one is active.
+    private final List<QMHistorySegment> segments = new ArrayList<>();
+    private QMHistorySegment activeSegment;
+    private boolean closed;
+
+    // Recently used sealed segment indexes
+    private final Map<QMHistorySegment, QMHistoryIndex> indexCache = new LinkedHashMap<QMHistorySegment, QMHistoryIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QMHistorySegment, QMHistoryIndex> eldest) {
+            return size() > INDEX_CACHE_SIZE;
+        }
+    };
+
+    public QMHistoryStore(@NotNull File folder) throws IOException {
+        this(folder, DEFAULT_SEGMENT_SIZE, ModelPreferences.getPreferences().getInt(QMConstants.PROP_HISTORY_DAYS));
+    }
+
+    public QMHistoryStore(@NotNull File folder, long maxSegmentSize, int historyDays) throws IOException {
+        this.folder = folder;
+        this.maxSegmentSize = maxSegmentSize;
+        this.historyDays = historyDays;
+        openSegments();
+    }
+
+    private void openSegments() throws IOException {
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("Can't create query history folder '" + folder.getAbsolutePath() + "'");
+        }
+        List<Long> segmentIds = new ArrayList<>();
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long id = QMHistorySegment.parseSegmentId(file.getName());
+                if (id >= 0) {
+                    segmentIds.add(id);
+                }
+            }
+        }
+        Collections.sort(segmentIds);
+        for (int i = 0; i < segmentIds.size(); i++) {
+            boolean last = i == segmentIds.size() - 1;
+            try {
+                segments.add(QMHistorySegment.openSegment(folder, segmentIds.get(i), last));
+            } catch (IOException e) {
+                log.warn("Error opening query history segment " + segmentIds.get(i), e);
+            }
+        }
+        if (!segments.isEmpty() && segments.get(segments.size() - 1).isActive()) {
+            activeSegment = segments.get(segments.size() - 1);
+        } else {
+            startSegment();
+        }
+        deleteExpiredSegments();
+    }
+
+    public void close() {
+        synchronized (storeSync) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (activeSegment != null) {
+                activeSegment.close();
+            }
+        }
+        synchronized (indexCache) {
+            indexCache.clear();
+        }
+    }
+
+    @Override
+    public void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events) {
+        List<QMHistoryRecord> records = new ArrayList<>(events.size());
+        // Events come in reverse order (most recent first)
+        for (int i = events.size() - 1; i >= 0; i--) {
+            QMHistoryRecord record = QMHistoryRecord.fromEvent(events.get(i));
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        if (!records.isEmpty()) {
+            appendRecords(records);
+        }
+    }
+
+    void appendRecords(@NotNull List<QMHistoryRecord> records) {
+        synchronized (storeSync) {
+            if (closed) {
+                return;
+            }
+            try {
+                activeSegment.append(records);
+                if (activeSegment.getDataSize() >= maxSegmentSize) {
+                    activeSegment.seal();
+                    startSegment();
+                    deleteExpiredSegments();
+                }
+            } catch (IOException e) {
+                log.warn("IO error writing query history. Disable history store", e);
+                activeSegment.close();
+                closed = true;
+            }
+        }
+    }
+
+    private void startSegment() throws IOException {
+        long nextId = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).getId() + 1;
+        activeSegment = QMHistorySegment.createSegment(folder, nextId);
+        segments.add(activeSegment);
+    }
+
+    private void deleteExpiredSegments() {
+        if (historyDays <= 0) {
+            return;
+        }
+        long minTime = System.currentTimeMillis() - historyDays * DAY_MILLIS;
+        for (Iterator<QMHistorySegment> iter = segments.iterator(); iter.hasNext(); ) {
+            QMHistorySegment segment = iter.next();
+            if (segment != activeSegment && segment.getRecordCount() > 0 && segment.getMaxTime() < minTime) {
+                iter.remove();
+                synchronized (indexCache) {
+                    indexCache.remove(segment);
+                }
+                segment.delete();
+            }
+        }
+    }
+
+    @Override
+    public QMEventCursor getQueryHistoryCursor(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull QMEventCriteria criteria,
+        @Nullable QMEventFilter filter)
+        throws DBException
+    {
+        List<QMHistorySegment> segmentsCopy;
+        synchronized (storeSync) {
+            segmentsCopy = new ArrayList<>(segments);
+        }
+        // Most recent events first
+        Collections.reverse(segmentsCopy);
+        return new HistoryCursor(segmentsCopy, new QMHistoryIndex.Query(criteria), filter);
+    }
+
+    /**
+     * Returns offsets of matching records in segment data file (in append order)
+     */
+    @NotNull
+    private long[] findRecords(@NotNull QMHistorySegment segment, @NotNull QMHistoryIndex.Query query) throws IOException {
+        if (segment.getRecordCount() == 0 || !query.matchesTimeRange(segment.getMinTime(), segment.getMaxTime())) {
+            return new long[0];
+        }
+        synchronized (storeSync) {
+            QMHistoryIndex activeIndex = segment.getActiveIndex();
+            if (activeIndex != null) {
+                return activeIndex.getOffsets(activeIndex.find(query));
+            }
+        }
+        QMHistoryIndex index;
+        synchronized (indexCache) {
+            index = indexCache.get(segment);
+        }
+        if (index == null) {
+            index = segment.loadIndex();
+            synchronized (indexCache) {
+                indexCache.put(segment, index);
+            }
+        }
+        return index.getOffsets(index.find(query));
+    }
+
+    /**
+     * Reads matching events segment by segment, from the newest to the oldest.
+     * Indexes of old segments are loaded only when previous segments are exhausted.
+     */
+    private class HistoryCursor implements QMEventCursor {
+
+        private final List<QMHistorySegment> segments;
+        private final QMHistoryIndex.Query query;
+        private final QMEventFilter filter;
+
+        private int segmentIndex = -1;
+        private QMHistorySegment segment;
+        private long[] offsets;
+        private int position;
+        private RandomAccessFile segmentFile;
+        private QMMetaEvent nextEvent;
+        private long totalSize = -1;
+
+        HistoryCursor(List<QMHistorySegment> segments, QMHistoryIndex.Query query, QMEventFilter filter) {
+            this.segments = segments;
+            this.query = query;
+            this.filter = filter;
+        }
+
+        /**
+         * Returns number of records matched by index.
+         * Search string is verified only while reading, so actual number of events may be lesser.
+         */
+        @Override
+        public long getTotalSize() {
+            if (totalSize < 0) {
+                long total = 0;
+                for (QMHistorySegment s : segments) {
+                    try {
+                        total += findRecords(s, query).length;
+                    } catch (IOException e) {
+                        log.debug("Error reading query history index: " + e.getMessage());
+                    }
+                }
+                totalSize = total;
+            }
+            return totalSize;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            closeSegment();
+            segmentIndex = -1;
+            nextEvent = null;
+            for (int i = 0; i < position; i++) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + i + ")");
+                }
+                nextEvent = null;
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            while (nextEvent == null) {
+                if (monitor.isCanceled()) {
+                    return false;
+                }
+                if (segment == null || position < 0) {
+                    if (!openNextSegment()) {
+                        return false;
+                    }
+                    continue;
+                }
+                try {
+                    QMHistoryRecord record = QMHistorySegment.readRecord(segmentFile, offsets[position]);
+                    if (query.matchesText(record.getText())) {
+                        QMMetaEvent event = record.toEvent();
+                        if (filter == null || filter.accept(event)) {
+                            nextEvent = event;
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new DBException("Error reading query history", e);
+                }
+                position--;
+            }
+            return true;
+        }
+
+        @Override
+        public QMMetaEvent nextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more query history events");
+            }
+            QMMetaEvent event = nextEvent;
+            nextEvent = null;
+            return event;
+        }
+
+        @Override
+        public void close() {
+            closeSegment();
+        }
+
+        private boolean openNextSegment() {
+            closeSegment();
+            while (++segmentIndex < segments.size()) {
+                QMHistorySegment candidate = segments.get(segmentIndex);
+                try {
+                    long[] found = findRecords(candidate, query);
+                    if (found.length == 0) {
+                        continue;
+                    }
+                    segmentFile = new RandomAccessFile(candidate.getDataFile(), "r");
+                    segment = candidate;
+                    offsets = found;
+                    position = found.length - 1;
+                    return true;
+                } catch (IOException e) {
+                    // Segment may be deleted by retention policy
+                    log.debug("Error opening query history segment " + candidate.getId() + ": " + e.getMessage());
+                }
+            }
+            return false;
+        }
+
+        private void closeSegment() {
+            if (segmentFile != null) {
+                ContentUtils.close(segmentFile);
+                segmentFile = null;
+            }
+            segment = null;
+            offsets = null;
+        }
+    }
+
+}
@@ -32,107 +32,267 @@ import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Query manager log writer
+ * Query manager log writer.
+ * Collector thread only puts events in a ring buffer. Events are formatted and written by a dedicated writer thread
+ * which flushes all pending events at once. Log files are rotated by date and size, closed files are gzipped.
  */
 public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
 
     private static final Log log = Log.getLog(QMLogFileWriter.class);
 
-    private File logFile;
-    private boolean enabled;
+    private static final String LOG_FILE_PREFIX = "dbeaver_sql_";
+    private static final String LOG_FILE_EXT = ".log";
+    private static final String ARCHIVE_FILE_EXT = ".gz";
+
+    private static final int EVENT_BUFFER_CAPACITY = 16 * 1024;
+    private static final int MAX_WRITE_BATCH = 1024;
+    private static final long MAX_LOG_FILE_SIZE = 10 * 1024 * 1024;
+    private static final long WRITER_IDLE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long WRITER_STOP_TIMEOUT = 5000;
 
-    private Writer logWriter;
-    private QMEventFilter eventFilter;
+    private final QMEventRingBuffer<QMMetaEvent> eventBuffer = new QMEventRingBuffer<>(EVENT_BUFFER_CAPACITY);
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong writtenEvents = new AtomicLong();
     private final String lineSeparator;
+    private final Charset logCharset;
+    private final Thread writerThread;
+
+    private volatile boolean enabled;
+    private volatile boolean running = true;
+    private volatile boolean configChanged = true;
+    private volatile QMEventFilter eventFilter;
+
+    // Writer thread state
+    private File logFolder;
+    private File logFile;
+    private String logDate;
+    private OutputStream logStream;
+    // Log file size in bytes
+    private long logFileSize;
 
     public QMLogFileWriter()
     {
         lineSeparator = GeneralUtils.getDefaultLineSeparator();
+        logCharset = Charset.forName(GeneralUtils.getDefaultLocalFileEncoding());
         ModelPreferences.getPreferences().addPropertyChangeListener(this);
-        initLogFile();
+        loadConfiguration();
+        writerThread = new Thread(this::writeEvents, "QM log writer"); //$NON-NLS-1$
+        writerThread.setDaemon(true);
+        writerThread.start();
     }
 
     public void dispose()
     {
         ModelPreferences.getPreferences().removePropertyChangeListener(this);
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(WRITER_STOP_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.warn("QM log writer didn't stop in " + WRITER_STOP_TIMEOUT + "ms");
+        }
+    }
+
+    /**
+     * Number of events which are waiting to be written
+     */
+    public int getQueuedEventCount() {
+        return eventBuffer.size();
+    }
+
+    /**
+     * Number of events which were dropped because writer didn't keep up with them
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    public long getWrittenEventCount() {
+        return writtenEvents.get();
     }
 
-    private synchronized void initLogFile()
+    private void loadConfiguration()
     {
         enabled = ModelPreferences.getPreferences().getBoolean(QMConstants.PROP_STORE_LOG_FILE);
-        if (enabled) {
-            String logFolderPath = ModelPreferences.getPreferences().getString(QMConstants.PROP_LOG_DIRECTORY);
-            File logFolder = new File(logFolderPath);
-            if (!logFolder.exists()) {
-                if (!logFolder.mkdirs()) {
-                    log.error("Can't create log folder '" + logFolderPath + "'");
+        eventFilter = new DefaultEventFilter();
+        configChanged = true;
+    }
+
+    @Override
+    public void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    {
+        if (!enabled) {
+            return;
+        }
+        QMEventFilter filter = eventFilter;
+        boolean added = false;
+        // Events come in reverse order (most recent first)
+        for (int i = events.size() - 1; i >= 0; i--) {
+            QMMetaEvent event = events.get(i);
+            if (isLoggable(event) && filter.accept(event)) {
+                if (eventBuffer.offer(event)) {
+                    added = true;
+                } else {
+                    droppedEvents.incrementAndGet();
                 }
             }
-            String logFileName = "dbeaver_sql_" + RuntimeUtils.getCurrentDate() + ".log";
-            logFile = new File(logFolder, logFileName);
-            try {
-                logWriter = new FileWriter(logFile, true);
-            } catch (IOException e) {
-                log.error("Can't open log writer", e);
-            }
-        } else {
-            if (logWriter != null) {
-                ContentUtils.close(logWriter);
-                logWriter = null;
-            }
         }
-        eventFilter = new DefaultEventFilter();
+        if (added) {
+            LockSupport.unpark(writerThread);
+        }
     }
 
     @Override
-    public synchronized void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    public void preferenceChange(PreferenceChangeEvent event)
     {
-        if (!enabled || logWriter == null) {
-            return;
+        if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
+            loadConfiguration();
+            LockSupport.unpark(writerThread);
         }
+    }
 
-        StringBuilder logBuffer = new StringBuilder(4000);
-        for (QMMetaEvent event : events) {
-            if (eventFilter.accept(event)) {
+    private void writeEvents()
+    {
+        StringBuilder logBuffer = new StringBuilder(64 * 1024);
+        for (;;) {
+            if (configChanged) {
+                configChanged = false;
+                closeLogFile();
+                if (enabled) {
+                    initLogFolder();
+                }
+            }
+            int eventCount = 0;
+            logBuffer.setLength(0);
+            for (QMMetaEvent event; eventCount < MAX_WRITE_BATCH && (event = eventBuffer.poll()) != null; eventCount++) {
                 writeEvent(logBuffer, event);
             }
+            if (eventCount == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, WRITER_IDLE_TIMEOUT);
+                continue;
+            }
+            if (enabled) {
+                // All pending events are flushed at once
+                writeLog(logBuffer);
+                writtenEvents.addAndGet(eventCount);
+            }
         }
+        closeLogFile();
+    }
 
+    private void initLogFolder()
+    {
+        String logFolderPath = ModelPreferences.getPreferences().getString(QMConstants.PROP_LOG_DIRECTORY);
+        logFolder = new File(logFolderPath);
+        if (!logFolder.exists()) {
+            if (!logFolder.mkdirs()) {
+                log.error("Can't create log folder '" + logFolderPath + "'");
+            }
+        }
+        archiveOldLogs();
+    }
+
+    private void writeLog(StringBuilder logBuffer)
+    {
         try {
-            logWriter.write(logBuffer.toString());
-            logWriter.flush();
+            String currentDate = RuntimeUtils.getCurrentDate();
+            if (logStream != null && (!currentDate.equals(logDate) || logFileSize >= MAX_LOG_FILE_SIZE)) {
+                closeLogFile();
+                archiveLogFile(logFile);
+            }
+            if (logStream == null) {
+                logDate = currentDate;
+                logFile = new File(logFolder, LOG_FILE_PREFIX + logDate + LOG_FILE_EXT);
+                logStream = new FileOutputStream(logFile, true);
+                logFileSize = logFile.length();
+            }
+            // Encode here to know exact number of bytes written
+            byte[] data = logBuffer.toString().getBytes(logCharset);
+            logStream.write(data);
+            logStream.flush();
+            logFileSize += data.length;
         } catch (IOException e) {
             log.warn("IO error writing QM log. Disable log file writer", e);
-            ContentUtils.close(logWriter);
-            logWriter = null;
+            closeLogFile();
+            enabled = false;
         }
     }
 
-    @Override
-    public void preferenceChange(PreferenceChangeEvent event)
+    private void closeLogFile()
     {
-        if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
-            initLogFile();
+        if (logStream != null) {
+            ContentUtils.close(logStream);
+            logStream = null;
+        }
+    }
+
+    /**
+     * Compresses logs left from previous days
+     */
+    private void archiveOldLogs()
+    {
+        String currentLogName = LOG_FILE_PREFIX + RuntimeUtils.getCurrentDate() + LOG_FILE_EXT;
+        File[] oldLogs = logFolder.listFiles((dir, name) ->
+            name.startsWith(LOG_FILE_PREFIX) && name.endsWith(LOG_FILE_EXT) && !name.equals(currentLogName));
+        if (oldLogs != null) {
+            for (File oldLog : oldLogs) {
+                archiveLogFile(oldLog);
+            }
         }
     }
 
+    private void archiveLogFile(File file)
+    {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        String baseName = file.getName().substring(0, file.getName().length() - LOG_FILE_EXT.length());
+        File archiveFile = new File(file.getParentFile(), baseName + LOG_FILE_EXT + ARCHIVE_FILE_EXT);
+        for (int i = 1; archiveFile.exists(); i++) {
+            archiveFile = new File(file.getParentFile(), baseName + "." + i + LOG_FILE_EXT + ARCHIVE_FILE_EXT);
+        }
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(archiveFile), 64 * 1024)) {
+            Files.copy(file.toPath(), out);
+        } catch (IOException e) {
+            log.warn("Error compressing QM log file '" + file.getAbsolutePath() + "'", e);
+            if (!archiveFile.delete()) {
+                log.debug("Can't delete broken archive '" + archiveFile.getAbsolutePath() + "'");
+            }
+            return;
+        }
+        if (!file.delete()) {
+            log.warn("Can't delete archived QM log file '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    private static boolean isLoggable(QMMetaEvent event)
+    {
+        QMMObject object = event.getObject();
+        return !(object instanceof QMMStatementInfo || object instanceof QMMTransactionSavepointInfo ||
+            (object instanceof QMMStatementExecuteInfo && event.getAction() != QMMetaEvent.Action.END));
+    }
+
     private void writeEvent(StringBuilder buffer, QMMetaEvent event)
     {
         QMMObject object = event.getObject();
         QMMetaEvent.Action action = event.getAction();
-        // Filter
-        if (object instanceof QMMStatementInfo || object instanceof QMMTransactionSavepointInfo ||
-            (object instanceof QMMStatementExecuteInfo && action != QMMetaEvent.Action.END)) {
-            return;
-        }
 
         // Entry
         int severity = object instanceof QMMStatementExecuteInfo ? IStatus.INFO : IStatus.OK;
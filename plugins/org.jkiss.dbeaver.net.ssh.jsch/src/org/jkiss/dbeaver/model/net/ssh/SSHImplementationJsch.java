@@ -42,11 +42,41 @@ public class SSHImplementationJsch extends SSHImplementationAbstract {
 
     private static final Log log = Log.getLog(SSHImplementationJsch.class);
 
+    private static final SSHSessionRegistry<Session> sessionRegistry = new SSHSessionRegistry<>(
+        Session::isConnected,
+        SSHImplementationJsch::disconnectSession);
+
     private transient JSch jsch;
     private transient volatile Session session;
+    private transient SSHSessionRegistry.SharedSession<Session> sharedSession;
+    private transient String forwardLocalHost;
+    private transient int forwardLocalPort;
 
     @Override
     protected synchronized void setupTunnel(DBRProgressMonitor monitor, DBWHandlerConfiguration configuration, String sshHost, int aliveInterval, int sshPortNum, File privKeyFile, int connectTimeout, String sshLocalHost, int sshLocalPort, String sshRemoteHost, int sshRemotePort) throws DBException, IOException {
+        if (isSessionShared(configuration)) {
+            // Reuse session opened by another tunnel to the same host
+            sharedSession = sessionRegistry.acquireSession(
+                SSHSessionRegistry.SessionKey.fromConfiguration(configuration, sshHost, sshPortNum),
+                () -> createSession(monitor, configuration, sshHost, aliveInterval, sshPortNum, privKeyFile, connectTimeout));
+            session = sharedSession.getSession();
+        } else {
+            session = createSession(monitor, configuration, sshHost, aliveInterval, sshPortNum, privKeyFile, connectTimeout);
+        }
+        try {
+            if (CommonUtils.isEmpty(sshLocalHost)) {
+                forwardLocalPort = session.setPortForwardingL(sshLocalPort, sshRemoteHost, sshRemotePort);
+            } else {
+                forwardLocalPort = session.setPortForwardingL(sshLocalHost, sshLocalPort, sshRemoteHost, sshRemotePort);
+            }
+            forwardLocalHost = sshLocalHost;
+        } catch (JSchException e) {
+            closeTunnel(monitor);
+            throw new DBException("Cannot establish tunnel", e);
+        }
+    }
+
+    private Session createSession(DBRProgressMonitor monitor, DBWHandlerConfiguration configuration, String sshHost, int aliveInterval, int sshPortNum, File privKeyFile, int connectTimeout) throws DBException {
         try {
             if (jsch == null) {
                 jsch = new JSch();
@@ -66,7 +96,7 @@ public class SSHImplementationJsch extends SSHImplementationAbstract {
             }
 
             log.debug("Instantiate SSH tunnel");
-            session = jsch.getSession(configuration.getUserName(), sshHost, sshPortNum);
+            Session session = jsch.getSession(configuration.getUserName(), sshHost, sshPortNum);
             session.setConfig("StrictHostKeyChecking", "no");
 
             if (authType == AuthType.PASSWORD) {
@@ -92,17 +122,8 @@ public class SSHImplementationJsch extends SSHImplementationAbstract {
             }
             log.debug("Connect to tunnel host");
             session.connect(connectTimeout);
-            try {
-                if (CommonUtils.isEmpty(sshLocalHost)) {
-                    session.setPortForwardingL(sshLocalPort, sshRemoteHost, sshRemotePort);
-                } else {
-                    session.setPortForwardingL(sshLocalHost, sshLocalPort, sshRemoteHost, sshRemotePort);
-                }
-            } catch (JSchException e) {
-                closeTunnel(monitor);
-                throw e;
-            }
-        } catch (JSchException e) {
+            return session;
+        } catch (JSchException | IOException e) {
             throw new DBException("Cannot establish tunnel", e);
         }
     }
@@ -110,19 +131,39 @@ public class SSHImplementationJsch extends SSHImplementationAbstract {
     @Override
     public synchronized void closeTunnel(DBRProgressMonitor monitor) throws DBException, IOException {
         if (session != null) {
-            RuntimeUtils.runTask(monitor1 -> {
-                if (session != null) {
-                    try {
-                        session.disconnect();
-                    } catch (Exception e) {
-                        throw new InvocationTargetException(e);
+            if (forwardLocalPort != 0) {
+                // Remove our port forward only. Session may be used by other tunnels.
+                try {
+                    if (CommonUtils.isEmpty(forwardLocalHost)) {
+                        session.delPortForwardingL(forwardLocalPort);
+                    } else {
+                        session.delPortForwardingL(forwardLocalHost, forwardLocalPort);
                     }
+                } catch (Exception e) {
+                    log.debug("Error removing port forward " + forwardLocalPort + ": " + e.getMessage());
                 }
-            }, "Close SSH session", 1000);
+                forwardLocalPort = 0;
+            }
+            if (sharedSession != null) {
+                sessionRegistry.releaseSession(sharedSession);
+                sharedSession = null;
+            } else {
+                disconnectSession(session);
+            }
             session = null;
         }
     }
 
+    private static void disconnectSession(Session session) {
+        RuntimeUtils.runTask(monitor1 -> {
+            try {
+                session.disconnect();
+            } catch (Exception e) {
+                throw new InvocationTargetException(e);
+            }
+        }, "Close SSH session", 1000);
+    }
+
     @Override
     public synchronized String getClientVersion() {
         return session == null ? null : session.getClientVersion();
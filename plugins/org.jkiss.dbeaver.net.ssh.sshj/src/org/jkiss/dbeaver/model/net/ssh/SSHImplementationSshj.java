@@ -47,11 +47,36 @@ public class SSHImplementationSshj extends SSHImplementationAbstract {
 
     private static final Log log = Log.getLog(SSHImplementationSshj.class);
 
+    private static final SSHSessionRegistry<SSHClient> sessionRegistry = new SSHSessionRegistry<>(
+        client -> client.isConnected() && client.isAuthenticated(),
+        SSHImplementationSshj::disconnectClient);
+
     private transient SSHClient sshClient;
+    private transient SSHSessionRegistry.SharedSession<SSHClient> sharedSession;
     private transient LocalPortListener portListener;
 
     @Override
     protected void setupTunnel(DBRProgressMonitor monitor, DBWHandlerConfiguration configuration, String sshHost, int aliveInterval, int sshPortNum, File privKeyFile, int connectTimeout, String sshLocalHost, int sshLocalPort, String sshRemoteHost, int sshRemotePort) throws DBException, IOException {
+        if (isSessionShared(configuration)) {
+            // Reuse client connected by another tunnel to the same host
+            sharedSession = sessionRegistry.acquireSession(
+                SSHSessionRegistry.SessionKey.fromConfiguration(configuration, sshHost, sshPortNum),
+                () -> createClient(configuration, sshHost, aliveInterval, sshPortNum, privKeyFile, connectTimeout));
+            sshClient = sharedSession.getSession();
+        } else {
+            sshClient = createClient(configuration, sshHost, aliveInterval, sshPortNum, privKeyFile, connectTimeout);
+        }
+
+        log.debug("Instantiate SSH tunnel");
+
+        final LocalPortForwarder.Parameters params
+            = new LocalPortForwarder.Parameters(sshLocalHost, sshLocalPort, sshRemoteHost, sshRemotePort);
+        portListener = new LocalPortListener(sshClient, params);
+        portListener.start();
+        RuntimeUtils.pause(100);
+    }
+
+    private SSHClient createClient(DBWHandlerConfiguration configuration, String sshHost, int aliveInterval, int sshPortNum, File privKeyFile, int connectTimeout) throws DBException {
         try {
             String autoTypeString = CommonUtils.toString(configuration.getProperty(SSHConstants.PROP_AUTH_TYPE));
             AuthType authType = CommonUtils.isEmpty(autoTypeString) ?
@@ -60,7 +85,7 @@ public class SSHImplementationSshj extends SSHImplementationAbstract {
 
             Config clientConfig = new DefaultConfig();
             clientConfig.setLoggerFactory(LoggerFactory.DEFAULT);
-            sshClient = new SSHClient(clientConfig);
+            SSHClient sshClient = new SSHClient(clientConfig);
             // TODO: make real host verifier
             sshClient.addHostKeyVerifier(new PromiscuousVerifier());
 
@@ -73,8 +98,11 @@ public class SSHImplementationSshj extends SSHImplementationAbstract {
                 log.debug("Error loading known hosts: " + e.getMessage());
             }
 
-            
             sshClient.connect(sshHost, sshPortNum);
+            if (aliveInterval > 0) {
+                // Keep-alive is per connection so shared tunnels send it only once
+                sshClient.getConnection().getKeepAlive().setKeepAliveInterval(Math.max(1, aliveInterval / 1000));
+            }
 
             if (authType==SSHConstants.AuthType.PUBLIC_KEY) {
                 if (privKeyFile != null) {
@@ -97,14 +125,7 @@ public class SSHImplementationSshj extends SSHImplementationAbstract {
                 }
                 sshClient.auth(sshUser, authMethods);
             }
-
-            log.debug("Instantiate SSH tunnel");
-
-            final LocalPortForwarder.Parameters params
-                = new LocalPortForwarder.Parameters(sshLocalHost, sshLocalPort, sshRemoteHost, sshRemotePort);
-            portListener = new LocalPortListener(params);
-            portListener.start();
-            RuntimeUtils.pause(100);
+            return sshClient;
         } catch (Exception e) {
             throw new DBException("Cannot establish tunnel", e);
         }
@@ -114,19 +135,29 @@ public class SSHImplementationSshj extends SSHImplementationAbstract {
     public void closeTunnel(DBRProgressMonitor monitor) throws DBException, IOException {
         if (portListener != null) {
             portListener.stopServer();
+            portListener = null;
         }
         if (sshClient != null) {
-            RuntimeUtils.runTask(monitor1 -> {
-                try {
-                    sshClient.disconnect();
-                } catch (Exception e) {
-                    throw new InvocationTargetException(e);
-                }
-            }, "Close SSH client", 1000);
+            if (sharedSession != null) {
+                sessionRegistry.releaseSession(sharedSession);
+                sharedSession = null;
+            } else {
+                disconnectClient(sshClient);
+            }
             sshClient = null;
         }
     }
 
+    private static void disconnectClient(SSHClient client) {
+        RuntimeUtils.runTask(monitor1 -> {
+            try {
+                client.disconnect();
+            } catch (Exception e) {
+                throw new InvocationTargetException(e);
+            }
+        }, "Close SSH client", 1000);
+    }
+
     @Override
     public String getClientVersion() {
         return sshClient == null ? null : sshClient.getTransport().getClientVersion();
@@ -154,11 +185,13 @@ public class SSHImplementationSshj extends SSHImplementationAbstract {
         }
     }
 
-    private class LocalPortListener extends Thread {
+    private static class LocalPortListener extends Thread {
+        private final SSHClient sshClient;
         private LocalPortForwarder.Parameters params;
         private LocalPortForwarder portForwarder;
 
-        LocalPortListener(LocalPortForwarder.Parameters params) {
+        LocalPortListener(SSHClient sshClient, LocalPortForwarder.Parameters params) {
+            this.sshClient = sshClient;
             this.params = params;
         }
 
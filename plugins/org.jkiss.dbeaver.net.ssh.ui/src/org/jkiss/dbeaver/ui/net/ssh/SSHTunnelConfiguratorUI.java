@@ -73,6 +73,7 @@ public class SSHTunnelConfiguratorUI implements IObjectPropertyConfigurator<DBWH
 
     private Spinner keepAliveText;
     private Spinner tunnelTimeout;
+    private Button shareSessionCheckbox;
     private VariablesHintLabel variablesHintLabel;
 
     @Override
@@ -156,6 +157,7 @@ public class SSHTunnelConfiguratorUI implements IObjectPropertyConfigurator<DBWH
             keepAliveText.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
             tunnelTimeout = UIUtils.createLabelSpinner(advancedGroup, SSHUIMessages.model_ssh_configurator_label_tunnel_timeout, SSHConstants.DEFAULT_CONNECT_TIMEOUT, 0, 300000);
             tunnelTimeout.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+            shareSessionCheckbox = UIUtils.createCheckbox(advancedGroup, SSHUIMessages.model_ssh_configurator_checkbox_share_session, SSHUIMessages.model_ssh_configurator_checkbox_share_session_tip, true, 4);
         }
 
         {
@@ -292,6 +294,7 @@ public class SSHTunnelConfiguratorUI implements IObjectPropertyConfigurator<DBWH
         if (timeoutValue != 0) {
             tunnelTimeout.setSelection(timeoutValue);
         }
+        shareSessionCheckbox.setSelection(configuration.getBooleanProperty(SSHConstants.PROP_SHARE_SESSION, true));
         updateAuthMethodVisibility();
 
         savedConfiguration = new DBWHandlerConfiguration(configuration);
@@ -354,6 +357,7 @@ public class SSHTunnelConfiguratorUI implements IObjectPropertyConfigurator<DBWH
         if (conTimeout != 0 && conTimeout != SSHConstants.DEFAULT_CONNECT_TIMEOUT) {
             configuration.setProperty(SSHConstants.PROP_CONNECT_TIMEOUT, conTimeout);
         }
+        configuration.setProperty(SSHConstants.PROP_SHARE_SESSION, shareSessionCheckbox.getSelection() ? null : false);
     }
 
     @Override
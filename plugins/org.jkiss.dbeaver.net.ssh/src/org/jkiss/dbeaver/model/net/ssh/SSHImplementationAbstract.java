@@ -176,6 +176,13 @@ public abstract class SSHImplementationAbstract implements SSHImplementation {
         return result;
     }
 
+    /**
+     * Tunnels to the same host with the same credentials share one SSH session (unless disabled in configuration)
+     */
+    protected boolean isSessionShared(DBWHandlerConfiguration configuration) {
+        return configuration.getBooleanProperty(SSHConstants.PROP_SHARE_SESSION, true);
+    }
+
     protected abstract void setupTunnel(
         DBRProgressMonitor monitor,
         DBWHandlerConfiguration configuration,
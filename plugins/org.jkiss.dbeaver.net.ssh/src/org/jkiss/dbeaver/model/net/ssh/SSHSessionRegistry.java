@@ -0,0 +1,250 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net.ssh;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
+import org.jkiss.utils.CommonUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Registry of shared SSH sessions.
+ * Tunnels which use the same SSH host, port, user and credentials share one session.
+ * Each tunnel opens its own port forward over the shared session.
+ * Sessions are reference counted and closed when the last tunnel releases them.
+ *
+ * @param <SESSION> implementation specific session type
+ */
+public class SSHSessionRegistry<SESSION> {
+
+    private static final Log log = Log.getLog(SSHSessionRegistry.class);
+
+    public interface SessionOpener<SESSION> {
+        /**
+         * Opens new connected and authenticated session
+         */
+        @NotNull
+        SESSION openSession() throws DBException;
+    }
+
+    /**
+     * Session key. Contains everything which affects SSH session authentication.
+     * Password is kept as digest.
+     */
+    public static final class SessionKey {
+        private final String host;
+        private final int port;
+        private final String user;
+        private final String authType;
+        private final String keyPath;
+        private final byte[] credentialsDigest;
+
+        public SessionKey(String host, int port, String user, String authType, String keyPath, String password) {
+            this.host = CommonUtils.notEmpty(host);
+            this.port = port;
+            this.user = CommonUtils.notEmpty(user);
+            this.authType = CommonUtils.notEmpty(authType);
+            this.keyPath = CommonUtils.notEmpty(keyPath);
+            this.credentialsDigest = digest(password);
+        }
+
+        public static SessionKey fromConfiguration(@NotNull DBWHandlerConfiguration configuration, @NotNull String sshHost, int sshPort) {
+            return new SessionKey(
+                sshHost,
+                sshPort,
+                configuration.getUserName(),
+                configuration.getStringProperty(SSHConstants.PROP_AUTH_TYPE),
+                configuration.getStringProperty(SSHConstants.PROP_KEY_PATH),
+                configuration.getPassword());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SessionKey)) {
+                return false;
+            }
+            SessionKey key = (SessionKey) obj;
+            return port == key.port &&
+                host.equals(key.host) &&
+                user.equals(key.user) &&
+                authType.equals(key.authType) &&
+                keyPath.equals(key.keyPath) &&
+                Arrays.equals(credentialsDigest, key.credentialsDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, user, authType, keyPath);
+        }
+
+        @Override
+        public String toString() {
+            return user + "@" + host + ":" + port;
+        }
+
+        private static byte[] digest(String password) {
+            if (CommonUtils.isEmpty(password)) {
+                return new byte[0];
+            }
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                // Shouldn't ever happen
+                return password.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Shared session reference
+     */
+    public static final class SharedSession<SESSION> {
+        private final SessionKey key;
+        private final SESSION session;
+        private int refCount;
+
+        private SharedSession(SessionKey key, SESSION session) {
+            this.key = key;
+            this.session = session;
+        }
+
+        @NotNull
+        public SessionKey getKey() {
+            return key;
+        }
+
+        @NotNull
+        public SESSION getSession() {
+            return session;
+        }
+
+        /**
+         * Number of tunnels which use this session
+         */
+        public synchronized int getRefCount() {
+            return refCount;
+        }
+
+        @Override
+        public String toString() {
+            return key + " (" + refCount + ")";
+        }
+    }
+
+    private final Predicate<SESSION> aliveChecker;
+    private final Consumer<SESSION> sessionCloser;
+    private final Map<SessionKey, SharedSession<SESSION>> sessions = new HashMap<>();
+    // Per-key locks. Sessions to different hosts are opened in parallel.
+    private final Map<SessionKey, Object> sessionLocks = new HashMap<>();
+
+    public SSHSessionRegistry(@NotNull Predicate<SESSION> aliveChecker, @NotNull Consumer<SESSION> sessionCloser) {
+        this.aliveChecker = aliveChecker;
+        this.sessionCloser = sessionCloser;
+    }
+
+    /**
+     * Returns existing alive session or opens a new one.
+     * Concurrent tunnels to the same host wait for the first handshake instead of opening their own sessions.
+     */
+    @NotNull
+    public SharedSession<SESSION> acquireSession(@NotNull SessionKey key, @NotNull SessionOpener<SESSION> opener) throws DBException {
+        Object sessionLock;
+        synchronized (this) {
+            sessionLock = sessionLocks.computeIfAbsent(key, k -> new Object());
+        }
+        synchronized (sessionLock) {
+            SharedSession<SESSION> shared;
+            synchronized (this) {
+                shared = sessions.get(key);
+            }
+            if (shared != null && !aliveChecker.test(shared.session)) {
+                // Broken session. Tunnels which still use it will release it themselves.
+                log.debug("Shared SSH session " + key + " is not alive. Open new session.");
+                synchronized (this) {
+                    sessions.remove(key, shared);
+                }
+                shared = null;
+            }
+            if (shared != null) {
+                synchronized (this) {
+                    // Session may be closed by concurrent release
+                    if (sessions.get(key) == shared) {
+                        synchronized (shared) {
+                            shared.refCount++;
+                        }
+                        return shared;
+                    }
+                }
+            }
+            log.debug("Open shared SSH session " + key);
+            shared = new SharedSession<>(key, opener.openSession());
+            synchronized (this) {
+                synchronized (shared) {
+                    shared.refCount++;
+                }
+                sessions.put(key, shared);
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * Releases session reference. Closes session if it is not used anymore.
+     */
+    public void releaseSession(@NotNull SharedSession<SESSION> shared) {
+        boolean close;
+        synchronized (this) {
+            synchronized (shared) {
+                if (shared.refCount <= 0) {
+                    log.debug("Shared SSH session " + shared.key + " was already released");
+                    return;
+                }
+                shared.refCount--;
+                close = shared.refCount == 0;
+            }
+            if (close && sessions.get(shared.key) == shared) {
+                sessions.remove(shared.key);
+            }
+        }
+        if (close) {
+            log.debug("Close shared SSH session " + shared.key);
+            sessionCloser.accept(shared.session);
+        }
+    }
+
+    @Nullable
+    public synchronized SharedSession<SESSION> getSession(@NotNull SessionKey key) {
+        return sessions.get(key);
+    }
+
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+}
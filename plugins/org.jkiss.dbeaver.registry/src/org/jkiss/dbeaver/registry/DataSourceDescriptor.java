@@ -38,6 +38,7 @@ import org.jkiss.dbeaver.model.data.DBDFormatSettings;
 import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContextPool;
 import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
 import org.jkiss.dbeaver.model.impl.SimpleExclusiveLock;
@@ -52,6 +53,7 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRShellCommand;
 import org.jkiss.dbeaver.model.sql.SQLDialectMetadata;
 import org.jkiss.dbeaver.model.struct.DBSInstance;
+import org.jkiss.dbeaver.model.struct.DBSInstanceContainer;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectFilter;
 import org.jkiss.dbeaver.model.struct.DBSObjectState;
@@ -105,6 +107,7 @@ public class DataSourceDescriptor
     };
     public static final String CATEGORY_SERVER = "Server";
     public static final String CATEGORY_DRIVER = "Driver";
+    public static final String CATEGORY_CONTEXT_POOL = "Context pool";
 
     @NotNull
     private final DBPDataSourceRegistry registry;
@@ -1337,6 +1340,31 @@ public class DataSourceDescriptor
         return null;
     }
 
+    @Nullable
+    @Property(order = 41, category = CATEGORY_CONTEXT_POOL)
+    public Map<String, Object> getPropertyContextPool()
+    {
+        if (!(dataSource instanceof DBSInstanceContainer)) {
+            return null;
+        }
+        DBSInstance instance = ((DBSInstanceContainer) dataSource).getDefaultInstance();
+        DBCExecutionContextPool pool = instance == null ? null : instance.getContextPool();
+        if (pool == null) {
+            return null;
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put(RegistryMessages.data_source_context_pool_max_size, pool.getMaxSize());
+        metrics.put(RegistryMessages.data_source_context_pool_active, pool.getActiveCount());
+        metrics.put(RegistryMessages.data_source_context_pool_idle, pool.getIdleCount());
+        metrics.put(RegistryMessages.data_source_context_pool_borrowed, pool.getBorrowCount());
+        metrics.put(RegistryMessages.data_source_context_pool_created, pool.getCreatedCount());
+        metrics.put(RegistryMessages.data_source_context_pool_evicted, pool.getEvictedCount());
+        metrics.put(RegistryMessages.data_source_context_pool_leaked, pool.getLeakCount());
+        metrics.put(RegistryMessages.data_source_context_pool_average_wait_time, pool.getAverageWaitTime());
+        metrics.put(RegistryMessages.data_source_context_pool_max_wait_time, pool.getMaxWaitTime());
+        return metrics;
+    }
+
     @Nullable
     @Property(order = 8)
     public String getPropertyConnectTime()
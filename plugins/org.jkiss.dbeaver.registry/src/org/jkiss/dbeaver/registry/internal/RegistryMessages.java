@@ -25,6 +25,16 @@ public class RegistryMessages extends NLS {
 	public static String dialog_connection_auth_title;
 	public static String dialog_connection_auth_title_for_handler;
 
+	public static String data_source_context_pool_max_size;
+	public static String data_source_context_pool_active;
+	public static String data_source_context_pool_idle;
+	public static String data_source_context_pool_borrowed;
+	public static String data_source_context_pool_created;
+	public static String data_source_context_pool_evicted;
+	public static String data_source_context_pool_leaked;
+	public static String data_source_context_pool_average_wait_time;
+	public static String data_source_context_pool_max_wait_time;
+
     static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, RegistryMessages.class);
@@ -33,6 +33,7 @@ import org.jkiss.dbeaver.runtime.ui.DBPPlatformUI;
 import org.jkiss.dbeaver.tasks.ui.internal.TaskUIMessages;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
+import org.jkiss.utils.CommonUtils;
 
 import java.lang.reflect.InvocationTargetException;
 
@@ -59,6 +60,14 @@ public class TaskProcessorUI implements DBRRunnableContext, DBTTaskExecutionList
         return true;
     }
 
+    /**
+     * Additional task results appended to the completion message
+     */
+    @Nullable
+    protected String getTaskSummary() {
+        return null;
+    }
+
     @NotNull
     public DBTTask getTask() {
         return task;
@@ -87,6 +96,10 @@ public class TaskProcessorUI implements DBRRunnableContext, DBTTaskExecutionList
             boolean hasErrors = error != null;
             DBPPlatformUI platformUI = DBWorkbench.getPlatformUI();
             String completeMessage = this.task.getType().getName() + " " + TaskUIMessages.task_processor_ui_message_task_completed + " (" + RuntimeUtils.formatExecutionTime(elapsedTime) + ")";
+            String taskSummary = getTaskSummary();
+            if (!CommonUtils.isEmpty(taskSummary)) {
+                completeMessage += "\n" + taskSummary;
+            }
             if (elapsedTime > platformUI.getLongOperationTimeout() * 1000) {
                 platformUI.notifyAgent(
                     completeMessage, !hasErrors ? IStatus.INFO : IStatus.ERROR);
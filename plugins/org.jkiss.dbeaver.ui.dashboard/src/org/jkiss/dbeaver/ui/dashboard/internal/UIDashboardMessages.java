@@ -23,6 +23,8 @@ public class UIDashboardMessages extends NLS {
 
     public static String pref_page_dashboards_group_common;
     public static String pref_page_dashboards_open_separate_connection_label;
+    public static String pref_page_dashboards_query_timeout_label;
+    public static String pref_page_dashboards_query_timeout_tip;
 
     //add dashboard dialog
     public static String dialog_add_dashboard_dialog_title;
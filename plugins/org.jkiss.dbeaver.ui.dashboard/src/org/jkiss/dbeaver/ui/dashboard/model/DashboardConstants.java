@@ -22,6 +22,7 @@ package org.jkiss.dbeaver.ui.dashboard.model;
 public class DashboardConstants {
 
     public static final String PREF_OPEN_SEPARATE_CONNECTION = "dashboard.openSeparateConnection";
+    public static final String PREF_QUERY_TIMEOUT = "dashboard.queryTimeout";
 
     public static final String RS_COL_TIMESTAMP = "STAT_TIMESTAMP";
 
@@ -30,6 +31,7 @@ public class DashboardConstants {
 
     public static final DashboardDataType DEF_DASHBOARD_DATA_TYPE = DashboardDataType.timeseries;
     public static final int DEF_DASHBOARD_UPDATE_PERIOD = 1000;
+    public static final int DEF_DASHBOARD_QUERY_TIMEOUT = 30; // Seconds
     public static final float DEF_DASHBOARD_WIDTH_RATIO = 1.5f;
     public static final DashboardCalcType DEF_DASHBOARD_CALC_TYPE = DashboardCalcType.value;
     public static final DashboardValueType DEF_DASHBOARD_VALUE_TYPE = DashboardValueType.decimal;
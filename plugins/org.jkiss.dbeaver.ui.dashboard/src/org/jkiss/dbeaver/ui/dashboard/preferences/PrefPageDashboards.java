@@ -21,6 +21,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Spinner;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
@@ -40,6 +41,7 @@ public class PrefPageDashboards extends TargetPrefPage
     public static final String PAGE_ID = "org.jkiss.dbeaver.preferences.main.dashboards"; //$NON-NLS-1$
 
     private Button openSeparateConnectionCheck;
+    private Spinner queryTimeoutSpinner;
 
     public PrefPageDashboards()
     {
@@ -51,7 +53,8 @@ public class PrefPageDashboards extends TargetPrefPage
     {
         DBPPreferenceStore store = dataSourceDescriptor.getPreferenceStore();
         return
-            store.contains(DashboardConstants.PREF_OPEN_SEPARATE_CONNECTION)
+            store.contains(DashboardConstants.PREF_OPEN_SEPARATE_CONNECTION) ||
+            store.contains(DashboardConstants.PREF_QUERY_TIMEOUT)
         ;
     }
 
@@ -71,6 +74,7 @@ public class PrefPageDashboards extends TargetPrefPage
             Composite commonGroup = UIUtils.createControlGroup(composite, UIDashboardMessages.pref_page_dashboards_group_common, 2, GridData.FILL_HORIZONTAL | GridData.VERTICAL_ALIGN_BEGINNING, 0);
             {
                 openSeparateConnectionCheck = UIUtils.createCheckbox(commonGroup, UIDashboardMessages.pref_page_dashboards_open_separate_connection_label, null, false, 2);
+                queryTimeoutSpinner = UIUtils.createLabelSpinner(commonGroup, UIDashboardMessages.pref_page_dashboards_query_timeout_label, UIDashboardMessages.pref_page_dashboards_query_timeout_tip, 0, 0, Integer.MAX_VALUE);
             }
         }
 
@@ -82,6 +86,7 @@ public class PrefPageDashboards extends TargetPrefPage
     {
         try {
             openSeparateConnectionCheck.setSelection(store.getBoolean(DashboardConstants.PREF_OPEN_SEPARATE_CONNECTION));
+            queryTimeoutSpinner.setSelection(store.getInt(DashboardConstants.PREF_QUERY_TIMEOUT));
         } catch (Exception e) {
             log.warn(e);
         }
@@ -92,6 +97,7 @@ public class PrefPageDashboards extends TargetPrefPage
     {
         try {
             store.setValue(DashboardConstants.PREF_OPEN_SEPARATE_CONNECTION, openSeparateConnectionCheck.getText());
+            store.setValue(DashboardConstants.PREF_QUERY_TIMEOUT, queryTimeoutSpinner.getSelection());
         } catch (Exception e) {
             log.warn(e);
         }
@@ -102,6 +108,7 @@ public class PrefPageDashboards extends TargetPrefPage
     protected void clearPreferences(DBPPreferenceStore store)
     {
         store.setToDefault(DashboardConstants.PREF_OPEN_SEPARATE_CONNECTION);
+        store.setToDefault(DashboardConstants.PREF_QUERY_TIMEOUT);
     }
 
     @Override
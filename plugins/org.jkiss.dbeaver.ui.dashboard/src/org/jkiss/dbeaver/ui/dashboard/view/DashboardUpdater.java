@@ -17,12 +17,15 @@
 package org.jkiss.dbeaver.ui.dashboard.view;
 
 import org.apache.commons.jexl3.JexlContext;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.*;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.dashboard.control.DashboardListViewer;
@@ -36,10 +39,18 @@ import org.jkiss.utils.CommonUtils;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 
+/**
+ * Dashboards updater.
+ * Dashboards of each data source are updated by a separate lane (background job), so slow queries
+ * in one database do not delay dashboards of other databases.
+ * Identical queries of dashboards updated together are executed once.
+ * Dashboard refresh is skipped if its query is still running.
+ */
 public class DashboardUpdater {
 
     private static final Log log = Log.getLog(DashboardUpdater.class);
-    private Map<DBPDataSourceContainer, List<MapQueryInfo>> mapQueries = new HashMap<>();
+
+    private final Map<DBPDataSourceContainer, UpdateLane> lanes = new HashMap<>();
 
     private static class MapQueryInfo {
         private final DashboardViewContainer viewContainer;
@@ -53,49 +64,58 @@ public class DashboardUpdater {
         }
     }
 
+    /**
+     * Query result shared between dashboards
+     */
+    private static class QueryResult {
+        private final List<String> colNames = new ArrayList<>();
+        private final List<DashboardDatasetRow> rows = new ArrayList<>();
+    }
+
     public DashboardUpdater() {
     }
 
+    /**
+     * Submits dashboards which need update to data source lanes. Doesn't wait for update end.
+     */
     public void updateDashboards(DBRProgressMonitor monitor) {
         List<DashboardContainer> dashboards = getDashboardsToUpdate();
 
-        updateDashboards(monitor, dashboards);
-
+        Map<DBPDataSourceContainer, List<DashboardContainer>> dsDashboards = new LinkedHashMap<>();
+        for (DashboardContainer dashboard : dashboards) {
+            dsDashboards.computeIfAbsent(dashboard.getDataSourceContainer(), k -> new ArrayList<>()).add(dashboard);
+        }
+        synchronized (lanes) {
+            for (Map.Entry<DBPDataSourceContainer, List<DashboardContainer>> entry : dsDashboards.entrySet()) {
+                lanes.computeIfAbsent(entry.getKey(), UpdateLane::new).submit(entry.getValue());
+            }
+            // Forget lanes of disconnected data sources
+            lanes.entrySet().removeIf(e -> !e.getKey().isConnected() && e.getValue().isIdle());
+        }
     }
 
-    private void updateDashboards(DBRProgressMonitor monitor, List<DashboardContainer> dashboards) {
-        monitor.beginTask("Update dashboards", dashboards.size());
+    private void updateDashboardBatch(DBRProgressMonitor monitor, DBPDataSourceContainer dsContainer, List<DashboardContainer> dashboards) {
+        DBPDataSource dataSource = dsContainer.getDataSource();
+        if (dataSource == null) {
+            return;
+        }
+        monitor.beginTask("Update dashboards of " + dsContainer.getName(), dashboards.size());
 
         // Get all map queries used by dashboards
+        Map<DashboardMapQuery, MapQueryInfo> mapQueries = new LinkedHashMap<>();
         for (DashboardContainer dashboard : dashboards) {
             DashboardMapQuery mapQuery = dashboard.getMapQuery();
-            if (mapQuery != null) {
-                List<MapQueryInfo> queryList = mapQueries.computeIfAbsent(
-                    dashboard.getDataSourceContainer(), k -> new ArrayList<>());
-                boolean found = false;
-                for (MapQueryInfo mqi : queryList) {
-                    if (mqi.mapQuery == mapQuery) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    queryList.add(new MapQueryInfo(dashboard.getGroup().getView(), mapQuery));
-                }
+            if (mapQuery != null && !mapQueries.containsKey(mapQuery)) {
+                mapQueries.put(mapQuery, new MapQueryInfo(dashboard.getGroup().getView(), mapQuery));
             }
         }
 
-        for (Map.Entry<DBPDataSourceContainer, List<MapQueryInfo>> mqEntry : mapQueries.entrySet()) {
+        if (!mapQueries.isEmpty()) {
             monitor.subTask("Read dashboard data");
-            DBPDataSourceContainer dsContainer = mqEntry.getKey();
-            DBPDataSource dataSource = dsContainer.getDataSource();
-            if (dataSource == null) {
-                continue;
-            }
             try {
                 DBExecUtils.tryExecuteRecover(dashboards, dataSource, param -> {
                     try {
-                        for (MapQueryInfo mqi : mqEntry.getValue()) {
+                        for (MapQueryInfo mqi : mapQueries.values()) {
                             readMapQueryData(monitor, mqi);
                         }
                     } catch (Throwable e) {
@@ -107,15 +127,16 @@ public class DashboardUpdater {
             }
         }
 
+        // Results of queries executed in this batch. Null value means that query failed.
+        Map<String, QueryResult> queryResults = new HashMap<>();
         for (DashboardContainer dashboard : dashboards) {
-            DBPDataSource dataSource = dashboard.getDataSourceContainer().getDataSource();
-            if (dataSource == null) {
-                continue;
+            if (monitor.isCanceled()) {
+                break;
             }
             try {
                 DBExecUtils.tryExecuteRecover(dashboards, dataSource, param -> {
                     try {
-                        updateDashboard(monitor, dashboard);
+                        updateDashboard(monitor, dashboard, dashboards, mapQueries, queryResults);
                     } catch (Throwable e) {
                         throw new InvocationTargetException(e);
                     }
@@ -137,6 +158,7 @@ public class DashboardUpdater {
             monitor, DBCExecutionPurpose.UTIL, "Read map query '" + mqInfo.mapQuery.getId() + "' data")) {
             session.enableLogging(false);
             try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, mqInfo.mapQuery.getQueryText(), false, false, false)) {
+                setQueryTimeout(dbStat, executionContext);
                 if (dbStat.executeStatement()) {
                     try (DBCResultSet dbResults = dbStat.openResultSet()) {
                         mqInfo.timestamp = new Date();
@@ -153,13 +175,22 @@ public class DashboardUpdater {
         }
     }
 
-    private void updateDashboard(DBRProgressMonitor monitor, DashboardContainer dashboard) throws DBCException {
+    private void updateDashboard(
+        DBRProgressMonitor monitor,
+        DashboardContainer dashboard,
+        List<DashboardContainer> batch,
+        Map<DashboardMapQuery, MapQueryInfo> mapQueries,
+        Map<String, QueryResult> queryResults) throws DBCException
+    {
         if (!dashboard.getDataSourceContainer().isConnected() || DBWorkbench.getPlatform().isShuttingDown()) {
             return;
         }
 
         if (dashboard.getMapQuery() != null) {
-            fetchDashboardMapData(monitor, dashboard);
+            MapQueryInfo mqi = mapQueries.get(dashboard.getMapQuery());
+            if (mqi != null) {
+                fetchDashboardMapData(dashboard, mqi);
+            }
             return;
         }
         List<? extends DashboardQuery> queries = dashboard.getQueryList();
@@ -171,28 +202,66 @@ public class DashboardUpdater {
         if (executionContext == null) {
             return;
         }
+        for (DashboardQuery query : queries) {
+            String queryText = query.getQueryText();
+            if (!queryResults.containsKey(queryText)) {
+                // Fetch enough rows for all dashboards which use this query
+                int maxRows = 0;
+                for (DashboardContainer d : batch) {
+                    if (d.getMapQuery() == null && getQueryKeys(d).contains(queryText)) {
+                        maxRows = Math.max(maxRows, d.getDashboardMaxItems());
+                    }
+                }
+                queryResults.put(queryText, readQueryResult(monitor, executionContext, dashboard, queryText, maxRows));
+            }
+            QueryResult result = queryResults.get(queryText);
+            if (result != null) {
+                dashboard.updateDashboardData(makeDashboardDataset(dashboard, result));
+            }
+        }
+    }
+
+    private QueryResult readQueryResult(DBRProgressMonitor monitor, DBCExecutionContext executionContext, DashboardContainer dashboard, String queryText, int maxRows) throws DBCException {
         try (DBCSession session = executionContext.openSession(
             monitor, DBCExecutionPurpose.UTIL, "Read dashboard '" + dashboard.getDashboardTitle() + "' data")) {
             session.enableLogging(false);
-            for (DashboardQuery query : queries) {
-                try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query.getQueryText(), false, false, false)) {
-                    if (dbStat.executeStatement()) {
-                        try (DBCResultSet dbResults = dbStat.openResultSet()) {
-                            fetchDashboardData(dashboard, dbResults);
-                        }
+            try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, queryText, false, false, false)) {
+                setQueryTimeout(dbStat, executionContext);
+                if (dbStat.executeStatement()) {
+                    try (DBCResultSet dbResults = dbStat.openResultSet()) {
+                        return fetchQueryResult(dbResults, maxRows);
                     }
-                } catch (Exception e) {
-                    throw new DBCException("Error updating dashboard " + dashboard.getDashboardId(), e, session.getExecutionContext());
                 }
+                return null;
+            } catch (Exception e) {
+                throw new DBCException("Error updating dashboard " + dashboard.getDashboardId(), e, session.getExecutionContext());
             }
         }
     }
 
-    private void fetchDashboardMapData(DBRProgressMonitor monitor, DashboardContainer dashboard) {
-        MapQueryInfo mqi = getMapQueryData(dashboard);
-        if (mqi == null) {
-            return;
+    private void setQueryTimeout(DBCStatement dbStat, DBCExecutionContext executionContext) {
+        int queryTimeout = executionContext.getDataSource().getContainer().getPreferenceStore().getInt(DashboardConstants.PREF_QUERY_TIMEOUT);
+        if (queryTimeout > 0) {
+            try {
+                dbStat.setStatementTimeout(queryTimeout);
+            } catch (Throwable e) {
+                log.debug("Can't set dashboard query timeout", e);
+            }
+        }
+    }
+
+    private static List<String> getQueryKeys(DashboardContainer dashboard) {
+        if (dashboard.getMapQuery() != null) {
+            return Collections.singletonList("map:" + dashboard.getMapQuery().getId());
         }
+        List<String> keys = new ArrayList<>();
+        for (DashboardQuery query : dashboard.getQueryList()) {
+            keys.add(query.getQueryText());
+        }
+        return keys;
+    }
+
+    private void fetchDashboardMapData(DashboardContainer dashboard, MapQueryInfo mqi) {
         Map<String, Object> mapValue = mqi.mapValue;
         if (mapValue != null) {
             String[] mapKeys = dashboard.getMapKeys();
@@ -263,10 +332,10 @@ public class DashboardUpdater {
         }
     }
 
-    private void fetchDashboardData(DashboardContainer dashboard, DBCResultSet dbResults) throws DBCException {
+    private QueryResult fetchQueryResult(DBCResultSet dbResults, int maxRows) throws DBCException {
         DBCResultSetMetaData meta = dbResults.getMeta();
         List<DBCAttributeMetaData> rsAttrs = meta.getAttributes();
-        List<String> colNames = new ArrayList<>();
+        QueryResult result = new QueryResult();
         String tsColName = null;
         for (DBCAttributeMetaData rsAttr : rsAttrs) {
             String colName = rsAttr.getLabel();
@@ -276,24 +345,36 @@ public class DashboardUpdater {
             if (DashboardConstants.RS_COL_TIMESTAMP.equalsIgnoreCase(colName)) {
                 tsColName = colName;
             } else {
-                colNames.add(colName);
+                result.colNames.add(colName);
             }
         }
-        DashboardDataset dataset = new DashboardDataset(colNames.toArray(new String[0]));
 
         while (dbResults.nextRow()) {
-            Object[] values = new Object[colNames.size()];
+            Object[] values = new Object[result.colNames.size()];
             Date timestamp;
             if (tsColName != null) {
                 timestamp = (Date) dbResults.getAttributeValue(tsColName);
             } else {
                 timestamp = new Date();
             }
-            for (int i = 0; i < colNames.size(); i++) {
-                values[i] = dbResults.getAttributeValue(colNames.get(i));
+            for (int i = 0; i < result.colNames.size(); i++) {
+                values[i] = dbResults.getAttributeValue(result.colNames.get(i));
             }
-            dataset.addRow(new DashboardDatasetRow(timestamp, values));
-            if (dataset.getRows().size() >= dashboard.getDashboardMaxItems()) {
+            result.rows.add(new DashboardDatasetRow(timestamp, values));
+            if (result.rows.size() >= maxRows) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private DashboardDataset makeDashboardDataset(DashboardContainer dashboard, QueryResult result) {
+        DashboardDataset dataset = new DashboardDataset(result.colNames.toArray(new String[0]));
+        int maxItems = dashboard.getDashboardMaxItems();
+        for (DashboardDatasetRow row : result.rows) {
+            // Rows may be modified by dataset transpose, so copy values
+            dataset.addRow(new DashboardDatasetRow(row.getTimestamp(), row.getValues().clone()));
+            if (dataset.getRows().size() >= maxItems) {
                 break;
             }
         }
@@ -303,7 +384,7 @@ public class DashboardUpdater {
                 dataset = transposeDataset(dataset);
                 break;
         }
-        dashboard.updateDashboardData(dataset);
+        return dataset;
     }
 
     private DashboardDataset transposeDataset(DashboardDataset dataset) {
@@ -373,16 +454,65 @@ public class DashboardUpdater {
         }
     }
 
-    private MapQueryInfo getMapQueryData(DashboardContainer dashboard) {
-        List<MapQueryInfo> mapQueryInfos = mapQueries.get(dashboard.getDataSourceContainer());
-        if (mapQueryInfos != null) {
-            for (MapQueryInfo mqi : mapQueryInfos) {
-                if (mqi.mapQuery == dashboard.getMapQuery()) {
-                    return mqi;
+    /**
+     * Updates dashboards of a single data source
+     */
+    private class UpdateLane extends AbstractJob {
+
+        private final DBPDataSourceContainer dsContainer;
+        private final Set<DashboardContainer> pending = new LinkedHashSet<>();
+        private final Set<String> queriesInFlight = new HashSet<>();
+        private boolean running;
+
+        UpdateLane(DBPDataSourceContainer dsContainer) {
+            super("Update dashboards of " + dsContainer.getName());
+            this.dsContainer = dsContainer;
+            setSystem(true);
+            setUser(false);
+        }
+
+        synchronized boolean isIdle() {
+            return !running;
+        }
+
+        synchronized void submit(List<DashboardContainer> dashboards) {
+            for (DashboardContainer dashboard : dashboards) {
+                if (pending.contains(dashboard) || !Collections.disjoint(queriesInFlight, getQueryKeys(dashboard))) {
+                    // Previous refresh is not finished yet
+                    continue;
+                }
+                pending.add(dashboard);
+            }
+            if (!running && !pending.isEmpty()) {
+                running = true;
+                schedule();
+            }
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            for (;;) {
+                List<DashboardContainer> batch;
+                synchronized (this) {
+                    queriesInFlight.clear();
+                    if (pending.isEmpty() || monitor.isCanceled() || DBWorkbench.getPlatform().isShuttingDown()) {
+                        pending.clear();
+                        running = false;
+                        return Status.OK_STATUS;
+                    }
+                    batch = new ArrayList<>(pending);
+                    pending.clear();
+                    for (DashboardContainer dashboard : batch) {
+                        queriesInFlight.addAll(getQueryKeys(dashboard));
+                    }
+                }
+                try {
+                    updateDashboardBatch(monitor, dsContainer, batch);
+                } catch (Exception e) {
+                    log.error("Error updating dashboards of '" + dsContainer.getName() + "'", e);
                 }
             }
         }
-        return null;
     }
 
-}
\ No newline at end of file
+}
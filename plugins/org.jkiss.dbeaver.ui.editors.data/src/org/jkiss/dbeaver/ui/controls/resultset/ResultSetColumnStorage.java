@@ -0,0 +1,497 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Columnar row storage.
+ * Values of each column are kept in primitive arrays (numbers, booleans, dates), dictionary-encoded strings
+ * or plain object arrays (all other values). Nulls are kept in per-column bitmaps.
+ * Column type is determined by the first non-null value. If a value of another type appears then column is
+ * converted to the object column.
+ * Values which have to be boxed on read (numbers, dates) are cached for recently read rows,
+ * so repeated reads of the same cells (e.g. grid paint) do not allocate.
+ * Storage is not thread safe. Rows are appended by the model and never removed.
+ */
+class ResultSetColumnStorage implements ResultSetRowStorage {
+
+    private static final int INITIAL_CAPACITY = 256;
+    // Dictionary is dropped if it doesn't compress values.
+    // It is checked when row count reaches this size and then each time row count doubles.
+    private static final int DICTIONARY_CHECK_SIZE = 4096;
+    // Number of cached boxed values per column. Must be a power of two.
+    private static final int VALUE_CACHE_SIZE = 256;
+
+    private final int columnCount;
+    private final Column[] columns;
+    private final BitSet[] nulls;
+    private int rowCount;
+    private int capacity;
+    private int nextDictionaryCheck = DICTIONARY_CHECK_SIZE;
+
+    ResultSetColumnStorage(int columnCount) {
+        this.columnCount = columnCount;
+        this.columns = new Column[columnCount];
+        this.nulls = new BitSet[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            nulls[i] = new BitSet();
+        }
+        this.capacity = INITIAL_CAPACITY;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int addRow(@NotNull Object[] values) {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("Bad row size: " + values.length + ", expected " + columnCount);
+        }
+        if (rowCount >= capacity) {
+            capacity = capacity + (capacity >> 1);
+            for (Column column : columns) {
+                if (column != null) {
+                    column.ensureCapacity(capacity);
+                }
+            }
+        }
+        int row = rowCount++;
+        for (int i = 0; i < columnCount; i++) {
+            setValue(row, i, values[i]);
+        }
+        if (rowCount >= nextDictionaryCheck) {
+            nextDictionaryCheck = rowCount * 2;
+            for (Column column : columns) {
+                if (column instanceof StringColumn) {
+                    ((StringColumn) column).checkDictionary(rowCount);
+                }
+            }
+        }
+        return row;
+    }
+
+    @Nullable
+    @Override
+    public Object getValue(int row, int column) {
+        if (nulls[column].get(row) || columns[column] == null) {
+            return null;
+        }
+        return columns[column].get(row);
+    }
+
+    @NotNull
+    @Override
+    public Object[] getValues(int row) {
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = getValue(row, i);
+        }
+        return values;
+    }
+
+    @NotNull
+    @Override
+    public Object[] detachRow(int row) {
+        Object[] values = getValues(row);
+        for (int i = 0; i < columnCount; i++) {
+            if (columns[i] instanceof ObjectColumn) {
+                ((ObjectColumn) columns[i]).values[row] = null;
+                nulls[i].set(row);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void release() {
+        for (Column column : columns) {
+            if (column instanceof ObjectColumn) {
+                for (Object value : ((ObjectColumn) column).values) {
+                    if (value != null) {
+                        DBUtils.releaseValue(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private void setValue(int row, int columnIndex, @Nullable Object value) {
+        if (value == null) {
+            nulls[columnIndex].set(row);
+            return;
+        }
+        Column column = columns[columnIndex];
+        if (column == null) {
+            column = createColumn(value);
+            column.ensureCapacity(capacity);
+            columns[columnIndex] = column;
+        } else if (!column.accepts(value)) {
+            column = convertToObjects(columnIndex, row);
+        }
+        column.set(row, value);
+    }
+
+    private ObjectColumn convertToObjects(int columnIndex, int rowLimit) {
+        Column oldColumn = columns[columnIndex];
+        ObjectColumn newColumn = new ObjectColumn();
+        newColumn.ensureCapacity(capacity);
+        BitSet columnNulls = nulls[columnIndex];
+        for (int i = 0; i < rowLimit; i++) {
+            if (!columnNulls.get(i)) {
+                newColumn.values[i] = oldColumn.get(i);
+            }
+        }
+        columns[columnIndex] = newColumn;
+        return newColumn;
+    }
+
+    private static Column createColumn(@NotNull Object value) {
+        Class<?> valueClass = value.getClass();
+        if (valueClass == Long.class || valueClass == Integer.class || valueClass == Short.class || valueClass == Byte.class) {
+            return new LongColumn(valueClass);
+        } else if (valueClass == Double.class || valueClass == Float.class) {
+            return new DoubleColumn(valueClass);
+        } else if (valueClass == Boolean.class) {
+            return new BooleanColumn();
+        } else if (valueClass == Timestamp.class) {
+            return new TimestampColumn();
+        } else if (valueClass == java.sql.Date.class || valueClass == java.sql.Time.class || valueClass == Date.class) {
+            return new DateColumn(valueClass);
+        } else if (valueClass == String.class) {
+            return new StringColumn();
+        } else {
+            return new ObjectColumn();
+        }
+    }
+
+    private static abstract class Column {
+        abstract boolean accepts(@NotNull Object value);
+
+        abstract void set(int row, @NotNull Object value);
+
+        @NotNull
+        abstract Object get(int row);
+
+        abstract void ensureCapacity(int capacity);
+    }
+
+    /**
+     * Column which creates value objects on read. Keeps recently read values.
+     */
+    private static abstract class BoxedColumn extends Column {
+        private final Object[] cachedValues = new Object[VALUE_CACHE_SIZE];
+        private final int[] cachedRows = new int[VALUE_CACHE_SIZE];
+
+        BoxedColumn() {
+            Arrays.fill(cachedRows, -1);
+        }
+
+        @Override
+        final void set(int row, @NotNull Object value) {
+            int slot = row & (VALUE_CACHE_SIZE - 1);
+            if (cachedRows[slot] == row) {
+                cachedRows[slot] = -1;
+                cachedValues[slot] = null;
+            }
+            store(row, value);
+        }
+
+        @NotNull
+        @Override
+        final Object get(int row) {
+            int slot = row & (VALUE_CACHE_SIZE - 1);
+            if (cachedRows[slot] == row) {
+                return cachedValues[slot];
+            }
+            Object value = load(row);
+            cachedRows[slot] = row;
+            cachedValues[slot] = value;
+            return value;
+        }
+
+        abstract void store(int row, @NotNull Object value);
+
+        @NotNull
+        abstract Object load(int row);
+    }
+
+    private static class LongColumn extends BoxedColumn {
+        private final Class<?> valueClass;
+        private long[] values = new long[0];
+
+        LongColumn(Class<?> valueClass) {
+            this.valueClass = valueClass;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value.getClass() == valueClass;
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            values[row] = ((Number) value).longValue();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            long value = values[row];
+            if (valueClass == Long.class) {
+                return value;
+            } else if (valueClass == Integer.class) {
+                return (int) value;
+            } else if (valueClass == Short.class) {
+                return (short) value;
+            } else {
+                return (byte) value;
+            }
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends BoxedColumn {
+        private final Class<?> valueClass;
+        private double[] values = new double[0];
+
+        DoubleColumn(Class<?> valueClass) {
+            this.valueClass = valueClass;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value.getClass() == valueClass;
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            values[row] = ((Number) value).doubleValue();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            if (valueClass == Float.class) {
+                return (float) values[row];
+            }
+            return values[row];
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+        private final BitSet values = new BitSet();
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value instanceof Boolean;
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            values.set(row, (Boolean) value);
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            // Bit set grows automatically
+        }
+    }
+
+    private static class TimestampColumn extends BoxedColumn {
+        private long[] times = new long[0];
+        private int[] nanos = new int[0];
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value.getClass() == Timestamp.class;
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            Timestamp timestamp = (Timestamp) value;
+            times[row] = timestamp.getTime();
+            nanos[row] = timestamp.getNanos();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            Timestamp timestamp = new Timestamp(times[row]);
+            timestamp.setNanos(nanos[row]);
+            return timestamp;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            times = Arrays.copyOf(times, capacity);
+            nanos = Arrays.copyOf(nanos, capacity);
+        }
+    }
+
+    private static class DateColumn extends BoxedColumn {
+        private final Class<?> valueClass;
+        private long[] times = new long[0];
+
+        DateColumn(Class<?> valueClass) {
+            this.valueClass = valueClass;
+        }
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value.getClass() == valueClass;
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            times[row] = ((Date) value).getTime();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            if (valueClass == java.sql.Date.class) {
+                return new java.sql.Date(times[row]);
+            } else if (valueClass == java.sql.Time.class) {
+                return new java.sql.Time(times[row]);
+            } else {
+                return new Date(times[row]);
+            }
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            times = Arrays.copyOf(times, capacity);
+        }
+    }
+
+    private static class StringColumn extends Column {
+        // Dictionary mode
+        private Map<String, Integer> dictionary = new HashMap<>();
+        private List<String> words = new ArrayList<>();
+        private int[] codes = new int[0];
+        // Plain mode
+        private String[] values;
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return value instanceof String;
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            if (values != null) {
+                values[row] = (String) value;
+                return;
+            }
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = words.size();
+                words.add((String) value);
+                dictionary.put((String) value, code);
+            }
+            codes[row] = code;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            if (values != null) {
+                return values[row];
+            }
+            return words.get(codes[row]);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (values != null) {
+                values = Arrays.copyOf(values, capacity);
+            } else {
+                codes = Arrays.copyOf(codes, capacity);
+            }
+        }
+
+        /**
+         * Switches to plain mode if most of values are unique
+         */
+        void checkDictionary(int rowCount) {
+            if (values != null || words.size() < rowCount / 2) {
+                return;
+            }
+            String[] plainValues = new String[codes.length];
+            for (int i = 0; i < rowCount; i++) {
+                plainValues[i] = words.get(codes[i]);
+            }
+            values = plainValues;
+            dictionary = null;
+            words = null;
+            codes = null;
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] values = new Object[0];
+
+        @Override
+        boolean accepts(@NotNull Object value) {
+            return true;
+        }
+
+        @Override
+        void set(int row, @NotNull Object value) {
+            values[row] = value;
+        }
+
+        @NotNull
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+}
@@ -29,6 +29,9 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.trace.DBCTrace;
+import org.jkiss.dbeaver.model.impl.data.RowOrderingEngine;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
@@ -39,6 +42,7 @@ import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -58,6 +62,12 @@ public class ResultSetModel {
 
     // Data
     private List<ResultSetRow> curRows = new ArrayList<>();
+    // Columnar storage of fetched rows. Null if rows keep their own values
+    private ResultSetColumnStorage rowStorage;
+    private boolean columnarStorage;
+    // Disk storage of rows which do not fit into in-memory window
+    private ResultSetSpillStorage spillStorage;
+    private int spillWindow;
     private Long totalRowCount = null;
     private int changesCount = 0;
     private volatile boolean hasData = false;
@@ -337,7 +347,7 @@ public class ResultSetModel {
 
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -355,7 +365,20 @@ public class ResultSetModel {
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row) {
-        return DBUtils.getAttributeValue(attribute, attributes, row.values);
+        if (attribute.getLevel() == 0 && !attribute.isCustom()) {
+            // Read value directly, do not materialize the whole row
+            int index = attribute.getOrdinalPosition();
+            if (index >= row.getValueCount()) {
+                log.debug("Bad attribute '" + attribute.getName() + "' index: " + index + " is out of row values' bounds (" + row.getValueCount() + ")");
+                return null;
+            }
+            return row.getValue(index);
+        }
+        if (attribute.isCustom()) {
+            return DBUtils.getAttributeValue(attribute, attributes, row.getValues());
+        }
+        // Nested attribute. Read only the top level value
+        return DBUtils.getNestedAttributeValue(attribute, row.getValue(attribute.getTopParent().getOrdinalPosition()));
     }
 
     /**
@@ -378,7 +401,7 @@ public class ResultSetModel {
         } else {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -484,7 +507,7 @@ public class ResultSetModel {
                     e.printStackTrace();
                 }
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -781,16 +804,59 @@ public class ResultSetModel {
         }
     }
 
+    /**
+     * Enables columnar storage for fetched rows. Takes effect when the first data segment is appended.
+     */
+    void setColumnarStorage(boolean columnarStorage) {
+        this.columnarStorage = columnarStorage;
+    }
+
+    /**
+     * Sets number of rows kept in memory. Next rows are stored on disk. 0 means no limit.
+     */
+    void setSpillWindow(int spillWindow) {
+        this.spillWindow = spillWindow;
+    }
+
     void appendData(@NotNull List<Object[]> rows, boolean resetOldRows) {
         if (resetOldRows) {
             curRows.clear();
+            rowStorage = null;
+            releaseSpillStorage();
         }
         int rowCount = rows.size();
         int firstRowNum = curRows.size();
+        if (columnarStorage && rowStorage == null && firstRowNum == 0 && rowCount > 0) {
+            rowStorage = new ResultSetColumnStorage(rows.get(0).length);
+        }
         List<ResultSetRow> newRows = new ArrayList<>(rowCount);
         for (int i = 0; i < rowCount; i++) {
-            newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+            Object[] rowValues = rows.get(i);
+            int rowNum = firstRowNum + i;
+            ResultSetRow newRow = null;
+            if (spillWindow > 0 && rowNum >= spillWindow) {
+                if (spillStorage == null) {
+                    try {
+                        spillStorage = new ResultSetSpillStorage(new VoidProgressMonitor(), rowValues.length);
+                    } catch (IOException e) {
+                        log.warn("Can't create temporary row storage. Rows will be kept in memory", e);
+                        spillWindow = 0;
+                    }
+                }
+                if (spillStorage != null) {
+                    int storageIndex = spillStorage.addRow(rowValues);
+                    if (storageIndex >= 0) {
+                        newRow = new ResultSetRow(rowNum, spillStorage, storageIndex);
+                    }
+                }
+            }
+            if (newRow == null && rowStorage != null && rowValues.length == rowStorage.getColumnCount()) {
+                newRow = new ResultSetRow(rowNum, rowStorage, rowStorage.addRow(rowValues));
+            }
+            if (newRow == null) {
+                newRow = new ResultSetRow(rowNum, rowValues);
+            }
+            newRows.add(newRow);
         }
         curRows.addAll(newRows);
 
@@ -800,6 +866,8 @@ public class ResultSetModel {
     void clearData() {
         // Refresh all rows
         this.curRows = new ArrayList<>();
+        this.rowStorage = null;
+        releaseSpillStorage();
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -887,8 +955,17 @@ public class ResultSetModel {
         }
     }
 
+    private void releaseSpillStorage() {
+        if (spillStorage != null) {
+            spillStorage.release();
+            spillStorage = null;
+        }
+    }
+
     void releaseAllData() {
         final List<ResultSetRow> oldRows = curRows;
+        final ResultSetColumnStorage oldStorage = rowStorage;
+        final ResultSetSpillStorage oldSpillStorage = spillStorage;
         // Cleanup in separate job.
         // Sometimes model cleanup takes much time (e.g. freeing LOB values)
         // So let's do it in separate job to avoid UI locking
@@ -896,6 +973,12 @@ public class ResultSetModel {
             for (ResultSetRow row : oldRows) {
                 row.release();
             }
+            if (oldStorage != null) {
+                oldStorage.release();
+            }
+            if (oldSpillStorage != null) {
+                oldSpillStorage.release();
+            }
         }, "Release values", 5000);
     }
 
@@ -1019,39 +1102,110 @@ public class ResultSetModel {
     }
 
     public void resetOrdering() {
-        final boolean hasOrdering = dataFilter.hasOrdering();
+        applyOrdering(prepareOrdering().computeOrdering(new VoidProgressMonitor()));
+    }
 
+    /**
+     * Rows ordering snapshot. Keeps rows and values of their ordering columns, so ordering can be computed
+     * outside of UI thread without access to the model (row storage is not thread safe).
+     */
+    static class RowsOrdering {
+        private final List<ResultSetRow> rows;
+        @Nullable
+        private final RowOrderingEngine engine;
+
+        RowsOrdering(@NotNull List<ResultSetRow> rows, @Nullable RowOrderingEngine engine) {
+            this.rows = rows;
+            this.engine = engine;
+        }
+
+        /**
+         * Computes rows order. May be called in any thread.
+         * @return ordered rows or null if ordering was canceled
+         */
+        @Nullable
+        List<ResultSetRow> computeOrdering(@NotNull DBRProgressMonitor monitor) {
+            if (engine == null) {
+                return rows;
+            }
+            final int[] order = engine.sort(monitor);
+            if (order == null) {
+                return null;
+            }
+            final List<ResultSetRow> orderedRows = new ArrayList<>(order.length);
+            for (int index : order) {
+                orderedRows.add(rows.get(index));
+            }
+            return orderedRows;
+        }
+    }
+
+    /**
+     * Reads values of ordering columns of current rows according to the current data filter.
+     * Only values are copied here. Sort keys are extracted by {@link RowsOrdering#computeOrdering(DBRProgressMonitor)}.
+     * Must be called in UI thread.
+     */
+    @NotNull
+    RowsOrdering prepareOrdering() {
         // First sort in original order to reset multi-column orderings
-        curRows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
-
-        if (hasOrdering) {
-            // Sort locally
-            final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-            curRows.sort((row1, row2) -> {
-                int result = 0;
-                for (DBDAttributeConstraint co : orderConstraints) {
-                    final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                    if (binding == null) {
-                        continue;
-                    }
-                    Object cell1 = getCellValue(binding, row1);
-                    Object cell2 = getCellValue(binding, row2);
-                    result = DBUtils.compareDataValues(cell1, cell2);
-                    if (co.isOrderDescending()) {
-                        result = -result;
-                    }
-                    if (result != 0) {
-                        break;
-                    }
-                }
-                return result;
-            });
+        final List<ResultSetRow> rows = new ArrayList<>(curRows);
+        rows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
+
+        if (!dataFilter.hasOrdering()) {
+            return new RowsOrdering(rows, null);
+        }
+        // Sort locally
+        final List<DBDAttributeBinding> bindings = new ArrayList<>();
+        final List<Boolean> descending = new ArrayList<>();
+        for (DBDAttributeConstraint co : dataFilter.getOrderConstraints()) {
+            final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
+            if (binding != null) {
+                bindings.add(binding);
+                descending.add(co.isOrderDescending());
+            }
+        }
+        final boolean[] descFlags = new boolean[descending.size()];
+        final Object[][] values = new Object[bindings.size()][];
+        for (int i = 0; i < descFlags.length; i++) {
+            descFlags[i] = descending.get(i);
+            final DBDAttributeBinding binding = bindings.get(i);
+            values[i] = new Object[rows.size()];
+            for (int row = 0; row < rows.size(); row++) {
+                values[i][row] = getCellValue(binding, rows.get(row));
+            }
+        }
+        final RowOrderingEngine engine = new RowOrderingEngine(
+            (row, key) -> values[key][row],
+            rows.size(),
+            descFlags);
+        return new RowsOrdering(rows, engine);
+    }
+
+    /**
+     * Applies rows order computed by {@link RowsOrdering#computeOrdering(DBRProgressMonitor)}
+     */
+    void applyOrdering(@Nullable List<ResultSetRow> orderedRows) {
+        if (orderedRows == null) {
+            return;
+        }
+        if (orderedRows.size() != curRows.size() || !isSameRows(orderedRows)) {
+            // Rows were changed while ordering was computed
+            orderedRows = prepareOrdering().computeOrdering(new VoidProgressMonitor());
+        }
+        for (int i = 0; i < orderedRows.size(); i++) {
+            curRows.set(i, orderedRows.get(i));
         }
         for (int i = 0; i < curRows.size(); i++) {
             curRows.get(i).setVisualNumber(i);
         }
     }
 
+    private boolean isSameRows(@NotNull List<ResultSetRow> rows) {
+        final Set<ResultSetRow> rowSet = Collections.newSetFromMap(new IdentityHashMap<>(curRows.size()));
+        rowSet.addAll(curRows);
+        return rowSet.containsAll(rows);
+    }
+
     private void fillVisibleAttributes() {
         this.visibleAttributes.clear();
 
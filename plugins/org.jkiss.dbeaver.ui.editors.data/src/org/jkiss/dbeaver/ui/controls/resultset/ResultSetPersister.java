@@ -52,6 +52,9 @@ class ResultSetPersister {
 
     private static final Log log = Log.getLog(ResultSetPersister.class);
 
+    // Maximum number of statements executed in a single batch
+    private static final int MAX_STATEMENT_GROUP_SIZE = 1000;
+
     /**
      * Data update listener
      */
@@ -513,8 +516,8 @@ class ResultSetPersister {
         if (!stat.updatedCells.isEmpty()) {
             for (Map.Entry<Integer, Object> entry : stat.updatedCells.entrySet()) {
                 ResultSetRow row = stat.row;
-                DBUtils.releaseValue(row.values[entry.getKey()]);
-                row.values[entry.getKey()] = entry.getValue();
+                DBUtils.releaseValue(row.getValue(entry.getKey()));
+                row.setValue(entry.getKey(), entry.getValue());
             }
         }
     }
@@ -596,6 +599,7 @@ class ResultSetPersister {
         private final DataUpdateListener listener;
         private boolean autocommit;
         private DBCStatistics updateStats, insertStats, deleteStats;
+        private long savedRows, roundTrips;
         private DBCSavepoint savepoint;
         private Throwable error;
 
@@ -724,108 +728,221 @@ class ResultSetPersister {
                 }
             }
             try {
-                for (DataStatementInfo statement : ResultSetPersister.this.deleteStatements) {
-                    if (monitor.isCanceled()) break;
-                    try {
-                        DBSDataManipulator dataContainer = getDataManipulator(statement.entity);
-                        try (DBSDataManipulator.ExecuteBatch batch = dataContainer.deleteData(
-                            session,
-                            DBDAttributeValue.getAttributes(statement.keyAttributes),
-                            new ExecutionSource(dataContainer))) {
-                            batch.add(DBDAttributeValue.getValues(statement.keyAttributes));
-                            if (generateScript) {
-                                batch.generatePersistActions(session, script, options);
-                            } else {
-                                DBCStatistics bs = batch.execute(session, options);
-                                // Notify rsv container about statement execute
-                                this.notifyContainer(bs);
-
-                                deleteStats.accumulate(bs);
-                            }
-                        }
-                        processStatementChanges(statement);
-                    } catch (DBException e) {
-                        processStatementError(statement, session);
-                        return e;
-                    }
-                    monitor.worked(1);
+                Throwable error = executeStatementGroups(session, ResultSetPersister.this.deleteStatements, options, deleteStats);
+                if (error == null) {
+                    error = executeStatementGroups(session, ResultSetPersister.this.insertStatements, options, insertStats);
                 }
-                for (DataStatementInfo statement : ResultSetPersister.this.insertStatements) {
-                    if (monitor.isCanceled()) break;
+                if (error == null) {
+                    error = executeStatementGroups(session, ResultSetPersister.this.updateStatements, options, updateStats);
+                }
+                if (!generateScript && roundTrips > 0) {
+                    log.debug("Saved " + savedRows + " row(s) in " + roundTrips + " round trip(s) (" +
+                        String.format("%.1f", (double) savedRows / roundTrips) + " rows per round trip)");
+                }
+                return error;
+            } finally {
+                if (!generateScript && txnManager != null && this.savepoint != null) {
                     try {
-                        DBSDataManipulator dataContainer = getDataManipulator(statement.entity);
-                        try (DBSDataManipulator.ExecuteBatch batch = dataContainer.insertData(
-                            session,
-                            DBDAttributeValue.getAttributes(statement.keyAttributes),
-                            statement.needKeys() ? new KeyDataReceiver(statement) : null,
-                            new ExecutionSource(dataContainer))) {
-                            batch.add(DBDAttributeValue.getValues(statement.keyAttributes));
-                            if (generateScript) {
-                                batch.generatePersistActions(session, script, options);
-                            } else {
-                                DBCStatistics bs = batch.execute(session, options);
-                                // Notify rsv container about statement execute
-                                this.notifyContainer(bs);
-
-                                insertStats.accumulate(bs);
-                            }
-                        }
-                        processStatementChanges(statement);
-                    } catch (DBException e) {
-                        processStatementError(statement, session);
-                        return e;
+                        txnManager.releaseSavepoint(monitor, this.savepoint);
+                    } catch (Throwable e) {
+                        // Maybe savepoints not supported
+                        log.debug("Can't release savepoint", e);
                     }
-                    monitor.worked(1);
                 }
-                for (DataStatementInfo statement : ResultSetPersister.this.updateStatements) {
-                    if (monitor.isCanceled()) break;
-                    try {
-                        DBSDataManipulator dataContainer = getDataManipulator(statement.entity);
-                        try (DBSDataManipulator.ExecuteBatch batch = dataContainer.updateData(
-                            session,
-                            DBDAttributeValue.getAttributes(statement.updateAttributes),
-                            DBDAttributeValue.getAttributes(statement.keyAttributes),
-                            null,
-                            new ExecutionSource(dataContainer))) {
-                            // Make single array of values
-                            Object[] attributes = new Object[statement.updateAttributes.size() + statement.keyAttributes.size()];
-                            for (int i = 0; i < statement.updateAttributes.size(); i++) {
-                                attributes[i] = statement.updateAttributes.get(i).getValue();
-                            }
-                            for (int i = 0; i < statement.keyAttributes.size(); i++) {
-                                attributes[statement.updateAttributes.size() + i] = statement.keyAttributes.get(i).getValue();
-                            }
-                            // Execute
-                            batch.add(attributes);
-                            if (generateScript) {
-                                batch.generatePersistActions(session, script, options);
-                            } else {
-                                DBCStatistics bs = batch.execute(session, options);
-                                // Notify rsv container about statement execute
-                                this.notifyContainer(bs);
-
-                                updateStats.accumulate(bs);
-                            }
-                        }
-                        processStatementChanges(statement);
-                    } catch (DBException e) {
-                        processStatementError(statement, session);
-                        return e;
+            }
+        }
+
+        /**
+         * Executes statements in groups. Consecutive statements of the same entity and attributes
+         * go into a single batch.
+         */
+        private Throwable executeStatementGroups(DBCSession session, List<DataStatementInfo> statements, Map<String, Object> options, DBCStatistics statistics) {
+            DBRProgressMonitor monitor = session.getProgressMonitor();
+            List<DataStatementInfo> group = new ArrayList<>();
+            for (DataStatementInfo statement : statements) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                if (!group.isEmpty() && (group.size() >= MAX_STATEMENT_GROUP_SIZE || !group.get(0).hasSameShape(statement))) {
+                    Throwable error = executeStatementGroup(session, group, options, statistics);
+                    if (error != null) {
+                        return error;
                     }
-                    monitor.worked(1);
+                    group.clear();
                 }
+                group.add(statement);
+            }
+            if (!group.isEmpty() && !monitor.isCanceled()) {
+                return executeStatementGroup(session, group, options, statistics);
+            }
+            return null;
+        }
 
+        private Throwable executeStatementGroup(DBCSession session, List<DataStatementInfo> group, Map<String, Object> options, DBCStatistics statistics) {
+            DBRProgressMonitor monitor = session.getProgressMonitor();
+            if (group.size() == 1) {
+                return executeStatementsOneByOne(session, group, options, statistics);
+            }
+            if (generateScript) {
+                try {
+                    executeBatch(session, group, options, false);
+                } catch (DBException e) {
+                    processStatementError(group.get(0), session);
+                    return e;
+                }
+                for (DataStatementInfo statement : group) {
+                    processStatementChanges(statement);
+                }
+                monitor.worked(group.size());
                 return null;
+            }
+
+            // Group is executed in its own transaction (in auto-commit mode) or after its own savepoint.
+            // If it fails then its changes are rolled back and statements are executed one by one.
+            // This way we get exactly the same results (and the same failed row) as with separate statements.
+            DBCTransactionManager txnManager = DBUtils.getTransactionManager(getExecutionContext());
+            if (txnManager == null || !txnManager.isSupportsTransactions()) {
+                return executeStatementsOneByOne(session, group, options, statistics);
+            }
+            boolean switchAutoCommit = this.autocommit;
+            DBCSavepoint groupSavepoint = null;
+            try {
+                if (switchAutoCommit) {
+                    txnManager.setAutoCommit(monitor, false);
+                } else if (txnManager.supportsSavepoints()) {
+                    groupSavepoint = txnManager.setSavepoint(monitor, null);
+                } else {
+                    return executeStatementsOneByOne(session, group, options, statistics);
+                }
+            } catch (Throwable e) {
+                log.debug("Can't start statements group transaction", e);
+                return executeStatementsOneByOne(session, group, options, statistics);
+            }
+            boolean groupFailed = false;
+            try {
+                // Generated keys are read after each row so JDBC batches can't be used for them
+                DBCStatistics bs = executeBatch(session, group, options, !group.get(0).needKeys());
+                if (switchAutoCommit) {
+                    txnManager.commit(session);
+                } else {
+                    txnManager.releaseSavepoint(monitor, groupSavepoint);
+                }
+                this.notifyContainer(bs);
+                statistics.accumulate(bs);
+                for (DataStatementInfo statement : group) {
+                    processStatementChanges(statement);
+                }
+                monitor.worked(group.size());
+            } catch (DBException e) {
+                log.debug("Error executing group of " + group.size() + " statements, execute them one by one: " + e.getMessage());
+                groupFailed = true;
+                try {
+                    txnManager.rollback(session, groupSavepoint);
+                } catch (Throwable e1) {
+                    log.debug("Error rolling back statements group", e1);
+                    processStatementError(group.get(0), session);
+                    return e;
+                }
+                for (DataStatementInfo statement : group) {
+                    statement.updatedCells.clear();
+                }
             } finally {
-                if (!generateScript && txnManager != null && this.savepoint != null) {
+                if (switchAutoCommit) {
                     try {
-                        txnManager.releaseSavepoint(monitor, this.savepoint);
+                        txnManager.setAutoCommit(monitor, true);
                     } catch (Throwable e) {
-                        // Maybe savepoints not supported
-                        log.debug("Can't release savepoint", e);
+                        log.debug("Can't restore auto-commit mode", e);
                     }
                 }
             }
+            return groupFailed ? executeStatementsOneByOne(session, group, options, statistics) : null;
+        }
+
+        private Throwable executeStatementsOneByOne(DBCSession session, List<DataStatementInfo> statements, Map<String, Object> options, DBCStatistics statistics) {
+            DBRProgressMonitor monitor = session.getProgressMonitor();
+            for (DataStatementInfo statement : statements) {
+                if (monitor.isCanceled()) break;
+                try {
+                    DBCStatistics bs = executeBatch(session, Collections.singletonList(statement), options, false);
+                    if (bs != null) {
+                        // Notify rsv container about statement execute
+                        this.notifyContainer(bs);
+                        statistics.accumulate(bs);
+                    }
+                    processStatementChanges(statement);
+                } catch (DBException e) {
+                    processStatementError(statement, session);
+                    return e;
+                }
+                monitor.worked(1);
+            }
+            return null;
+        }
+
+        /**
+         * Executes statements of the same shape in a single batch (or generates script for them).
+         * @return execution statistics or null in script generation mode
+         */
+        @Nullable
+        private DBCStatistics executeBatch(DBCSession session, List<DataStatementInfo> statements, Map<String, Object> options, boolean useBatches) throws DBException {
+            DataStatementInfo first = statements.get(0);
+            DBSDataManipulator dataContainer = getDataManipulator(first.entity);
+            DBSDataManipulator.ExecuteBatch batch;
+            if (first.type == DBSManipulationType.DELETE) {
+                batch = dataContainer.deleteData(
+                    session,
+                    DBDAttributeValue.getAttributes(first.keyAttributes),
+                    new ExecutionSource(dataContainer));
+            } else if (first.type == DBSManipulationType.INSERT) {
+                // Multi-row VALUES (dialect's multi-value insert mode) isn't used here:
+                // generated keys and errors must be attributed to separate rows
+                batch = dataContainer.insertData(
+                    session,
+                    DBDAttributeValue.getAttributes(first.keyAttributes),
+                    first.needKeys() ? new KeyDataReceiver(statements) : null,
+                    new ExecutionSource(dataContainer));
+            } else {
+                batch = dataContainer.updateData(
+                    session,
+                    DBDAttributeValue.getAttributes(first.updateAttributes),
+                    DBDAttributeValue.getAttributes(first.keyAttributes),
+                    null,
+                    new ExecutionSource(dataContainer));
+            }
+            try {
+                for (DataStatementInfo statement : statements) {
+                    if (statement.type == DBSManipulationType.UPDATE) {
+                        // Make single array of values
+                        Object[] attributes = new Object[statement.updateAttributes.size() + statement.keyAttributes.size()];
+                        for (int i = 0; i < statement.updateAttributes.size(); i++) {
+                            attributes[i] = statement.updateAttributes.get(i).getValue();
+                        }
+                        for (int i = 0; i < statement.keyAttributes.size(); i++) {
+                            attributes[statement.updateAttributes.size() + i] = statement.keyAttributes.get(i).getValue();
+                        }
+                        batch.add(attributes);
+                    } else {
+                        batch.add(DBDAttributeValue.getValues(statement.keyAttributes));
+                    }
+                }
+                if (generateScript) {
+                    batch.generatePersistActions(session, script, options);
+                    return null;
+                }
+                Map<String, Object> batchOptions = options;
+                boolean batched = useBatches && statements.size() > 1 && session.getDataSource().getInfo().supportsBatchUpdates();
+                if (batched) {
+                    batchOptions = new LinkedHashMap<>(options);
+                    batchOptions.put(DBSDataManipulator.OPTION_DISABLE_BATCHES, false);
+                }
+                DBCStatistics bs = batch.execute(session, batchOptions);
+                savedRows += statements.size();
+                // Batch is executed once per prepared statement
+                roundTrips += batched ? Math.max(1, bs.getStatementsCount()) : statements.size();
+                return bs;
+            } finally {
+                batch.close();
+            }
         }
 
         private void processStatementChanges(DataStatementInfo statement) {
@@ -854,15 +971,20 @@ class ResultSetPersister {
      * Key data receiver
      */
     class KeyDataReceiver implements DBDDataReceiver {
+        final List<DataStatementInfo> statements;
         DataStatementInfo statement;
 
-        KeyDataReceiver(DataStatementInfo statement) {
-            this.statement = statement;
+        KeyDataReceiver(List<DataStatementInfo> statements) {
+            this.statements = statements;
+            this.statement = statements.get(0);
         }
 
         @Override
         public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) {
-
+            // Batch passes index of the row which keys are fetched
+            if (offset >= 0 && offset < statements.size()) {
+                statement = statements.get((int) offset);
+            }
         }
 
         @Override
@@ -944,6 +1066,28 @@ class ResultSetPersister {
             this.entity = entity;
         }
 
+        /**
+         * Statements of the same shape can be executed in a single batch
+         */
+        boolean hasSameShape(DataStatementInfo other) {
+            return type == other.type && entity == other.entity &&
+                hasSameAttributes(keyAttributes, other.keyAttributes) &&
+                hasSameAttributes(updateAttributes, other.updateAttributes) &&
+                needKeys() == other.needKeys();
+        }
+
+        private static boolean hasSameAttributes(List<DBDAttributeValue> attrs1, List<DBDAttributeValue> attrs2) {
+            if (attrs1.size() != attrs2.size()) {
+                return false;
+            }
+            for (int i = 0; i < attrs1.size(); i++) {
+                if (attrs1.get(i).getAttribute() != attrs2.get(i).getAttribute()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         boolean needKeys() {
             for (DBDAttributeValue col : keyAttributes) {
                 if (col.getAttribute().isAutoGenerated() && DBUtils.isNullValue(col.getValue())) {
@@ -1068,7 +1212,7 @@ class ResultSetPersister {
                     if (!viewer.getControl().isDisposed() && viewer.getModel().getAttributes() == curAttributes) {
                         for (int i = 0; i < rows.size(); i++) {
                             if (refreshValues[i] != null) {
-                                rows.get(i).values = refreshValues[i];
+                                rows.get(i).setValues(refreshValues[i]);
                             }
                         }
                         viewer.redrawData(false, true);
@@ -52,10 +52,17 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
-    @NotNull
+    /**
+     * Column values. Null if values are kept in row storage (compact row storage or spilled rows).
+     * @deprecated use {@link #getValues()}, {@link #getValue(int)} and {@link #setValue(int, Object)}
+     */
+    @Deprecated
+    @Nullable
     public Object[] values;
     @Nullable
+    private ResultSetRowStorage storage;
+    private int storageIndex;
+    @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
     private byte state;
@@ -71,8 +78,59 @@ public class ResultSetRow {
         this.state = STATE_NORMAL;
     }
 
+    ResultSetRow(int rowNumber, @NotNull ResultSetRowStorage storage, int storageIndex) {
+        this.rowNumber = rowNumber;
+        this.visualNumber = rowNumber;
+        this.storage = storage;
+        this.storageIndex = storageIndex;
+        this.state = STATE_NORMAL;
+    }
+
+    /**
+     * Returns row values.
+     * Rows kept in row storage return new array on each call, use {@link #setValue} to modify them.
+     */
     @NotNull
     public Object[] getValues() {
+        if (values == null) {
+            assert storage != null;
+            return storage.getValues(storageIndex);
+        }
+        return values;
+    }
+
+    public int getValueCount() {
+        return values == null ? storage.getColumnCount() : values.length;
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        if (values == null) {
+            assert storage != null;
+            return storage.getValue(storageIndex, index);
+        }
+        return values[index];
+    }
+
+    public void setValue(int index, @Nullable Object value) {
+        detachValues()[index] = value;
+    }
+
+    void setValues(@NotNull Object[] values) {
+        this.values = values;
+        this.storage = null;
+    }
+
+    /**
+     * Moves row values out of row storage. Edited rows keep their own values.
+     */
+    @NotNull
+    private Object[] detachValues() {
+        if (values == null) {
+            assert storage != null;
+            values = storage.detachRow(storageIndex);
+            storage = null;
+        }
         return values;
     }
 
@@ -124,8 +182,10 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
+        if (values != null) {
+            for (Object value : values) {
+                DBUtils.releaseValue(value);
+            }
         }
         if (changes != null) {
             for (Object oldValue : changes.values()) {
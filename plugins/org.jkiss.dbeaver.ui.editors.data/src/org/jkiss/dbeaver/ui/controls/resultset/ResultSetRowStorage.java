@@ -0,0 +1,53 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+/**
+ * Storage of row values. Rows are referenced by index returned by addRow.
+ */
+interface ResultSetRowStorage {
+
+    int getColumnCount();
+
+    /**
+     * Appends row.
+     * @return row index in storage or -1 if row values can't be kept in this storage
+     */
+    int addRow(@NotNull Object[] values);
+
+    @Nullable
+    Object getValue(int row, int column);
+
+    @NotNull
+    Object[] getValues(int row);
+
+    /**
+     * Extracts row values and removes object references from storage.
+     * Extracted values are owned (and released) by the caller.
+     */
+    @NotNull
+    Object[] detachRow(int row);
+
+    /**
+     * Releases all values and resources
+     */
+    void release();
+
+}
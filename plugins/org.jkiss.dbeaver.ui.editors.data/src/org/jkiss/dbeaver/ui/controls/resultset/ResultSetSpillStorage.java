@@ -0,0 +1,382 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.utils.ContentUtils;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
+
+/**
+ * Disk row storage.
+ * Rows are serialized into a temporary file which is mapped into memory by segments.
+ * Only recently accessed rows are kept on heap (deserialized).
+ * Only simple values (numbers, strings, dates, binaries) are supported. Rows with other values are not stored.
+ * Row handles (ResultSetRow objects) of spilled rows still live on the heap, only their values are moved to disk.
+ * If row can't be read back then all its values are DBDValueError (the row is shown and processed as unreadable).
+ */
+class ResultSetSpillStorage implements ResultSetRowStorage {
+
+    private static final Log log = Log.getLog(ResultSetSpillStorage.class);
+
+    private static final String SPILL_FOLDER = "resultset";
+    private static final int SEGMENT_SIZE = 32 * 1024 * 1024;
+    private static final int ROW_CACHE_SIZE = 1000;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_BYTE = 2;
+    private static final byte TYPE_SHORT = 3;
+    private static final byte TYPE_INTEGER = 4;
+    private static final byte TYPE_LONG = 5;
+    private static final byte TYPE_FLOAT = 6;
+    private static final byte TYPE_DOUBLE = 7;
+    private static final byte TYPE_BIG_INTEGER = 8;
+    private static final byte TYPE_BIG_DECIMAL = 9;
+    private static final byte TYPE_STRING = 10;
+    private static final byte TYPE_TIMESTAMP = 11;
+    private static final byte TYPE_DATE = 12;
+    private static final byte TYPE_SQL_DATE = 13;
+    private static final byte TYPE_SQL_TIME = 14;
+    private static final byte TYPE_BINARY = 15;
+
+    private final int columnCount;
+    private final File file;
+    private RandomAccessFile raFile;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Row offsets in file
+    private long[] offsets = new long[1024];
+    private int rowCount;
+    private long writePosition;
+    private boolean readErrorReported;
+
+    private final ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream rowOutput = new DataOutputStream(rowBuffer);
+    private final Map<Integer, Object[]> rowCache = new LinkedHashMap<Integer, Object[]>(ROW_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+            return size() > ROW_CACHE_SIZE;
+        }
+    };
+
+    ResultSetSpillStorage(@NotNull DBRProgressMonitor monitor, int columnCount) throws IOException {
+        this.columnCount = columnCount;
+        File folder = DBWorkbench.getPlatform().getTempFolder(monitor, SPILL_FOLDER);
+        this.file = ContentUtils.makeTempFile(monitor, folder, "rows", "data");
+        this.file.deleteOnExit();
+        this.raFile = new RandomAccessFile(file, "rw");
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public synchronized int addRow(@NotNull Object[] values) {
+        if (raFile == null || values.length != columnCount) {
+            return -1;
+        }
+        rowBuffer.reset();
+        try {
+            for (Object value : values) {
+                if (!writeValue(rowOutput, value)) {
+                    return -1;
+                }
+            }
+            rowOutput.flush();
+        } catch (IOException e) {
+            // Can't happen with in-memory buffer
+            return -1;
+        }
+        // Row record is the data size followed by data
+        int rowSize = 4 + rowBuffer.size();
+        if (rowSize > SEGMENT_SIZE) {
+            return -1;
+        }
+        int segmentOffset = (int) (writePosition % SEGMENT_SIZE);
+        if (segmentOffset + rowSize > SEGMENT_SIZE) {
+            // Rows do not cross segment boundaries
+            writePosition += SEGMENT_SIZE - segmentOffset;
+        }
+        try {
+            ByteBuffer segment = getSegment((int) (writePosition / SEGMENT_SIZE)).duplicate();
+            segment.position((int) (writePosition % SEGMENT_SIZE));
+            segment.putInt(rowBuffer.size());
+            segment.put(rowBuffer.toByteArray());
+        } catch (IOException e) {
+            log.debug("Error writing rows to " + file.getAbsolutePath(), e);
+            return -1;
+        }
+        if (rowCount >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1));
+        }
+        offsets[rowCount] = writePosition;
+        writePosition += rowSize;
+        return rowCount++;
+    }
+
+    @Nullable
+    @Override
+    public synchronized Object getValue(int row, int column) {
+        return readRow(row)[column];
+    }
+
+    @NotNull
+    @Override
+    public synchronized Object[] getValues(int row) {
+        return readRow(row).clone();
+    }
+
+    @NotNull
+    @Override
+    public synchronized Object[] detachRow(int row) {
+        Object[] values = getValues(row);
+        rowCache.remove(row);
+        return values;
+    }
+
+    @Override
+    public synchronized void release() {
+        if (raFile == null) {
+            return;
+        }
+        rowCache.clear();
+        // Unmap segments explicitly. Otherwise file stays mapped (and locked on Windows) until buffers are collected.
+        // Segments are accessed only under storage lock and never after release, so it is safe.
+        for (MappedByteBuffer segment : segments) {
+            unmapSegment(segment);
+        }
+        segments.clear();
+        try {
+            raFile.close();
+        } catch (IOException e) {
+            log.debug(e);
+        }
+        raFile = null;
+        if (!file.delete()) {
+            log.debug("Can't delete temporary file '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    @NotNull
+    private Object[] readRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of spilled rows bounds (" + rowCount + ")");
+        }
+        if (raFile == null) {
+            return makeErrorRow(new IOException("Row storage '" + file.getAbsolutePath() + "' is closed"));
+        }
+        Object[] values = rowCache.get(row);
+        if (values != null) {
+            return values;
+        }
+        long offset = offsets[row];
+        try {
+            ByteBuffer segment = getSegment((int) (offset / SEGMENT_SIZE)).duplicate();
+            segment.position((int) (offset % SEGMENT_SIZE));
+            byte[] data = new byte[segment.getInt()];
+            segment.get(data);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+            values = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = readValue(input);
+            }
+        } catch (Exception e) {
+            if (!readErrorReported) {
+                log.error("Error reading row " + row + " from " + file.getAbsolutePath(), e);
+                readErrorReported = true;
+            }
+            // Do not return nulls - they would be shown, edited and exported as real values
+            return makeErrorRow(e);
+        }
+        rowCache.put(row, values);
+        return values;
+    }
+
+    @NotNull
+    private Object[] makeErrorRow(@NotNull Throwable error) {
+        Object[] values = new Object[columnCount];
+        Arrays.fill(values, new DBDValueError(error));
+        return values;
+    }
+
+    private static void unmapSegment(@NotNull MappedByteBuffer segment) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe", false, null);
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                Method cleanerMethod = segment.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(segment);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+            Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            invokeCleaner.invoke(unsafeField.get(null), segment);
+        } catch (Throwable e) {
+            // Buffer will be unmapped by GC
+            log.debug("Can't unmap row storage segment: " + e.getMessage());
+        }
+    }
+
+    private MappedByteBuffer getSegment(int index) throws IOException {
+        while (segments.size() <= index) {
+            segments.add(raFile.getChannel().map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+        }
+        return segments.get(index);
+    }
+
+    private static boolean writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(TYPE_NULL);
+            return true;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass == Boolean.class) {
+            output.writeByte(TYPE_BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (valueClass == Byte.class) {
+            output.writeByte(TYPE_BYTE);
+            output.writeByte((Byte) value);
+        } else if (valueClass == Short.class) {
+            output.writeByte(TYPE_SHORT);
+            output.writeShort((Short) value);
+        } else if (valueClass == Integer.class) {
+            output.writeByte(TYPE_INTEGER);
+            output.writeInt((Integer) value);
+        } else if (valueClass == Long.class) {
+            output.writeByte(TYPE_LONG);
+            output.writeLong((Long) value);
+        } else if (valueClass == Float.class) {
+            output.writeByte(TYPE_FLOAT);
+            output.writeFloat((Float) value);
+        } else if (valueClass == Double.class) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (valueClass == BigInteger.class) {
+            output.writeByte(TYPE_BIG_INTEGER);
+            writeBytes(output, ((BigInteger) value).toByteArray());
+        } else if (valueClass == BigDecimal.class) {
+            output.writeByte(TYPE_BIG_DECIMAL);
+            output.writeInt(((BigDecimal) value).scale());
+            writeBytes(output, ((BigDecimal) value).unscaledValue().toByteArray());
+        } else if (valueClass == String.class) {
+            output.writeByte(TYPE_STRING);
+            // writeUTF is limited by 64K
+            writeBytes(output, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (valueClass == Timestamp.class) {
+            output.writeByte(TYPE_TIMESTAMP);
+            output.writeLong(((Timestamp) value).getTime());
+            output.writeInt(((Timestamp) value).getNanos());
+        } else if (valueClass == Date.class) {
+            output.writeByte(TYPE_DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (valueClass == java.sql.Date.class) {
+            output.writeByte(TYPE_SQL_DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (valueClass == java.sql.Time.class) {
+            output.writeByte(TYPE_SQL_TIME);
+            output.writeLong(((Date) value).getTime());
+        } else if (valueClass == byte[].class) {
+            output.writeByte(TYPE_BINARY);
+            writeBytes(output, (byte[]) value);
+        } else {
+            // Complex values, LOBs, etc. can't be serialized
+            return false;
+        }
+        return true;
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_BOOLEAN:
+                return input.readBoolean();
+            case TYPE_BYTE:
+                return input.readByte();
+            case TYPE_SHORT:
+                return input.readShort();
+            case TYPE_INTEGER:
+                return input.readInt();
+            case TYPE_LONG:
+                return input.readLong();
+            case TYPE_FLOAT:
+                return input.readFloat();
+            case TYPE_DOUBLE:
+                return input.readDouble();
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readBytes(input));
+            case TYPE_BIG_DECIMAL: {
+                int scale = input.readInt();
+                return new BigDecimal(new BigInteger(readBytes(input)), scale);
+            }
+            case TYPE_STRING:
+                return new String(readBytes(input), StandardCharsets.UTF_8);
+            case TYPE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                return timestamp;
+            }
+            case TYPE_DATE:
+                return new Date(input.readLong());
+            case TYPE_SQL_DATE:
+                return new java.sql.Date(input.readLong());
+            case TYPE_SQL_TIME:
+                return new java.sql.Time(input.readLong());
+            case TYPE_BINARY:
+                return readBytes(input);
+            default:
+                throw new IOException("Bad value type: " + type);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+}
@@ -201,6 +201,8 @@ public class ResultSetViewer extends Viewer
 
     private final List<ResultSetJobAbstract> dataPumpJobQueue = new ArrayList<>();
     private final AtomicBoolean dataPumpRunning = new AtomicBoolean();
+    // Last local ordering job. Results of previous jobs are ignored.
+    private AbstractJob orderingJob;
 
     private final ResultSetModel model = new ResultSetModel();
     private HistoryStateItem curState = null;
@@ -2102,9 +2104,35 @@ public class ResultSetViewer extends Viewer
     private void reorderLocally()
     {
         this.rejectChanges();
-        this.getModel().resetOrdering();
-        this.getActivePresentation().refreshData(false, false, true);
-        this.updateFiltersText();
+        if (orderingJob != null) {
+            orderingJob.cancel();
+        }
+        // Read ordering values here, model can't be accessed in background job
+        final ResultSetModel.RowsOrdering ordering = model.prepareOrdering();
+        final AbstractJob job = new AbstractJob("Order rows") {
+            {
+                setUser(false);
+            }
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                final List<ResultSetRow> orderedRows = ordering.computeOrdering(monitor);
+                if (orderedRows != null && !monitor.isCanceled()) {
+                    UIUtils.asyncExec(() -> {
+                        if (viewerPanel.isDisposed() || orderingJob != this) {
+                            // Newer ordering was requested
+                            return;
+                        }
+                        orderingJob = null;
+                        model.applyOrdering(orderedRows);
+                        getActivePresentation().refreshData(false, false, true);
+                        updateFiltersText();
+                    });
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        orderingJob = job;
+        job.schedule();
     }
 
 
@@ -2158,6 +2186,8 @@ public class ResultSetViewer extends Viewer
     }
 
     void appendData(List<Object[]> rows, boolean resetOldRows) {
+        model.setColumnarStorage(getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE));
+        model.setSpillWindow(getPreferenceStore().getInt(ResultSetPreferences.RESULT_SET_SPILL_WINDOW));
         model.appendData(rows, resetOldRows);
 
         UIUtils.asyncExec(() -> {
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.ui.controls.resultset.panel.aggregate;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.action.*;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.viewers.ISelection;
@@ -33,6 +35,8 @@ import org.jkiss.dbeaver.model.DBPImage;
 import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
 import org.jkiss.dbeaver.registry.functions.FunctionsRegistry;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -44,6 +48,8 @@ import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * RSV value view panel
@@ -61,6 +67,26 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private static final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("###,###,###,###,###,##0.###");
     private static final DecimalFormat INTEGER_FORMAT = new DecimalFormat("###,###,###,###,###,##0");
 
+    private static final int PARALLEL_CHUNK_SIZE = 10000;
+    // Shared by all panels. Threads are released when idle.
+    private static final ThreadPoolExecutor AGGREGATE_EXECUTOR;
+    static {
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        AGGREGATE_EXECUTOR = new ThreadPoolExecutor(
+            threadCount, threadCount,
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, "Aggregate values " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        AGGREGATE_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+    // Marks estimated values
+    private static final String APPROXIMATE_PREFIX = "~";
+
     private IResultSetPresentation presentation;
     private Tree aggregateTable;
 
@@ -71,6 +97,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private IDialogSettings panelSettings;
 
     private final List<AggregateFunctionDescriptor> enabledFunctions = new ArrayList<>();
+    private AbstractJob aggregateJob;
 
     public AggregateColumnsPanel() {
     }
@@ -194,13 +221,18 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void refresh(boolean force) {
+        if (aggregateJob != null) {
+            aggregateJob.cancel();
+            aggregateJob = null;
+        }
+        List<AggregateGroup> groups = Collections.emptyList();
         aggregateTable.setRedraw(false);
         try {
             aggregateTable.removeAll();
             if (this.presentation instanceof ISelectionProvider) {
                 ISelection selection = ((ISelectionProvider) presentation).getSelection();
                 if (selection instanceof IResultSetSelection) {
-                    aggregateSelection((IResultSetSelection)selection);
+                    groups = aggregateSelection((IResultSetSelection)selection);
                 }
             }
             UIUtils.packColumns(aggregateTable, false, null);
@@ -208,6 +240,9 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             aggregateTable.setRedraw(true);
         }
         saveSettings();
+        if (!groups.isEmpty()) {
+            scheduleAggregation(groups);
+        }
     }
 
     @Override
@@ -215,8 +250,9 @@ public class AggregateColumnsPanel implements IResultSetPanel {
         fillToolBar(manager);
     }
 
-    private void aggregateSelection(IResultSetSelection selection) {
+    private List<AggregateGroup> aggregateSelection(IResultSetSelection selection) {
         ResultSetModel model = presentation.getController().getModel();
+        List<AggregateGroup> groups = new ArrayList<>();
         if (groupByColumns) {
             Map<DBDAttributeBinding, List<Object>> attrValues = new LinkedHashMap<>();
             for (Object element : selection.toList()) {
@@ -231,7 +267,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                 TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
                 attrItem.setText(entry.getKey().getName());
                 attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(entry.getKey())));
-                aggregateValues(attrItem, entry.getValue());
+                groups.add(createGroup(attrItem, entry.getValue()));
                 attrItem.setExpanded(true);
             }
         } else {
@@ -242,14 +278,14 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                 Object cellValue = model.getCellValue(attr, row);
                 allValues.add(cellValue);
             }
-            aggregateValues(null, allValues);
+            groups.add(createGroup(null, allValues));
         }
+        return groups;
     }
 
-    private void aggregateValues(TreeItem parentItem, Collection<Object> values) {
-        List<AggregateFunctionDescriptor> functions = enabledFunctions;
-        Map<IAggregateFunction, TreeItem> funcMap = new IdentityHashMap<>();
-        for (AggregateFunctionDescriptor funcDesc : functions) {
+    private AggregateGroup createGroup(TreeItem parentItem, List<Object> values) {
+        AggregateGroup group = new AggregateGroup(values);
+        for (AggregateFunctionDescriptor funcDesc : enabledFunctions) {
             TreeItem funcItem = (parentItem == null) ?
                 new TreeItem(aggregateTable, SWT.NONE) :
                 new TreeItem(parentItem, SWT.NONE);
@@ -259,41 +295,166 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             if (icon != null) {
                 funcItem.setImage(0, DBeaverIcons.getImage(icon));
             }
+            group.functions.add(funcDesc);
+            group.funcItems.add(funcItem);
+        }
+        return group;
+    }
+
+    private void scheduleAggregation(List<AggregateGroup> groups) {
+        // Selection values are already read, aggregate them in background
+        final boolean asStrings = aggregateAsStrings;
+        final AbstractJob job = new AbstractJob("Aggregate values") {
+            {
+                setUser(false);
+            }
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                try {
+                    for (AggregateGroup group : groups) {
+                        if (monitor.isCanceled()) {
+                            return Status.CANCEL_STATUS;
+                        }
+                        group.results = aggregateValues(group.functions, group.values, asStrings);
+                    }
+                } catch (InterruptedException e) {
+                    return Status.CANCEL_STATUS;
+                } catch (ExecutionException e) {
+                    log.error("Error aggregating values", e.getCause());
+                    return Status.OK_STATUS;
+                }
+                UIUtils.asyncExec(() -> {
+                    if (aggregateTable.isDisposed() || aggregateJob != this) {
+                        // Selection was changed
+                        return;
+                    }
+                    aggregateJob = null;
+                    for (AggregateGroup group : groups) {
+                        for (int i = 0; i < group.funcItems.size(); i++) {
+                            if (group.results[i] != null) {
+                                group.funcItems.get(i).setText(1, group.results[i]);
+                            }
+                        }
+                    }
+                    UIUtils.packColumns(aggregateTable, false, null);
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        aggregateJob = job;
+        job.schedule();
+    }
+
+    private static String[] aggregateValues(List<AggregateFunctionDescriptor> functions, List<Object> values, boolean asStrings)
+        throws InterruptedException, ExecutionException
+    {
+        // Split values in chunks. Each chunk is aggregated by its own function instances, then results are merged.
+        // Functions which do not support merge are aggregated separately, in one pass over all values.
+        int chunkCount = Math.max(1, (values.size() + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE);
+        IAggregateFunction[][] chunkFuncs = new IAggregateFunction[chunkCount][functions.size()];
+        int[][] chunkFuncCount = new int[chunkCount][functions.size()];
+        IAggregateFunction[] singleFuncs = new IAggregateFunction[functions.size()];
+        int[] singleFuncCount = new int[functions.size()];
+        boolean hasSingleFuncs = false;
+        for (int i = 0; i < functions.size(); i++) {
             try {
-                IAggregateFunction func = funcDesc.createFunction();
-                funcMap.put(func, funcItem);
+                IAggregateFunction func = functions.get(i).createFunction();
+                // Merge with empty instance doesn't change function state
+                if (chunkCount > 1 && !func.merge(functions.get(i).createFunction())) {
+                    singleFuncs[i] = func;
+                    hasSingleFuncs = true;
+                    continue;
+                }
+                chunkFuncs[0][i] = func;
+                for (int chunk = 1; chunk < chunkCount; chunk++) {
+                    chunkFuncs[chunk][i] = functions.get(i).createFunction();
+                }
             } catch (DBException e) {
                 log.error(e);
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    chunkFuncs[chunk][i] = null;
+                }
             }
         }
-
-        IAggregateFunction[] funcs = funcMap.keySet().toArray(new IAggregateFunction[funcMap.size()]);
-        int[] funcCount = new int[funcs.length];
-        for (Object element : values) {
-            for (int i = 0; i < funcs.length; i++) {
-                if (funcs[i].accumulate(element, aggregateAsStrings)) {
-                    funcCount[i]++;
+        if (chunkCount == 1) {
+            accumulateValues(values, chunkFuncs[0], chunkFuncCount[0], asStrings);
+        } else {
+            List<Future<?>> futures = new ArrayList<>(chunkCount + 1);
+            try {
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    final int chunkIndex = chunk;
+                    futures.add(AGGREGATE_EXECUTOR.submit(() -> accumulateValues(
+                        values.subList(chunkIndex * PARALLEL_CHUNK_SIZE, Math.min(values.size(), (chunkIndex + 1) * PARALLEL_CHUNK_SIZE)),
+                        chunkFuncs[chunkIndex],
+                        chunkFuncCount[chunkIndex],
+                        asStrings)));
+                }
+                if (hasSingleFuncs) {
+                    futures.add(AGGREGATE_EXECUTOR.submit(() -> accumulateValues(values, singleFuncs, singleFuncCount, asStrings)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                // Drop chunks which didn't start yet if aggregation was interrupted
+                for (Future<?> future : futures) {
+                    future.cancel(false);
                 }
             }
         }
-        for (int i = 0; i < funcs.length; i++) {
-            if (funcCount[i] <= 0) {
+
+        String[] results = new String[functions.size()];
+        for (int i = 0; i < functions.size(); i++) {
+            IAggregateFunction func;
+            int funcCount;
+            if (singleFuncs[i] != null) {
+                func = singleFuncs[i];
+                funcCount = singleFuncCount[i];
+            } else {
+                func = chunkFuncs[0][i];
+                if (func == null) {
+                    continue;
+                }
+                funcCount = chunkFuncCount[0][i];
+                for (int chunk = 1; chunk < chunkCount; chunk++) {
+                    func.merge(chunkFuncs[chunk][i]);
+                    funcCount += chunkFuncCount[chunk][i];
+                }
+            }
+            if (funcCount <= 0) {
                 continue;
             }
-            IAggregateFunction func = funcs[i];
-            Object result = func.getResult(funcCount[i]);
+            Object result = func.getResult(funcCount);
             if (result != null) {
-                TreeItem treeItem = funcMap.get(func);
                 String strValue;
                 if (result instanceof Double || result instanceof Float || result instanceof BigDecimal) {
-                    strValue = DOUBLE_FORMAT.format(result);
+                    strValue = formatNumber(DOUBLE_FORMAT, result);
                 } else if (result instanceof Integer || result instanceof Long || result instanceof Short) {
-                    strValue = INTEGER_FORMAT.format(result);
+                    strValue = formatNumber(INTEGER_FORMAT, result);
                 } else {
                     strValue = result.toString();
                 }
-                if (strValue != null) {
-                    treeItem.setText(1, strValue);
+                if (strValue != null && func.isApproximate()) {
+                    strValue = APPROXIMATE_PREFIX + strValue;
+                }
+                results[i] = strValue;
+            }
+        }
+        return results;
+    }
+
+    private static String formatNumber(DecimalFormat format, Object value) {
+        // DecimalFormat is not thread safe
+        synchronized (format) {
+            return format.format(value);
+        }
+    }
+
+    private static void accumulateValues(List<Object> values, IAggregateFunction[] funcs, int[] funcCount, boolean asStrings) {
+        for (Object element : values) {
+            for (int i = 0; i < funcs.length; i++) {
+                if (funcs[i] != null && funcs[i].accumulate(element, asStrings)) {
+                    funcCount[i]++;
                 }
             }
         }
@@ -301,6 +462,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     public void clearValue()
     {
+        if (aggregateJob != null) {
+            aggregateJob.cancel();
+            aggregateJob = null;
+        }
         aggregateTable.removeAll();
     }
 
@@ -314,6 +479,17 @@ public class AggregateColumnsPanel implements IResultSetPanel {
         contributionManager.add(new ValueTypeToggleAction());
     }
 
+    private static class AggregateGroup {
+        private final List<Object> values;
+        private final List<AggregateFunctionDescriptor> functions = new ArrayList<>();
+        private final List<TreeItem> funcItems = new ArrayList<>();
+        private String[] results;
+
+        AggregateGroup(List<Object> values) {
+            this.values = values;
+        }
+    }
+
     private class GroupByColumnsAction extends Action {
         public GroupByColumnsAction() {
             super("Group by columns", IAction.AS_CHECK_BOX);
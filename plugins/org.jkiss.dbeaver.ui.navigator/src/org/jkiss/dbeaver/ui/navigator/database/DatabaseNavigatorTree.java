@@ -63,6 +63,9 @@ import org.jkiss.utils.CommonUtils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class DatabaseNavigatorTree extends Composite implements INavigatorListener
 {
@@ -349,6 +352,58 @@ public class DatabaseNavigatorTree extends Composite implements INavigatorListen
         return (CheckboxTreeViewer) treeViewer;
     }
 
+    @Override
+    public void nodesChanged(List<DBNEvent> events)
+    {
+        if (events.size() == 1) {
+            nodeChanged(events.get(0));
+            return;
+        }
+        // Refresh with labels updates the whole subtree.
+        // Skip updates of nodes whose parents are refreshed in the same batch (e.g. after folder refresh).
+        // Refresh events are ignored while viewer is busy (see nodeChanged), so nothing is skipped in this case.
+        Set<DBNNode> refreshedNodes = new HashSet<>();
+        if (!treeViewer.getControl().isDisposed() && !treeViewer.isBusy()) {
+            for (DBNEvent event : events) {
+                if (event.getAction() == DBNEvent.Action.UPDATE && event.getNodeChange() == DBNEvent.NodeChange.REFRESH && event.getNode() != null) {
+                    refreshedNodes.add(event.getNode());
+                }
+            }
+        }
+        Set<DBNNode> processedNodes = new HashSet<>();
+        for (DBNEvent event : events) {
+            final DBNNode node = event.getNode();
+            switch (event.getAction()) {
+                case ADD:
+                case REMOVE:
+                    if (event.getNodeChange() != DBNEvent.NodeChange.SELECT) {
+                        DBNNode parentNode = node.getParentNode();
+                        if (parentNode != null && (isRefreshedInBatch(parentNode, refreshedNodes) || !processedNodes.add(parentNode))) {
+                            continue;
+                        }
+                    }
+                    break;
+                case UPDATE:
+                    if (event.getNodeChange() == DBNEvent.NodeChange.REFRESH) {
+                        if (isRefreshedInBatch(node.getParentNode(), refreshedNodes) || !processedNodes.add(node)) {
+                            continue;
+                        }
+                    }
+                    break;
+            }
+            nodeChanged(event);
+        }
+    }
+
+    private static boolean isRefreshedInBatch(DBNNode node, Set<DBNNode> refreshedNodes) {
+        for (DBNNode parent = node; parent != null; parent = parent.getParentNode()) {
+            if (refreshedNodes.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void nodeChanged(final DBNEvent event)
     {
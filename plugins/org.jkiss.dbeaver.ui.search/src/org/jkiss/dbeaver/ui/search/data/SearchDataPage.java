@@ -49,6 +49,8 @@ import java.util.*;
 
 public class SearchDataPage extends AbstractSearchPage {
 
+    private static final int DEFAULT_MAX_CONNECTIONS = 4;
+
     private static final String PROP_MASK = "search.data.mask"; //$NON-NLS-1$
     private static final String PROP_CASE_SENSITIVE = "search.data.case-sensitive"; //$NON-NLS-1$
     private static final String PROP_SAMPLE_ROWS = "search.data.sample-rows"; //$NON-NLS-1$
@@ -56,6 +58,8 @@ public class SearchDataPage extends AbstractSearchPage {
     private static final String PROP_SEARCH_NUMBERS = "search.data.search-numbers"; //$NON-NLS-1$
     private static final String PROP_SEARCH_LOBS = "search.data.search-lobs"; //$NON-NLS-1$
     private static final String PROP_SEARCH_FOREIGN = "search.data.search-foreign"; //$NON-NLS-1$
+    private static final String PROP_MAX_RESULT_OBJECTS = "search.data.max-result-objects"; //$NON-NLS-1$
+    private static final String PROP_MAX_CONNECTIONS = "search.data.max-connections"; //$NON-NLS-1$
     private static final String PROP_HISTORY = "search.data.history"; //$NON-NLS-1$
 
     private Combo searchText;
@@ -139,6 +143,17 @@ public class SearchDataPage extends AbstractSearchPage {
             maxResultsSpinner.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
             maxResultsSpinner.addModifyListener(e -> params.maxResults = maxResultsSpinner.getSelection());
 
+            final Spinner maxObjectsSpinner = UIUtils.createLabelSpinner(optionsGroup2, UISearchMessages.dialog_search_data_spinner_max_tables, UISearchMessages.dialog_search_data_spinner_max_tables_tip, params.maxResultObjects, 0, Integer.MAX_VALUE);
+            maxObjectsSpinner.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            maxObjectsSpinner.addModifyListener(e -> params.maxResultObjects = maxObjectsSpinner.getSelection());
+
+            if (params.maxConnections <= 0) {
+                params.maxConnections = DEFAULT_MAX_CONNECTIONS;
+            }
+            final Spinner maxConnectionsSpinner = UIUtils.createLabelSpinner(optionsGroup2, UISearchMessages.dialog_search_data_spinner_max_connections, UISearchMessages.dialog_search_data_spinner_max_connections_tip, params.maxConnections, 1, 64);
+            maxConnectionsSpinner.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            maxConnectionsSpinner.addModifyListener(e -> params.maxConnections = maxConnectionsSpinner.getSelection());
+
             final Button caseCheckbox = UIUtils.createCheckbox(optionsGroup2, UISearchMessages.dialog_search_objects_case_sensitive, "Case sensitive search", params.caseSensitive, 2);
             caseCheckbox.addSelectionListener(new SelectionAdapter() {
                 @Override
@@ -212,6 +227,8 @@ public class SearchDataPage extends AbstractSearchPage {
         params.searchLOBs = store.getBoolean(PROP_SEARCH_LOBS);
         params.searchForeignObjects = store.getBoolean(PROP_SEARCH_FOREIGN);
         params.maxResults = store.getInt(PROP_SAMPLE_ROWS);
+        params.maxResultObjects = store.getInt(PROP_MAX_RESULT_OBJECTS);
+        params.maxConnections = store.getInt(PROP_MAX_CONNECTIONS);
         for (int i = 0; ; i++) {
             String history = store.getString(PROP_HISTORY + "." + i); //$NON-NLS-1$
             if (CommonUtils.isEmpty(history)) {
@@ -236,6 +253,8 @@ public class SearchDataPage extends AbstractSearchPage {
         store.setValue(PROP_MASK, params.searchString);
         store.setValue(PROP_CASE_SENSITIVE, params.caseSensitive);
         store.setValue(PROP_SAMPLE_ROWS, params.maxResults);
+        store.setValue(PROP_MAX_RESULT_OBJECTS, params.maxResultObjects);
+        store.setValue(PROP_MAX_CONNECTIONS, params.maxConnections);
         store.setValue(PROP_FAST_SEARCH, params.fastSearch);
         store.setValue(PROP_SEARCH_NUMBERS, params.searchNumbers);
         store.setValue(PROP_SEARCH_LOBS, params.searchLOBs);
@@ -35,6 +35,8 @@ public class SearchDataParams {
     boolean searchLOBs;
     boolean searchForeignObjects;
     int maxResults;
+    int maxResultObjects;
+    int maxConnections;
     List<DBNNode> selectedNodes = new ArrayList<>();
 
     public SearchDataParams()
@@ -105,6 +107,22 @@ public class SearchDataParams {
         this.maxResults = maxResults;
     }
 
+    public int getMaxResultObjects() {
+        return maxResultObjects;
+    }
+
+    public void setMaxResultObjects(int maxResultObjects) {
+        this.maxResultObjects = maxResultObjects;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
     public List<DBNNode> getSelectedNodes() {
         return selectedNodes;
     }
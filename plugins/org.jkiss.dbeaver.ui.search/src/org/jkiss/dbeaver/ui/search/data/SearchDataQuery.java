@@ -33,12 +33,14 @@ import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DefaultProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.search.AbstractSearchResult;
 import org.jkiss.dbeaver.utils.GeneralUtils;
@@ -46,7 +48,10 @@ import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.math.BigDecimal;
+import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SearchDataQuery implements ISearchQuery {
 
@@ -55,6 +60,13 @@ public class SearchDataQuery implements ISearchQuery {
     private final SearchDataParams params;
     private SearchDataResult searchResult;
 
+    private final AtomicInteger foundObjects = new AtomicInteger();
+    private volatile boolean resultLimitReached;
+    // Search string converted to column types
+    private Number searchNumber;
+    private boolean searchNumberIsFractional;
+    private String searchUUID;
+
     private SearchDataQuery(SearchDataParams params)
     {
         this.params = params;
@@ -88,11 +100,12 @@ public class SearchDataQuery implements ISearchQuery {
     public IStatus run(IProgressMonitor m) throws OperationCanceledException {
         try {
             String searchString = params.getSearchString();
+            parseSearchValues();
 
             //monitor.subTask("Collect tables");
-            Set<DBPDataSource> dataSources = new HashSet<>();
+            Map<DBPDataSource, List<DBSDataContainer>> dataSources = new LinkedHashMap<>();
             for (DBSDataContainer searcher : params.sources) {
-                dataSources.add(searcher.getDataSource());
+                dataSources.computeIfAbsent(searcher.getDataSource(), k -> new ArrayList<>()).add(searcher);
             }
 
             // Search
@@ -100,26 +113,37 @@ public class SearchDataQuery implements ISearchQuery {
 
             DBRProgressMonitor monitor = new DefaultProgressMonitor(m);
 
-            int totalObjects = 0;
+            foundObjects.set(0);
+            resultLimitReached = false;
 
             monitor.beginTask(
                 "Search \"" + searchString + "\" in " + params.sources.size() + " table(s) / " + dataSources.size() + " database(s)",
                 params.sources.size());
             try {
-                for (DBSDataContainer dataContainer : params.sources) {
-                    if (monitor.isCanceled()) {
-                        break;
+                // Each data source is searched by its own set of workers. Each worker uses separate connection.
+                List<SearchWorker> workers = new ArrayList<>();
+                for (Map.Entry<DBPDataSource, List<DBSDataContainer>> entry : dataSources.entrySet()) {
+                    Queue<DBSDataContainer> tables = new ConcurrentLinkedQueue<>(entry.getValue());
+                    int workerCount = getWorkerCount(entry.getKey(), entry.getValue().size());
+                    for (int i = 0; i < workerCount; i++) {
+                        workers.add(new SearchWorker(monitor, dbnModel, tables, workerCount > 1));
+                    }
+                }
+                if (workers.size() == 1) {
+                    workers.get(0).searchTables();
+                } else {
+                    for (SearchWorker worker : workers) {
+                        worker.schedule();
                     }
-                    if (searchDataInContainer(monitor, dbnModel, dataContainer)) {
-                        totalObjects++;
+                    for (SearchWorker worker : workers) {
+                        worker.join();
                     }
-                    monitor.worked(1);
                 }
             } finally {
                 monitor.done();
             }
 
-            searchResult.fireChange(new AbstractSearchResult.DatabaseSearchFinishEvent(searchResult, totalObjects));
+            searchResult.fireChange(new AbstractSearchResult.DatabaseSearchFinishEvent(searchResult, foundObjects.get()));
 
             return Status.OK_STATUS;
         } catch (Exception e) {
@@ -127,7 +151,19 @@ public class SearchDataQuery implements ISearchQuery {
         }
     }
 
-    private boolean searchDataInContainer(DBRProgressMonitor monitor, DBNModel dbnModel, DBSDataContainer dataContainer) {
+    private int getWorkerCount(DBPDataSource dataSource, int tableCount) {
+        if (dataSource == null || dataSource.getContainer().getDriver().isEmbedded()) {
+            // Embedded databases usually do not support concurrent connections
+            return 1;
+        }
+        return Math.max(1, Math.min(params.maxConnections, tableCount));
+    }
+
+    private boolean isSearchCanceled(DBRProgressMonitor monitor) {
+        return resultLimitReached || monitor.isCanceled();
+    }
+
+    private boolean searchDataInContainer(DBRProgressMonitor monitor, DBNModel dbnModel, DBSDataContainer dataContainer, DBCExecutionContext context) {
         if (!params.searchForeignObjects && dataContainer instanceof DBPForeignObject && ((DBPForeignObject) dataContainer).isForeignObject()) {
             return false;
         }
@@ -138,13 +174,31 @@ public class SearchDataQuery implements ISearchQuery {
             log.warn("Can't find tree node for object \"" + objectName + "\"");
             return false;
         }
-        monitor.subTask("Search in '" + objectName + "'");
+        synchronized (monitor) {
+            monitor.subTask("Search in '" + objectName + "'");
+        }
         log.debug("Search in '" + objectName + "'");
         SearchTableMonitor searchMonitor = new SearchTableMonitor(monitor);
-        try (DBCSession session = DBUtils.openUtilSession(searchMonitor, dataContainer, "Search rows in " + objectName)) {
+        DBDDataFilter filter;
+        try {
+            filter = makeSearchFilter(searchMonitor, dataContainer);
+        } catch (DBException e) {
+            log.debug("Can't read attributes of '" + dataContainer.getName() + "'", e);
+            return false;
+        }
+        if (filter == null) {
+            // No columns compatible with search value - do not query this table
+            return false;
+        }
+        try (DBCSession session = context != null ?
+            context.openSession(searchMonitor, DBCExecutionPurpose.UTIL, "Search rows in " + objectName) :
+            DBUtils.openUtilSession(searchMonitor, dataContainer, "Search rows in " + objectName))
+        {
             TestDataReceiver dataReceiver = new TestDataReceiver(searchMonitor);
+            dataReceiver.filter = filter;
             try {
-                findRows(session, dataContainer, dataReceiver);
+                DBCExecutionSource searchSource = new AbstractExecutionSource(dataContainer, session.getExecutionContext(), this);
+                dataContainer.readData(searchSource, session, dataReceiver, filter, -1, -1, 0, 0);
             } catch (DBCException e) {
                 // Search failed in some container - just write an error in log.
                 // We don't want to break whole search because of one single table.
@@ -152,18 +206,76 @@ public class SearchDataQuery implements ISearchQuery {
             }
 
             if (dataReceiver.rowCount > 0) {
-                SearchDataObject object = new SearchDataObject(node, dataReceiver.rowCount, dataReceiver.filter);
-                searchResult.addObjects(Collections.singletonList(object));
-                return true;
+                return addSearchResult(new SearchDataObject(node, dataReceiver.rowCount, dataReceiver.filter));
             }
             return false;
         }
     }
 
-    private DBCStatistics findRows(
-        @NotNull DBCSession session,
-        @NotNull DBSDataContainer dataContainer,
-        @NotNull TestDataReceiver dataReceiver) throws DBCException
+    private synchronized boolean addSearchResult(SearchDataObject object) {
+        if (resultLimitReached) {
+            return false;
+        }
+        // Results are shown as they are found
+        searchResult.addObjects(Collections.singletonList(object));
+        int found = foundObjects.incrementAndGet();
+        if (params.maxResultObjects > 0 && found >= params.maxResultObjects) {
+            // Cancel remaining tables search
+            resultLimitReached = true;
+        }
+        return true;
+    }
+
+    private void parseSearchValues() {
+        String searchString = params.searchString;
+        Number number;
+        try {
+            number = Integer.valueOf(searchString);
+        } catch (NumberFormatException e) {
+            try {
+                number = Long.valueOf(searchString);
+            } catch (NumberFormatException e1) {
+                try {
+                    number = Double.valueOf(searchString);
+                } catch (NumberFormatException e2) {
+                    try {
+                        number = new BigDecimal(searchString);
+                    } catch (Exception e3) {
+                        // Not a number
+                        number = null;
+                    }
+                }
+            }
+        }
+        searchNumber = number;
+        boolean fractional = false;
+        if (number != null && !(number instanceof Integer || number instanceof Long)) {
+            try {
+                fractional = new BigDecimal(searchString).stripTrailingZeros().scale() > 0;
+            } catch (NumberFormatException e) {
+                // NaN or infinity
+                fractional = true;
+            }
+        }
+        searchNumberIsFractional = fractional;
+
+        String uuid;
+        try {
+            uuid = UUID.fromString(searchString).toString();
+        } catch (Exception e) {
+            // No a UUID
+            uuid = null;
+        }
+        searchUUID = uuid;
+    }
+
+    /**
+     * Makes filter with conditions for all attributes compatible with search value.
+     * Returns null if there are no such attributes.
+     */
+    private DBDDataFilter makeSearchFilter(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSDataContainer dataContainer) throws DBException
     {
         DBSEntity entity;
         if (dataContainer instanceof DBSEntity) {
@@ -172,111 +284,99 @@ public class SearchDataQuery implements ISearchQuery {
             log.warn("Data container " + dataContainer + " isn't entity");
             return null;
         }
-        try {
 
-            List<DBDAttributeConstraint> constraints = new ArrayList<>();
-            for (DBSEntityAttribute attribute : CommonUtils.safeCollection(entity.getAttributes(session.getProgressMonitor()))) {
-                if (params.fastSearch) {
-                    if (DBUtils.findAttributeIndex(session.getProgressMonitor(), attribute) == null) {
-                        continue;
-                    }
-                }
-                if (DBUtils.isPseudoAttribute(attribute) || DBUtils.isHiddenObject(attribute)) {
+        List<DBDAttributeConstraint> constraints = new ArrayList<>();
+        for (DBSEntityAttribute attribute : CommonUtils.safeCollection(entity.getAttributes(monitor))) {
+            if (params.fastSearch) {
+                if (DBUtils.findAttributeIndex(monitor, attribute) == null) {
                     continue;
                 }
-                DBCLogicalOperator[] supportedOperators = DBUtils.getAttributeOperators(attribute);
-                DBCLogicalOperator operator;
-                Object value;
-                switch (attribute.getDataKind()) {
-                    case BOOLEAN:
+            }
+            if (DBUtils.isPseudoAttribute(attribute) || DBUtils.isHiddenObject(attribute)) {
+                continue;
+            }
+            DBCLogicalOperator[] supportedOperators = DBUtils.getAttributeOperators(attribute);
+            DBCLogicalOperator operator;
+            Object value;
+            switch (attribute.getDataKind()) {
+                case BOOLEAN:
+                    continue;
+                case NUMERIC:
+                    if (!params.searchNumbers || searchNumber == null) {
+                        continue;
+                    }
+                    if (searchNumberIsFractional && isIntegerType(attribute)) {
+                        // Fractional value can't be stored in integer column
+                        continue;
+                    }
+                    if (!ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
+                        continue;
+                    }
+                    operator = DBCLogicalOperator.EQUALS;
+                    value = searchNumber;
+                    break;
+                case CONTENT:
+                case BINARY:
+                    if (!params.searchLOBs) {
                         continue;
-                    case NUMERIC:
-                        if (!params.searchNumbers) {
-                            continue;
-                        }
-                        if (!ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
-                            continue;
-                        }
+                    }
+                case STRING:
+                    // Do not check value length. Some columns may be compressed/compacted/have special data type and thus have length < than value length.
+//                    if (attribute.getMaxLength() > 0 && attribute.getMaxLength() < params.searchString.length()) {
+//                        continue;
+//                    }
+
+                    if (!params.isCaseSensitive() && ArrayUtils.contains(supportedOperators, DBCLogicalOperator.ILIKE)) {
+                        operator = DBCLogicalOperator.ILIKE;
+                        value = "%" + params.searchString + "%";
+                    } else if (ArrayUtils.contains(supportedOperators, DBCLogicalOperator.LIKE)) {
+                        operator = DBCLogicalOperator.LIKE;
+                        value = "%" + params.searchString + "%";
+                    } else if (ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
                         operator = DBCLogicalOperator.EQUALS;
-                        try {
-                            value = Integer.valueOf(params.searchString);
-                        } catch (NumberFormatException e) {
-                            try {
-                                value = Long.valueOf(params.searchString);
-                            } catch (NumberFormatException e1) {
-                                try {
-                                    value = Double.valueOf(params.searchString);
-                                } catch (NumberFormatException e2) {
-                                    try {
-                                        value = new BigDecimal(params.searchString);
-                                    } catch (Exception e3) {
-                                        // Not a number
-                                        continue;
-                                    }
-                                }
-                            }
-                        }
-                        break;
-                    case CONTENT:
-                    case BINARY:
-                        if (!params.searchLOBs) {
-                            continue;
-                        }
-                    case STRING:
-                        // Do not check value length. Some columns may be compressed/compacted/have special data type and thus have length < than value length.
-//                        if (attribute.getMaxLength() > 0 && attribute.getMaxLength() < params.searchString.length()) {
-//                            continue;
-//                        }
-
-                        if (!params.isCaseSensitive() && ArrayUtils.contains(supportedOperators, DBCLogicalOperator.ILIKE)) {
-                            operator = DBCLogicalOperator.ILIKE;
-                            value = "%" + params.searchString + "%";
-                        } else if (ArrayUtils.contains(supportedOperators, DBCLogicalOperator.LIKE)) {
-                            operator = DBCLogicalOperator.LIKE;
-                            value = "%" + params.searchString + "%";
-                        } else if (ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
-                            operator = DBCLogicalOperator.EQUALS;
-                            value = params.searchString;
-                        } else {
-                            continue;
-                        }
-                        break;
-                    default: {
-                        // Try to convert string to attribute type
-                        // On success search by exact match
-                        if (!ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
-                            continue;
-                        }
-                        String typeName = attribute.getTypeName();
-                        if (typeName.equals(DBConstants.TYPE_NAME_UUID) || typeName.equals(DBConstants.TYPE_NAME_UUID2)) {
-                            try {
-                                UUID uuid = UUID.fromString(params.searchString);
-                                operator = DBCLogicalOperator.EQUALS;
-                                value = uuid.toString();
-                            } catch (Exception e) {
-                                // No a UUID
-                                continue;
-                            }
-                        } else {
-                            continue;
-                        }
+                        value = params.searchString;
+                    } else {
+                        continue;
+                    }
+                    break;
+                default: {
+                    // Try to convert string to attribute type
+                    // On success search by exact match
+                    if (!ArrayUtils.contains(supportedOperators, DBCLogicalOperator.EQUALS)) {
+                        continue;
+                    }
+                    String typeName = attribute.getTypeName();
+                    if (searchUUID != null && (typeName.equals(DBConstants.TYPE_NAME_UUID) || typeName.equals(DBConstants.TYPE_NAME_UUID2))) {
+                        operator = DBCLogicalOperator.EQUALS;
+                        value = searchUUID;
+                    } else {
+                        continue;
                     }
                 }
-                DBDAttributeConstraint constraint = new DBDAttributeConstraint(attribute, constraints.size());
-                constraint.setOperator(operator);
-                constraint.setValue(value);
-                constraint.setVisible(true);
-                constraints.add(constraint);
             }
-            if (constraints.isEmpty()) {
-                return null;
-            }
-            dataReceiver.filter = new DBDDataFilter(constraints);
-            dataReceiver.filter.setAnyConstraint(true);
-            DBCExecutionSource searchSource = new AbstractExecutionSource(dataContainer, session.getExecutionContext(), this);
-            return dataContainer.readData(searchSource, session, dataReceiver, dataReceiver.filter, -1, -1, 0, 0);
-        } catch (DBException e) {
-            throw new DBCException("Error finding rows", e);
+            DBDAttributeConstraint constraint = new DBDAttributeConstraint(attribute, constraints.size());
+            constraint.setOperator(operator);
+            constraint.setValue(value);
+            constraint.setVisible(true);
+            constraints.add(constraint);
+        }
+        if (constraints.isEmpty()) {
+            return null;
+        }
+        DBDDataFilter filter = new DBDDataFilter(constraints);
+        filter.setAnyConstraint(true);
+        return filter;
+    }
+
+    private static boolean isIntegerType(DBSEntityAttribute attribute) {
+        switch (attribute.getTypeID()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            default:
+                return false;
         }
     }
 
@@ -297,7 +397,74 @@ public class SearchDataQuery implements ISearchQuery {
 
         @Override
         public boolean isCanceled() {
-            return canceled || baseMonitor.isCanceled();
+            return canceled || isSearchCanceled(baseMonitor);
+        }
+    }
+
+    /**
+     * Searches tables from the queue. Tables queue is shared between all workers of the same data source.
+     */
+    private class SearchWorker extends AbstractJob {
+
+        private final DBRProgressMonitor monitor;
+        private final DBNModel dbnModel;
+        private final Queue<DBSDataContainer> tables;
+        private final boolean isolated;
+
+        SearchWorker(DBRProgressMonitor monitor, DBNModel dbnModel, Queue<DBSDataContainer> tables, boolean isolated) {
+            super("Search data");
+            this.monitor = monitor;
+            this.dbnModel = dbnModel;
+            this.tables = tables;
+            this.isolated = isolated;
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor jobMonitor) {
+            searchTables();
+            return Status.OK_STATUS;
+        }
+
+        void searchTables() {
+            DBCExecutionContext context = null;
+            try {
+                for (;;) {
+                    if (isSearchCanceled(monitor)) {
+                        break;
+                    }
+                    DBSDataContainer dataContainer = tables.poll();
+                    if (dataContainer == null) {
+                        break;
+                    }
+                    if (isolated && context == null) {
+                        context = openSearchContext(dataContainer);
+                    }
+                    searchDataInContainer(monitor, dbnModel, dataContainer, context);
+                    synchronized (monitor) {
+                        monitor.worked(1);
+                    }
+                }
+            } finally {
+                if (context != null) {
+                    context.getOwnerInstance().releaseIsolatedContext(context);
+                }
+            }
+        }
+
+        private DBCExecutionContext openSearchContext(DBSDataContainer dataContainer) {
+            DBSInstance instance = DBUtils.getObjectOwnerInstance(dataContainer);
+            if (instance == null) {
+                return null;
+            }
+            try {
+                return instance.borrowIsolatedContext(monitor, "Search data", null);
+            } catch (DBException e) {
+                // Search in the utility context then
+                log.debug("Can't open isolated context for data search", e);
+                return null;
+            }
         }
     }
 
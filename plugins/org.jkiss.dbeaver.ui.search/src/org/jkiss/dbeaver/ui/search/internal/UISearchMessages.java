@@ -38,6 +38,10 @@ public class UISearchMessages extends NLS {
 	public static String dialog_search_objects_message_objects_found;
 	public static String dialog_search_objects_spinner_max_results;
     public static String dialog_search_objects_case_sensitive;
+    public static String dialog_search_data_spinner_max_tables;
+    public static String dialog_search_data_spinner_max_tables_tip;
+    public static String dialog_search_data_spinner_max_connections;
+    public static String dialog_search_data_spinner_max_connections_tip;
 	public static String dialog_search_objects_title;
 
     static {
@@ -0,0 +1,97 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class AggregateFunctionsTest {
+
+    @Test
+    public void testMergeMatchesSequential() {
+        Random random = new Random(1);
+        Object[] values = new Object[20000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(20) == 0 ? null : random.nextInt(3000);
+        }
+        assertMergeResult(FunctionCount::new, values);
+        assertMergeResult(FunctionCountDistinct::new, values);
+        assertMergeResult(FunctionSum::new, values);
+        assertMergeResult(FunctionAvg::new, values);
+        assertMergeResult(FunctionMin::new, values);
+        assertMergeResult(FunctionMax::new, values);
+        assertMergeResult(FunctionMedian::new, values);
+        assertMergeResult(FunctionMode::new, values);
+    }
+
+    @Test
+    public void testApproximateDistinct() {
+        FunctionCountDistinct func1 = new FunctionCountDistinct();
+        FunctionCountDistinct func2 = new FunctionCountDistinct();
+        for (int i = 0; i < 300000; i++) {
+            func1.accumulate("value" + i, false);
+            func2.accumulate("value" + (i + 150000), false);
+        }
+        Assert.assertTrue(func1.merge(func2));
+        Assert.assertTrue(func1.isApproximate());
+        long result = ((Number) func1.getResult(0)).longValue();
+        Assert.assertEquals(450000, result, 450000 * 0.03);
+    }
+
+    @Test
+    public void testApproximateMedian() {
+        FunctionMedian func1 = new FunctionMedian();
+        FunctionMedian func2 = new FunctionMedian();
+        Random random = new Random(2);
+        for (int i = 0; i < 200000; i++) {
+            func1.accumulate(random.nextDouble() * 1000, false);
+            func2.accumulate(random.nextDouble() * 1000, false);
+        }
+        Assert.assertTrue(func1.merge(func2));
+        Assert.assertTrue(func1.isApproximate());
+        double result = ((Number) func1.getResult(0)).doubleValue();
+        Assert.assertEquals(500, result, 1000 * 0.02);
+    }
+
+    private static void assertMergeResult(Supplier<IAggregateFunction> factory, Object[] values) {
+        IAggregateFunction sequential = factory.get();
+        int sequentialCount = 0;
+        for (Object value : values) {
+            if (sequential.accumulate(value, false)) {
+                sequentialCount++;
+            }
+        }
+        IAggregateFunction merged = factory.get();
+        int mergedCount = 0;
+        int chunkSize = 3000;
+        for (int start = 0; start < values.length; start += chunkSize) {
+            IAggregateFunction chunk = factory.get();
+            for (int i = start; i < Math.min(values.length, start + chunkSize); i++) {
+                if (chunk.accumulate(values[i], false)) {
+                    mergedCount++;
+                }
+            }
+            Assert.assertTrue(merged.merge(chunk));
+        }
+        Assert.assertFalse(merged.isApproximate());
+        Assert.assertEquals(sequential.getClass().getSimpleName(), sequential.getResult(sequentialCount), merged.getResult(mergedCount));
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.gis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.util.GeometricShapeFactory;
+
+import java.util.*;
+
+public class GisFeatureIndexTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory();
+
+    // 256x256 units tile: one unit per pixel
+    private static final Envelope TILE = new Envelope(0, 256, 0, 256);
+
+    @Test
+    public void queryFeaturesInTile() {
+        GisFeatureIndex index = new GisFeatureIndex();
+        int inside = index.addFeature(makeBox(10, 10, 50, 50));
+        int crossing = index.addFeature(makeBox(200, 200, 300, 300));
+        int outside = index.addFeature(makeBox(500, 500, 600, 600));
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(new Envelope(10, 600, 10, 600), index.getBounds());
+
+        GisTileContent content = index.queryTiles(0, Collections.singletonList(TILE), 0, new HashSet<>());
+        Set<Integer> ids = getFeatureIds(content);
+        Assert.assertTrue(ids.contains(inside));
+        Assert.assertTrue(ids.contains(crossing));
+        Assert.assertFalse(ids.contains(outside));
+        Assert.assertTrue(content.getClusters().isEmpty());
+    }
+
+    @Test
+    public void renderedFeaturesAreSkipped() {
+        GisFeatureIndex index = new GisFeatureIndex();
+        int large = index.addFeature(makeBox(100, 100, 400, 200));
+        // Small feature on the border of two tiles
+        int small = index.addFeature(makeBox(255.5, 10, 256.5, 11));
+
+        Set<Integer> rendered = new HashSet<>();
+        List<Envelope> tiles = Arrays.asList(TILE, new Envelope(256, 512, 0, 256));
+        GisTileContent content = index.queryTiles(0, tiles, 0, rendered);
+        // Each feature is returned once even if it intersects both tiles
+        Assert.assertEquals(Arrays.asList(large, small), sortedIds(content));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(large, small)), rendered);
+
+        Assert.assertTrue(index.queryTiles(0, tiles, 0, rendered).isEmpty());
+    }
+
+    @Test
+    public void clusterSmallFeatures() {
+        GisFeatureIndex index = new GisFeatureIndex();
+        // 25 one-pixel features inside of the first cell of 4x4 grid
+        for (int i = 0; i < 25; i++) {
+            double x = 5 + (i % 5) * 10, y = 5 + (i / 5) * 10;
+            index.addFeature(makeBox(x, y, x + 1, y + 1));
+        }
+        int large = index.addFeature(makeBox(100, 100, 200, 200));
+
+        GisTileContent content = index.queryTiles(0, Collections.singletonList(TILE), 4, new HashSet<>());
+        Assert.assertEquals(Collections.singletonList(large), sortedIds(content));
+        Assert.assertEquals(1, content.getClusters().size());
+        GisFeatureCluster cluster = content.getClusters().get(0);
+        Assert.assertEquals(25, cluster.getCount());
+        Assert.assertEquals(25.5, cluster.getX(), 1e-9);
+        Assert.assertEquals(25.5, cluster.getY(), 1e-9);
+        Assert.assertEquals(new Envelope(5, 46, 5, 46), cluster.getBounds());
+
+        // Without clustering all features are returned
+        content = index.queryTiles(0, Collections.singletonList(TILE), 0, new HashSet<>());
+        Assert.assertEquals(26, content.getFeatureCount());
+        Assert.assertTrue(content.getClusters().isEmpty());
+    }
+
+    @Test
+    public void coincidentFeaturesAreNotClustered() {
+        GisFeatureIndex index = new GisFeatureIndex();
+        for (int i = 0; i < 3; i++) {
+            index.addFeature(FACTORY.createPoint(new Coordinate(20, 20)));
+        }
+        // Single feature in a cell is not clustered
+        index.addFeature(FACTORY.createPoint(new Coordinate(200, 200)));
+
+        GisTileContent content = index.queryTiles(0, Collections.singletonList(TILE), 4, new HashSet<>());
+        Assert.assertEquals(4, content.getFeatureCount());
+        Assert.assertTrue(content.getClusters().isEmpty());
+    }
+
+    @Test
+    public void simplifyByZoom() {
+        GisFeatureIndex index = new GisFeatureIndex();
+        Polygon circle = makeCircle(1000);
+        int id = index.addFeature(circle);
+
+        // 100 units per pixel: circle is about 10 pixels wide
+        Envelope lowZoomTile = new Envelope(-12800, 12800, -12800, 12800);
+        Geometry lowZoom = querySingle(index, 1, lowZoomTile, id);
+        Assert.assertTrue(lowZoom.getNumPoints() < 100);
+        Assert.assertTrue(lowZoom.isValid());
+        Assert.assertEquals(circle.getEnvelopeInternal().getWidth(), lowZoom.getEnvelopeInternal().getWidth(), 100);
+
+        // 0.001 unit per pixel at the circle edge: source geometry is kept
+        Envelope highZoomTile = new Envelope(499.9, 500.156, -0.128, 0.128);
+        Geometry highZoom = querySingle(index, 20, highZoomTile, id);
+        Assert.assertEquals(circle.getNumPoints(), highZoom.getNumPoints());
+    }
+
+    @Test
+    public void simplifiedGeometryCacheIsLimited() {
+        GisFeatureIndex index = new GisFeatureIndex();
+        int id = index.addFeature(makeCircle(1000));
+        Envelope tile = new Envelope(-12800, 12800, -12800, 12800);
+
+        Geometry first = querySingle(index, 1, tile, id);
+        Assert.assertSame(first, querySingle(index, 1, tile, id));
+        // Other zoom levels evict the least recently used one
+        for (int zoom = 2; zoom < 10; zoom++) {
+            querySingle(index, zoom, tile, id);
+        }
+        Geometry recomputed = querySingle(index, 1, tile, id);
+        Assert.assertNotSame(first, recomputed);
+        Assert.assertTrue(first.equalsExact(recomputed));
+    }
+
+    @Test
+    public void simplifyGeometry() {
+        Point point = FACTORY.createPoint(new Coordinate(1, 2));
+        Assert.assertSame(point, GisFeatureIndex.simplifyGeometry(point, 10));
+
+        Polygon circle = makeCircle(1000);
+        circle.setSRID(4326);
+        Assert.assertSame(circle, GisFeatureIndex.simplifyGeometry(circle, 0));
+        Geometry simplified = GisFeatureIndex.simplifyGeometry(circle, 1);
+        Assert.assertTrue(simplified.getNumPoints() < circle.getNumPoints());
+        Assert.assertTrue(simplified.isValid());
+        Assert.assertEquals(4326, simplified.getSRID());
+
+        LineString line = FACTORY.createLineString(new Coordinate[] {
+            new Coordinate(0, 0), new Coordinate(1, 0.01), new Coordinate(2, 0), new Coordinate(3, 5)});
+        Assert.assertEquals(3, GisFeatureIndex.simplifyGeometry(line, 0.1).getNumPoints());
+    }
+
+    private static Geometry querySingle(GisFeatureIndex index, int zoom, Envelope tile, int featureId) {
+        GisTileContent content = index.queryTiles(zoom, Collections.singletonList(tile), 0, new HashSet<>());
+        Assert.assertEquals(1, content.getFeatureCount());
+        Assert.assertEquals(featureId, content.getFeatureId(0));
+        return content.getGeometry(0);
+    }
+
+    private static Set<Integer> getFeatureIds(GisTileContent content) {
+        return new HashSet<>(sortedIds(content));
+    }
+
+    private static List<Integer> sortedIds(GisTileContent content) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < content.getFeatureCount(); i++) {
+            ids.add(content.getFeatureId(i));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private static Polygon makeBox(double minX, double minY, double maxX, double maxY) {
+        return (Polygon) FACTORY.toGeometry(new Envelope(minX, maxX, minY, maxY));
+    }
+
+    private static Polygon makeCircle(int numPoints) {
+        GeometricShapeFactory shapeFactory = new GeometricShapeFactory(FACTORY);
+        shapeFactory.setNumPoints(numPoints);
+        shapeFactory.setCentre(new Coordinate(0, 0));
+        shapeFactory.setSize(1000);
+        return shapeFactory.createCircle();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceInfo;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatement;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+/**
+ * Batches as they are executed by result set persister: deletes by key with some null key values
+ */
+public class ExecuteBatchImplTest {
+
+    private static final String KEY_EQUALS = "DELETE FROM test WHERE id=? AND code=?";
+    private static final String KEY_IS_NULL = "DELETE FROM test WHERE id=? AND code IS NULL";
+
+    private static class DeleteBatch extends ExecuteBatchImpl {
+        final List<DBCStatement> statements = new ArrayList<>();
+        // Statement query and bound values of each row
+        final List<String> boundRows = new ArrayList<>();
+
+        DeleteBatch() {
+            super(new DBSAttributeBase[] { Mockito.mock(DBDAttributeBinding.class), Mockito.mock(DBDAttributeBinding.class) }, null, true);
+        }
+
+        @NotNull
+        @Override
+        protected DBCStatement prepareStatement(@NotNull DBCSession session, DBDValueHandler[] handlers, Object[] attributeValues, Map<String, Object> options) {
+            DBCStatement statement = Mockito.mock(DBCStatement.class);
+            Mockito.when(statement.getQueryString()).thenReturn(attributeValues[1] == null ? KEY_IS_NULL : KEY_EQUALS);
+            statements.add(statement);
+            return statement;
+        }
+
+        @Override
+        protected void bindStatement(@NotNull DBDValueHandler[] handlers, @NotNull DBCStatement statement, Object[] attributeValues) {
+            boundRows.add(statement.getQueryString() + " " + Arrays.toString(attributeValues));
+        }
+    }
+
+    @Test
+    public void mixedNullKeysWithoutBatches() throws DBCException {
+        DeleteBatch batch = executeDeletes(Collections.emptyMap());
+        // Statement is re-prepared each time nullability changes
+        assertBoundRows(batch);
+        Assert.assertEquals(3, batch.statements.size());
+        for (DBCStatement statement : batch.statements) {
+            Mockito.verify(statement, Mockito.never()).executeStatementBatch();
+            Mockito.verify(statement).close();
+        }
+        Mockito.verify(batch.statements.get(0)).executeStatement();
+        Mockito.verify(batch.statements.get(1), Mockito.times(2)).executeStatement();
+        Mockito.verify(batch.statements.get(2)).executeStatement();
+    }
+
+    @Test
+    public void mixedNullKeysWithBatches() throws DBCException {
+        DeleteBatch batch = executeDeletes(Collections.singletonMap(DBSDataManipulator.OPTION_DISABLE_BATCHES, false));
+        assertBoundRows(batch);
+        Assert.assertEquals(3, batch.statements.size());
+        for (DBCStatement statement : batch.statements) {
+            Mockito.verify(statement).executeStatementBatch();
+            Mockito.verify(statement, Mockito.never()).executeStatement();
+            Mockito.verify(statement).close();
+        }
+        Mockito.verify(batch.statements.get(1), Mockito.times(2)).addToBatch();
+    }
+
+    private static DeleteBatch executeDeletes(Map<String, Object> options) throws DBCException {
+        DBPDataSourceInfo info = Mockito.mock(DBPDataSourceInfo.class);
+        Mockito.when(info.supportsBatchUpdates()).thenReturn(true);
+        DBPDataSource dataSource = Mockito.mock(DBPDataSource.class);
+        Mockito.when(dataSource.getInfo()).thenReturn(info);
+        DBCSession session = Mockito.mock(DBCSession.class);
+        Mockito.when(session.getDataSource()).thenReturn(dataSource);
+        Mockito.when(session.getProgressMonitor()).thenReturn(new VoidProgressMonitor());
+
+        DeleteBatch batch = new DeleteBatch();
+        batch.add(new Object[] {1, "a"});
+        batch.add(new Object[] {2, null});
+        batch.add(new Object[] {3, null});
+        batch.add(new Object[] {4, "d"});
+        batch.execute(session, options);
+        return batch;
+    }
+
+    private static void assertBoundRows(DeleteBatch batch) {
+        Assert.assertEquals(Arrays.asList(
+            KEY_EQUALS + " [1, a]",
+            KEY_IS_NULL + " [2, null]",
+            KEY_IS_NULL + " [3, null]",
+            KEY_EQUALS + " [4, d]"), batch.boundRows);
+    }
+}
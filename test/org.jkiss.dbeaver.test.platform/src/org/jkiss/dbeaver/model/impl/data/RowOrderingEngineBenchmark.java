@@ -0,0 +1,71 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.dbeaver.model.exec.DBCLogicalOperator;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.test.platform.Benchmark;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Compares ordering engine with comparator based sort (the way result set model sorted rows before).
+ * Not a part of the default test run, see {@link Benchmark}.
+ */
+public class RowOrderingEngineBenchmark {
+
+    private static final int ROW_COUNT = 1_000_000;
+
+    private final Object[][] rows = RowOrderingEngineTest.generateRows(ROW_COUNT, new Random(3));
+
+    @Test
+    public void benchmarkSort() throws Exception {
+        boolean[] descending = {false, true};
+        int[] expected = RowOrderingEngineTest.sortWithComparator(rows, descending);
+        Assert.assertArrayEquals(expected, sortWithEngine(descending));
+
+        long comparatorTime = Benchmark.measure("Sort " + ROW_COUNT + " rows with comparator",
+            () -> RowOrderingEngineTest.sortWithComparator(rows, descending));
+        long engineTime = Benchmark.measure("Sort " + ROW_COUNT + " rows with engine",
+            () -> sortWithEngine(descending));
+        System.out.println("Engine speedup: " + (engineTime == 0 ? "-" : String.format("%.1fx", (double) comparatorTime / engineTime)));
+    }
+
+    @Test
+    public void benchmarkFilter() throws Exception {
+        DBCLogicalOperator[] operators = { DBCLogicalOperator.GREATER, DBCLogicalOperator.IS_NOT_NULL };
+        Object[][] arguments = { { 500 }, { } };
+        Benchmark.measure("Filter " + ROW_COUNT + " rows sequentially", () -> {
+            int count = 0;
+            for (Object[] row : rows) {
+                if (operators[0].evaluate(row[0], arguments[0]) && operators[1].evaluate(row[1], arguments[1])) {
+                    count++;
+                }
+            }
+            Assert.assertTrue(count > 0);
+        });
+        Benchmark.measure("Filter " + ROW_COUNT + " rows with engine",
+            () -> Assert.assertTrue(RowOrderingEngine.filter((row, key) -> rows[row][key], rows.length, operators, arguments).length > 0));
+    }
+
+    private int[] sortWithEngine(boolean[] descending) {
+        return new RowOrderingEngine((row, key) -> rows[row][key], rows.length, descending).sort(new VoidProgressMonitor());
+    }
+
+}
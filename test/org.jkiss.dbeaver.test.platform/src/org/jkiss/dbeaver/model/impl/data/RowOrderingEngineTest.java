@@ -0,0 +1,119 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCLogicalOperator;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RowOrderingEngineTest {
+
+    @Test
+    public void testSortMatchesComparator() {
+        Object[][] rows = generateRows(50_000, new Random(1));
+        boolean[] descending = {false, true, false};
+        int[] order = new RowOrderingEngine((row, key) -> rows[row][key], rows.length, descending)
+            .sort(new VoidProgressMonitor());
+        Assert.assertNotNull(order);
+        Assert.assertArrayEquals(sortWithComparator(rows, descending), order);
+    }
+
+    @Test
+    public void testNullsAndMixedValues() {
+        Object[][] rows = {
+            {null},
+            {"b"},
+            {10},
+            {"a"},
+            {null},
+            {new BigDecimal("2.5")},
+        };
+        boolean[] descending = {false};
+        int[] order = new RowOrderingEngine((row, key) -> rows[row][key], rows.length, descending)
+            .sort(new VoidProgressMonitor());
+        Assert.assertArrayEquals(sortWithComparator(rows, descending), order);
+        // Nulls go last and keep original order
+        Assert.assertEquals(0, order[4]);
+        Assert.assertEquals(4, order[5]);
+    }
+
+    @Test
+    public void testFilter() {
+        Object[][] rows = generateRows(10_000, new Random(2));
+        int[] result = RowOrderingEngine.filter(
+            (row, key) -> rows[row][key],
+            rows.length,
+            new DBCLogicalOperator[] { DBCLogicalOperator.GREATER, DBCLogicalOperator.IS_NOT_NULL },
+            new Object[][] { { 500 }, { } });
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (DBCLogicalOperator.GREATER.evaluate(rows[i][0], new Object[] { 500 }) && rows[i][1] != null) {
+                expected.add(i);
+            }
+        }
+        Assert.assertEquals(expected.size(), result.length);
+        for (int i = 0; i < result.length; i++) {
+            Assert.assertEquals(expected.get(i).intValue(), result[i]);
+        }
+    }
+
+    static int[] sortWithComparator(Object[][] rows, boolean[] descending) {
+        List<Integer> order = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            order.add(i);
+        }
+        order.sort((row1, row2) -> {
+            int result = 0;
+            for (int i = 0; i < descending.length; i++) {
+                result = DBUtils.compareDataValues(rows[row1][i], rows[row2][i]);
+                if (descending[i]) {
+                    result = -result;
+                }
+                if (result != 0) {
+                    break;
+                }
+            }
+            return result;
+        });
+        int[] result = new int[order.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = order.get(i);
+        }
+        return result;
+    }
+
+    static Object[][] generateRows(int count, Random random) {
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Object[] {
+                random.nextInt(20) == 0 ? null : random.nextInt(1000),
+                random.nextInt(20) == 0 ? null : "value" + random.nextInt(5000),
+                new Timestamp(1_500_000_000_000L + random.nextInt(100_000) * 1000L)
+            };
+        }
+        return rows;
+    }
+
+}
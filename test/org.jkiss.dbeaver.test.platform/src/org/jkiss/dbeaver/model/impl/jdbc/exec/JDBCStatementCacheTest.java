@@ -0,0 +1,130 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.exec;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class JDBCStatementCacheTest {
+
+    private static JDBCStatementCache.Entry prepare(JDBCStatementCache cache, String sql) throws SQLException {
+        JDBCStatementCache.Key key = new JDBCStatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        JDBCStatementCache.Entry entry = cache.acquire(key);
+        if (entry == null) {
+            entry = cache.createEntry(key, Mockito.mock(PreparedStatement.class));
+        }
+        return entry;
+    }
+
+    @Test
+    public void testReuse() throws SQLException {
+        JDBCStatementCache cache = new JDBCStatementCache(2);
+        JDBCStatementCache.Entry entry = prepare(cache, "select 1");
+        cache.release(entry);
+        Assert.assertSame(entry, prepare(cache, "select 1"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Mockito.verify(entry.statement).clearParameters();
+        Mockito.verify(entry.statement, Mockito.never()).close();
+
+        // Statement in use is not shared
+        JDBCStatementCache.Entry entry2 = prepare(cache, "select 1");
+        Assert.assertNotSame(entry, entry2);
+        cache.release(entry);
+        cache.release(entry2);
+        Assert.assertEquals(1, cache.getSize());
+        Mockito.verify(entry.statement).close();
+    }
+
+    @Test
+    public void testEviction() throws SQLException {
+        JDBCStatementCache cache = new JDBCStatementCache(2);
+        JDBCStatementCache.Entry entry1 = prepare(cache, "select 1");
+        JDBCStatementCache.Entry entry2 = prepare(cache, "select 2");
+        JDBCStatementCache.Entry entry3 = prepare(cache, "select 3");
+        cache.release(entry1);
+        cache.release(entry2);
+        // Touch first statement so second becomes the eldest
+        cache.release(prepare(cache, "select 1"));
+        cache.release(entry3);
+
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Mockito.verify(entry2.statement).close();
+        Mockito.verify(entry1.statement, Mockito.never()).close();
+        Mockito.verify(entry3.statement, Mockito.never()).close();
+    }
+
+    @Test
+    public void testInvalidate() throws SQLException {
+        JDBCStatementCache cache = new JDBCStatementCache(10);
+        JDBCStatementCache.Entry cached = prepare(cache, "select 1");
+        cache.release(cached);
+        JDBCStatementCache.Entry inUse = prepare(cache, "select 2");
+
+        cache.invalidate();
+        Assert.assertEquals(0, cache.getSize());
+        Mockito.verify(cached.statement).close();
+
+        // Statement acquired before invalidate belongs to the old connection
+        cache.release(inUse);
+        Assert.assertEquals(0, cache.getSize());
+        Mockito.verify(inUse.statement).close();
+    }
+
+    @Test
+    public void testResetSettings() throws SQLException {
+        JDBCStatementCache cache = new JDBCStatementCache(10);
+        JDBCStatementCache.Entry entry = prepare(cache, "select 1");
+        Mockito.when(entry.statement.getMaxRows()).thenReturn(100);
+        cache.release(entry);
+        Mockito.verify(entry.statement).setMaxRows(0);
+        Assert.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testResetStatementOptions() throws SQLException {
+        JDBCStatementCache cache = new JDBCStatementCache(10);
+        JDBCStatementCache.Entry entry = prepare(cache, "select 1");
+        Mockito.when(entry.statement.getFetchDirection()).thenReturn(ResultSet.FETCH_REVERSE);
+        Mockito.when(entry.statement.getMaxFieldSize()).thenReturn(256);
+        Mockito.when(entry.statement.isPoolable()).thenReturn(true);
+        entry.escapeProcessingChanged = true;
+        cache.release(entry);
+        Mockito.verify(entry.statement).setFetchDirection(entry.fetchDirection);
+        Mockito.verify(entry.statement).setMaxFieldSize(entry.maxFieldSize);
+        Mockito.verify(entry.statement).setPoolable(entry.poolable);
+        Mockito.verify(entry.statement).setEscapeProcessing(true);
+        Assert.assertFalse(entry.escapeProcessingChanged);
+        Assert.assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testCursorNameIsNotReused() throws SQLException {
+        JDBCStatementCache cache = new JDBCStatementCache(10);
+        JDBCStatementCache.Entry entry = prepare(cache, "select 1");
+        entry.cursorNameChanged = true;
+        cache.release(entry);
+        Assert.assertEquals(0, cache.getSize());
+        Mockito.verify(entry.statement).close();
+    }
+}
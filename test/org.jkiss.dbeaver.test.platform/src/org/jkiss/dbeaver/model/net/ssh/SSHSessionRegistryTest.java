@@ -0,0 +1,159 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.net.ssh;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.utils.RuntimeUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SSHSessionRegistryTest {
+
+    private static class TestSession {
+        private volatile boolean connected = true;
+    }
+
+    private final AtomicInteger openedSessions = new AtomicInteger();
+    private final List<TestSession> closedSessions = Collections.synchronizedList(new ArrayList<>());
+    private final SSHSessionRegistry<TestSession> registry = new SSHSessionRegistry<>(
+        session -> session.connected,
+        session -> {
+            session.connected = false;
+            closedSessions.add(session);
+        });
+
+    private TestSession openSession() {
+        openedSessions.incrementAndGet();
+        return new TestSession();
+    }
+
+    @Test
+    public void testSessionSharing() throws Exception {
+        SSHSessionRegistry.SessionKey key = new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", null, "secret");
+        SSHSessionRegistry.SharedSession<TestSession> session1 = registry.acquireSession(key, this::openSession);
+        SSHSessionRegistry.SharedSession<TestSession> session2 = registry.acquireSession(
+            new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", "", "secret"), this::openSession);
+
+        Assert.assertSame(session1, session2);
+        Assert.assertEquals(1, openedSessions.get());
+        Assert.assertEquals(2, session1.getRefCount());
+
+        registry.releaseSession(session1);
+        Assert.assertTrue(closedSessions.isEmpty());
+        Assert.assertSame(session1, registry.getSession(key));
+
+        registry.releaseSession(session2);
+        Assert.assertEquals(1, closedSessions.size());
+        Assert.assertNull(registry.getSession(key));
+        Assert.assertEquals(0, registry.getSessionCount());
+
+        // Extra release must be ignored
+        registry.releaseSession(session2);
+        Assert.assertEquals(1, closedSessions.size());
+    }
+
+    @Test
+    public void testDifferentCredentials() throws Exception {
+        SSHSessionRegistry.SharedSession<TestSession> session1 = registry.acquireSession(
+            new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", null, "secret"), this::openSession);
+        SSHSessionRegistry.SharedSession<TestSession> session2 = registry.acquireSession(
+            new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", null, "other"), this::openSession);
+        SSHSessionRegistry.SharedSession<TestSession> session3 = registry.acquireSession(
+            new SSHSessionRegistry.SessionKey("bastion", 2222, "user", "PASSWORD", null, "secret"), this::openSession);
+        SSHSessionRegistry.SharedSession<TestSession> session4 = registry.acquireSession(
+            new SSHSessionRegistry.SessionKey("bastion", 22, "admin", "PASSWORD", null, "secret"), this::openSession);
+
+        Assert.assertNotSame(session1, session2);
+        Assert.assertNotSame(session1, session3);
+        Assert.assertNotSame(session1, session4);
+        Assert.assertEquals(4, openedSessions.get());
+        Assert.assertEquals(4, registry.getSessionCount());
+    }
+
+    @Test
+    public void testBrokenSessionReopen() throws Exception {
+        SSHSessionRegistry.SessionKey key = new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", null, "secret");
+        SSHSessionRegistry.SharedSession<TestSession> session1 = registry.acquireSession(key, this::openSession);
+        session1.getSession().connected = false;
+
+        SSHSessionRegistry.SharedSession<TestSession> session2 = registry.acquireSession(key, this::openSession);
+        Assert.assertNotSame(session1, session2);
+        Assert.assertEquals(2, openedSessions.get());
+
+        // Release of the broken session doesn't affect the new one
+        registry.releaseSession(session1);
+        Assert.assertSame(session2, registry.getSession(key));
+        Assert.assertEquals(1, session2.getRefCount());
+    }
+
+    @Test
+    public void testFailedOpen() throws Exception {
+        SSHSessionRegistry.SessionKey key = new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", null, "secret");
+        try {
+            registry.acquireSession(key, () -> {
+                throw new DBException("Auth failed");
+            });
+            Assert.fail("Open error must be propagated");
+        } catch (DBException e) {
+            // Expected
+        }
+        Assert.assertEquals(0, registry.getSessionCount());
+        Assert.assertNotNull(registry.acquireSession(key, this::openSession));
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws Exception {
+        final int tunnelCount = 30;
+        SSHSessionRegistry.SessionKey key = new SSHSessionRegistry.SessionKey("bastion", 22, "user", "PASSWORD", null, "secret");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<SSHSessionRegistry.SharedSession<TestSession>>> futures = new ArrayList<>();
+            for (int i = 0; i < tunnelCount; i++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    return registry.acquireSession(key, () -> {
+                        // Slow handshake
+                        RuntimeUtils.pause(50);
+                        return openSession();
+                    });
+                }));
+            }
+            startLatch.countDown();
+            List<SSHSessionRegistry.SharedSession<TestSession>> sessions = new ArrayList<>();
+            for (Future<SSHSessionRegistry.SharedSession<TestSession>> future : futures) {
+                sessions.add(future.get(10, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, openedSessions.get());
+            Assert.assertEquals(tunnelCount, sessions.get(0).getRefCount());
+            for (SSHSessionRegistry.SharedSession<TestSession> session : sessions) {
+                registry.releaseSession(session);
+            }
+            Assert.assertEquals(1, closedSessions.size());
+            Assert.assertEquals(0, registry.getSessionCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AbstractObjectCacheTest {
+
+    private static final int OBJECT_COUNT = 1000;
+    private static final String LOADER_THREAD = "Cache loader";
+
+    private static class TestCache extends SimpleObjectCache<DBSObject, DBSObject> {
+        private volatile boolean holdLoad;
+        private final CountDownLatch loadStarted = new CountDownLatch(1);
+        private final CountDownLatch loadReleased = new CountDownLatch(1);
+
+        @NotNull
+        @Override
+        protected String getObjectName(@NotNull DBSObject object) {
+            if (holdLoad && Thread.currentThread().getName().equals(LOADER_THREAD)) {
+                // Hold loader inside cache lock until readers finished
+                loadStarted.countDown();
+                try {
+                    loadReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.getObjectName(object);
+        }
+
+        // Like JDBCObjectCache.loadObjects: merge is done under cache lock
+        synchronized void loadObjects(List<DBSObject> objects) {
+            mergeCache(objects);
+        }
+    }
+
+    @Test
+    public void testReadersNotBlockedDuringLoad() throws Exception {
+        TestCache cache = new TestCache();
+        cache.setCache(makeObjects("OLD", OBJECT_COUNT));
+        // Build name map
+        Assert.assertNotNull(cache.getCachedObject("OLD_1"));
+
+        // Loader stops inside the cache lock and waits until it is released
+        cache.holdLoad = true;
+        Thread loader = new Thread(() -> cache.loadObjects(makeObjects("NEW", OBJECT_COUNT)), LOADER_THREAD);
+        loader.start();
+        Assert.assertTrue(cache.loadStarted.await(10, TimeUnit.SECONDS));
+
+        // Readers must complete while the loader holds the lock
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch readersDone = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < OBJECT_COUNT; i++) {
+                    Assert.assertEquals(OBJECT_COUNT, cache.getCachedObjects().size());
+                    Assert.assertNotNull(cache.getCachedObject("OLD_" + i));
+                    Assert.assertEquals(OBJECT_COUNT, cache.getCacheSize());
+                }
+            } catch (Throwable e) {
+                errors.add(e);
+            } finally {
+                readersDone.countDown();
+            }
+        });
+        reader.start();
+        boolean readersFinished = readersDone.await(30, TimeUnit.SECONDS);
+        Assert.assertTrue("Load finished too early", loader.isAlive());
+        cache.holdLoad = false;
+        cache.loadReleased.countDown();
+        Assert.assertTrue("Readers were blocked by loader", readersFinished);
+        if (!errors.isEmpty()) {
+            throw new AssertionError("Read error", errors.peek());
+        }
+
+        loader.join();
+        Assert.assertEquals(OBJECT_COUNT, cache.getCachedObjects().size());
+        Assert.assertNotNull(cache.getCachedObject("NEW_1"));
+        Assert.assertNull(cache.getCachedObject("OLD_1"));
+    }
+
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        TestCache cache = new TestCache();
+        List<DBSObject> objects = makeObjects("OBJ", OBJECT_COUNT);
+        cache.setCache(new ArrayList<>(objects));
+
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int seed = i;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    while (!stop.get()) {
+                        // Each writer modifies its own objects
+                        DBSObject object = objects.get(random.nextInt(OBJECT_COUNT / 4) * 4 + seed);
+                        cache.removeObject(object, false);
+                        cache.cacheObject(object);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    while (!stop.get()) {
+                        for (DBSObject object : cache.getCachedObjects()) {
+                            Assert.assertNotNull(object);
+                        }
+                        cache.getCachedObject("OBJ_" + random.nextInt(OBJECT_COUNT));
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(1000);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!errors.isEmpty()) {
+            throw new AssertionError("Concurrent access error", errors.peek());
+        }
+        // Each writer re-adds object it removed
+        Assert.assertEquals(OBJECT_COUNT, cache.getCacheSize());
+        for (DBSObject object : objects) {
+            Assert.assertSame(object, cache.getCachedObject(object.getName()));
+        }
+    }
+
+    @Test
+    public void testSetCacheCopiesList() {
+        TestCache cache = new TestCache();
+        List<DBSObject> objects = makeObjects("OBJ", 10);
+        cache.setCache(objects);
+        objects.clear();
+        Assert.assertEquals(10, cache.getCacheSize());
+        Assert.assertNotNull(cache.getCachedObject("OBJ_1"));
+    }
+
+    @Test
+    public void testAppendKeepsSnapshots() {
+        TestCache cache = new TestCache();
+        List<DBSObject> objects = makeObjects("OBJ", OBJECT_COUNT);
+        List<List<DBSObject>> snapshots = new ArrayList<>();
+        for (DBSObject object : objects) {
+            snapshots.add(cache.getCachedObjects());
+            cache.cacheObject(object);
+            // Build name index so appends have to update it
+            Assert.assertSame(object, cache.getCachedObject(object.getName()));
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            Assert.assertEquals(objects.subList(0, i), snapshots.get(i));
+        }
+        Assert.assertEquals(objects, cache.getCachedObjects());
+
+        // Duplicate name: last object wins, older snapshot still sees the first one
+        List<DBSObject> beforeDuplicate = cache.getCachedObjects();
+        DBSObject duplicate = makeObjects("OBJ", 1).get(0);
+        cache.cacheObject(duplicate);
+        Assert.assertSame(duplicate, cache.getCachedObject("OBJ_0"));
+        Assert.assertEquals(OBJECT_COUNT, beforeDuplicate.size());
+
+        cache.removeObject(duplicate, false);
+        Assert.assertSame(objects.get(0), cache.getCachedObject("OBJ_0"));
+        Assert.assertEquals(objects, cache.getCachedObjects());
+    }
+
+    private static List<DBSObject> makeObjects(String prefix, int count) {
+        List<DBSObject> objects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DBSObject object = Mockito.mock(DBSObject.class);
+            Mockito.when(object.getName()).thenReturn(prefix + "_" + i);
+            objects.add(object);
+        }
+        return objects;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.jobs;
+
+import org.jkiss.dbeaver.DBException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectionHealthCheckerTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    private final ConnectionHealthChecker checker = new ConnectionHealthChecker(1, 0.1);
+    private final List<String> results = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        checker.dispose();
+    }
+
+    private ConnectionHealthChecker.ResultHandler resultHandler(CountDownLatch latch) {
+        return (id, result, state, error) -> {
+            results.add(id + ":" + result);
+            if (latch != null) {
+                latch.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void testCheckInterval() throws Exception {
+        long now = System.currentTimeMillis();
+        // Just connected - not due yet
+        Assert.assertFalse(checker.scheduleCheck("ds1", now, false, HOUR, HOUR, monitor -> {}, resultHandler(null)));
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Assert.assertTrue(checker.scheduleCheck("ds2", now - 2 * HOUR, false, HOUR, HOUR, monitor -> {}, resultHandler(latch)));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals("ds2:ALIVE", results.get(0));
+
+        ConnectionHealthChecker.HealthState state = checker.getState("ds2");
+        Assert.assertNotNull(state);
+        Assert.assertEquals(1, state.getCheckCount());
+        Assert.assertTrue(state.getLastLatency() >= 0);
+        Assert.assertEquals(ConnectionHealthChecker.CheckResult.ALIVE, state.getLastResult());
+
+        // Just checked - next check in about an hour
+        Assert.assertFalse(checker.scheduleCheck("ds2", now - 2 * HOUR, false, HOUR, HOUR, monitor -> {}, resultHandler(null)));
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        for (int i = 1; i <= 2; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            Assert.assertTrue(checker.scheduleCheck("ds", 0, true, HOUR, HOUR, monitor -> {
+                throw new DBException("Connection reset");
+            }, resultHandler(latch)));
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(i, checker.getState("ds").getConsecutiveFailures());
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        Assert.assertTrue(checker.scheduleCheck("ds", 0, true, HOUR, HOUR, monitor -> {}, resultHandler(latch)));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, checker.getState("ds").getConsecutiveFailures());
+        Assert.assertEquals("[ds:FAILED, ds:FAILED, ds:ALIVE]", results.toString());
+    }
+
+    @Test
+    public void testHangedCheck() throws Exception {
+        CountDownLatch hangLatch = new CountDownLatch(1);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch finishLatch = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean canceled = new AtomicBoolean();
+        try {
+            Assert.assertTrue(checker.scheduleCheck("hanged", 0, true, HOUR, 100, monitor -> {
+                startLatch.countDown();
+                try {
+                    hangLatch.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+                canceled.set(monitor.isCanceled());
+                finishLatch.countDown();
+            }, resultHandler(null)));
+            Assert.assertTrue(startLatch.await(5, TimeUnit.SECONDS));
+            // Still in progress
+            Assert.assertFalse(checker.scheduleCheck("hanged", 0, true, HOUR, 100, monitor -> {}, resultHandler(null)));
+            Thread.sleep(200);
+            // Timed out
+            Assert.assertFalse(checker.scheduleCheck("hanged", 0, false, HOUR, 100, monitor -> {}, resultHandler(null)));
+            Assert.assertEquals("[hanged:TIMED_OUT]", results.toString());
+            ConnectionHealthChecker.HealthState state = checker.getState("hanged");
+            Assert.assertEquals(1, state.getConsecutiveFailures());
+            Assert.assertFalse(state.isCheckInProgress());
+
+            // The only worker is still hanged but other connections must be checked
+            CountDownLatch latch = new CountDownLatch(1);
+            Assert.assertTrue(checker.scheduleCheck("other", 0, true, HOUR, HOUR, monitor -> {}, resultHandler(latch)));
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("other:ALIVE", results.get(1));
+        } finally {
+            hangLatch.countDown();
+        }
+        // Abandoned check is canceled thru its monitor, worker thread is not interrupted
+        Assert.assertTrue(finishLatch.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(interrupted.get());
+        Assert.assertTrue(canceled.get());
+        Assert.assertEquals(2, results.size());
+    }
+
+    @Test
+    public void testLateFailure() throws Exception {
+        CountDownLatch hangLatch = new CountDownLatch(1);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch failLatch = new CountDownLatch(2);
+        Assert.assertTrue(checker.scheduleCheck("dropped", 0, true, HOUR, 100, monitor -> {
+            startLatch.countDown();
+            hangLatch.await();
+            throw new DBException("Connection timed out");
+        }, resultHandler(failLatch)));
+        Assert.assertTrue(startLatch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        Assert.assertFalse(checker.scheduleCheck("dropped", 0, false, HOUR, 100, monitor -> {}, resultHandler(failLatch)));
+
+        // Abandoned check fails when connection finally times out
+        hangLatch.countDown();
+        Assert.assertTrue(failLatch.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals("[dropped:TIMED_OUT, dropped:FAILED]", results.toString());
+        // Failure is already counted as timeout
+        ConnectionHealthChecker.HealthState state = checker.getState("dropped");
+        Assert.assertEquals(1, state.getConsecutiveFailures());
+        Assert.assertEquals(ConnectionHealthChecker.CheckResult.TIMED_OUT, state.getLastResult());
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.properties;
+
+import org.jkiss.dbeaver.test.platform.Benchmark;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads properties of 10k tables with reflection (annotations are read and getters are invoked for each object)
+ * and with cached property registry and generated accessors.
+ * Not a part of the default test run, see {@link Benchmark}.
+ */
+public class ObjectPropertyRegistryBenchmark {
+
+    private static final int TABLE_COUNT = 10_000;
+
+    @Test
+    public void benchmarkReadProperties() throws Exception {
+        List<ObjectPropertyRegistryTest.TestTable> tables = new ArrayList<>(TABLE_COUNT);
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            tables.add(new ObjectPropertyRegistryTest.TestTable(i));
+        }
+        Assert.assertEquals(ObjectPropertyRegistryTest.readWithReflection(tables), ObjectPropertyRegistryTest.readWithAccessors(tables));
+
+        Benchmark.measure("Read properties of " + TABLE_COUNT + " tables with reflection", 5, 10,
+            () -> ObjectPropertyRegistryTest.readWithReflection(tables));
+        Benchmark.measure("Read properties of " + TABLE_COUNT + " tables with accessors", 5, 10,
+            () -> ObjectPropertyRegistryTest.readWithAccessors(tables));
+    }
+
+}
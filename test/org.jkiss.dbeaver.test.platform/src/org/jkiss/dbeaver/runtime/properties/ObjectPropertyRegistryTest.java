@@ -0,0 +1,202 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.properties;
+
+import org.jkiss.dbeaver.model.meta.Property;
+import org.jkiss.dbeaver.model.meta.PropertyGroup;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ObjectPropertyRegistryTest {
+
+    public static class TestTableStatistics {
+        @Property
+        public long getRowCount() {
+            return 100;
+        }
+    }
+
+    public static class TestTable {
+        private final int id;
+        private String name;
+
+        public TestTable(int id) {
+            this.id = id;
+            this.name = "table" + id;
+        }
+
+        @Property(order = 1)
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Property(order = 2)
+        public int getId() {
+            return id;
+        }
+
+        @Property(order = 3)
+        public String getDescription(DBRProgressMonitor monitor) {
+            return monitor == null ? null : "Table " + id;
+        }
+
+        @Property(order = 4)
+        public String getBroken() {
+            throw new IllegalStateException("Broken property");
+        }
+
+        @PropertyGroup
+        public TestTableStatistics getStatistics() {
+            return new TestTableStatistics();
+        }
+
+        public String getNotAProperty() {
+            return "";
+        }
+    }
+
+    public static class TestBrokenDependency {
+        private int calls;
+
+        @Property
+        public String getValue() {
+            calls++;
+            throw new NoSuchMethodError("Missing driver method");
+        }
+    }
+
+    @Test
+    public void testPropertyMethods() {
+        List<ObjectPropertyRegistry.PropertyMethod> methods = ObjectPropertyRegistry.getPropertyMethods(TestTable.class);
+        Assert.assertSame(methods, ObjectPropertyRegistry.getPropertyMethods(TestTable.class));
+        Assert.assertEquals(5, methods.size());
+        for (ObjectPropertyRegistry.PropertyMethod method : methods) {
+            Assert.assertNotEquals("getNotAProperty", method.getMethod().getName());
+            if (method.getMethod().getName().equals("getStatistics")) {
+                Assert.assertNotNull(method.getGroupInfo());
+            } else {
+                Assert.assertNotNull(method.getPropertyInfo());
+            }
+        }
+        Method setter = ObjectPropertyRegistry.getPropertySetter(TestTable.class, "name");
+        Assert.assertNotNull(setter);
+        Assert.assertEquals("setName", setter.getName());
+        Assert.assertNull(ObjectPropertyRegistry.getPropertySetter(TestTable.class, "id"));
+    }
+
+    @Test
+    public void testAccessorRead() throws Exception {
+        TestTable table = new TestTable(7);
+        ObjectPropertyAccessor nameAccessor = ObjectPropertyRegistry.getAccessor(TestTable.class.getMethod("getName"));
+        Assert.assertSame(nameAccessor, ObjectPropertyRegistry.getAccessor(TestTable.class.getMethod("getName")));
+        Assert.assertEquals("table7", nameAccessor.read(table, null));
+        Assert.assertEquals(7, ObjectPropertyRegistry.getAccessor(TestTable.class.getMethod("getId")).read(table, null));
+
+        ObjectPropertyAccessor descAccessor = ObjectPropertyRegistry.getAccessor(TestTable.class.getMethod("getDescription", DBRProgressMonitor.class));
+        Assert.assertEquals("Table 7", descAccessor.read(table, new VoidProgressMonitor()));
+        Assert.assertNull(descAccessor.read(table, null));
+    }
+
+    @Test
+    public void testAccessorErrors() throws Exception {
+        ObjectPropertyAccessor brokenAccessor = ObjectPropertyRegistry.getAccessor(TestTable.class.getMethod("getBroken"));
+        try {
+            brokenAccessor.read(new TestTable(1), null);
+            Assert.fail("Getter exception must be propagated");
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getTargetException() instanceof IllegalStateException);
+        }
+        ObjectPropertyAccessor nameAccessor = ObjectPropertyRegistry.getAccessor(TestTable.class.getMethod("getName"));
+        try {
+            nameAccessor.read(new TestTableStatistics(), null);
+            Assert.fail("Wrong object class must be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testGetterLinkageError() throws Exception {
+        ObjectPropertyAccessor accessor = ObjectPropertyRegistry.getAccessor(TestBrokenDependency.class.getMethod("getValue"));
+        boolean generated = accessor.isGenerated();
+        TestBrokenDependency object = new TestBrokenDependency();
+        for (int i = 1; i <= 2; i++) {
+            try {
+                accessor.read(object, null);
+                Assert.fail("Getter error must be propagated");
+            } catch (InvocationTargetException e) {
+                Assert.assertTrue(e.getTargetException() instanceof NoSuchMethodError);
+            }
+            // Getter is called once per read and accessor is kept
+            Assert.assertEquals(i, object.calls);
+            Assert.assertEquals(generated, accessor.isGenerated());
+        }
+    }
+
+    @Test
+    public void accessorsMatchReflection() throws Exception {
+        List<TestTable> tables = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tables.add(new TestTable(i));
+        }
+        Assert.assertEquals(readWithReflection(tables), readWithAccessors(tables));
+    }
+
+    // Properties read thru reflection for each object
+    static long readWithReflection(List<TestTable> tables) throws Exception {
+        DBRProgressMonitor monitor = new VoidProgressMonitor();
+        long hash = 0;
+        for (TestTable table : tables) {
+            for (Method method : table.getClass().getMethods()) {
+                Property propInfo = method.getAnnotation(Property.class);
+                if (propInfo == null || method.getName().equals("getBroken")) {
+                    continue;
+                }
+                Object value = method.getParameterCount() == 0 ? method.invoke(table) : method.invoke(table, monitor);
+                hash += value == null ? 0 : value.hashCode();
+            }
+        }
+        return hash;
+    }
+
+    static long readWithAccessors(List<TestTable> tables) throws Exception {
+        DBRProgressMonitor monitor = new VoidProgressMonitor();
+        long hash = 0;
+        for (TestTable table : tables) {
+            for (ObjectPropertyRegistry.PropertyMethod method : ObjectPropertyRegistry.getPropertyMethods(table.getClass())) {
+                if (method.getPropertyInfo() == null || method.getGroupInfo() != null || method.getMethod().getName().equals("getBroken")) {
+                    continue;
+                }
+                Object value = ObjectPropertyRegistry.getAccessor(method.getMethod()).read(table, monitor);
+                hash += value == null ? 0 : value.hashCode();
+            }
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QMEventRingBufferTest {
+
+    private static final int PRODUCER_COUNT = 4;
+    private static final int ITEMS_PER_PRODUCER = 100000;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePowerOfTwo() {
+        new QMEventRingBuffer<Integer>(12);
+    }
+
+    @Test
+    public void testOfferAndPoll() {
+        QMEventRingBuffer<Integer> buffer = new QMEventRingBuffer<>(4);
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertNull(buffer.poll());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse("Buffer is full", buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue("Slot was freed", buffer.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducersWithSingleConsumer() throws Exception {
+        // Small buffer makes producers wrap around and wait for the consumer all the time
+        QMEventRingBuffer<long[]> buffer = new QMEventRingBuffer<>(64);
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCER_COUNT; p++) {
+            int producerId = p;
+            producers.add(startThread(errors, () -> {
+                startSignal.await();
+                for (int i = 0; i < ITEMS_PER_PRODUCER; i++) {
+                    long[] item = {producerId, i};
+                    while (!buffer.offer(item)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        // Each item must be received exactly once and in order of its producer
+        int[] nextItem = new int[PRODUCER_COUNT];
+        AtomicInteger received = new AtomicInteger();
+        Thread consumer = startThread(errors, () -> {
+            startSignal.await();
+            while (received.get() < PRODUCER_COUNT * ITEMS_PER_PRODUCER) {
+                long[] item = buffer.poll();
+                if (item == null) {
+                    Thread.yield();
+                    continue;
+                }
+                int producerId = (int) item[0];
+                Assert.assertEquals("Item order of producer " + producerId, nextItem[producerId], item[1]);
+                nextItem[producerId]++;
+                received.incrementAndGet();
+            }
+        });
+        startSignal.countDown();
+
+        joinAll(producers);
+        consumer.join(TimeUnit.SECONDS.toMillis(60));
+        Assert.assertFalse("Consumer didn't receive all items: " + received.get(), consumer.isAlive());
+        if (!errors.isEmpty()) {
+            throw new AssertionError("Concurrent access error", errors.peek());
+        }
+        for (int p = 0; p < PRODUCER_COUNT; p++) {
+            Assert.assertEquals(ITEMS_PER_PRODUCER, nextItem[p]);
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testRejectedItemsAreNotLost() throws Exception {
+        // Producers do not retry: each item is either accepted and then received, or rejected
+        QMEventRingBuffer<Integer> buffer = new QMEventRingBuffer<>(16);
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger producersDone = new AtomicInteger();
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCER_COUNT; p++) {
+            producers.add(startThread(errors, () -> {
+                for (int i = 0; i < ITEMS_PER_PRODUCER; i++) {
+                    if (buffer.offer(i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                producersDone.incrementAndGet();
+            }));
+        }
+        AtomicInteger received = new AtomicInteger();
+        Thread consumer = startThread(errors, () -> {
+            for (;;) {
+                boolean finished = producersDone.get() == PRODUCER_COUNT;
+                Integer item = buffer.poll();
+                if (item != null) {
+                    received.incrementAndGet();
+                } else if (finished) {
+                    // All producers finished before this poll - buffer is drained
+                    break;
+                }
+            }
+        });
+
+        joinAll(producers);
+        consumer.join(TimeUnit.SECONDS.toMillis(60));
+        Assert.assertFalse(consumer.isAlive());
+        if (!errors.isEmpty()) {
+            throw new AssertionError("Concurrent access error", errors.peek());
+        }
+        Assert.assertTrue(accepted.get() > 0);
+        Assert.assertEquals(accepted.get(), received.get());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    private interface TestAction {
+        void run() throws Exception;
+    }
+
+    private static Thread startThread(ConcurrentLinkedQueue<Throwable> errors, TestAction action) {
+        Thread thread = new Thread(() -> {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(60));
+            Assert.assertFalse("Thread didn't finish", thread.isAlive());
+        }
+    }
+
+}
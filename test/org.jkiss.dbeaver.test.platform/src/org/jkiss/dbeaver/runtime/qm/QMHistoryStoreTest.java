@@ -0,0 +1,238 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class QMHistoryStoreTest {
+
+    private static final String[] TABLES = {"users", "user_roles", "orders", "order_items", "products"};
+    private static final String[] CONTAINERS = {"pg-local", "oracle-prod"};
+    private static final long BASE_TIME = System.currentTimeMillis() - 60 * 60 * 1000;
+
+    private File folder;
+    private final List<QMMetaEvent> allEvents = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("qm-history").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        ContentUtils.deleteFileRecursive(folder);
+    }
+
+    @Test
+    public void testSearchAcrossSegments() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 4096, 0);
+        fillStore(store, 3000);
+        Assert.assertTrue("Segments were not rolled", countSegmentFiles() > 10);
+
+        QMEventCriteria criteria = makeCriteria();
+        for (String search : new String[]{"from users", "USER", "rs wh", "order_items where id = 17", "ducts", "no-such-table", "="}) {
+            criteria.setSearchString(search);
+            assertSameEvents(findExpected(criteria), readAll(store, criteria));
+        }
+        store.close();
+    }
+
+    @Test
+    public void testCriteria() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 8192, 0);
+        fillStore(store, 1000);
+
+        QMEventCriteria criteria = makeCriteria();
+        criteria.setContainerId(CONTAINERS[1]);
+        criteria.setMinDuration(50);
+        criteria.setStartTime(BASE_TIME + 200 * 1000);
+        criteria.setEndTime(BASE_TIME + 700 * 1000);
+        criteria.setSearchString("select");
+        List<QMMetaEvent> expected = findExpected(criteria);
+        Assert.assertFalse(expected.isEmpty());
+        assertSameEvents(expected, readAll(store, criteria));
+
+        criteria = makeCriteria();
+        criteria.setQueryTypes(new DBCExecutionPurpose[]{DBCExecutionPurpose.META});
+        Assert.assertTrue(readAll(store, criteria).isEmpty());
+
+        criteria = makeCriteria();
+        criteria.setObjectTypes(new QMObjectType[]{QMObjectType.session});
+        Assert.assertTrue(readAll(store, criteria).isEmpty());
+        store.close();
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 16384, 0);
+        fillStore(store, 500);
+        store.close();
+
+        // Simulate crash: broken tail in the active segment
+        File lastSegment = null;
+        for (File file : folder.listFiles()) {
+            if (file.getName().endsWith(".qmh") && (lastSegment == null || file.getName().compareTo(lastSegment.getName()) > 0)) {
+                lastSegment = file;
+            }
+        }
+        Assert.assertNotNull(lastSegment);
+        try (FileOutputStream out = new FileOutputStream(lastSegment, true)) {
+            out.write(new byte[]{0, 0, 1, 0, 2, 1});
+        }
+
+        store = new QMHistoryStore(folder, 16384, 0);
+        QMEventCriteria criteria = makeCriteria();
+        criteria.setSearchString("orders");
+        assertSameEvents(findExpected(criteria), readAll(store, criteria));
+
+        // Appends after recovery must be readable
+        fillStore(store, 100);
+        assertSameEvents(findExpected(criteria), readAll(store, criteria));
+        store.close();
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, 4096, 1);
+        long oldTime = System.currentTimeMillis() - 10L * 24 * 60 * 60 * 1000;
+        for (int i = 0; i < 200; i += 10) {
+            List<QMMetaEvent> batch = new ArrayList<>();
+            for (int k = i; k < i + 10; k++) {
+                batch.add(makeQueryEvent(oldTime + k, CONTAINERS[0], "select * from old_table", 1));
+            }
+            store.metaInfoChanged(new VoidProgressMonitor(), batch);
+        }
+        QMEventCriteria criteria = makeCriteria();
+        criteria.setSearchString("old_table");
+        int eventCount = readAll(store, criteria).size();
+        // Expired segments are deleted, active segment is kept
+        Assert.assertTrue(eventCount > 0 && eventCount < 200);
+        Assert.assertEquals(1, countSegmentFiles());
+        store.close();
+    }
+
+    private void fillStore(QMHistoryStore store, int count) {
+        int start = allEvents.size();
+        List<QMMetaEvent> batch = new ArrayList<>();
+        for (int i = start; i < start + count; i++) {
+            String table = TABLES[i % TABLES.length];
+            String text = i % 3 == 0 ?
+                "UPDATE " + table + " SET name='n" + i + "' WHERE id = " + (i % 50) :
+                "SELECT * FROM " + table + " WHERE id = " + (i % 50);
+            QMMetaEvent event = makeQueryEvent(BASE_TIME + i * 1000L, CONTAINERS[i % CONTAINERS.length], text, i % 100);
+            allEvents.add(event);
+            batch.add(event);
+            if (batch.size() == 20) {
+                flushBatch(store, batch);
+            }
+        }
+        flushBatch(store, batch);
+    }
+
+    private static void flushBatch(QMHistoryStore store, List<QMMetaEvent> batch) {
+        // Collector dispatches most recent events first
+        Collections.reverse(batch);
+        store.metaInfoChanged(new VoidProgressMonitor(), batch);
+        batch.clear();
+    }
+
+    private static QMMetaEvent makeQueryEvent(long time, String containerId, String text, long duration) {
+        QMMSessionInfo session = new QMMSessionInfo(time - duration, 0, containerId, containerId + " name", "driver", null, "main", "Main", false);
+        QMMStatementInfo statement = new QMMStatementInfo(time - duration, time, session, DBCExecutionPurpose.USER);
+        QMMStatementExecuteInfo exec = new QMMStatementExecuteInfo(time - duration, time, statement, text, 10, -1, 0, null, 0, 0, false);
+        return new QMMetaEvent(exec, QMMetaEvent.Action.END);
+    }
+
+    private static QMEventCriteria makeCriteria() {
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setObjectTypes(new QMObjectType[]{QMObjectType.query});
+        criteria.setQueryTypes(new DBCExecutionPurpose[]{DBCExecutionPurpose.USER});
+        return criteria;
+    }
+
+    private List<QMMetaEvent> findExpected(QMEventCriteria criteria) {
+        List<QMMetaEvent> result = new ArrayList<>();
+        String search = criteria.getSearchString() == null ? null : criteria.getSearchString().toLowerCase();
+        for (int i = allEvents.size() - 1; i >= 0; i--) {
+            QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) allEvents.get(i).getObject();
+            long duration = exec.getCloseTime() - exec.getOpenTime();
+            if ((search == null || exec.getQueryString().toLowerCase().contains(search)) &&
+                (criteria.getContainerId() == null || criteria.getContainerId().equals(exec.getStatement().getSession().getContainerId())) &&
+                (criteria.getStartTime() <= 0 || exec.getCloseTime() >= criteria.getStartTime()) &&
+                (criteria.getEndTime() <= 0 || exec.getCloseTime() <= criteria.getEndTime()) &&
+                duration >= criteria.getMinDuration())
+            {
+                result.add(allEvents.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static List<QMMetaEvent> readAll(QMHistoryStore store, QMEventCriteria criteria) throws Exception {
+        List<QMMetaEvent> result = new ArrayList<>();
+        VoidProgressMonitor monitor = new VoidProgressMonitor();
+        try (QMEventCursor cursor = store.getQueryHistoryCursor(monitor, criteria, null)) {
+            while (cursor.hasNextEvent(monitor)) {
+                result.add(cursor.nextEvent(monitor));
+            }
+        }
+        return result;
+    }
+
+    private static void assertSameEvents(List<QMMetaEvent> expected, List<QMMetaEvent> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            QMMStatementExecuteInfo expectedExec = (QMMStatementExecuteInfo) expected.get(i).getObject();
+            QMMStatementExecuteInfo actualExec = (QMMStatementExecuteInfo) actual.get(i).getObject();
+            Assert.assertEquals(expectedExec.getQueryString(), actualExec.getQueryString());
+            Assert.assertEquals(expectedExec.getCloseTime(), actualExec.getCloseTime());
+            Assert.assertEquals(expectedExec.getFetchRowCount(), actualExec.getFetchRowCount());
+            Assert.assertEquals(
+                expectedExec.getStatement().getSession().getContainerId(),
+                actualExec.getStatement().getSession().getContainerId());
+        }
+    }
+
+    private int countSegmentFiles() {
+        int count = 0;
+        for (File file : folder.listFiles()) {
+            if (file.getName().endsWith(".qmh")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
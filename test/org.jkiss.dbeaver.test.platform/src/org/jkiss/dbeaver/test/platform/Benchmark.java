@@ -0,0 +1,64 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.test.platform;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark harness for opt-in benchmarks.
+ * Benchmark classes are named *Benchmark, so they are not included in the default test run which runs *Test classes.
+ * Run benchmark explicitly, e.g. mvn verify -Dtest=RowOrderingEngineBenchmark -DfailIfNoTests=false
+ */
+public final class Benchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private Benchmark() {
+    }
+
+    /**
+     * Runs task several times after warm up and prints times.
+     * @return median time in ms
+     */
+    public static long measure(String name, Task task) throws Exception {
+        return measure(name, WARMUP_ITERATIONS, MEASURE_ITERATIONS, task);
+    }
+
+    public static long measure(String name, int warmupIterations, int measureIterations, Task task) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            task.run();
+        }
+        long[] times = new long[measureIterations];
+        for (int i = 0; i < measureIterations; i++) {
+            long startTime = System.nanoTime();
+            task.run();
+            times[i] = System.nanoTime() - startTime;
+        }
+        Arrays.sort(times);
+        long median = TimeUnit.NANOSECONDS.toMillis(times[times.length / 2]);
+        System.out.println(name + ": " + median + "ms" +
+            " (min " + TimeUnit.NANOSECONDS.toMillis(times[0]) + "ms, max " + TimeUnit.NANOSECONDS.toMillis(times[times.length - 1]) + "ms)");
+        return median;
+    }
+
+}
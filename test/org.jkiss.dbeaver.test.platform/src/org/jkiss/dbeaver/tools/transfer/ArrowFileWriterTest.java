@@ -0,0 +1,385 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowField;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowFileWriter;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class ArrowFileWriterTest {
+
+    private static final byte[] MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    // Schema.fbs / Message.fbs constants
+    private static final int METADATA_VERSION_V5 = 4;
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_RECORD_BATCH = 3;
+
+    private static final List<ArrowField> FIELDS = Arrays.asList(
+        new ArrowField("flag", ArrowType.BOOL),
+        new ArrowField("id", ArrowType.INT32),
+        new ArrowField("big", ArrowType.INT64),
+        new ArrowField("ratio", ArrowType.FLOAT64),
+        new ArrowField("name", ArrowType.UTF8),
+        new ArrowField("day", ArrowType.DATE32),
+        new ArrowField("created", ArrowType.TIMESTAMP_MICRO),
+        ArrowField.createDecimal("price", 12, 2),
+        new ArrowField("data", ArrowType.BINARY));
+
+    @Test
+    public void writeFileFormat() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowFileWriter writer = writeRows(out, true, 1000, 100);
+        Assert.assertEquals(1000, writer.getRowCount());
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int size = buffer.limit();
+        Assert.assertArrayEquals(MAGIC, Arrays.copyOfRange(buffer.array(), 0, MAGIC.length));
+        Assert.assertArrayEquals(MAGIC, Arrays.copyOfRange(buffer.array(), size - MAGIC.length, size));
+        // Schema message follows the padded magic
+        Assert.assertEquals(-1, buffer.getInt(8));
+        Assert.assertEquals(0, buffer.getInt(12) % 8);
+        int footerLength = buffer.getInt(size - MAGIC.length - 4);
+        Assert.assertTrue(footerLength > 0 && footerLength < size);
+        // End-of-stream marker precedes the footer
+        int eosOffset = size - MAGIC.length - 4 - footerLength - 8;
+        Assert.assertEquals(-1, buffer.getInt(eosOffset));
+        Assert.assertEquals(0, buffer.getInt(eosOffset + 4));
+    }
+
+    @Test
+    public void readFileMetadataAndBatches() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeRows(out, true, 1000, 100);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int size = buffer.limit();
+
+        // Schema message at the file start
+        Assert.assertEquals(-1, buffer.getInt(8));
+        FlatTable schemaMessage = FlatTable.root(buffer, 16);
+        Assert.assertEquals(METADATA_VERSION_V5, schemaMessage.getShort(0));
+        Assert.assertEquals(HEADER_SCHEMA, schemaMessage.getByte(1));
+        Assert.assertEquals(0, schemaMessage.getLong(3));
+        checkSchema(schemaMessage.getTable(2));
+
+        // Footer repeats the schema and lists record batch blocks
+        int footerLength = buffer.getInt(size - MAGIC.length - 4);
+        FlatTable footer = FlatTable.root(buffer, size - MAGIC.length - 4 - footerLength);
+        Assert.assertEquals(METADATA_VERSION_V5, footer.getShort(0));
+        checkSchema(footer.getTable(1));
+        Assert.assertEquals(0, footer.getVectorLength(2));
+        Assert.assertEquals(10, footer.getVectorLength(3));
+
+        int blocks = footer.getVectorStart(3);
+        long totalRows = 0;
+        for (int i = 0; i < 10; i++) {
+            int blockPosition = blocks + i * 24;
+            int offset = (int) buffer.getLong(blockPosition);
+            int metaDataLength = buffer.getInt(blockPosition + 8);
+            long bodyLength = buffer.getLong(blockPosition + 16);
+            Assert.assertEquals(0, offset % 8);
+            Assert.assertEquals(0, metaDataLength % 8);
+            Assert.assertEquals(-1, buffer.getInt(offset));
+            Assert.assertEquals(metaDataLength - 8, buffer.getInt(offset + 4));
+
+            FlatTable message = FlatTable.root(buffer, offset + 8);
+            Assert.assertEquals(HEADER_RECORD_BATCH, message.getByte(1));
+            Assert.assertEquals(bodyLength, message.getLong(3));
+            FlatTable recordBatch = message.getTable(2);
+            totalRows += recordBatch.getLong(0);
+            if (i == 1) {
+                checkRecordBatch(buffer, recordBatch, offset + metaDataLength, 100);
+            }
+        }
+        Assert.assertEquals(1000, totalRows);
+    }
+
+    @Test
+    public void writeStreamFormat() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeRows(out, false, 10, ArrowFileWriter.DEFAULT_BATCH_SIZE);
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int size = buffer.limit();
+        Assert.assertEquals(0, size % 8);
+        Assert.assertEquals(-1, buffer.getInt(0));
+        Assert.assertEquals(-1, buffer.getInt(size - 8));
+        Assert.assertEquals(0, buffer.getInt(size - 4));
+    }
+
+    @Test
+    public void writeEmptyStream() throws IOException {
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        writeRows(empty, false, 0, ArrowFileWriter.DEFAULT_BATCH_SIZE);
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        writeRows(single, false, 1, ArrowFileWriter.DEFAULT_BATCH_SIZE);
+        // Schema and end-of-stream only
+        Assert.assertTrue(empty.size() < single.size());
+    }
+
+    @Test
+    public void batchesAreSplit() throws IOException {
+        ByteArrayOutputStream oneBatch = new ByteArrayOutputStream();
+        writeRows(oneBatch, true, 100, ArrowFileWriter.DEFAULT_BATCH_SIZE);
+        ByteArrayOutputStream manyBatches = new ByteArrayOutputStream();
+        writeRows(manyBatches, true, 100, 10);
+        // Each record batch adds its own message header and footer block
+        Assert.assertTrue(manyBatches.size() > oneBatch.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void writeWrongRowSize() throws IOException {
+        ArrowFileWriter writer = new ArrowFileWriter(new ByteArrayOutputStream(), FIELDS, true, 10);
+        writer.writeRow(new Object[] { true, 1 });
+    }
+
+    @Test(expected = IOException.class)
+    public void writeDecimalOverflow() throws IOException {
+        ArrowFileWriter writer = new ArrowFileWriter(
+            new ByteArrayOutputStream(),
+            Arrays.asList(ArrowField.createDecimal("price", 4, 2)),
+            true,
+            10);
+        writer.writeRow(new Object[] { new BigDecimal("12345678901234567890123456789012345678901") });
+        writer.finish();
+    }
+
+    private static void checkSchema(FlatTable schema) {
+        Assert.assertEquals(FIELDS.size(), schema.getVectorLength(1));
+        String[] names = {"flag", "id", "big", "ratio", "name", "day", "created", "price", "data"};
+        // Type union ids from Schema.fbs
+        int[] typeIds = {6, 2, 2, 3, 5, 8, 10, 7, 4};
+        for (int i = 0; i < names.length; i++) {
+            FlatTable field = schema.getVectorTable(1, i);
+            Assert.assertEquals(names[i], field.getString(0));
+            Assert.assertEquals(1, field.getByte(1));
+            Assert.assertEquals(names[i], typeIds[i], field.getByte(2));
+        }
+        FlatTable intType = schema.getVectorTable(1, 1).getTable(3);
+        Assert.assertEquals(32, intType.getInt(0));
+        Assert.assertEquals(1, intType.getByte(1));
+        Assert.assertEquals(64, schema.getVectorTable(1, 2).getTable(3).getInt(0));
+        // FloatingPoint.precision = DOUBLE
+        Assert.assertEquals(2, schema.getVectorTable(1, 3).getTable(3).getShort(0));
+        // Date.unit = DAY (default is MILLISECOND so it must be present)
+        FlatTable dateType = schema.getVectorTable(1, 5).getTable(3);
+        Assert.assertTrue(dateType.hasField(0));
+        Assert.assertEquals(0, dateType.getShort(0));
+        FlatTable timestampType = schema.getVectorTable(1, 6).getTable(3);
+        Assert.assertEquals(2, timestampType.getShort(0));
+        Assert.assertEquals("UTC", timestampType.getString(1));
+        FlatTable decimalType = schema.getVectorTable(1, 7).getTable(3);
+        Assert.assertEquals(12, decimalType.getInt(0));
+        Assert.assertEquals(2, decimalType.getInt(1));
+        Assert.assertEquals(128, decimalType.getInt(2));
+    }
+
+    private static void checkRecordBatch(ByteBuffer buffer, FlatTable recordBatch, int bodyPosition, int firstRow) {
+        int length = (int) recordBatch.getLong(0);
+        Assert.assertEquals(FIELDS.size(), recordBatch.getVectorLength(1));
+        Assert.assertEquals(20, recordBatch.getVectorLength(2));
+        int nodes = recordBatch.getVectorStart(1);
+        int buffers = recordBatch.getVectorStart(2);
+
+        Object[][] rows = new Object[length][FIELDS.size()];
+        int bufferIndex = 0;
+        for (int column = 0; column < FIELDS.size(); column++) {
+            Assert.assertEquals(length, buffer.getLong(nodes + column * 16));
+            long nullCount = buffer.getLong(nodes + column * 16 + 8);
+            long expectedNulls = 0;
+
+            int validity = bodyPosition + (int) buffer.getLong(buffers + bufferIndex * 16);
+            boolean hasValidity = buffer.getLong(buffers + bufferIndex * 16 + 8) > 0;
+            bufferIndex++;
+            int offsets = 0;
+            if (FIELDS.get(column).getType() == ArrowType.UTF8 || FIELDS.get(column).getType() == ArrowType.BINARY) {
+                offsets = bodyPosition + (int) buffer.getLong(buffers + bufferIndex * 16);
+                bufferIndex++;
+            }
+            int values = bodyPosition + (int) buffer.getLong(buffers + bufferIndex * 16);
+            Assert.assertEquals(0, (values - bodyPosition) % 8);
+            bufferIndex++;
+
+            for (int row = 0; row < length; row++) {
+                if (hasValidity && !getBit(buffer, validity, row)) {
+                    expectedNulls++;
+                    continue;
+                }
+                Object value;
+                switch (column) {
+                    case 0: value = getBit(buffer, values, row); break;
+                    case 1: value = buffer.getInt(values + row * 4); break;
+                    case 2: value = buffer.getLong(values + row * 8); break;
+                    case 3: value = buffer.getDouble(values + row * 8); break;
+                    case 5: value = LocalDate.ofEpochDay(buffer.getInt(values + row * 4)); break;
+                    case 6: {
+                        long micros = buffer.getLong(values + row * 8);
+                        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1000L));
+                        timestamp.setNanos((int) Math.floorMod(micros, 1000000L) * 1000);
+                        value = timestamp;
+                        break;
+                    }
+                    case 7: {
+                        // 128-bit little-endian two's complement
+                        byte[] bigEndian = new byte[16];
+                        for (int i = 0; i < 16; i++) {
+                            bigEndian[15 - i] = buffer.get(values + row * 16 + i);
+                        }
+                        value = new BigDecimal(new BigInteger(bigEndian), 2);
+                        break;
+                    }
+                    default: {
+                        int start = buffer.getInt(offsets + row * 4);
+                        byte[] bytes = Arrays.copyOfRange(buffer.array(), values + start, values + buffer.getInt(offsets + row * 4 + 4));
+                        value = column == 4 ? new String(bytes, StandardCharsets.UTF_8) : bytes;
+                        break;
+                    }
+                }
+                rows[row][column] = value;
+            }
+            Assert.assertEquals(FIELDS.get(column).getName(), nullCount, expectedNulls);
+        }
+        for (int row = 0; row < length; row++) {
+            Assert.assertArrayEquals("Row " + (firstRow + row), makeRow(firstRow + row), rows[row]);
+        }
+    }
+
+    private static boolean getBit(ByteBuffer buffer, int position, int index) {
+        return (buffer.get(position + index / 8) & (1 << (index % 8))) != 0;
+    }
+
+    private static ArrowFileWriter writeRows(ByteArrayOutputStream out, boolean fileFormat, int rowCount, int batchSize) throws IOException {
+        ArrowFileWriter writer = new ArrowFileWriter(out, FIELDS, fileFormat, batchSize);
+        for (int i = 0; i < rowCount; i++) {
+            writer.writeRow(makeRow(i));
+        }
+        writer.finish();
+        return writer;
+    }
+
+    private static Object[] makeRow(int i) {
+        if (i % 7 == 0) {
+            return new Object[FIELDS.size()];
+        }
+        return new Object[] {
+            i % 2 == 0,
+            i,
+            (long) i * 1000000007L,
+            i / 3.0,
+            "name " + i,
+            LocalDate.of(2020, 1, 1).plusDays(i),
+            new Timestamp(1577836800000L + i * 1000L),
+            new BigDecimal(i).movePointLeft(2),
+            new byte[] { (byte) i, (byte) (i >> 8) }
+        };
+    }
+
+    /**
+     * Read-only FlatBuffers table accessor (see flatbuffers internals doc), independent of the writer code
+     */
+    private static class FlatTable {
+        private final ByteBuffer buffer;
+        private final int position;
+        private final int vtable;
+
+        FlatTable(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+            this.vtable = position - buffer.getInt(position);
+        }
+
+        static FlatTable root(ByteBuffer buffer, int start) {
+            return new FlatTable(buffer, start + buffer.getInt(start));
+        }
+
+        boolean hasField(int id) {
+            return getFieldPosition(id) != 0;
+        }
+
+        int getByte(int id) {
+            int fieldPosition = getFieldPosition(id);
+            return fieldPosition == 0 ? 0 : buffer.get(fieldPosition) & 0xFF;
+        }
+
+        int getShort(int id) {
+            int fieldPosition = getFieldPosition(id);
+            return fieldPosition == 0 ? 0 : buffer.getShort(fieldPosition);
+        }
+
+        int getInt(int id) {
+            int fieldPosition = getFieldPosition(id);
+            return fieldPosition == 0 ? 0 : buffer.getInt(fieldPosition);
+        }
+
+        long getLong(int id) {
+            int fieldPosition = getFieldPosition(id);
+            return fieldPosition == 0 ? 0 : buffer.getLong(fieldPosition);
+        }
+
+        String getString(int id) {
+            int stringPosition = getReference(id);
+            int length = buffer.getInt(stringPosition);
+            return new String(buffer.array(), stringPosition + 4, length, StandardCharsets.UTF_8);
+        }
+
+        FlatTable getTable(int id) {
+            return new FlatTable(buffer, getReference(id));
+        }
+
+        int getVectorLength(int id) {
+            return buffer.getInt(getReference(id));
+        }
+
+        int getVectorStart(int id) {
+            return getReference(id) + 4;
+        }
+
+        FlatTable getVectorTable(int id, int index) {
+            int slot = getVectorStart(id) + index * 4;
+            return new FlatTable(buffer, slot + buffer.getInt(slot));
+        }
+
+        private int getReference(int id) {
+            int fieldPosition = getFieldPosition(id);
+            Assert.assertTrue("Field " + id + " is missing", fieldPosition != 0);
+            return fieldPosition + buffer.getInt(fieldPosition);
+        }
+
+        private int getFieldPosition(int id) {
+            int slot = 4 + id * 2;
+            if (slot >= buffer.getShort(vtable)) {
+                return 0;
+            }
+            int offset = buffer.getShort(vtable + slot) & 0xFFFF;
+            return offset == 0 ? 0 : position + offset;
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.test.platform.Benchmark;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.CSVParallelReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Compares parallel CSV reader with sequential opencsv reader which is used by CSV importer.
+ * Not a part of the default test run, see {@link Benchmark}.
+ */
+public class CSVParallelReaderBenchmark {
+
+    private static final int ROW_COUNT = 1_000_000;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = CSVParallelReaderTest.writeTestFile(ROW_COUNT, new Random(2));
+    }
+
+    @After
+    public void tearDown() {
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void benchmarkRead() throws Exception {
+        CSVParallelReaderTest.assertRowsEqual(
+            CSVParallelReaderTest.readSequential(file),
+            CSVParallelReaderTest.readParallel(file, 0, CSVParallelReader.DEFAULT_CHUNK_SIZE));
+
+        String name = "Read " + ROW_COUNT + " CSV rows (" + file.length() / 1024 + "Kb)";
+        Benchmark.measure(name + " sequentially", 1, 3,
+            () -> CSVParallelReaderTest.readSequential(file));
+        Benchmark.measure(name + " in parallel (" + Runtime.getRuntime().availableProcessors() + " threads)", 1, 3,
+            () -> CSVParallelReaderTest.readParallel(file, 0, CSVParallelReader.DEFAULT_CHUNK_SIZE));
+    }
+
+}
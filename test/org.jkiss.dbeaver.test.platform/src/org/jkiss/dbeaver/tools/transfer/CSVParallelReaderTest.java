@@ -0,0 +1,165 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import au.com.bytecode.opencsv.CSVReader;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.CSVParallelReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CSVParallelReaderTest {
+
+    @Test
+    public void readMatchesSequentialReader() throws IOException {
+        File file = writeTestFile(5_000, new Random(1));
+        try {
+            List<Object[]> expected = readSequential(file);
+            // Small chunks make most of boundaries fall inside of quoted values
+            assertRowsEqual(expected, readParallel(file, 4, 64));
+            assertRowsEqual(expected, readParallel(file, 3, 1000));
+            assertRowsEqual(expected, readParallel(file, 1, CSVParallelReader.DEFAULT_CHUNK_SIZE));
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void readRecordLongerThanChunk() throws IOException {
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longValue.append("line ").append(i).append('\n');
+        }
+        File file = writeFile("a,b\n1,\"" + longValue + "\"\n2,x");
+        try {
+            List<Object[]> rows = readParallel(file, 2, 16);
+            Assert.assertEquals(3, rows.size());
+            Assert.assertArrayEquals(new Object[] {"1", longValue.toString()}, rows.get(1));
+            Assert.assertArrayEquals(new Object[] {"2", "x"}, rows.get(2));
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void readEmptyFile() throws IOException {
+        File file = writeFile("");
+        try {
+            Assert.assertTrue(readParallel(file, 2, 16).isEmpty());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void convertRows() throws IOException {
+        File file = writeFile("1,a\n2,b\n3,c\n");
+        try (FileInputStream is = new FileInputStream(file);
+             CSVParallelReader reader = new CSVParallelReader(is.getChannel(), StandardCharsets.UTF_8, ',', '"', '\\', 2, 4,
+                 line -> new Object[] {Integer.parseInt(line[0]), line[1]}))
+        {
+            Assert.assertArrayEquals(new Object[] {1, "a"}, reader.readNext());
+            Assert.assertArrayEquals(new Object[] {2, "b"}, reader.readNext());
+            Assert.assertArrayEquals(new Object[] {3, "c"}, reader.readNext());
+            Assert.assertNull(reader.readNext());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void supportedCharsets() {
+        Assert.assertTrue(CSVParallelReader.isSupported(StandardCharsets.UTF_8, ',', '"', '\\'));
+        Assert.assertTrue(CSVParallelReader.isSupported(StandardCharsets.ISO_8859_1, ';', '\'', '\\'));
+        Assert.assertFalse(CSVParallelReader.isSupported(StandardCharsets.UTF_16, ',', '"', '\\'));
+        Assert.assertFalse(CSVParallelReader.isSupported(StandardCharsets.UTF_8, '\u00a7', '"', '\\'));
+    }
+
+    static List<Object[]> readSequential(File file) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), ',', '"', '\\')) {
+            for (String[] line = reader.readNext(); line != null; line = reader.readNext()) {
+                if (line.length > 0) {
+                    rows.add(line);
+                }
+            }
+        }
+        return rows;
+    }
+
+    static List<Object[]> readParallel(File file, int threads, int chunkSize) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (FileInputStream is = new FileInputStream(file);
+             CSVParallelReader reader = new CSVParallelReader(is.getChannel(), StandardCharsets.UTF_8, ',', '"', '\\', threads, chunkSize, null))
+        {
+            for (Object[] row = reader.readNext(); row != null; row = reader.readNext()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    static void assertRowsEqual(List<Object[]> expected, List<Object[]> rows) {
+        Assert.assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), rows.get(i));
+        }
+    }
+
+    static File writeTestFile(int rowCount, Random random) throws IOException {
+        StringBuilder data = new StringBuilder("id,name,comment,amount\n");
+        for (int i = 0; i < rowCount; i++) {
+            data.append(i).append(',');
+            switch (random.nextInt(5)) {
+                case 0:
+                    data.append("\"quoted, with comma\"");
+                    break;
+                case 1:
+                    data.append("\"multi\nline \"\"value\"\"\"");
+                    break;
+                case 2:
+                    data.append("\"escaped \\\" quote\"");
+                    break;
+                case 3:
+                    data.append("\u043f\u0440\u0438\u0432\u0435\u0442");
+                    break;
+                default:
+                    data.append("plain").append(random.nextInt());
+                    break;
+            }
+            data.append(",comment ").append(i).append(',').append(random.nextDouble()).append(i % 10 == 0 ? "\r\n" : "\n");
+            if (i % 100 == 0) {
+                data.append('\n');
+            }
+        }
+        return writeFile(data.toString());
+    }
+
+    private static File writeFile(String data) throws IOException {
+        File file = File.createTempFile("dbeaver-csv-test", ".csv");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(data);
+        }
+        return file;
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterParquet;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.*;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParquetFileTest {
+
+    private static final List<ParquetColumn> COLUMNS = Arrays.asList(
+        new ParquetColumn("flag", ParquetType.BOOLEAN, ParquetLogicalType.NONE),
+        new ParquetColumn("id", ParquetType.INT32, ParquetLogicalType.NONE),
+        new ParquetColumn("big", ParquetType.INT64, ParquetLogicalType.NONE),
+        new ParquetColumn("ratio", ParquetType.DOUBLE, ParquetLogicalType.NONE),
+        new ParquetColumn("name", ParquetType.BYTE_ARRAY, ParquetLogicalType.STRING),
+        new ParquetColumn("day", ParquetType.INT32, ParquetLogicalType.DATE),
+        new ParquetColumn("created", ParquetType.INT64, ParquetLogicalType.TIMESTAMP_MICROS),
+        ParquetColumn.createDecimal("price", 9, 2),
+        ParquetColumn.createDecimal("amount", 30, 4));
+
+    @Test
+    public void readWriteUncompressed() throws IOException {
+        checkRoundTrip(ParquetCodec.UNCOMPRESSED, 1000, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    @Test
+    public void readWriteSnappy() throws IOException {
+        checkRoundTrip(ParquetCodec.SNAPPY, 1000, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    @Test
+    public void readWriteGzip() throws IOException {
+        checkRoundTrip(ParquetCodec.GZIP, 1000, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    @Test
+    public void readWriteMultipleRowGroups() throws IOException {
+        ParquetFileReader reader = checkRoundTrip(ParquetCodec.SNAPPY, 20000, 64 * 1024);
+        Assert.assertTrue(reader.getRowGroupCount() > 1);
+    }
+
+    @Test
+    public void readEmptyFile() throws IOException {
+        ParquetFileReader reader = checkRoundTrip(ParquetCodec.SNAPPY, 0, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE);
+        Assert.assertEquals(0, reader.getRowGroupCount());
+        Assert.assertEquals(COLUMNS.size(), reader.getColumns().size());
+    }
+
+    @Test
+    public void readProjection() throws IOException {
+        ParquetFileReader reader = new ParquetFileReader(new ByteArrayInputStream(writeFile(ParquetCodec.SNAPPY, 100, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE)));
+        boolean[] projection = new boolean[COLUMNS.size()];
+        projection[1] = true;
+        projection[4] = true;
+        reader.setProjection(projection);
+        int rowNum = 0;
+        for (Object[] row; (row = reader.readRow()) != null; rowNum++) {
+            Assert.assertEquals(rowNum, row[1]);
+            Assert.assertEquals("name " + rowNum, row[4]);
+            Assert.assertNull(row[0]);
+            Assert.assertNull(row[8]);
+        }
+        Assert.assertEquals(100, rowNum);
+    }
+
+    @Test
+    public void readFromFile() throws IOException {
+        File file = File.createTempFile("dbeaver-test", ".parquet");
+        try {
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(writeFile(ParquetCodec.SNAPPY, 500, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE));
+            }
+            try (InputStream in = new FileInputStream(file)) {
+                checkRows(new ParquetFileReader(in), 500);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readBadFile() throws IOException {
+        new ParquetFileReader(new ByteArrayInputStream("not a parquet file".getBytes()));
+    }
+
+    @Test
+    public void readColumnsInfo() throws IOException, DBException {
+        DataImporterParquet importer = new DataImporterParquet();
+        importer.init(Mockito.mock(IStreamDataImporterSite.class));
+        List<StreamDataImporterColumnInfo> columnsInfo = importer.readColumnsInfo(
+            new StreamEntityMapping(new File("dummy")),
+            new ByteArrayInputStream(writeFile(ParquetCodec.UNCOMPRESSED, 1, ParquetFileWriter.DEFAULT_ROW_GROUP_SIZE)));
+        Assert.assertEquals(COLUMNS.size(), columnsInfo.size());
+        Assert.assertEquals("flag", columnsInfo.get(0).getName());
+        Assert.assertEquals(DBPDataKind.BOOLEAN, columnsInfo.get(0).getDataKind());
+        Assert.assertEquals("INTEGER", columnsInfo.get(1).getTypeName());
+        Assert.assertEquals("BIGINT", columnsInfo.get(2).getTypeName());
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(4).getDataKind());
+        Assert.assertEquals("DATE", columnsInfo.get(5).getTypeName());
+        Assert.assertEquals("TIMESTAMP", columnsInfo.get(6).getTypeName());
+        Assert.assertEquals("DECIMAL", columnsInfo.get(8).getTypeName());
+        Assert.assertEquals(Integer.valueOf(30), columnsInfo.get(8).getPrecision());
+        Assert.assertEquals(Integer.valueOf(4), columnsInfo.get(8).getScale());
+    }
+
+    /**
+     * parquet-mr style file: v1 data pages, PLAIN_DICTIONARY strings, plain booleans, snappy codec
+     */
+    @Test
+    public void readGoldenSnappyFile() throws IOException {
+        checkGoldenFile("golden_v1_snappy.parquet");
+    }
+
+    /**
+     * pyarrow style file: v2 data pages, RLE_DICTIONARY strings, RLE booleans, gzip codec
+     */
+    @Test
+    public void readGoldenGzipFile() throws IOException {
+        checkGoldenFile("golden_v2_gzip.parquet");
+    }
+
+    private void checkGoldenFile(String fileName) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(fileName)) {
+            Assert.assertNotNull("Fixture " + fileName + " not found", in);
+            ParquetFileReader reader = new ParquetFileReader(in);
+            Assert.assertEquals(6, reader.getRowCount());
+            Assert.assertEquals(1, reader.getRowGroupCount());
+
+            List<ParquetColumn> columns = reader.getColumns();
+            Assert.assertEquals(7, columns.size());
+            Assert.assertEquals("id", columns.get(0).getName());
+            Assert.assertEquals(ParquetType.INT32, columns.get(0).getType());
+            Assert.assertEquals(ParquetLogicalType.STRING, columns.get(1).getLogicalType());
+            Assert.assertEquals(ParquetLogicalType.DECIMAL, columns.get(2).getLogicalType());
+            Assert.assertEquals(12, columns.get(2).getPrecision());
+            Assert.assertEquals(2, columns.get(2).getScale());
+            Assert.assertEquals(ParquetLogicalType.DATE, columns.get(3).getLogicalType());
+            Assert.assertEquals(ParquetType.BOOLEAN, columns.get(4).getType());
+            Assert.assertEquals(ParquetLogicalType.TIMESTAMP_MICROS, columns.get(5).getLogicalType());
+            Assert.assertEquals(ParquetType.FIXED_LEN_BYTE_ARRAY, columns.get(6).getType());
+            Assert.assertEquals(20, columns.get(6).getPrecision());
+            Assert.assertEquals(4, columns.get(6).getScale());
+
+            Object[][] expected = {
+                {1, "alpha", new BigDecimal("19.99"), Date.valueOf(LocalDate.of(2020, 1, 1)), true,
+                    Timestamp.from(Instant.parse("2020-01-01T00:00:00Z")), new BigDecimal("12345678901234.5678")},
+                {2, "beta", new BigDecimal("-0.50"), null, false,
+                    Timestamp.from(Instant.parse("2020-01-01T00:00:00.123456Z")), new BigDecimal("-1.0000")},
+                {3, null, null, Date.valueOf(LocalDate.of(1970, 1, 1)), null, null, null},
+                {4, "alpha", new BigDecimal("0.00"), Date.valueOf(LocalDate.of(1969, 12, 31)), true,
+                    Timestamp.from(Instant.parse("1969-12-31T23:59:58.999999Z")), new BigDecimal("0.0001")},
+                {5, "gamma", new BigDecimal("1234567890.12"), Date.valueOf(LocalDate.of(2022, 1, 8)), true,
+                    Timestamp.from(Instant.parse("1970-01-01T00:00:00Z")), new BigDecimal("-9999999999999.9999")},
+                {6, "beta", null, Date.valueOf(LocalDate.of(2021, 1, 1)), false,
+                    Timestamp.from(Instant.parse("2020-09-13T12:26:40.999999Z")), new BigDecimal("0.0000")},
+            };
+            for (Object[] expectedRow : expected) {
+                Assert.assertArrayEquals("Row " + expectedRow[0], expectedRow, reader.readRow());
+            }
+            Assert.assertNull(reader.readRow());
+        }
+    }
+
+    private ParquetFileReader checkRoundTrip(ParquetCodec codec, int rowCount, long rowGroupSize) throws IOException {
+        ParquetFileReader reader = new ParquetFileReader(new ByteArrayInputStream(writeFile(codec, rowCount, rowGroupSize)));
+        Assert.assertEquals(rowCount, reader.getRowCount());
+        checkRows(reader, rowCount);
+        return reader;
+    }
+
+    private static void checkRows(ParquetFileReader reader, int rowCount) throws IOException {
+        int rowNum = 0;
+        for (Object[] row; (row = reader.readRow()) != null; rowNum++) {
+            Assert.assertArrayEquals("Row " + rowNum, makeRow(rowNum), row);
+        }
+        Assert.assertEquals(rowCount, rowNum);
+    }
+
+    private static byte[] writeFile(ParquetCodec codec, int rowCount, long rowGroupSize) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ParquetFileWriter writer = new ParquetFileWriter(buffer, COLUMNS, codec, rowGroupSize, 4096);
+        for (int i = 0; i < rowCount; i++) {
+            writer.writeRow(makeRow(i));
+        }
+        writer.finish();
+        return buffer.toByteArray();
+    }
+
+    private static Object[] makeRow(int rowNum) {
+        return new Object[] {
+            rowNum % 3 == 0 ? null : rowNum % 2 == 0,
+            rowNum,
+            rowNum * 10000000000L,
+            rowNum % 7 == 0 ? null : rowNum / 4.0,
+            "name " + rowNum,
+            Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(rowNum % 1000)),
+            new Timestamp(1577836800000L + rowNum * 1001L),
+            BigDecimal.valueOf(rowNum - 500, 2),
+            rowNum % 5 == 0 ? null : new BigDecimal("-12345678901234567890.1234").add(BigDecimal.valueOf(rowNum))
+        };
+    }
+
+}
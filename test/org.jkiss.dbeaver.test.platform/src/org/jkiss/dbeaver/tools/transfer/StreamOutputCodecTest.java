@@ -0,0 +1,188 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2020 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamOutputCodec;
+import org.jkiss.dbeaver.tools.transfer.stream.codec.GzipOutputCodec;
+import org.jkiss.dbeaver.tools.transfer.stream.codec.LZ4OutputCodec;
+import org.jkiss.dbeaver.tools.transfer.stream.codec.ZipOutputCodec;
+import org.jkiss.utils.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class StreamOutputCodecTest {
+
+    private static final byte[] DATA = generateData();
+
+    @Test
+    public void writeGzip() throws IOException {
+        Assert.assertArrayEquals(DATA, gunzip(compress(new GzipOutputCodec(), DATA, 1)));
+    }
+
+    @Test
+    public void writeGzipParallel() throws IOException {
+        Assert.assertArrayEquals(DATA, gunzip(compress(new GzipOutputCodec(), DATA, 4)));
+        Assert.assertArrayEquals(new byte[0], gunzip(compress(new GzipOutputCodec(), new byte[0], 4)));
+    }
+
+    @Test
+    public void writeLZ4() throws IOException {
+        Assert.assertArrayEquals(DATA, decodeLZ4Frame(compress(new LZ4OutputCodec(), DATA, 1)));
+    }
+
+    @Test
+    public void writeLZ4Parallel() throws IOException {
+        byte[] compressed = compress(new LZ4OutputCodec(), DATA, 4);
+        Assert.assertTrue(compressed.length < DATA.length);
+        Assert.assertArrayEquals(DATA, decodeLZ4Frame(compressed));
+        // Blocks are independent so the result doesn't depend on threads count
+        Assert.assertArrayEquals(compress(new LZ4OutputCodec(), DATA, 1), compressed);
+        Assert.assertArrayEquals(new byte[0], decodeLZ4Frame(compress(new LZ4OutputCodec(), new byte[0], 4)));
+    }
+
+    @Test
+    public void writeZip() throws IOException {
+        byte[] compressed = compress(new ZipOutputCodec(), DATA, 4);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(compressed))) {
+            ZipEntry entry = zip.getNextEntry();
+            Assert.assertNotNull(entry);
+            Assert.assertEquals("data.csv", entry.getName());
+            Assert.assertArrayEquals(DATA, readAll(zip));
+            Assert.assertNull(zip.getNextEntry());
+        }
+    }
+
+    private static byte[] compress(IStreamOutputCodec codec, byte[] data, int threadCount) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = codec.openOutputStream(buffer, "data.csv", threadCount)) {
+            // Write in uneven pieces
+            for (int offset = 0; offset < data.length; offset += 10007) {
+                out.write(data, offset, Math.min(10007, data.length - offset));
+                out.flush();
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return readAll(in);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOUtils.copyStream(in, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Minimal LZ4 frame decoder (no checksums, no dictionaries)
+     */
+    private static byte[] decodeLZ4Frame(byte[] frame) {
+        ByteBuffer in = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(0x184D2204, in.getInt());
+        Assert.assertEquals(0x40, in.get() & 0xC0);
+        in.get();
+        in.get();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int blockSize = in.getInt(); blockSize != 0; blockSize = in.getInt()) {
+            int length = blockSize & 0x7FFFFFFF;
+            if (blockSize < 0) {
+                out.write(frame, in.position(), length);
+                in.position(in.position() + length);
+                continue;
+            }
+            byte[] block = new byte[length];
+            in.get(block);
+            byte[] decoded = decodeLZ4Block(block);
+            out.write(decoded, 0, decoded.length);
+        }
+        Assert.assertFalse(in.hasRemaining());
+        return out.toByteArray();
+    }
+
+    private static byte[] decodeLZ4Block(byte[] block) {
+        byte[] out = new byte[block.length * 4];
+        int length = 0;
+        int pos = 0;
+        while (pos < block.length) {
+            int token = block[pos++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    b = block[pos++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            out = ensureCapacity(out, length + literalLength);
+            System.arraycopy(block, pos, out, length, literalLength);
+            length += literalLength;
+            pos += literalLength;
+            if (pos >= block.length) {
+                break;
+            }
+            int offset = (block[pos] & 0xFF) | (block[pos + 1] & 0xFF) << 8;
+            pos += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    b = block[pos++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += 4;
+            Assert.assertTrue(offset > 0 && offset <= length);
+            out = ensureCapacity(out, length + matchLength);
+            // Match may overlap with its own output, so copy byte by byte
+            for (int i = 0; i < matchLength; i++, length++) {
+                out[length] = out[length - offset];
+            }
+        }
+        return Arrays.copyOf(out, length);
+    }
+
+    private static byte[] ensureCapacity(byte[] buffer, int capacity) {
+        return capacity <= buffer.length ? buffer : Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+    }
+
+    private static byte[] generateData() {
+        Random random = new Random(1);
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 300_000; i++) {
+            data.append(i).append(",\"name ").append(i % 1000).append("\",").append(random.nextInt(100_000)).append('\n');
+        }
+        return data.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}